@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.examples;
+
+import com.jsyn.JSyn;
+import com.jsyn.Synthesizer;
+import com.jsyn.devices.AudioDeviceManager;
+import com.jsyn.util.LatencyMeter;
+
+/**
+ * Measure the time it takes for audio to get from the output back to the input. Connect the line
+ * out to the line in with a cable before running this. Turn the volume down first.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class MeasureRoundTripLatency {
+
+    private void test() throws InterruptedException {
+        Synthesizer synth = JSyn.createSynthesizer();
+        synth.start(48000, AudioDeviceManager.USE_DEFAULT_DEVICE, 2,
+                AudioDeviceManager.USE_DEFAULT_DEVICE, 2);
+        LatencyMeter meter = new LatencyMeter(synth);
+        LatencyMeter.Result result = meter.measure(10);
+        System.out.println("Measured: " + result);
+        synth.stop();
+    }
+
+    public static void main(String[] args) {
+        try {
+            new MeasureRoundTripLatency().test();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
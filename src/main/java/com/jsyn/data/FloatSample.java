@@ -35,6 +35,8 @@ import com.jsyn.util.SampleLoader;
  */
 public class FloatSample extends AudioSample implements Function {
     private float[] buffer;
+    // Volatile so that a mipmap built in one thread is safely visible to the audio thread.
+    private volatile FloatSampleMipmap mipmap;
 
     public FloatSample() {
     }
@@ -77,6 +79,7 @@ public class FloatSample extends AudioSample implements Function {
     @Override
     public void allocate(int numFrames, int channelsPerFrame) {
         buffer = new float[numFrames * channelsPerFrame];
+        mipmap = null;
         this.numFrames = numFrames;
         this.channelsPerFrame = channelsPerFrame;
     }
@@ -93,6 +96,7 @@ public class FloatSample extends AudioSample implements Function {
         int numSamplesToWrite = numFrames * channelsPerFrame;
         int firstSampleIndexToWrite = startFrame * channelsPerFrame;
         System.arraycopy(data, startIndex, buffer, firstSampleIndexToWrite, numSamplesToWrite);
+        mipmap = null;
     }
 
     /**
@@ -131,6 +135,27 @@ public class FloatSample extends AudioSample implements Function {
     @Override
     public void writeDouble(int index, double value) {
         buffer[index] = (float) value;
+        // Only store when needed. This is called once per sample by recorders on the audio thread.
+        if (mipmap != null) {
+            mipmap = null;
+        }
+    }
+
+    /**
+     * Get filtered copies of this sample for playing it transposed up without aliasing. They are
+     * built the first time this is called, which takes a while, so call it before the audio needs
+     * it. Writing to the sample discards them.
+     * Note that this will only work for mono, single channel samples.
+     *
+     * @return the cached mipmap
+     */
+    public FloatSampleMipmap getMipmap() {
+        FloatSampleMipmap result = mipmap;
+        if (result == null) {
+            result = new FloatSampleMipmap(this);
+            mipmap = result;
+        }
+        return result;
     }
 
     /**
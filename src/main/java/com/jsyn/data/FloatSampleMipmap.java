@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.data;
+
+import com.jsyn.dsp.SincInterpolator;
+
+/**
+ * Filtered and decimated copies of a mono FloatSample, one for each octave. Level 0 is the original
+ * sample. Each higher level has half the frames and half the frame rate of the level below it and
+ * is low pass filtered so that it does not alias.
+ * <p>
+ * A reader that plays the sample N octaves up can read level N at its original rate instead of
+ * skipping through the original data. Like MultiTable, the fractional level is used to crossfade
+ * between two adjacent levels so the brightness changes smoothly with the rate.
+ * <p>
+ * Use FloatSample.getMipmap() to build it once and share it.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see com.jsyn.unitgen.MipmapSampleReader
+ * @see com.jsyn.engine.MultiTable
+ */
+public class FloatSampleMipmap {
+    /** Allows transposing up 8 octaves without aliasing. */
+    public static final int MAX_LEVELS = 9;
+    // Decimation filter, a Kaiser windowed sinc with a cutoff below the new Nyquist rate.
+    private static final int HALF_TAPS = 16;
+    private static final double CUTOFF = 0.45;
+    private static final double KAISER_BETA = 8.0;
+    private static final double[] coefficients = createCoefficients();
+
+    private final FloatSample[] levels;
+    // Frames in each level per frame of the original.
+    private final double[] scalers;
+    // Highest index that can be interpolated in each level.
+    private final double[] maxIndices;
+
+    /**
+     * Build all of the levels. This takes a while for long samples so do it before the audio
+     * needs it.
+     *
+     * @param sample mono sample with at least two frames
+     */
+    public FloatSampleMipmap(FloatSample sample) {
+        if (sample.getChannelsPerFrame() != 1) {
+            throw new IllegalArgumentException("Mipmaps only support mono samples.");
+        }
+        if (sample.getNumFrames() < 2) {
+            throw new IllegalArgumentException("Sample is too short.");
+        }
+        int numLevels = 1;
+        int numFrames = sample.getNumFrames();
+        while ((numLevels < MAX_LEVELS) && (((numFrames + 1) / 2) >= 2)) {
+            numFrames = (numFrames + 1) / 2;
+            numLevels++;
+        }
+        levels = new FloatSample[numLevels];
+        scalers = new double[numLevels];
+        maxIndices = new double[numLevels];
+        levels[0] = sample;
+        for (int level = 1; level < numLevels; level++) {
+            levels[level] = decimate(levels[level - 1]);
+        }
+        for (int level = 0; level < numLevels; level++) {
+            scalers[level] = 1.0 / (1 << level);
+            maxIndices[level] = levels[level].getNumFrames() - 1.000001;
+        }
+    }
+
+    private static double[] createCoefficients() {
+        double[] h = new double[(2 * HALF_TAPS) + 1];
+        for (int i = -HALF_TAPS; i <= HALF_TAPS; i++) {
+            h[i + HALF_TAPS] = SincInterpolator.windowedSinc(i, HALF_TAPS + 1, CUTOFF,
+                    KAISER_BETA);
+        }
+        return h;
+    }
+
+    /** Filter and keep every other frame. The output frame i is centered on input frame 2i. */
+    private static FloatSample decimate(FloatSample input) {
+        int numInput = input.getNumFrames();
+        float[] source = new float[numInput];
+        input.read(source);
+        float[] output = new float[(numInput + 1) / 2];
+        for (int i = 0; i < output.length; i++) {
+            int center = 2 * i;
+            int first = Math.max(0, center - HALF_TAPS);
+            int last = Math.min(numInput - 1, center + HALF_TAPS);
+            double sum = 0.0;
+            for (int j = first; j <= last; j++) {
+                sum += source[j] * coefficients[(j - center) + HALF_TAPS];
+            }
+            output[i] = (float) sum;
+        }
+        FloatSample result = new FloatSample(output);
+        result.setFrameRate(input.getFrameRate() * 0.5);
+        return result;
+    }
+
+    public int getNumLevels() {
+        return levels.length;
+    }
+
+    /** @return level 0 is the original sample */
+    public FloatSample getLevel(int level) {
+        return levels[level];
+    }
+
+    /** @return number of frames in the original sample */
+    public int getNumFrames() {
+        return levels[0].getNumFrames();
+    }
+
+    /**
+     * @param increment frames of the original sample per output frame
+     * @return fractional level, 0.0 when not transposing up
+     */
+    public double convertIncrementToLevel(double increment) {
+        if (increment <= 1.0) {
+            return 0.0;
+        }
+        return Math.min(Math.log(increment) / Math.log(2.0), levels.length - 1);
+    }
+
+    /**
+     * Read a value by crossfading between two levels.
+     *
+     * @param fractionalIndex position in frames of the original sample
+     * @param level from convertIncrementToLevel()
+     * @return interpolated value
+     */
+    public double interpolate(double fractionalIndex, double level) {
+        int lowLevel = (int) level;
+        double levelFraction = level - lowLevel;
+        double low = interpolateLevel(fractionalIndex, lowLevel);
+        if ((levelFraction == 0.0) || (lowLevel >= (levels.length - 1))) {
+            return low;
+        }
+        double high = interpolateLevel(fractionalIndex, lowLevel + 1);
+        return low + (levelFraction * (high - low));
+    }
+
+    private double interpolateLevel(double fractionalIndex, int level) {
+        double index = fractionalIndex * scalers[level];
+        if (index > maxIndices[level]) {
+            index = maxIndices[level];
+        }
+        return levels[level].interpolate(index);
+    }
+}
@@ -35,8 +35,20 @@ public class SpectralWindowFactory {
     private static HammingWindow[] hammingWindows = new HammingWindow[NUM_WINDOWS];
     private static HannWindow[] hannWindows = new HannWindow[NUM_WINDOWS];
 
+    /**
+     * Create the windows for every size up to maxSizeLog2 so they are ready before they are
+     * needed.
+     */
+    public static void warmUp(int maxSizeLog2) {
+        int maxLog2 = Math.min(maxSizeLog2, (MIN_SIZE_LOG_2 + NUM_WINDOWS) - 1);
+        for (int sizeLog2 = MIN_SIZE_LOG_2; sizeLog2 <= maxLog2; sizeLog2++) {
+            getHammingWindow(sizeLog2);
+            getHannWindow(sizeLog2);
+        }
+    }
+
     /** @return a shared standard HammingWindow */
-    public static HammingWindow getHammingWindow(int sizeLog2) {
+    public static synchronized HammingWindow getHammingWindow(int sizeLog2) {
         int index = sizeLog2 - MIN_SIZE_LOG_2;
         if (hammingWindows[index] == null) {
             hammingWindows[index] = new HammingWindow(1 << sizeLog2);
@@ -45,7 +57,7 @@ public class SpectralWindowFactory {
     }
 
     /** @return a shared HannWindow */
-    public static HannWindow getHannWindow(int sizeLog2) {
+    public static synchronized HannWindow getHannWindow(int sizeLog2) {
         int index = sizeLog2 - MIN_SIZE_LOG_2;
         if (hannWindows[index] == null) {
             hannWindows[index] = new HannWindow(1 << sizeLog2);
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+/**
+ * Called by a callback driven audio device whenever it needs more audio.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see CallbackAudioDeviceManager
+ */
+public interface AudioDeviceCallback {
+    /**
+     * Process one device buffer. This is called from the device's own high priority thread so it
+     * must not block.
+     *
+     * @param input interleaved input frames, or null if there is no input
+     * @param output interleaved output frames to be filled, or null if there is no output
+     * @param numFrames number of frames in each buffer, which may vary between calls
+     */
+    public void onAudio(double[] input, double[] output, int numFrames);
+}
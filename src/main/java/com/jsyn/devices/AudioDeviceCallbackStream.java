@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+/**
+ * A full duplex stream that calls an AudioDeviceCallback from the device thread.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see CallbackAudioDeviceManager
+ */
+public interface AudioDeviceCallbackStream {
+    /** Start calling the callback. */
+    public void start();
+
+    /** Stop calling the callback. Wait for any callback in progress to finish. */
+    public void stop();
+
+    /**
+     * @return Estimated input latency in seconds.
+     */
+    public double getInputLatency();
+
+    /**
+     * @return Estimated output latency in seconds.
+     */
+    public double getOutputLatency();
+}
@@ -16,10 +16,22 @@
 
 package com.jsyn.devices;
 
+import java.io.File;
+
+import com.jsyn.devices.file.FileAudioDevice;
 import com.jsyn.util.JavaTools;
 
 /**
  * Create a device appropriate for the platform.
+ * <p>
+ * A {@link FileAudioDevice} can be selected without changing any code by setting the system
+ * property "jsyn.audio.device" to "file". Then these optional properties are used:
+ * <ul>
+ * <li>jsyn.audio.output - path of a WAV file to write, otherwise output is discarded</li>
+ * <li>jsyn.audio.input - path of a WAV or AIF file to read, otherwise input is silent</li>
+ * <li>jsyn.audio.throttle - "false" to run faster than real time</li>
+ * </ul>
+ * For example: java -Djsyn.audio.device=file -Djsyn.audio.output=render.wav MyApp
  * 
  * @author Phil Burk (C) 2010 Mobileer Inc
  */
@@ -51,6 +63,7 @@ public class AudioDeviceFactory {
      * @return A device supported on this platform.
      */
     public static AudioDeviceManager createAudioDeviceManager(boolean preferJavaSound) {
+        tryFileDevice();
         if (preferJavaSound) {
             tryJavaSound();
             tryJPortAudio();
@@ -61,6 +74,22 @@ public class AudioDeviceFactory {
         return instance;
     }
 
+    private static void tryFileDevice() {
+        if (instance == null && "file".equals(System.getProperty("jsyn.audio.device"))) {
+            FileAudioDevice device = new FileAudioDevice();
+            String outputPath = System.getProperty("jsyn.audio.output");
+            if (outputPath != null) {
+                device.setOutputFile(new File(outputPath));
+            }
+            String inputPath = System.getProperty("jsyn.audio.input");
+            if (inputPath != null) {
+                device.setInputFile(new File(inputPath));
+            }
+            device.setThrottled(!"false".equals(System.getProperty("jsyn.audio.throttle")));
+            instance = device;
+        }
+    }
+
     private static void tryJavaSound() {
         if (instance == null) {
             try {
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+/**
+ * An audio system that can call the synthesizer from its own thread when it needs audio, instead
+ * of having the synthesizer write to blocking streams. This usually gives lower and more stable
+ * latency. A SynthesisEngine will use callbacks whenever its AudioDeviceManager implements this
+ * interface.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public interface CallbackAudioDeviceManager extends AudioDeviceManager {
+    /**
+     * Create a stream that will call back to the synthesizer. Applications should not call this
+     * directly.
+     *
+     * @param inputDeviceID input device or USE_DEFAULT_DEVICE, ignored if numInputChannels is 0
+     * @param numInputChannels may be zero
+     * @param outputDeviceID output device or USE_DEFAULT_DEVICE, ignored if numOutputChannels is 0
+     * @param numOutputChannels may be zero
+     * @param frameRate frames per second
+     * @param callback will be called from the device thread after start()
+     */
+    AudioDeviceCallbackStream createCallbackStream(int inputDeviceID, int numInputChannels,
+            int outputDeviceID, int numOutputChannels, int frameRate,
+            AudioDeviceCallback callback);
+}
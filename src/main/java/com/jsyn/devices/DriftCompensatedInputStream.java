@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import com.jsyn.dsp.SincInterpolator;
+import com.jsyn.io.AudioFifo;
+
+/**
+ * Input stream that follows the clock of the output device when the input device has its own
+ * clock. Two devices never run at exactly the same rate. So if the engine reads input and writes
+ * output in lockstep then, after a few hours, the input will overrun or underrun.
+ * <p>
+ * A background thread reads the input device as fast as it delivers data and puts it in a FIFO.
+ * The engine reads from the FIFO through a variable ratio sinc resampler. The ratio is adjusted
+ * by a PI controller that keeps the FIFO at its target fill level. Once it has locked, the ratio
+ * is the ratio of the two clocks. It typically differs from 1.0 by less than 100 PPM.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class DriftCompensatedInputStream implements AudioDeviceInputStream {
+    private static final int READ_FRAMES = 64;
+    private static final double FILTER_BANDWIDTH_RATIO = 10.0;
+    // Longest time that start() waits for the input device.
+    private static final long MAX_START_WAIT_MSEC = 1000;
+
+    private final AudioDeviceInputStream deviceStream;
+    private final int samplesPerFrame;
+    private final int frameRate;
+    private final SincInterpolator interpolator;
+    private final AudioFifo fifo = new AudioFifo();
+    private int targetFrames = 1024;
+    private volatile double bandwidth = 0.1;
+    private double maxCorrection = 0.02;
+
+    // Input frames waiting to be interpolated. History is kept at the front for the filter.
+    private final double[] window;
+    private int numValidFrames;
+    private double position;
+    private final double[] oneFrame;
+    private int oneFrameCursor;
+
+    // Controller state.
+    private volatile double ratio = 1.0;
+    private volatile double filteredFill;
+    private double integralCorrection;
+
+    private volatile boolean go;
+    private Thread readerThread;
+    private volatile long overflowFrames;
+    private volatile long underflowCount;
+
+    /**
+     * @param deviceStream input from a device that has its own clock
+     * @param samplesPerFrame number of channels
+     * @param frameRate nominal frame rate of both devices
+     */
+    public DriftCompensatedInputStream(AudioDeviceInputStream deviceStream, int samplesPerFrame,
+            int frameRate) {
+        this.deviceStream = deviceStream;
+        this.samplesPerFrame = samplesPerFrame;
+        this.frameRate = frameRate;
+        interpolator = new SincInterpolator();
+        int zeroCrossings = interpolator.getZeroCrossings();
+        window = new double[((4 * READ_FRAMES) + (2 * zeroCrossings)) * samplesPerFrame];
+        oneFrame = new double[samplesPerFrame];
+        oneFrameCursor = samplesPerFrame;
+    }
+
+    /**
+     * Set the number of frames to keep in the FIFO. A higher value adds latency but can
+     * tolerate a more bursty input device. Must be called before start().
+     *
+     * @param targetFrames default is 1024
+     */
+    public void setTargetFrames(int targetFrames) {
+        this.targetFrames = targetFrames;
+    }
+
+    public int getTargetFrames() {
+        return targetFrames;
+    }
+
+    /**
+     * Set how fast the controller responds to a change in the clock ratio. A lower value gives a
+     * smoother ratio but takes longer to lock. This can be changed while running, for example
+     * to lock quickly and then track smoothly.
+     *
+     * @param bandwidth natural frequency of the control loop in Hz, default is 0.1
+     */
+    public void setBandwidth(double bandwidth) {
+        this.bandwidth = bandwidth;
+    }
+
+    public double getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * @param maxCorrection largest allowed deviation of the ratio from 1.0, default is 0.02
+     */
+    public void setMaxCorrection(double maxCorrection) {
+        this.maxCorrection = maxCorrection;
+    }
+
+    /**
+     * @return input frames consumed per output frame, greater than 1.0 if the input clock is
+     *         faster than the output clock
+     */
+    public double getRatio() {
+        return ratio;
+    }
+
+    /** @return number of input frames dropped because the FIFO was full */
+    public long getOverflowFrames() {
+        return overflowFrames;
+    }
+
+    /** @return number of times the engine had to wait for the input device after starting */
+    public long getUnderflowCount() {
+        return underflowCount;
+    }
+
+    /** @return current number of frames buffered, averaged by the controller */
+    public double getFilteredFill() {
+        return filteredFill;
+    }
+
+    /**
+     * Start the input device and the thread that reads it. This blocks until the FIFO holds the
+     * target number of frames, so it takes at least getTargetFrames() / frameRate seconds. If the
+     * device does not deliver that much within one second then it stops waiting, and the engine
+     * will wait for input when it reads.
+     */
+    @Override
+    public void start() {
+        int capacity = 1;
+        while (capacity < (targetFrames * 4 * samplesPerFrame)) {
+            capacity *= 2;
+        }
+        fifo.allocate(capacity);
+        fifo.setSamplesPerFrame(samplesPerFrame);
+        fifo.setWriteWaitEnabled(false);
+        fifo.setReadWaitEnabled(true);
+
+        filteredFill = targetFrames;
+        integralCorrection = 0.0;
+        ratio = 1.0;
+        position = interpolator.getZeroCrossings() - 1;
+        numValidFrames = 0;
+
+        deviceStream.start();
+        go = true;
+        readerThread = new Thread("JSynDriftInput") {
+            @Override
+            public void run() {
+                readDevice();
+            }
+        };
+        readerThread.setPriority(Thread.MAX_PRIORITY);
+        readerThread.setDaemon(true);
+        readerThread.start();
+        // The engine starts the input before the output. So waiting here lets the FIFO
+        // reach its target without causing an output underrun.
+        waitForTarget();
+    }
+
+    private void readDevice() {
+        double[] buffer = new double[READ_FRAMES * samplesPerFrame];
+        while (go) {
+            int numRead = deviceStream.read(buffer, 0, buffer.length);
+            if (!go) {
+                break;
+            }
+            int room = fifo.room();
+            if (room < numRead) {
+                overflowFrames += (numRead - room) / samplesPerFrame;
+                numRead = room - (room % samplesPerFrame);
+            }
+            fifo.write(buffer, 0, numRead);
+        }
+    }
+
+    @Override
+    public void stop() {
+        go = false;
+        fifo.close();
+        deviceStream.stop();
+        Thread thread = readerThread;
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            readerThread = null;
+        }
+    }
+
+    @Override
+    public double getLatency() {
+        double filterDelay = interpolator.getZeroCrossings();
+        return deviceStream.getLatency() + ((targetFrames + filterDelay) / frameRate);
+    }
+
+    @Override
+    public double read() {
+        if (oneFrameCursor >= samplesPerFrame) {
+            read(oneFrame, 0, samplesPerFrame);
+            oneFrameCursor = 0;
+        }
+        return oneFrame[oneFrameCursor++];
+    }
+
+    @Override
+    public int read(double[] buffer) {
+        return read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Read resampled input. The count should be a multiple of the number of channels.
+     */
+    @Override
+    public int read(double[] buffer, int start, int count) {
+        int numFrames = count / samplesPerFrame;
+        updateRatio(numFrames);
+        int zeroCrossings = interpolator.getZeroCrossings();
+        int outIndex = start;
+        for (int frame = 0; frame < numFrames; frame++) {
+            int index = (int) position;
+            if ((index + zeroCrossings) >= numValidFrames) {
+                if (!refill(index)) {
+                    return outIndex - start;
+                }
+                index = (int) position;
+            }
+            double fraction = position - index;
+            int dataIndex = index * samplesPerFrame;
+            for (int channel = 0; channel < samplesPerFrame; channel++) {
+                buffer[outIndex++] = interpolator.interpolate(window, dataIndex + channel,
+                        samplesPerFrame, fraction);
+            }
+            position += ratio;
+        }
+        return outIndex - start;
+    }
+
+    /** Wait until the FIFO holds the target so the controller starts near its set point. */
+    private void waitForTarget() {
+        long deadline = System.currentTimeMillis() + MAX_START_WAIT_MSEC;
+        try {
+            while (go && fifo.availableFrames() < targetFrames
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Move the frames still needed by the filter to the front of the window then read more.
+     *
+     * @return false if the stream was closed
+     */
+    private boolean refill(int index) {
+        int zeroCrossings = interpolator.getZeroCrossings();
+        int keepFrom = index - (zeroCrossings - 1);
+        int numToKeep = numValidFrames - keepFrom;
+        System.arraycopy(window, keepFrom * samplesPerFrame, window, 0,
+                numToKeep * samplesPerFrame);
+        numValidFrames = numToKeep;
+        position -= keepFrom;
+        int numToRead = Math.min(READ_FRAMES, (window.length / samplesPerFrame) - numValidFrames);
+        while ((int) position + zeroCrossings >= numValidFrames) {
+            if (fifo.availableFrames() < numToRead) {
+                underflowCount++;
+            }
+            int numRead = fifo.readFrames(window, numValidFrames, numToRead);
+            if (numRead < numToRead) {
+                return false;
+            }
+            numValidFrames += numRead;
+            numToRead = Math.min(READ_FRAMES,
+                    (window.length / samplesPerFrame) - numValidFrames);
+        }
+        return true;
+    }
+
+    private void updateRatio(int numFrames) {
+        double elapsed = ((double) numFrames) / frameRate;
+        // Count the frames that have been read from the FIFO but not yet used.
+        double fill = fifo.availableFrames() + (numValidFrames - position);
+        // Smooth out the sawtooth caused by the device delivering whole buffers.
+        // The corner is well above the loop bandwidth so it does not affect stability.
+        double coefficient = 2.0 * Math.PI * bandwidth * FILTER_BANDWIDTH_RATIO * elapsed;
+        filteredFill += Math.min(1.0, coefficient) * (fill - filteredFill);
+        // Critically damped PI controller.
+        double omega = 2.0 * Math.PI * bandwidth;
+        double proportionalGain = 2.0 * omega / frameRate;
+        double integralGain = omega * omega / frameRate;
+        double error = filteredFill - targetFrames;
+        // Accumulate the integral as a ratio so it does not jump if the bandwidth changes.
+        integralCorrection += integralGain * error * elapsed;
+        integralCorrection = Math.max(-maxCorrection, Math.min(maxCorrection, integralCorrection));
+        double correction = (proportionalGain * error) + integralCorrection;
+        ratio = 1.0 + Math.max(-maxCorrection, Math.min(maxCorrection, correction));
+    }
+
+    @Override
+    public int available() {
+        return fifo.available();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import com.jsyn.dsp.PolyphaseResampler;
+
+/**
+ * Input stream that converts audio from the device frame rate to the engine frame rate. Device
+ * data is read in small blocks and converted frames are kept until they are asked for.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class ResamplingInputStream implements AudioDeviceInputStream {
+    private static final int DEVICE_FRAMES_PER_READ = 64;
+
+    private final AudioDeviceInputStream deviceStream;
+    private final PolyphaseResampler resampler;
+    private final int samplesPerFrame;
+    // Engine frames per device frame.
+    private final double rateScaler;
+    private final double[] deviceBuffer;
+    // Converted frames that have not been read yet.
+    private final double[] pending;
+    private int pendingStart;
+    private int pendingEnd;
+    private final double[] oneValue = new double[1];
+
+    /**
+     * @param deviceStream stream opened at the device frame rate
+     * @param samplesPerFrame number of channels
+     * @param engineRate frame rate of the data that will be read
+     * @param deviceRate frame rate of the device
+     * @param quality filter quality
+     */
+    public ResamplingInputStream(AudioDeviceInputStream deviceStream, int samplesPerFrame,
+            int engineRate, int deviceRate, PolyphaseResampler.Quality quality) {
+        this.deviceStream = deviceStream;
+        this.samplesPerFrame = samplesPerFrame;
+        rateScaler = ((double) engineRate) / deviceRate;
+        resampler = new PolyphaseResampler(deviceRate, engineRate, samplesPerFrame, quality);
+        deviceBuffer = new double[DEVICE_FRAMES_PER_READ * samplesPerFrame];
+        pending = new double[resampler.getMaxOutputFrames(DEVICE_FRAMES_PER_READ)
+                * samplesPerFrame];
+    }
+
+    @Override
+    public void start() {
+        resampler.reset();
+        pendingStart = 0;
+        pendingEnd = 0;
+        deviceStream.start();
+    }
+
+    @Override
+    public void stop() {
+        deviceStream.stop();
+    }
+
+    @Override
+    public double getLatency() {
+        return deviceStream.getLatency() + resampler.getLatency();
+    }
+
+    @Override
+    public double read() {
+        oneValue[0] = 0.0;
+        read(oneValue, 0, 1);
+        return oneValue[0];
+    }
+
+    @Override
+    public int read(double[] buffer) {
+        return read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Read converted samples. Blocks while the device is reading more data.
+     */
+    @Override
+    public int read(double[] buffer, int start, int count) {
+        int numRead = 0;
+        while (numRead < count) {
+            if (pendingStart == pendingEnd) {
+                int numDeviceSamples = deviceStream.read(deviceBuffer, 0, deviceBuffer.length);
+                if (numDeviceSamples <= 0) {
+                    break;
+                }
+                int numFrames = resampler.process(deviceBuffer, 0,
+                        numDeviceSamples / samplesPerFrame, pending, 0);
+                pendingStart = 0;
+                pendingEnd = numFrames * samplesPerFrame;
+                continue;
+            }
+            int numToCopy = Math.min(count - numRead, pendingEnd - pendingStart);
+            System.arraycopy(pending, pendingStart, buffer, start + numRead, numToCopy);
+            pendingStart += numToCopy;
+            numRead += numToCopy;
+        }
+        return numRead;
+    }
+
+    /**
+     * @return converted samples that are waiting, plus the device samples that are available
+     *         scaled to the engine rate, in whole frames
+     */
+    @Override
+    public int available() {
+        int deviceFrames = deviceStream.available() / samplesPerFrame;
+        int engineFrames = (int) (deviceFrames * rateScaler);
+        return (pendingEnd - pendingStart) + (engineFrames * samplesPerFrame);
+    }
+
+    @Override
+    public void close() {
+        deviceStream.close();
+    }
+}
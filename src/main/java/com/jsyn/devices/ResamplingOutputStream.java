@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import java.io.IOException;
+
+import com.jsyn.dsp.PolyphaseResampler;
+
+/**
+ * Output stream that converts audio from the engine frame rate to the device frame rate. This
+ * lets the engine run a heavy patch at a lower rate, or run oversampled, while the device stays
+ * at its native rate.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class ResamplingOutputStream implements AudioDeviceOutputStream {
+    private final AudioDeviceOutputStream deviceStream;
+    private final PolyphaseResampler resampler;
+    private final int samplesPerFrame;
+    private double[] converted = new double[0];
+    // Samples of a frame that has not been completely written yet.
+    private final double[] partialFrame;
+    private int numPartial;
+
+    /**
+     * @param deviceStream stream opened at the device frame rate
+     * @param samplesPerFrame number of channels
+     * @param engineRate frame rate of the data that will be written
+     * @param deviceRate frame rate of the device
+     * @param quality filter quality
+     */
+    public ResamplingOutputStream(AudioDeviceOutputStream deviceStream, int samplesPerFrame,
+            int engineRate, int deviceRate, PolyphaseResampler.Quality quality) {
+        this.deviceStream = deviceStream;
+        this.samplesPerFrame = samplesPerFrame;
+        resampler = new PolyphaseResampler(engineRate, deviceRate, samplesPerFrame, quality);
+        partialFrame = new double[samplesPerFrame];
+    }
+
+    @Override
+    public void start() {
+        resampler.reset();
+        numPartial = 0;
+        deviceStream.start();
+    }
+
+    @Override
+    public void stop() {
+        deviceStream.stop();
+    }
+
+    @Override
+    public double getLatency() {
+        return deviceStream.getLatency() + resampler.getLatency();
+    }
+
+    /**
+     * Write one sample. The frame is converted when its last channel has been written.
+     */
+    @Override
+    public void write(double value) throws IOException {
+        partialFrame[numPartial++] = value;
+        if (numPartial == samplesPerFrame) {
+            numPartial = 0;
+            convert(partialFrame, 0, 1);
+        }
+    }
+
+    @Override
+    public void write(double[] buffer) throws IOException {
+        write(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Convert whole frames and write them to the device. If the count is not a multiple of the
+     * number of channels then the samples of the last partial frame are kept until the rest of
+     * the frame is written.
+     */
+    @Override
+    public void write(double[] buffer, int start, int count) throws IOException {
+        while ((numPartial > 0) && (count > 0)) {
+            write(buffer[start++]);
+            count--;
+        }
+        int numFrames = count / samplesPerFrame;
+        convert(buffer, start, numFrames);
+        for (int i = numFrames * samplesPerFrame; i < count; i++) {
+            partialFrame[numPartial++] = buffer[start + i];
+        }
+    }
+
+    private void convert(double[] buffer, int start, int numFrames) throws IOException {
+        int maxSamples = resampler.getMaxOutputFrames(numFrames) * samplesPerFrame;
+        if (converted.length < maxSamples) {
+            converted = new double[maxSamples];
+        }
+        int numConverted = resampler.process(buffer, start, numFrames, converted, 0);
+        if (numConverted > 0) {
+            deviceStream.write(converted, 0, numConverted * samplesPerFrame);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        deviceStream.close();
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import com.jsyn.devices.AudioDeviceInputStream;
+import com.jsyn.devices.AudioDeviceManager;
+import com.jsyn.devices.AudioDeviceOutputStream;
+import com.jsyn.util.AudioFileReader;
+import com.jsyn.util.WaveFileWriter;
+
+/**
+ * Audio devices that do not need any sound hardware. This can be used to run JSyn on a headless
+ * server, in automated tests or to render audio to a file.
+ * <p>
+ * Device 0 discards its output and provides silent input. Device 1 writes its output to a WAV
+ * file and reads its input from a WAV or AIF file. The default devices are the file devices if a
+ * file has been set, otherwise the null devices.
+ * <p>
+ * By default the device clock is throttled to real time, like a sound card. If throttling is
+ * disabled then the engine runs as fast as it can.
+ *
+ * <pre>
+ * <code>
+ *     FileAudioDevice device = new FileAudioDevice();
+ *     device.setOutputFile(new File("render.wav"));
+ *     device.setThrottled(false);
+ *     Synthesizer synth = JSyn.createSynthesizer(device);
+ *     synth.start(); // normal start, writes to render.wav
+ * </code>
+ * </pre>
+ *
+ * The device can also be selected without changing any code by setting system properties. See
+ * {@link com.jsyn.devices.AudioDeviceFactory}.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class FileAudioDevice implements AudioDeviceManager {
+    public static final int NULL_DEVICE_ID = 0;
+    public static final int FILE_DEVICE_ID = 1;
+    private static final String[] DEVICE_NAMES = {
+            "Null", "WAV File"
+    };
+    private static final int MAX_CHANNELS = 64;
+
+    private File outputFile;
+    private File inputFile;
+    private int bitsPerSample = 16;
+    private boolean throttled = true;
+    private boolean inputLooping = false;
+    private double suggestedInputLatency = 0.0;
+    private double suggestedOutputLatency = 0.0;
+    // Only one stream paces the engine. The output is preferred.
+    private volatile Object clockOwner;
+
+    static Logger logger = Logger.getLogger(FileAudioDevice.class.getName());
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @param outputFile WAV file to write when the file device is used for output, or null
+     */
+    public void setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public File getInputFile() {
+        return inputFile;
+    }
+
+    /**
+     * @param inputFile WAV or AIF file to read when the file device is used for input, or null
+     */
+    public void setInputFile(File inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * @param bitsPerSample 16 or 24, or 32 for float, used when writing the output file
+     */
+    public void setBitsPerSample(int bitsPerSample) {
+        this.bitsPerSample = bitsPerSample;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    /**
+     * @param throttled if true then the device clock runs at the frame rate in real time,
+     *            otherwise audio is generated as fast as possible
+     */
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    public boolean isInputLooping() {
+        return inputLooping;
+    }
+
+    /**
+     * @param inputLooping if true then restart the input file when it ends, otherwise the input
+     *            is silent after the end of the file
+     */
+    public void setInputLooping(boolean inputLooping) {
+        this.inputLooping = inputLooping;
+    }
+
+    @Override
+    public int getDeviceCount() {
+        return DEVICE_NAMES.length;
+    }
+
+    @Override
+    public String getDeviceName(int deviceID) {
+        return DEVICE_NAMES[deviceID];
+    }
+
+    @Override
+    public String getName() {
+        return "File";
+    }
+
+    @Override
+    public int getDefaultInputDeviceID() {
+        return (inputFile == null) ? NULL_DEVICE_ID : FILE_DEVICE_ID;
+    }
+
+    @Override
+    public int getDefaultOutputDeviceID() {
+        return (outputFile == null) ? NULL_DEVICE_ID : FILE_DEVICE_ID;
+    }
+
+    @Override
+    public int getMaxInputChannels(int deviceID) {
+        return MAX_CHANNELS;
+    }
+
+    @Override
+    public int getMaxOutputChannels(int deviceID) {
+        return MAX_CHANNELS;
+    }
+
+    @Override
+    public double getDefaultLowInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultLowOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public int setSuggestedInputLatency(double latency) {
+        suggestedInputLatency = latency;
+        return 0;
+    }
+
+    @Override
+    public int setSuggestedOutputLatency(double latency) {
+        suggestedOutputLatency = latency;
+        return 0;
+    }
+
+    /**
+     * Keeps a stream in step with the wall clock when throttling is enabled.
+     */
+    private class DeviceClock {
+        private final int frameRate;
+        private long startNanos;
+        private long framePosition;
+
+        DeviceClock(int frameRate) {
+            this.frameRate = frameRate;
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+            framePosition = 0;
+        }
+
+        /** Wait until the given number of frames would have been played. */
+        void advance(Object stream, int numFrames) {
+            framePosition += numFrames;
+            if (!throttled || clockOwner != stream) {
+                return;
+            }
+            long targetNanos = startNanos + (framePosition * 1000000000L / frameRate);
+            long nanosToWait = targetNanos - System.nanoTime();
+            while (nanosToWait > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(nanosToWait);
+                nanosToWait = targetNanos - System.nanoTime();
+            }
+        }
+    }
+
+    private class FileDeviceOutputStream implements AudioDeviceOutputStream {
+        private final int deviceID;
+        private final int frameRate;
+        private final int samplesPerFrame;
+        private final DeviceClock clock;
+        private WaveFileWriter writer;
+
+        FileDeviceOutputStream(int deviceID, int frameRate, int samplesPerFrame) {
+            this.deviceID = deviceID;
+            this.frameRate = frameRate;
+            this.samplesPerFrame = samplesPerFrame;
+            clock = new DeviceClock(frameRate);
+        }
+
+        @Override
+        public void start() {
+            clockOwner = this;
+            if (deviceID == FILE_DEVICE_ID) {
+                if (outputFile == null) {
+                    throw new IllegalStateException("No output file set.");
+                }
+                try {
+                    writer = new WaveFileWriter(outputFile);
+                    writer.setFrameRate(frameRate);
+                    writer.setSamplesPerFrame(samplesPerFrame);
+                    writer.setBitsPerSample(bitsPerSample);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not open " + outputFile, e);
+                }
+            }
+            clock.start();
+        }
+
+        @Override
+        public void write(double value) throws IOException {
+            write(new double[] {
+                value
+            }, 0, 1);
+        }
+
+        @Override
+        public void write(double[] buffer) throws IOException {
+            write(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void write(double[] buffer, int start, int count) throws IOException {
+            if (writer != null) {
+                writer.write(buffer, start, count);
+            }
+            clock.advance(this, count / samplesPerFrame);
+        }
+
+        @Override
+        public void stop() {
+            if (clockOwner == this) {
+                clockOwner = null;
+            }
+            try {
+                close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+
+        @Override
+        public double getLatency() {
+            return suggestedOutputLatency;
+        }
+    }
+
+    private class FileDeviceInputStream implements AudioDeviceInputStream {
+        private final int deviceID;
+        private final int samplesPerFrame;
+        private final DeviceClock clock;
+        private AudioFileReader reader;
+        private double[] fileFrames = new double[0];
+        private boolean endOfFile;
+
+        FileDeviceInputStream(int deviceID, int frameRate, int samplesPerFrame) {
+            this.deviceID = deviceID;
+            this.samplesPerFrame = samplesPerFrame;
+            clock = new DeviceClock(frameRate);
+        }
+
+        @Override
+        public void start() {
+            if (clockOwner == null) {
+                clockOwner = this;
+            }
+            if (deviceID == FILE_DEVICE_ID) {
+                if (inputFile == null) {
+                    throw new IllegalStateException("No input file set.");
+                }
+                openReader();
+            }
+            clock.start();
+        }
+
+        private void openReader() {
+            try {
+                reader = new AudioFileReader(inputFile);
+                endOfFile = false;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not open " + inputFile, e);
+            }
+        }
+
+        @Override
+        public double read() {
+            double[] one = new double[1];
+            read(one, 0, 1);
+            return one[0];
+        }
+
+        @Override
+        public int read(double[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+
+        /**
+         * Fill the buffer with frames from the file. Extra file channels are ignored and missing
+         * channels are silent.
+         */
+        @Override
+        public int read(double[] buffer, int start, int count) {
+            int numFrames = count / samplesPerFrame;
+            int framesRead = 0;
+            if (reader != null) {
+                try {
+                    framesRead = readFrames(buffer, start, numFrames);
+                } catch (RuntimeException e) {
+                    if (!Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    endOfFile = true; // engine is stopping, which closed the file
+                }
+            }
+            for (int i = start + (framesRead * samplesPerFrame); i < start + count; i++) {
+                buffer[i] = 0.0;
+            }
+            clock.advance(this, numFrames);
+            return count;
+        }
+
+        private int readFrames(double[] buffer, int start, int numFrames) {
+            int fileChannels = reader.getChannelsPerFrame();
+            if (fileFrames.length < numFrames * fileChannels) {
+                fileFrames = new double[numFrames * fileChannels];
+            }
+            int framesRead = 0;
+            while (framesRead < numFrames && !endOfFile) {
+                int numRead = reader.read(fileFrames, framesRead * fileChannels,
+                        (numFrames - framesRead) * fileChannels) / fileChannels;
+                framesRead += numRead;
+                if (framesRead < numFrames) {
+                    if (inputLooping && (numRead > 0 || reader.getFramePosition() > 0)) {
+                        reader.close();
+                        openReader();
+                    } else {
+                        endOfFile = true;
+                    }
+                }
+            }
+            int numChannels = Math.min(fileChannels, samplesPerFrame);
+            for (int frame = 0; frame < framesRead; frame++) {
+                int outputIndex = start + (frame * samplesPerFrame);
+                int fileIndex = frame * fileChannels;
+                for (int channel = 0; channel < numChannels; channel++) {
+                    buffer[outputIndex + channel] = fileFrames[fileIndex + channel];
+                }
+                for (int channel = numChannels; channel < samplesPerFrame; channel++) {
+                    buffer[outputIndex + channel] = 0.0;
+                }
+            }
+            return framesRead;
+        }
+
+        /** A file can always be read without blocking. */
+        @Override
+        public int available() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void stop() {
+            if (clockOwner == this) {
+                clockOwner = null;
+            }
+            close();
+        }
+
+        @Override
+        public void close() {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+
+        @Override
+        public double getLatency() {
+            return suggestedInputLatency;
+        }
+    }
+
+    private static int resolveDeviceID(int deviceID, int defaultID) {
+        return (deviceID == USE_DEFAULT_DEVICE) ? defaultID : deviceID;
+    }
+
+    @Override
+    public AudioDeviceOutputStream createOutputStream(int deviceID, int frameRate,
+            int samplesPerFrame) {
+        deviceID = resolveDeviceID(deviceID, getDefaultOutputDeviceID());
+        logger.fine("Output to " + getDeviceName(deviceID) + ", throttled = " + throttled);
+        return new FileDeviceOutputStream(deviceID, frameRate, samplesPerFrame);
+    }
+
+    @Override
+    public AudioDeviceInputStream createInputStream(int deviceID, int frameRate,
+            int samplesPerFrame) {
+        deviceID = resolveDeviceID(deviceID, getDefaultInputDeviceID());
+        logger.fine("Input from " + getDeviceName(deviceID) + ", throttled = " + throttled);
+        return new FileDeviceInputStream(deviceID, frameRate, samplesPerFrame);
+    }
+}
@@ -17,6 +17,13 @@
 package com.jsyn.devices.javasound;
 
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioSystem;
@@ -33,42 +40,153 @@ import com.jsyn.devices.AudioDeviceOutputStream;
 
 /**
  * Use JavaSound to access the audio hardware.
+ * <p>
+ * When a stream starts, the best line format supported by the device is chosen, in this order:
+ * 32-bit float, 24-bit PCM then 16-bit PCM. Use setMaxBitsPerSample() to limit the choice.
+ * <p>
+ * The mixers are not scanned until a device query, such as getDeviceCount(), needs them. Opening
+ * the default device does not need a scan. Scanning opens every mixer and can take seconds on
+ * some systems, so the results are cached and shared by every JavaSoundAudioDevice. Call
+ * startDeviceScan() to scan in the background ahead of time, and rescanDevices() after devices
+ * have been plugged in or removed.
  *
  * @author Phil Burk (C) 2009 Mobileer Inc
  */
 public class JavaSoundAudioDevice implements AudioDeviceManager {
 
-    private static final int BYTES_PER_SAMPLE = 2;
     private static final boolean USE_BIG_ENDIAN = false;
 
-    ArrayList<DeviceInfo> deviceRecords;
+    private static final DeviceList NO_DEVICES = new DeviceList();
+    // The mixers belong to the JVM so the scan is shared by all instances.
+    private static FutureTask<DeviceList> deviceScan;
+
     private double suggestedOutputLatency = 0.040;
     private double suggestedInputLatency = 0.100;
-    private int defaultInputDeviceID = -1;
-    private int defaultOutputDeviceID = -1;
+    private int maxBitsPerSample = 32;
+    private double deviceScanTimeout;
+
+    static Logger logger = Logger.getLogger(JavaSoundAudioDevice.class.getName());
 
     public JavaSoundAudioDevice() {
         String osName = System.getProperty("os.name");
         if (osName.contains("Windows")) {
             suggestedOutputLatency = 0.08;
         }
-        deviceRecords = new ArrayList<DeviceInfo>();
-        sniffAvailableMixers();
-        if (false) dumpAvailableMixers();
     }
 
-    private void dumpAvailableMixers() {
-        for (DeviceInfo deviceInfo : deviceRecords) {
+    public int getMaxBitsPerSample() {
+        return maxBitsPerSample;
+    }
+
+    /**
+     * Limit the line formats that will be tried when a stream is started.
+     *
+     * @param maxBitsPerSample 32 to allow float, 24 or 16
+     */
+    public void setMaxBitsPerSample(int maxBitsPerSample) {
+        this.maxBitsPerSample = maxBitsPerSample;
+    }
+
+    /**
+     * Limit how long device queries wait for a scan to finish. If the scan takes longer then the
+     * query behaves as if there are no devices, and the scan keeps running in the background.
+     *
+     * @param seconds maximum time to wait, or 0.0 to wait as long as it takes, which is the default
+     */
+    public void setDeviceScanTimeout(double seconds) {
+        deviceScanTimeout = seconds;
+    }
+
+    public double getDeviceScanTimeout() {
+        return deviceScanTimeout;
+    }
+
+    /**
+     * Start scanning the mixers on a background thread, if they have not already been scanned.
+     * This can be used to hide the cost of the scan, for example while a user interface is built.
+     */
+    public static void startDeviceScan() {
+        startScan();
+    }
+
+    /**
+     * Stop a scan that is in progress. Device queries will report no devices until
+     * rescanDevices() is called.
+     *
+     * @return true if a scan was running
+     */
+    public static synchronized boolean cancelDeviceScan() {
+        return (deviceScan != null) && deviceScan.cancel(true);
+    }
+
+    /**
+     * Forget the cached device list, for example after a device is plugged in. The mixers will be
+     * scanned again by the next query.
+     */
+    public static synchronized void rescanDevices() {
+        if (deviceScan != null) {
+            deviceScan.cancel(true);
+            deviceScan = null;
+        }
+    }
+
+    /** @return true if the mixers have been scanned or are being scanned */
+    static synchronized boolean isDeviceScanStarted() {
+        return deviceScan != null;
+    }
+
+    private static synchronized FutureTask<DeviceList> startScan() {
+        if (deviceScan == null) {
+            deviceScan = new FutureTask<DeviceList>(new Callable<DeviceList>() {
+                @Override
+                public DeviceList call() throws InterruptedException {
+                    return sniffAvailableMixers();
+                }
+            });
+            Thread thread = new Thread(deviceScan, "JSynDeviceScan");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return deviceScan;
+    }
+
+    /** @return the scanned devices, scanning them first if needed */
+    private DeviceList getDevices() {
+        FutureTask<DeviceList> scan = startScan();
+        try {
+            if (deviceScanTimeout > 0.0) {
+                return scan.get((long) (deviceScanTimeout * 1000), TimeUnit.MILLISECONDS);
+            }
+            return scan.get();
+        } catch (TimeoutException e) {
+            logger.warning("JavaSound device scan is taking longer than " + deviceScanTimeout
+                    + " seconds.");
+        } catch (CancellationException e) {
+            logger.fine("JavaSound device scan was cancelled.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warning("JavaSound device scan failed, " + e.getCause());
+        }
+        return NO_DEVICES;
+    }
+
+    private static void dumpAvailableMixers(DeviceList devices) {
+        for (DeviceInfo deviceInfo : devices.records) {
             System.out.println("" + deviceInfo);
         }
     }
 
     /**
-     * Build device info and determine default devices.
+     * Build device info and determine default devices. Stops early if the thread is interrupted.
      */
-    private void sniffAvailableMixers() {
+    private static DeviceList sniffAvailableMixers() throws InterruptedException {
+        DeviceList devices = new DeviceList();
         Mixer.Info[] mixers = AudioSystem.getMixerInfo();
         for (int i = 0; i < mixers.length; i++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Device scan cancelled.");
+            }
             DeviceInfo deviceInfo = new DeviceInfo();
 
             deviceInfo.name = mixers[i].getName();
@@ -77,22 +195,24 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
             Line.Info[] lines = mixer.getTargetLineInfo();
             deviceInfo.maxInputs = scanMaxChannels(lines);
             // Remember first device that supports input.
-            if ((defaultInputDeviceID < 0) && (deviceInfo.maxInputs > 0)) {
-                defaultInputDeviceID = i;
+            if ((devices.defaultInputDeviceID < 0) && (deviceInfo.maxInputs > 0)) {
+                devices.defaultInputDeviceID = i;
             }
 
             lines = mixer.getSourceLineInfo();
             deviceInfo.maxOutputs = scanMaxChannels(lines);
             // Remember first device that supports output.
-            if ((defaultOutputDeviceID < 0) && (deviceInfo.maxOutputs > 0)) {
-                defaultOutputDeviceID = i;
+            if ((devices.defaultOutputDeviceID < 0) && (deviceInfo.maxOutputs > 0)) {
+                devices.defaultOutputDeviceID = i;
             }
 
-            deviceRecords.add(deviceInfo);
+            devices.records.add(deviceInfo);
         }
+        if (false) dumpAvailableMixers(devices);
+        return devices;
     }
 
-    private int scanMaxChannels(Line.Info[] lines) {
+    private static int scanMaxChannels(Line.Info[] lines) {
         int maxChannels = 0;
         for (Line.Info line : lines) {
             if (line instanceof DataLine.Info) {
@@ -105,7 +225,7 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
         return maxChannels;
     }
 
-    private int scanMaxChannels(DataLine.Info info) {
+    private static int scanMaxChannels(DataLine.Info info) {
         int maxChannels = 0;
         for (AudioFormat format : info.getFormats()) {
             int numChannels = format.getChannels();
@@ -116,6 +236,13 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
         return maxChannels;
     }
 
+    /** Result of scanning the mixers. */
+    static class DeviceList {
+        final ArrayList<DeviceInfo> records = new ArrayList<DeviceInfo>();
+        int defaultInputDeviceID = -1;
+        int defaultOutputDeviceID = -1;
+    }
+
     static class DeviceInfo {
         String name;
         int maxInputs;
@@ -127,9 +254,10 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
         }
     }
 
-    private static class JavaSoundStream {
+    private class JavaSoundStream {
         AudioFormat format;
-        byte[] bytes;
+        LineConverter converter;
+        byte[] bytes = new byte[0];
         int frameRate;
         int deviceID;
         int samplesPerFrame;
@@ -138,7 +266,62 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
             this.deviceID = deviceID;
             this.frameRate = frameRate;
             this.samplesPerFrame = samplesPerFrame;
-            format = new AudioFormat(frameRate, 16, samplesPerFrame, true, USE_BIG_ENDIAN);
+        }
+
+        /** @return formats to try, best first */
+        AudioFormat[] getCandidateFormats() {
+            ArrayList<AudioFormat> formats = new ArrayList<AudioFormat>();
+            if (maxBitsPerSample >= 32) {
+                formats.add(new AudioFormat(AudioFormat.Encoding.PCM_FLOAT, frameRate, 32,
+                        samplesPerFrame, samplesPerFrame * 4, frameRate, USE_BIG_ENDIAN));
+            }
+            if (maxBitsPerSample >= 24) {
+                formats.add(new AudioFormat(frameRate, 24, samplesPerFrame, true, USE_BIG_ENDIAN));
+            }
+            formats.add(new AudioFormat(frameRate, 16, samplesPerFrame, true, USE_BIG_ENDIAN));
+            return formats.toArray(new AudioFormat[formats.size()]);
+        }
+
+        boolean isLineSupported(DataLine.Info info) {
+            if (deviceID >= 0) {
+                Mixer.Info[] mixers = AudioSystem.getMixerInfo();
+                return AudioSystem.getMixer(mixers[deviceID]).isLineSupported(info);
+            } else {
+                return AudioSystem.isLineSupported(info);
+            }
+        }
+
+        /**
+         * Open and start a line using the best format that works.
+         *
+         * @return the line or null if no format could be opened
+         */
+        DataLine openBestLine(Class<? extends DataLine> lineClass, double latency) {
+            for (AudioFormat candidate : getCandidateFormats()) {
+                DataLine.Info info = new DataLine.Info(lineClass, candidate);
+                if (!isLineSupported(info)) {
+                    continue;
+                }
+                try {
+                    DataLine dataLine = (DataLine) getDataLine(info);
+                    format = candidate;
+                    converter = LineConverter.forFormat(format);
+                    int bufferSize = calculateBufferSize(latency);
+                    if (dataLine instanceof SourceDataLine) {
+                        ((SourceDataLine) dataLine).open(format, bufferSize);
+                    } else {
+                        ((TargetDataLine) dataLine).open(format, bufferSize);
+                    }
+                    dataLine.start();
+                    return dataLine;
+                } catch (Exception e) {
+                    // Try the next format.
+                    logger.fine("Could not open " + candidate + ", " + e);
+                }
+            }
+            new RuntimeException("No supported audio line format for " + samplesPerFrame
+                    + " channels at " + frameRate + " Hz.").printStackTrace();
+            return null;
         }
 
         Line getDataLine(DataLine.Info info) throws LineUnavailableException {
@@ -153,11 +336,33 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
             return dataLine;
         }
 
-        int calculateBufferSize(double suggestedOutputLatency) {
-            int numFrames = (int) (suggestedOutputLatency * frameRate);
-            return numFrames * samplesPerFrame * BYTES_PER_SAMPLE;
+        int calculateBufferSize(double suggestedLatency) {
+            int numFrames = (int) (suggestedLatency * frameRate);
+            return numFrames * format.getFrameSize();
         }
 
+        /**
+         * The engine always transfers the same amount so this only allocates once.
+         */
+        void ensureByteCapacity(int numSamples) {
+            int numBytes = numSamples * converter.getBytesPerSample();
+            if (bytes.length < numBytes) {
+                bytes = new byte[numBytes];
+            }
+        }
+
+        /** @return the line format, or null if not started */
+        public AudioFormat getFormat() {
+            return format;
+        }
+
+        double calculateLatency(DataLine line) {
+            if (line == null) {
+                return 0.0;
+            }
+            int numFrames = line.getBufferSize() / format.getFrameSize();
+            return ((double) numFrames) / frameRate;
+        }
     }
 
     private class JavaSoundOutputStream extends JavaSoundStream implements AudioDeviceOutputStream {
@@ -169,21 +374,7 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
         @Override
         public void start() {
-            DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
-            if (!AudioSystem.isLineSupported(info)) {
-                // TODO Handle the error.
-            } else {
-                try {
-                    line = (SourceDataLine) getDataLine(info);
-                    int bufferSize = calculateBufferSize(suggestedOutputLatency);
-                    line.open(format, bufferSize);
-                    line.start();
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    line = null;
-                }
-            }
+            line = (SourceDataLine) openBestLine(SourceDataLine.class, suggestedOutputLatency);
         }
 
         /** Grossly inefficient. Call the array version instead. */
@@ -201,28 +392,9 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
         @Override
         public void write(double[] buffer, int start, int count) {
-            // Allocate byte buffer if needed.
-            if ((bytes == null) || ((bytes.length * 2) < count)) {
-                bytes = new byte[count * 2];
-            }
-
-            // Convert float samples to LittleEndian bytes.
-            int byteIndex = 0;
-            for (int i = 0; i < count; i++) {
-                // Offset before casting so that we can avoid using floor().
-                // Also round by adding 0.5 so that very small signals go to zero.
-                double temp = (32767.0 * buffer[i + start]) + 32768.5;
-                int sample = ((int) temp) - 32768;
-                if (sample > Short.MAX_VALUE) {
-                    sample = Short.MAX_VALUE;
-                } else if (sample < Short.MIN_VALUE) {
-                    sample = Short.MIN_VALUE;
-                }
-                bytes[byteIndex++] = (byte) sample; // little end
-                bytes[byteIndex++] = (byte) (sample >> 8); // big end
-            }
-
-            line.write(bytes, 0, byteIndex);
+            ensureByteCapacity(count);
+            converter.encode(buffer, start, count, bytes);
+            line.write(bytes, 0, count * converter.getBytesPerSample());
         }
 
         @Override
@@ -240,12 +412,7 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
         @Override
         public double getLatency() {
-            if (line == null) {
-                return 0.0;
-            }
-            int numBytes = line.getBufferSize();
-            int numFrames = numBytes / (BYTES_PER_SAMPLE * samplesPerFrame);
-            return ((double) numFrames) / frameRate;
+            return calculateLatency(line);
         }
 
         @Override
@@ -263,20 +430,7 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
         @Override
         public void start() {
-            DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
-            if (!AudioSystem.isLineSupported(info)) {
-                // TODO Handle the error.
-            } else {
-                try {
-                    line = (TargetDataLine) getDataLine(info);
-                    int bufferSize = calculateBufferSize(suggestedInputLatency);
-                    line.open(format, bufferSize);
-                    line.start();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    line = null;
-                }
-            }
+            line = (TargetDataLine) openBestLine(TargetDataLine.class, suggestedInputLatency);
         }
 
         @Override
@@ -291,22 +445,21 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
             return read(buffer, 0, buffer.length);
         }
 
+        /**
+         * @return number of samples read, which is a whole number of frames
+         */
         @Override
         public int read(double[] buffer, int start, int count) {
-            // Allocate byte buffer if needed.
-            if ((bytes == null) || ((bytes.length * 2) < count)) {
-                bytes = new byte[count * 2];
+            ensureByteCapacity(count);
+            int bytesPerFrame = format.getFrameSize();
+            int numFrames = count / samplesPerFrame;
+            int bytesRead = line.read(bytes, 0, numFrames * bytesPerFrame);
+            int samplesRead = (bytesRead / bytesPerFrame) * samplesPerFrame;
+            converter.decode(bytes, buffer, start, samplesRead);
+            for (int i = start + samplesRead; i < start + count; i++) {
+                buffer[i] = 0.0; // line was stopped
             }
-            int bytesRead = line.read(bytes, 0, bytes.length);
-
-            // Convert BigEndian bytes to float samples
-            int bi = 0;
-            for (int i = 0; i < count; i++) {
-                int sample = bytes[bi++] & 0x00FF; // little end
-                sample = sample + (bytes[bi++] << 8); // big end
-                buffer[i + start] = sample * (1.0 / 32767.0);
-            }
-            return bytesRead / 4;
+            return samplesRead;
         }
 
         @Override
@@ -322,17 +475,12 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
         @Override
         public double getLatency() {
-            if (line == null) {
-                return 0.0;
-            }
-            int numBytes = line.getBufferSize();
-            int numFrames = numBytes / (BYTES_PER_SAMPLE * samplesPerFrame);
-            return ((double) numFrames) / frameRate;
+            return calculateLatency(line);
         }
 
         @Override
         public int available() {
-            return line.available() / BYTES_PER_SAMPLE;
+            return (line.available() / format.getFrameSize()) * samplesPerFrame;
         }
 
         @Override
@@ -364,12 +512,12 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
     @Override
     public int getDefaultInputDeviceID() {
-        return defaultInputDeviceID;
+        return getDevices().defaultInputDeviceID;
     }
 
     @Override
     public int getDefaultOutputDeviceID() {
-        return defaultOutputDeviceID;
+        return getDevices().defaultOutputDeviceID;
     }
 
     @Override
@@ -384,22 +532,22 @@ public class JavaSoundAudioDevice implements AudioDeviceManager {
 
     @Override
     public int getDeviceCount() {
-        return deviceRecords.size();
+        return getDevices().records.size();
     }
 
     @Override
     public String getDeviceName(int deviceID) {
-        return deviceRecords.get(deviceID).name;
+        return getDevices().records.get(deviceID).name;
     }
 
     @Override
     public int getMaxInputChannels(int deviceID) {
-        return deviceRecords.get(deviceID).maxInputs;
+        return getDevices().records.get(deviceID).maxInputs;
     }
 
     @Override
     public int getMaxOutputChannels(int deviceID) {
-        return deviceRecords.get(deviceID).maxOutputs;
+        return getDevices().records.get(deviceID).maxOutputs;
     }
 
     @Override
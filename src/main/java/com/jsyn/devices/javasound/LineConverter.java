@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices.javasound;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Convert between JSyn samples and the little endian bytes of a JavaSound line. Each format has a
+ * tight loop without per-sample branches. Clipping uses Math.min() and Math.max(). On the integer
+ * values of the PCM formats the JIT compiles them to conditional moves. The floating point versions
+ * used by Float32 are slower because they must handle NaN and negative zero.
+ * <p>
+ * Every format clips to the range -1.0 to +1.0, so a signal sounds the same whichever format the
+ * line uses. Float lines could carry larger values but most mixers would then clip or wrap them.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public abstract class LineConverter {
+    private final int bytesPerSample;
+
+    LineConverter(int bytesPerSample) {
+        this.bytesPerSample = bytesPerSample;
+    }
+
+    public int getBytesPerSample() {
+        return bytesPerSample;
+    }
+
+    /**
+     * @param format a little endian line format
+     * @return a converter for the format, or null if it is not supported
+     */
+    public static LineConverter forFormat(AudioFormat format) {
+        if (format.isBigEndian() && format.getSampleSizeInBits() > 8) {
+            return null;
+        }
+        AudioFormat.Encoding encoding = format.getEncoding();
+        int bits = format.getSampleSizeInBits();
+        if (AudioFormat.Encoding.PCM_FLOAT.equals(encoding) && bits == 32) {
+            return new Float32();
+        } else if (AudioFormat.Encoding.PCM_SIGNED.equals(encoding)) {
+            if (bits == 24) {
+                return new PCM24();
+            } else if (bits == 16) {
+                return new PCM16();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Convert samples to bytes.
+     *
+     * @param samples values normally between -1.0 and +1.0
+     * @param start index of the first sample
+     * @param count number of samples
+     * @param bytes receives count * getBytesPerSample() bytes
+     */
+    public abstract void encode(double[] samples, int start, int count, byte[] bytes);
+
+    /**
+     * Convert bytes to samples.
+     *
+     * @param bytes count * getBytesPerSample() bytes from a line
+     * @param samples receives count values
+     * @param start index of the first sample to write
+     * @param count number of samples
+     */
+    public abstract void decode(byte[] bytes, double[] samples, int start, int count);
+
+    static class PCM16 extends LineConverter {
+        PCM16() {
+            super(2);
+        }
+
+        @Override
+        public void encode(double[] samples, int start, int count, byte[] bytes) {
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                // Offset before casting so that we can avoid using floor().
+                // Also round by adding 0.5 so that very small signals go to zero.
+                int sample = ((int) ((32767.0 * samples[i]) + 32768.5)) - 32768;
+                sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+                bytes[byteIndex++] = (byte) sample; // little end
+                bytes[byteIndex++] = (byte) (sample >> 8); // big end
+            }
+        }
+
+        @Override
+        public void decode(byte[] bytes, double[] samples, int start, int count) {
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                int sample = (bytes[byteIndex++] & 0xFF) | (bytes[byteIndex++] << 8);
+                samples[i] = sample * (1.0 / 32767.0);
+            }
+        }
+    }
+
+    static class PCM24 extends LineConverter {
+        private static final int OFFSET = 1 << 23;
+        private static final int MAX = OFFSET - 1;
+        private static final double SCALE = MAX;
+
+        PCM24() {
+            super(3);
+        }
+
+        @Override
+        public void encode(double[] samples, int start, int count, byte[] bytes) {
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                int sample = ((int) ((SCALE * samples[i]) + (OFFSET + 0.5))) - OFFSET;
+                sample = Math.max(-OFFSET, Math.min(MAX, sample));
+                bytes[byteIndex++] = (byte) sample;
+                bytes[byteIndex++] = (byte) (sample >> 8);
+                bytes[byteIndex++] = (byte) (sample >> 16);
+            }
+        }
+
+        @Override
+        public void decode(byte[] bytes, double[] samples, int start, int count) {
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                int sample = (bytes[byteIndex++] & 0xFF) | ((bytes[byteIndex++] & 0xFF) << 8)
+                        | (bytes[byteIndex++] << 16);
+                samples[i] = sample * (1.0 / SCALE);
+            }
+        }
+    }
+
+    static class Float32 extends LineConverter {
+        private ByteBuffer byteBuffer;
+
+        Float32() {
+            super(4);
+        }
+
+        /** Reuse the ByteBuffer view as long as the same array is passed. */
+        private ByteBuffer wrap(byte[] bytes) {
+            if (byteBuffer == null || byteBuffer.array() != bytes) {
+                byteBuffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return byteBuffer;
+        }
+
+        @Override
+        public void encode(double[] samples, int start, int count, byte[] bytes) {
+            ByteBuffer buffer = wrap(bytes);
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                float sample = (float) samples[i];
+                sample = Math.min(Math.max(sample, -1.0f), 1.0f);
+                buffer.putFloat(byteIndex, sample);
+                byteIndex += 4;
+            }
+        }
+
+        @Override
+        public void decode(byte[] bytes, double[] samples, int start, int count) {
+            ByteBuffer buffer = wrap(bytes);
+            int byteIndex = 0;
+            for (int i = start; i < start + count; i++) {
+                samples[i] = buffer.getFloat(byteIndex);
+                byteIndex += 4;
+            }
+        }
+    }
+}
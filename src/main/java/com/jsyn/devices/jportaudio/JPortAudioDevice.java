@@ -33,17 +33,31 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     // static Logger logger = Logger.getLogger( JPortAudioDevice.class.getName() );
 
+    private static boolean initialized;
+
+    /**
+     * PortAudio is not initialized until it is needed because initializing it scans every host
+     * API and device.
+     */
     public JPortAudioDevice() {
-        PortAudio.initialize();
+    }
+
+    private static synchronized void ensureInitialized() {
+        if (!initialized) {
+            PortAudio.initialize();
+            initialized = true;
+        }
     }
 
     @Override
     public int getDeviceCount() {
+        ensureInitialized();
         return PortAudio.getDeviceCount();
     }
 
     @Override
     public String getDeviceName(int deviceID) {
+        ensureInitialized();
         DeviceInfo deviceInfo = PortAudio.getDeviceInfo(deviceID);
         HostApiInfo hostInfo = PortAudio.getHostApiInfo(deviceInfo.hostApi);
         return deviceInfo.name + " - " + hostInfo.name;
@@ -51,16 +65,19 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public int getDefaultInputDeviceID() {
+        ensureInitialized();
         return PortAudio.getDefaultInputDevice();
     }
 
     @Override
     public int getDefaultOutputDeviceID() {
+        ensureInitialized();
         return PortAudio.getDefaultOutputDevice();
     }
 
     @Override
     public int getMaxInputChannels(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultInputDevice();
         }
@@ -69,6 +86,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public int getMaxOutputChannels(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultOutputDevice();
         }
@@ -77,6 +95,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public double getDefaultLowInputLatency(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultInputDevice();
         }
@@ -85,6 +104,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public double getDefaultHighInputLatency(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultInputDevice();
         }
@@ -93,6 +113,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public double getDefaultLowOutputLatency(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultOutputDevice();
         }
@@ -101,6 +122,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     @Override
     public double getDefaultHighOutputLatency(int deviceID) {
+        ensureInitialized();
         if (deviceID < 0) {
             deviceID = PortAudio.getDefaultOutputDevice();
         }
@@ -152,6 +174,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
     private class JPAOutputStream extends JPAStream implements AudioDeviceOutputStream {
 
         private JPAOutputStream(int deviceID, int frameRate, int samplesPerFrame) {
+            ensureInitialized();
             this.samplesPerFrame = samplesPerFrame;
             StreamParameters streamParameters = new StreamParameters();
             streamParameters.channelCount = samplesPerFrame;
@@ -199,6 +222,7 @@ public class JPortAudioDevice implements AudioDeviceManager {
 
     private class JPAInputStream extends JPAStream implements AudioDeviceInputStream {
         private JPAInputStream(int deviceID, int frameRate, int samplesPerFrame) {
+            ensureInitialized();
             this.samplesPerFrame = samplesPerFrame;
             StreamParameters streamParameters = new StreamParameters();
             streamParameters.channelCount = samplesPerFrame;
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import com.softsynth.math.FourierMath;
+import com.softsynth.math.StagedRealFFT;
+import com.softsynth.math.StagedRealIFFT;
+
+/**
+ * Convolve a mono input with a long impulse response using non-uniformly partitioned FFT
+ * convolution. There is no latency.
+ * <p>
+ * The first headSize taps are convolved directly. The rest of the impulse response is split into
+ * levels of partitions, using uniformly partitioned overlap-save convolution within each level.
+ * The first level uses partitions of headSize, which are calculated when each partition of input
+ * is complete. Each following level uses partitions up to four times larger, up to
+ * maxPartitionSize.
+ * The last level covers the rest of the impulse response. With maxPartitionSize equal to headSize
+ * the convolution is uniformly partitioned.
+ * <p>
+ * The larger levels start two partitions into their part of the impulse response. So each one
+ * has a whole partition of time to calculate its result. That work is spread evenly over the
+ * frames of the partition, or it can be done by a background thread, see
+ * setTailThreadEnabled(). The audio thread never takes a lock or waits for the background thread.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class PartitionedConvolver {
+    public static final int DEFAULT_HEAD_SIZE = 64;
+    public static final int DEFAULT_MAX_PARTITION_SIZE = 8192;
+    // Each level has partitions this much larger than the previous level.
+    private static final int GROWTH = 4;
+    // Work done by the tail thread before it checks for a job with an earlier deadline.
+    private static final int THREAD_CHUNK = 2048;
+
+    private final int numChannels;
+    private final int length;
+    private final int headSize;
+    // Direct convolution of the first taps, per channel.
+    private final double[][] headTaps;
+    private final Level[] levels;
+    // Recent input, long enough for the largest level.
+    private final double[] history;
+    private final int historyMask;
+    private long frameCount;
+
+    // Only changed before processing starts, or by close().
+    private volatile boolean threaded;
+    private volatile boolean started;
+    private volatile Thread tailThread;
+    private volatile long lateCount;
+
+    /**
+     * One level of uniformly sized partitions.
+     */
+    private static class Level {
+        final int size;
+        final int numBins;
+        // The first partition is this many partitions into the impulse response.
+        final int firstPartition;
+        final int numPartitions;
+        final int numChannels;
+        // Spectra of the impulse response partitions, [channel][partition][bin]
+        final double[][][] filterReal;
+        final double[][][] filterImag;
+        // Spectra of recent input partitions, used as a ring.
+        final double[][] inputReal;
+        final double[][] inputImag;
+        int newestInput;
+        final double[] snapshot;
+        final StagedRealFFT fft;
+        final StagedRealIFFT ifft;
+        // Sum of the products for one channel. Full size for the IFFT.
+        final double[][] sumReal;
+        final double[][] sumImag;
+        // Results of the IFFT. One set is played while the other is calculated.
+        final double[][][] results;
+        int playIndex;
+        final int totalWork;
+        final int workPerFrame;
+        // Jobs begun by the audio thread and finished by the tail thread. The audio thread only
+        // touches the job state when they are equal.
+        volatile long requested;
+        volatile long completed;
+
+        // Progress of the current job.
+        private static final int TRANSFORM_INPUT = 0;
+        private static final int MULTIPLY = 1;
+        private static final int TRANSFORM_OUTPUT = 2;
+        boolean pending;
+        private int stage;
+        private int cursor;
+        private int channel;
+
+        Level(float[][] impulse, int size, int firstPartition, int numPartitions) {
+            this.size = size;
+            this.firstPartition = firstPartition;
+            this.numPartitions = numPartitions;
+            numChannels = impulse.length;
+            numBins = size + 1;
+            int fftSize = 2 * size;
+            fft = new StagedRealFFT(fftSize);
+            ifft = new StagedRealIFFT(fftSize);
+
+            filterReal = new double[numChannels][numPartitions][];
+            filterImag = new double[numChannels][numPartitions][];
+            double[] partition = new double[fftSize];
+            double[] imag = new double[size + 1];
+            for (int c = 0; c < numChannels; c++) {
+                for (int p = 0; p < numPartitions; p++) {
+                    int offset = (firstPartition + p) * size;
+                    for (int i = 0; i < fftSize; i++) {
+                        int index = offset + i;
+                        partition[i] = ((i < size) && (index < impulse[c].length))
+                                ? impulse[c][index] : 0.0;
+                    }
+                    FourierMath.fftReal(fftSize, partition, partition, imag);
+                    // Undo the 2/n scaling of the forward FFT and the 0.5 of the inverse.
+                    double[] real = new double[numBins];
+                    double[] imaginary = new double[numBins];
+                    for (int k = 0; k < numBins; k++) {
+                        real[k] = partition[k] * size;
+                        imaginary[k] = imag[k] * size;
+                    }
+                    filterReal[c][p] = real;
+                    filterImag[c][p] = imaginary;
+                }
+            }
+            inputReal = new double[numPartitions][numBins];
+            inputImag = new double[numPartitions][numBins];
+            snapshot = new double[fftSize];
+            sumReal = new double[numChannels][fftSize];
+            sumImag = new double[numChannels][fftSize];
+            results = new double[2][numChannels][fftSize];
+
+            totalWork = fft.getTotalWork() + (numChannels * numPartitions * numBins)
+                    + (numChannels * ifft.getTotalWork());
+            // Round up so a job always finishes within one partition.
+            workPerFrame = (totalWork + size - 1) / size;
+        }
+
+        boolean isDelayed() {
+            return firstPartition > 1;
+        }
+
+        /** Start calculating the next partition of output from the latest input. */
+        void begin(double[] history, int historyMask, long frameCount) {
+            long start = frameCount - snapshot.length;
+            for (int i = 0; i < snapshot.length; i++) {
+                snapshot[i] = history[(int) ((start + i) & historyMask)];
+            }
+            fft.begin(snapshot);
+            stage = TRANSFORM_INPUT;
+            pending = true;
+        }
+
+        /**
+         * @param work maximum units of work to do
+         */
+        void step(int work) {
+            while ((work > 0) && pending) {
+                switch (stage) {
+                    case TRANSFORM_INPUT:
+                        work -= fft.step(work);
+                        if (fft.isDone()) {
+                            newestInput = (newestInput + 1) % numPartitions;
+                            System.arraycopy(fft.getReal(), 0, inputReal[newestInput], 0,
+                                    numBins);
+                            System.arraycopy(fft.getImaginary(), 0, inputImag[newestInput], 0,
+                                    numBins);
+                            stage = MULTIPLY;
+                            cursor = 0;
+                        }
+                        break;
+                    case MULTIPLY:
+                        work -= multiply(work);
+                        if (cursor >= (numChannels * numPartitions * numBins)) {
+                            stage = TRANSFORM_OUTPUT;
+                            channel = 0;
+                            beginInverse();
+                        }
+                        break;
+                    default:
+                        work -= ifft.step(work);
+                        if (ifft.isDone()) {
+                            channel++;
+                            if (channel < numChannels) {
+                                beginInverse();
+                            } else {
+                                pending = false;
+                            }
+                        }
+                        break;
+                }
+            }
+        }
+
+        void finish() {
+            step(Integer.MAX_VALUE);
+        }
+
+        /**
+         * Multiply the recent input spectra by the filter spectra and add them up. The work is
+         * numbered by channel, then partition, then bin.
+         *
+         * @return units of work done
+         */
+        private int multiply(int work) {
+            int end = (int) Math.min(((long) numChannels) * numPartitions * numBins,
+                    ((long) cursor) + work);
+            int done = 0;
+            while (cursor < end) {
+                int c = cursor / (numPartitions * numBins);
+                int p = (cursor / numBins) % numPartitions;
+                int from = cursor % numBins;
+                int to = Math.min(numBins, from + (end - cursor));
+                // Partition p uses the input from p partitions ago.
+                int slot = (newestInput - p + numPartitions) % numPartitions;
+                double[] xr = inputReal[slot];
+                double[] xi = inputImag[slot];
+                double[] hr = filterReal[c][p];
+                double[] hi = filterImag[c][p];
+                double[] yr = sumReal[c];
+                double[] yi = sumImag[c];
+                if (p == 0) {
+                    for (int k = from; k < to; k++) {
+                        yr[k] = (xr[k] * hr[k]) - (xi[k] * hi[k]);
+                        yi[k] = (xr[k] * hi[k]) + (xi[k] * hr[k]);
+                    }
+                } else {
+                    for (int k = from; k < to; k++) {
+                        yr[k] += (xr[k] * hr[k]) - (xi[k] * hi[k]);
+                        yi[k] += (xr[k] * hi[k]) + (xi[k] * hr[k]);
+                    }
+                }
+                done += to - from;
+                cursor += to - from;
+            }
+            return done;
+        }
+
+        private void beginInverse() {
+            double[] yr = sumReal[channel];
+            double[] yi = sumImag[channel];
+            int fftSize = yr.length;
+            // The IFFT expects the conjugates in the upper half.
+            for (int k = 1; k < size; k++) {
+                yr[fftSize - k] = yr[k];
+                yi[fftSize - k] = -yi[k];
+            }
+            ifft.begin(yr, yi, results[playIndex ^ 1][channel]);
+        }
+
+        /** Play the results of the last job. */
+        void swap() {
+            playIndex ^= 1;
+        }
+
+        /** @return output of one channel for the given frame, which is in the current partition */
+        double get(int c, long frameCount) {
+            // Overlap-save keeps the second half of the IFFT output.
+            return results[playIndex][c][size + (int) (frameCount & (size - 1))];
+        }
+    }
+
+    /**
+     * Use the default partition sizes.
+     *
+     * @param impulse impulse response for each output channel, [channel][frame]
+     */
+    public PartitionedConvolver(float[][] impulse) {
+        this(impulse, DEFAULT_HEAD_SIZE, DEFAULT_MAX_PARTITION_SIZE);
+    }
+
+    /**
+     * @param impulse impulse response for each output channel, [channel][frame]
+     * @param headSize number of taps convolved directly and the size of the first partitions,
+     *            a power of 2
+     * @param maxPartitionSize largest partition size, a power of 2 not smaller than headSize
+     */
+    public PartitionedConvolver(float[][] impulse, int headSize, int maxPartitionSize) {
+        if ((headSize < 1) || ((headSize & (headSize - 1)) != 0)
+                || ((maxPartitionSize & (maxPartitionSize - 1)) != 0)
+                || (maxPartitionSize < headSize)) {
+            throw new IllegalArgumentException("Partition sizes must be powers of 2, not "
+                    + headSize + " and " + maxPartitionSize);
+        }
+        numChannels = impulse.length;
+        int maxLength = 0;
+        for (float[] channel : impulse) {
+            maxLength = Math.max(maxLength, channel.length);
+        }
+        length = maxLength;
+        this.headSize = headSize;
+
+        headTaps = new double[numChannels][headSize];
+        for (int c = 0; c < numChannels; c++) {
+            for (int i = 0; (i < headSize) && (i < impulse[c].length); i++) {
+                headTaps[c][i] = impulse[c][i];
+            }
+        }
+
+        ArrayList<Level> levelList = new ArrayList<Level>();
+        int size = headSize;
+        int firstPartition = 1;
+        int offset = headSize;
+        while (offset < length) {
+            int nextSize = Math.min(size * GROWTH, maxPartitionSize);
+            // The next level starts two of its partitions in.
+            int end = 2 * nextSize;
+            boolean last = (size >= maxPartitionSize) || (length <= end);
+            if (last) {
+                end = length;
+            }
+            int numPartitions = ((end + size - 1) / size) - firstPartition;
+            levelList.add(new Level(impulse, size, firstPartition, numPartitions));
+            offset = end;
+            size = nextSize;
+            firstPartition = 2;
+        }
+        levels = levelList.toArray(new Level[levelList.size()]);
+
+        int largest = (levels.length > 0) ? levels[levels.length - 1].size : headSize;
+        history = new double[Math.max(2 * largest, headSize)];
+        historyMask = history.length - 1;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    /** @return length of the impulse response in frames */
+    public int getLength() {
+        return length;
+    }
+
+    /** @return number of levels of partitions, not counting the direct convolution */
+    public int getNumLevels() {
+        return levels.length;
+    }
+
+    /**
+     * @param level index of a level
+     * @return partition size of that level
+     */
+    public int getPartitionSize(int level) {
+        return levels[level].size;
+    }
+
+    /**
+     * Calculate the larger partitions in a background thread instead of the audio thread. The
+     * thread has a whole partition of time to finish each job. The audio thread never waits for
+     * it. If it falls behind then that level repeats its previous output for one partition, which
+     * is counted by getLateCount(), and the tail is wrong until the level catches up. So only use
+     * this when process() is called in real time.
+     * <p>
+     * This must be set before the first call to process().
+     *
+     * @param enabled true to start a thread, false to stop it
+     * @throws IllegalStateException if process() has been called
+     */
+    public synchronized void setTailThreadEnabled(boolean enabled) {
+        if (started) {
+            throw new IllegalStateException("Cannot change the tail thread after processing.");
+        }
+        if (enabled && (tailThread == null)) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runTail();
+                }
+            }, "JSynConvolutionTail");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            tailThread = thread;
+            threaded = true;
+            thread.start();
+        } else if (!enabled) {
+            stopTailThread();
+        }
+    }
+
+    public boolean isTailThreadEnabled() {
+        return threaded;
+    }
+
+    /**
+     * @return number of times the tail thread had not finished a partition in time
+     */
+    public long getLateCount() {
+        return lateCount;
+    }
+
+    /**
+     * Stop the background thread, if any. The audio thread then calculates the larger partitions
+     * itself, so process() can still be called.
+     */
+    public synchronized void close() {
+        stopTailThread();
+    }
+
+    private void stopTailThread() {
+        Thread thread = tailThread;
+        if (thread != null) {
+            tailThread = null;
+            LockSupport.unpark(thread);
+            try {
+                // It stops after at most one chunk of work.
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return; // still threaded because the thread may be working
+            }
+        }
+        threaded = false;
+    }
+
+    /** @return true if the tail thread has finished every job it has been given */
+    boolean isTailIdle() {
+        for (Level level : levels) {
+            if (level.completed != level.requested) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void runTail() {
+        Thread self = Thread.currentThread();
+        while (tailThread == self) {
+            // Smaller levels have earlier deadlines.
+            Level next = null;
+            for (Level level : levels) {
+                if (level.isDelayed() && (level.completed != level.requested)) {
+                    next = level;
+                    break;
+                }
+            }
+            if (next == null) {
+                LockSupport.park(this);
+            } else {
+                next.step(THREAD_CHUNK);
+                if (!next.pending) {
+                    next.completed = next.requested; // publish the results
+                }
+            }
+        }
+    }
+
+    /**
+     * Convolve a block of input.
+     *
+     * @param input mono input
+     * @param outputs receives the output for each channel of the impulse response
+     * @param start index of the first frame in the arrays
+     * @param limit index after the last frame
+     */
+    public void process(double[] input, double[][] outputs, int start, int limit) {
+        if (!started) {
+            started = true;
+        }
+        for (int i = start; i < limit; i++) {
+            history[(int) (frameCount & historyMask)] = input[i];
+            for (int c = 0; c < numChannels; c++) {
+                double[] taps = headTaps[c];
+                double sum = 0.0;
+                for (int t = 0; t < headSize; t++) {
+                    sum += taps[t] * history[(int) ((frameCount - t) & historyMask)];
+                }
+                for (Level level : levels) {
+                    sum += level.get(c, frameCount);
+                }
+                outputs[c][i] = sum;
+            }
+            frameCount++;
+            if ((levels.length > 0) && ((frameCount & (headSize - 1)) == 0)) {
+                startPartitions();
+            }
+        }
+        if (!threaded) {
+            int numFrames = limit - start;
+            for (Level level : levels) {
+                if (level.isDelayed() && level.pending) {
+                    level.step(numFrames * level.workPerFrame);
+                }
+            }
+        }
+    }
+
+    /** Called when a partition of the first level is complete. */
+    private void startPartitions() {
+        boolean useThread = threaded;
+        boolean signal = false;
+        for (Level level : levels) {
+            if ((frameCount & (level.size - 1)) != 0) {
+                break; // larger levels are not complete either
+            }
+            if (level.isDelayed()) {
+                // Play what was calculated during the previous partition.
+                if (useThread) {
+                    if (level.completed != level.requested) {
+                        lateCount++; // keep playing the old results rather than wait
+                        continue;
+                    }
+                } else if (level.pending) {
+                    level.finish();
+                }
+                if (frameCount > level.size) {
+                    level.swap();
+                }
+                level.begin(history, historyMask, frameCount);
+                if (useThread) {
+                    level.requested++; // hand the job to the tail thread
+                    signal = true;
+                }
+            } else {
+                level.begin(history, historyMask, frameCount);
+                level.finish();
+                level.swap();
+            }
+        }
+        if (signal) {
+            Thread thread = tailThread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+import java.util.Arrays;
+
+/**
+ * Convert interleaved audio between two fixed frame rates. The ratio is reduced to L/M. Each
+ * output frame is one of L phases of a Kaiser windowed sinc filter. The coefficients for every
+ * phase are calculated ahead of time, so each output sample is a single dot product.
+ * <p>
+ * When downsampling, the cutoff is lowered to the output Nyquist rate and the filter is stretched
+ * so that it has the same number of zero crossings. So it costs more per output frame.
+ * <p>
+ * If L is very large, for example 44100 to 48001, then the table only has MAX_PHASES phases and
+ * the phase is rounded down. The position is still tracked exactly so the rate is correct.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class PolyphaseResampler {
+    /** Limit the size of the coefficient table for unusual ratios. */
+    public static final int MAX_PHASES = 1024;
+
+    /** Trade quality against CPU cost. */
+    public enum Quality {
+        /** 4 zero crossings per side. For previewing. */
+        LOW(4, 5.0, 0.80),
+        /** 12 zero crossings per side. */
+        MEDIUM(12, 7.0, 0.88),
+        /** 24 zero crossings per side. */
+        HIGH(24, 9.0, 0.92),
+        /** 48 zero crossings per side. For mastering. */
+        BEST(48, 11.0, 0.95);
+
+        private final int zeroCrossings;
+        private final double kaiserBeta;
+        private final double cutoff;
+
+        Quality(int zeroCrossings, double kaiserBeta, double cutoff) {
+            this.zeroCrossings = zeroCrossings;
+            this.kaiserBeta = kaiserBeta;
+            this.cutoff = cutoff;
+        }
+
+        public int getZeroCrossings() {
+            return zeroCrossings;
+        }
+    }
+
+    private final int inputRate;
+    private final int outputRate;
+    private final int samplesPerFrame;
+    // Reduced ratio, the output advances by inputStep/outputStep input frames.
+    private final int inputStep;
+    private final int outputStep;
+    private final int numPhases;
+    private final int numTaps;
+    private final double[] coefficients;
+
+    // Input frames waiting to be filtered. Interleaved.
+    private double[] history;
+    private int numValidFrames;
+    // Position of the next output frame is (inputIndex + (phase / outputStep)).
+    private int inputIndex;
+    private int phase;
+
+    /**
+     * @param inputRate frame rate of the input, eg. 32000
+     * @param outputRate frame rate of the output, eg. 48000
+     * @param samplesPerFrame number of interleaved channels
+     * @param quality selects the filter length
+     */
+    public PolyphaseResampler(int inputRate, int outputRate, int samplesPerFrame,
+            Quality quality) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Rates must be positive.");
+        }
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.samplesPerFrame = samplesPerFrame;
+        int divisor = gcd(inputRate, outputRate);
+        inputStep = inputRate / divisor;
+        outputStep = outputRate / divisor;
+        numPhases = Math.min(outputStep, MAX_PHASES);
+
+        // Lower the cutoff when decimating.
+        double scale = Math.min(1.0, ((double) outputRate) / inputRate);
+        double cutoff = quality.cutoff * scale;
+        int halfTaps = (int) Math.ceil(quality.zeroCrossings / scale);
+        numTaps = 2 * halfTaps;
+        coefficients = new double[numPhases * numTaps];
+        for (int p = 0; p < numPhases; p++) {
+            double fraction = ((double) p) / numPhases;
+            double sum = 0.0;
+            for (int k = 0; k < numTaps; k++) {
+                // Distance from the interpolated position to this input frame.
+                double x = (k - (halfTaps - 1)) - fraction;
+                double value = SincInterpolator.windowedSinc(x, halfTaps, cutoff,
+                        quality.kaiserBeta);
+                coefficients[(p * numTaps) + k] = value;
+                sum += value;
+            }
+            // Normalize each phase for unity gain at DC so there is no phase dependent ripple.
+            for (int k = 0; k < numTaps; k++) {
+                coefficients[(p * numTaps) + k] /= sum;
+            }
+        }
+        history = new double[numTaps * 4 * samplesPerFrame];
+        reset();
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int temp = a % b;
+            a = b;
+            b = temp;
+        }
+        return a;
+    }
+
+    /** Clear the history so the next output starts from silence. */
+    public void reset() {
+        Arrays.fill(history, 0.0);
+        // Start with silent history so the first input frame is used immediately.
+        numValidFrames = (numTaps / 2) - 1;
+        inputIndex = numValidFrames;
+        phase = 0;
+    }
+
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+
+    /** @return total number of input frames used for each output frame */
+    public int getNumTaps() {
+        return numTaps;
+    }
+
+    /** @return delay through the filter in seconds */
+    public double getLatency() {
+        return ((double) numTaps / 2) / inputRate;
+    }
+
+    /**
+     * @param numInputFrames number of frames that will be passed to process()
+     * @return the largest number of frames that process() could write
+     */
+    public int getMaxOutputFrames(int numInputFrames) {
+        return (int) (((long) (numInputFrames + 1) * outputStep) / inputStep) + 1;
+    }
+
+    /**
+     * Convert a block of input. Any number of frames can be passed. The output is written as
+     * soon as enough input is available, so the number of output frames varies from call to call.
+     *
+     * @param input interleaved input frames
+     * @param inputStart index of the first input sample
+     * @param numInputFrames number of frames to convert
+     * @param output receives interleaved output frames, must have room for
+     *            getMaxOutputFrames(numInputFrames)
+     * @param outputStart index of the first output sample
+     * @return number of frames written to the output
+     */
+    public int process(double[] input, int inputStart, int numInputFrames, double[] output,
+            int outputStart) {
+        final int spf = samplesPerFrame;
+        int numOutput = 0;
+        int outIndex = outputStart;
+        int inputFramesUsed = 0;
+        int halfTaps = numTaps / 2;
+        while (inputFramesUsed < numInputFrames) {
+            // Append as much input as will fit.
+            int room = (history.length / spf) - numValidFrames;
+            int numToCopy = Math.min(room, numInputFrames - inputFramesUsed);
+            System.arraycopy(input, inputStart + (inputFramesUsed * spf), history,
+                    numValidFrames * spf, numToCopy * spf);
+            numValidFrames += numToCopy;
+            inputFramesUsed += numToCopy;
+
+            // Produce output frames while the filter has all of its input.
+            while ((inputIndex + halfTaps) < numValidFrames) {
+                int tableIndex = selectPhase() * numTaps;
+                int firstSample = (inputIndex - (halfTaps - 1)) * spf;
+                for (int channel = 0; channel < spf; channel++) {
+                    output[outIndex++] = dotProduct(tableIndex, firstSample + channel);
+                }
+                numOutput++;
+                phase += inputStep;
+                if (phase >= outputStep) {
+                    inputIndex += phase / outputStep;
+                    phase = phase % outputStep;
+                }
+            }
+
+            // Discard frames that are no longer needed.
+            int keepFrom = Math.min(inputIndex - (halfTaps - 1), numValidFrames);
+            if (keepFrom > 0) {
+                System.arraycopy(history, keepFrom * spf, history, 0,
+                        (numValidFrames - keepFrom) * spf);
+                numValidFrames -= keepFrom;
+                inputIndex -= keepFrom;
+            }
+        }
+        return numOutput;
+    }
+
+    private int selectPhase() {
+        if (numPhases == outputStep) {
+            return phase;
+        }
+        return (int) (((long) phase * numPhases) / outputStep);
+    }
+
+    private double dotProduct(int tableIndex, int sampleIndex) {
+        final double[] h = coefficients;
+        final double[] x = history;
+        final int stride = samplesPerFrame;
+        double sum = 0.0;
+        for (int k = 0; k < numTaps; k++) {
+            sum += h[tableIndex + k] * x[sampleIndex];
+            sampleIndex += stride;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.dsp;
+
+import java.util.HashMap;
+
+/**
+ * A bank of SincInterpolators with the same number of taps and different cutoffs.
+ * <p>
+ * When reading faster than the input rate the cutoff must be lowered to avoid aliasing. Stretching
+ * the filter would make the cost depend on the rate, so there are extra tables with cutoffs a
+ * quarter octave apart. Increments above 2^NUM_OCTAVES use the lowest cutoff and will alias.
+ * <p>
+ * The tables are shared because they are large and never change.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SincInterpolator
+ */
+public class PolyphaseSincTable {
+    public static final int STEPS_PER_OCTAVE = 4;
+    public static final int NUM_OCTAVES = 3;
+    public static final int NUM_PHASES = 128;
+    private static final double CUTOFF = 0.9;
+    private static final double KAISER_BETA = 8.0;
+    private static final HashMap<Integer, PolyphaseSincTable> instances =
+            new HashMap<Integer, PolyphaseSincTable>();
+
+    private final int zeroCrossings;
+    private final SincInterpolator[] interpolators;
+
+    private PolyphaseSincTable(int zeroCrossings) {
+        this.zeroCrossings = zeroCrossings;
+        interpolators = new SincInterpolator[(STEPS_PER_OCTAVE * NUM_OCTAVES) + 1];
+        for (int c = 0; c < interpolators.length; c++) {
+            double cutoff = CUTOFF * Math.pow(2.0, -((double) c) / STEPS_PER_OCTAVE);
+            interpolators[c] = new SincInterpolator(zeroCrossings, NUM_PHASES, cutoff,
+                    KAISER_BETA);
+        }
+    }
+
+    /**
+     * Get a shared table, building it if needed. Call this before starting the audio because
+     * building the tables takes a while.
+     *
+     * @param zeroCrossings number of input samples used on each side of the interpolated position
+     */
+    public static synchronized PolyphaseSincTable getInstance(int zeroCrossings) {
+        PolyphaseSincTable table = instances.get(zeroCrossings);
+        if (table == null) {
+            table = new PolyphaseSincTable(zeroCrossings);
+            instances.put(zeroCrossings, table);
+        }
+        return table;
+    }
+
+    public int getZeroCrossings() {
+        return zeroCrossings;
+    }
+
+    /**
+     * @param increment input frames per output frame
+     * @return index of a cutoff that is below the output Nyquist rate, for interpolate()
+     */
+    public int selectCutoff(double increment) {
+        if (increment <= 1.0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(increment) * (STEPS_PER_OCTAVE / Math.log(2.0)));
+        return Math.min(index, interpolators.length - 1);
+    }
+
+    /**
+     * Interpolate a value between data[index] and data[index + stride] using the selected cutoff.
+     *
+     * @param cutoffIndex from selectCutoff()
+     * @see SincInterpolator#interpolate(double[], int, int, double)
+     */
+    public double interpolate(int cutoffIndex, double[] data, int index, int stride,
+            double fraction) {
+        return interpolators[cutoffIndex].interpolate(data, index, stride, fraction);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+/**
+ * Band-limited interpolation between samples using a Kaiser windowed sinc function. The impulse
+ * response is stored in a polyphase table. Each row holds the coefficients for all of the taps at
+ * one fractional position, so an output value is two short dot products over contiguous memory,
+ * blended by the remaining fraction. Any fractional position can be used, which makes it suitable
+ * for both fixed and continuously varying conversion ratios.
+ * <p>
+ * The filter uses zeroCrossings input samples on each side of the interpolated position. More
+ * zero crossings give a steeper filter at a higher CPU cost.
+ * <p>
+ * The static methods are also used to design the other sinc filters in JSyn.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see PolyphaseSincTable
+ */
+public class SincInterpolator {
+    private final int zeroCrossings;
+    private final int numTaps;
+    private final int numPhases;
+    // (numPhases + 1) rows of numTaps coefficients. The last row is for a fraction of 1.0.
+    private final double[] table;
+
+    /**
+     * @param zeroCrossings number of input samples used on each side
+     * @param numPhases number of rows in the table between adjacent samples
+     * @param cutoff corner frequency as a fraction of the input Nyquist rate, 0.0 to 1.0
+     * @param kaiserBeta shape of the window, higher values give more stop band attenuation
+     */
+    public SincInterpolator(int zeroCrossings, int numPhases, double cutoff, double kaiserBeta) {
+        if (zeroCrossings < 1 || numPhases < 1) {
+            throw new IllegalArgumentException("Sizes must be positive.");
+        }
+        if (cutoff <= 0.0 || cutoff > 1.0) {
+            throw new IllegalArgumentException("Cutoff out of range: " + cutoff);
+        }
+        this.zeroCrossings = zeroCrossings;
+        this.numPhases = numPhases;
+        numTaps = 2 * zeroCrossings;
+        table = new double[(numPhases + 1) * numTaps];
+        for (int p = 0; p <= numPhases; p++) {
+            double fraction = ((double) p) / numPhases;
+            for (int j = 0; j < numTaps; j++) {
+                // Distance from the interpolated position to the input sample of this tap.
+                double x = (j - (zeroCrossings - 1)) - fraction;
+                table[(p * numTaps) + j] = windowedSinc(x, zeroCrossings, cutoff, kaiserBeta);
+            }
+        }
+    }
+
+    /** Medium quality filter that is good to about 20 kHz at 44100 Hz. */
+    public SincInterpolator() {
+        this(16, 256, 0.9, 8.0);
+    }
+
+    /** @return sin(PI * x) / (PI * x) */
+    public static double sinc(double x) {
+        if (x == 0.0) {
+            return 1.0;
+        }
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+
+    /** Modified Bessel function of the first kind, order zero, by power series. */
+    public static double bessel0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        double halfX = x * 0.5;
+        for (int k = 1; k < 100; k++) {
+            double factor = halfX / k;
+            term *= factor * factor;
+            sum += term;
+            if (term < (sum * 1.0e-16)) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Impulse response of a low pass filter with a Kaiser window.
+     *
+     * @param x distance from the center in input samples
+     * @param halfWidth distance where the window reaches zero
+     * @param cutoff corner frequency as a fraction of the input Nyquist rate
+     * @param kaiserBeta shape of the window
+     * @return filter coefficient, zero outside the window
+     */
+    public static double windowedSinc(double x, double halfWidth, double cutoff,
+            double kaiserBeta) {
+        double ratio = x / halfWidth;
+        if (Math.abs(ratio) >= 1.0) {
+            return 0.0;
+        }
+        double window = bessel0(kaiserBeta * Math.sqrt(1.0 - (ratio * ratio)))
+                / bessel0(kaiserBeta);
+        return cutoff * sinc(cutoff * x) * window;
+    }
+
+    /** @return number of input samples needed on each side of the interpolated position */
+    public int getZeroCrossings() {
+        return zeroCrossings;
+    }
+
+    /**
+     * Interpolate a value between data[index] and data[index + stride]. The array must contain
+     * (zeroCrossings - 1) samples before index and zeroCrossings samples after it. A stride greater
+     * than one lets you interpolate one channel of interleaved data.
+     *
+     * @param data input samples
+     * @param index array index of the sample just before the interpolated position
+     * @param stride distance between consecutive samples in the array
+     * @param fraction position between data[index] and the next sample, 0.0 to 1.0
+     * @return interpolated value
+     */
+    public double interpolate(double[] data, int index, int stride, double fraction) {
+        final double[] h = table;
+        double phase = fraction * numPhases;
+        int row = (int) phase;
+        double rowFraction = phase - row;
+        int first = row * numTaps;
+        int second = first + numTaps;
+        int dataIndex = index - ((zeroCrossings - 1) * stride);
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        for (int j = 0; j < numTaps; j++) {
+            double value = data[dataIndex];
+            sum0 += value * h[first + j];
+            sum1 += value * h[second + j];
+            dataIndex += stride;
+        }
+        return sum0 + (rowFraction * (sum1 - sum0));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.engine;
+
+/**
+ * Element-wise loops over blocks of samples that are shared by the core units and ports.
+ * <p>
+ * This is the portable version, which is used with Java 8. The JSyn jar is a multi-release jar
+ * that also contains a version for Java 17 and later in META-INF/versions/17. That version uses
+ * the incubating Vector API when the application is run with
+ * <code>--add-modules jdk.incubator.vector</code>, and otherwise falls back to these loops. The
+ * results are the same either way because the vector code does the same operations in the same
+ * order. Run with -Djsyn.vector=false to disable the vector code.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public final class BlockKernels {
+
+    private BlockKernels() {
+    }
+
+    /** @return true if the Vector API is being used */
+    public static boolean isVectorized() {
+        return false;
+    }
+
+    /** out[i] = a[i] + b[i] */
+    public static void add(double[] a, double[] b, double[] out, int start, int limit) {
+        for (int i = start; i < limit; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    /** out[i] = a[i] * b[i] */
+    public static void multiply(double[] a, double[] b, double[] out, int start, int limit) {
+        for (int i = start; i < limit; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    /** out[i] = (a[i] * b[i]) + c[i] */
+    public static void multiplyAdd(double[] a, double[] b, double[] c, double[] out, int start,
+            int limit) {
+        for (int i = start; i < limit; i++) {
+            out[i] = (a[i] * b[i]) + c[i];
+        }
+    }
+
+    /** sum[i] += a[i] */
+    public static void accumulate(double[] a, double[] sum, int start, int limit) {
+        for (int i = start; i < limit; i++) {
+            sum[i] += a[i];
+        }
+    }
+
+    /** sum[i] += a[i] * b[i] */
+    public static void accumulateProduct(double[] a, double[] b, double[] sum, int start,
+            int limit) {
+        for (int i = start; i < limit; i++) {
+            sum[i] += a[i] * b[i];
+        }
+    }
+
+    /**
+     * Linear pan between two outputs.
+     *
+     * @param pans -1.0 for all left, 0.0 for center, +1.0 for all right
+     */
+    public static void pan(double[] inputs, double[] pans, double[] left, double[] right,
+            int start, int limit) {
+        for (int i = start; i < limit; i++) {
+            double gainB = (pans[i] * 0.5) + 0.5;
+            double gainA = 1.0 - gainB;
+            double inVal = inputs[i];
+            left[i] = inVal * gainA;
+            right[i] = inVal * gainB;
+        }
+    }
+
+    /** interleaved[offset + (i * stride)] = source[i] for i from 0 to count-1 */
+    public static void interleave(double[] source, double[] interleaved, int offset, int stride,
+            int count) {
+        for (int i = 0; i < count; i++) {
+            interleaved[offset + (i * stride)] = source[i];
+        }
+    }
+
+    /** destination[i] = interleaved[offset + (i * stride)] for i from 0 to count-1 */
+    public static void deinterleave(double[] interleaved, int offset, int stride,
+            double[] destination, int count) {
+        for (int i = 0; i < count; i++) {
+            destination[i] = interleaved[offset + (i * stride)];
+        }
+    }
+}
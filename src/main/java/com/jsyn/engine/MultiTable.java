@@ -42,10 +42,21 @@ public class MultiTable {
     public final static int NUM_TABLES = 8;
     public final static int CYCLE_SIZE = (1 << 10);
 
-    private static MultiTable instance = new MultiTable(NUM_TABLES, CYCLE_SIZE);
+    // Built when first needed, or loaded from a SharedTables snapshot.
+    private static volatile MultiTable instance;
     private double phaseScalar;
     private float[][] tables; // array of array of tables
 
+    /**
+     * Use tables that were calculated earlier.
+     *
+     * @param tables each table has CYCLE_SIZE + 1 values including the guard point
+     */
+    MultiTable(float[][] tables) {
+        this.tables = tables;
+        phaseScalar = (float) ((tables[0].length - 1) * 0.5);
+    }
+
     /**************************************************************************
      * Initialize sawtooth wavetables. Table[0] should contain a pure sine wave. Succeeding tables
      * should have increasing numbers of partials.
@@ -223,8 +234,29 @@ public class MultiTable {
         return -1.0 - (Math.log(positivePhaseIncrement) / Math.log(2.0));
     }
 
+    float[][] getTables() {
+        return tables;
+    }
+
+    /**
+     * Get the shared tables, building them if needed. Building takes a while so call this, or
+     * SharedTables.warmUp(), before the audio thread needs the tables.
+     */
     public static MultiTable getInstance() {
-        return instance;
+        MultiTable table = instance;
+        if (table == null) {
+            synchronized (MultiTable.class) {
+                if (instance == null) {
+                    instance = new MultiTable(NUM_TABLES, CYCLE_SIZE);
+                }
+                table = instance;
+            }
+        }
+        return table;
+    }
+
+    static synchronized void setInstance(MultiTable table) {
+        instance = table;
     }
 
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.jsyn.JSyn;
+import com.jsyn.data.SpectralWindowFactory;
+import com.softsynth.math.FourierMath;
+
+/**
+ * Build the lookup tables that JSyn shares between units before they are needed. Otherwise the
+ * tables are built on first use, which might be in the audio thread and cause a glitch.
+ * <p>
+ * The most expensive tables, the band-limited MultiTable and the FFT sine tables, can also be
+ * saved to a snapshot and loaded later, which is faster than calculating them. The snapshot can
+ * be loaded from a memory-mapped file or from a resource. Snapshots have a format version and are
+ * rejected if they do not match this version of JSyn.
+ *
+ * <pre>
+ * <code>
+ *     // Once, at build time.
+ *     SharedTables.save(new File("jsyn_tables.bin"));
+ *     // At startup, before creating units.
+ *     SharedTables.load(MyApp.class.getResourceAsStream("/jsyn_tables.bin"));
+ *     SharedTables.warmUp(); // builds anything that was not in the snapshot
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class SharedTables {
+    /** Changes whenever the layout of the snapshot changes. */
+    public static final int FORMAT_VERSION = 2;
+    // "JSTB"
+    private static final int MAGIC = 0x4A535442;
+    /** Largest FFT and window size built by warmUp(). */
+    public static final int DEFAULT_MAX_SIZE_LOG_2 = 15;
+
+    /** Build all of the shared tables for FFTs up to 2^DEFAULT_MAX_SIZE_LOG_2. */
+    public static void warmUp() {
+        warmUp(DEFAULT_MAX_SIZE_LOG_2);
+    }
+
+    /**
+     * Build all of the shared tables.
+     *
+     * @param maxSizeLog2 log2 of the largest FFT or spectral window that will be used
+     */
+    public static void warmUp(int maxSizeLog2) {
+        MultiTable.getInstance();
+        FourierMath.warmUp(1 << maxSizeLog2);
+        SpectralWindowFactory.warmUp(maxSizeLog2);
+    }
+
+    /** Write a snapshot of the tables to a file. */
+    public static void save(File file) throws IOException {
+        OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            save(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /** Write a snapshot of the tables. The stream is not closed. */
+    public static void save(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(JSyn.VERSION_CODE);
+
+        float[][] tables = MultiTable.getInstance().getTables();
+        output.writeInt(tables.length);
+        output.writeInt(tables[0].length);
+        for (float[] table : tables) {
+            for (float value : table) {
+                output.writeFloat(value);
+            }
+        }
+
+        // FourierMath derives the twiddle factors for every smaller size from the largest table.
+        double[] sineValues = FourierMath.getSineTable(1 << DEFAULT_MAX_SIZE_LOG_2);
+        output.writeInt(sineValues.length);
+        for (double value : sineValues) {
+            output.writeDouble(value);
+        }
+        output.flush();
+    }
+
+    /** Load a snapshot by memory mapping a file. */
+    public static void load(File file) throws IOException {
+        RandomAccessFile randomFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomFile.getChannel();
+            load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomFile.close();
+        }
+    }
+
+    /** Load a snapshot from a stream, for example a resource. The stream is not closed. */
+    public static void load(InputStream stream) throws IOException {
+        if (stream == null) {
+            throw new IOException("Table snapshot not found.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        byte[] buffer = new byte[64 * 1024];
+        int numRead;
+        while ((numRead = stream.read(buffer)) > 0) {
+            bytes.write(buffer, 0, numRead);
+        }
+        load(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Read the whole snapshot before using any of it so a bad snapshot does not leave a mix of
+     * old and new tables.
+     */
+    private static void load(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a JSyn table snapshot.");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Table snapshot format is " + version + ", expected "
+                        + FORMAT_VERSION);
+            }
+            buffer.getInt(); // JSyn version that wrote it, for information only
+
+            int numTables = buffer.getInt();
+            int tableSize = buffer.getInt();
+            if ((numTables != MultiTable.NUM_TABLES)
+                    || (tableSize != (MultiTable.CYCLE_SIZE + 1))) {
+                throw new IOException("Table snapshot has the wrong MultiTable size.");
+            }
+            float[][] tables = new float[numTables][tableSize];
+            for (float[] table : tables) {
+                buffer.asFloatBuffer().get(table);
+                buffer.position(buffer.position() + (tableSize * 4));
+            }
+
+            int size = buffer.getInt();
+            if ((size < 4) || (size > FourierMath.getMaxSize()) || ((size & (size - 1)) != 0)) {
+                throw new IOException("Table snapshot has a bad sine table size, " + size);
+            }
+            double[] sineValues = new double[size];
+            buffer.asDoubleBuffer().get(sineValues);
+            buffer.position(buffer.position() + (size * 8));
+
+            MultiTable.setInstance(new MultiTable(tables));
+            FourierMath.setSineTable(sineValues);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Table snapshot is truncated.");
+        }
+    }
+
+    /**
+     * Write a snapshot that can be bundled with an application.
+     *
+     * @param args path of the file to write
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File((args.length > 0) ? args[0] : "jsyn_tables.bin");
+        save(file);
+        System.out.println("Wrote " + file.length() + " bytes to " + file);
+    }
+}
@@ -24,10 +24,17 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.jsyn.JSyn;
 import com.jsyn.Synthesizer;
+import com.jsyn.devices.AudioDeviceCallback;
+import com.jsyn.devices.AudioDeviceCallbackStream;
 import com.jsyn.devices.AudioDeviceFactory;
 import com.jsyn.devices.AudioDeviceInputStream;
 import com.jsyn.devices.AudioDeviceManager;
 import com.jsyn.devices.AudioDeviceOutputStream;
+import com.jsyn.devices.CallbackAudioDeviceManager;
+import com.jsyn.devices.DriftCompensatedInputStream;
+import com.jsyn.devices.ResamplingInputStream;
+import com.jsyn.devices.ResamplingOutputStream;
+import com.jsyn.dsp.PolyphaseResampler;
 import com.jsyn.unitgen.UnitGenerator;
 import com.softsynth.shared.time.ScheduledCommand;
 import com.softsynth.shared.time.ScheduledQueue;
@@ -38,7 +45,6 @@ import com.softsynth.shared.time.TimeStamp;
 //TODO AutoStop on DAHDSR
 //TODO Test/example SequentialData queueOn and queueOff
 
-//TODO Abstract device interface. File device!
 //TODO Measure thread switching sync, performance for multi-core synthesis. Use 4 core pro.
 //TODO Optimize SineOscillatorPhaseModulated
 //TODO More circuits.
@@ -63,6 +69,9 @@ public class SynthesisEngine implements Synthesizer {
 
     private final AudioDeviceManager audioDeviceManager;
     private EngineThread engineThread;
+    private AudioDeviceCallbackStream callbackStream;
+    // Thread that is currently generating audio, either the EngineThread or a device thread.
+    private volatile Thread audioThread;
     private final ScheduledQueue<ScheduledCommand> commandQueue = new ScheduledQueue<ScheduledCommand>();
 
     private InterleavingBuffer inputBuffer;
@@ -70,6 +79,10 @@ public class SynthesisEngine implements Synthesizer {
     private double inverseNyquist;
     private long frameCount;
     private boolean pullDataEnabled = true;
+    private boolean inputDriftCompensationEnabled;
+    private DriftCompensatedInputStream driftCompensatedInput;
+    private int deviceFrameRate;
+    private PolyphaseResampler.Quality resamplerQuality = PolyphaseResampler.Quality.MEDIUM;
     private boolean useRealTime = true;
     private boolean started;
     private int frameRate = DEFAULT_FRAME_RATE;
@@ -93,6 +106,8 @@ public class SynthesisEngine implements Synthesizer {
     /** A fraction that is approximately -90.3 dB. Defined as 1 bit of an S16. */
     public static final double DB90 = (1.0 / (1 << 15));
 
+    private static final long MAX_SLEEP_MSEC = 20;
+
     static Logger logger = Logger.getLogger(SynthesisEngine.class.getName());
 
     public SynthesisEngine(AudioDeviceManager audioDeviceManager) {
@@ -132,6 +147,59 @@ public class SynthesisEngine implements Synthesizer {
         this.pullDataEnabled = pullDataEnabled;
     }
 
+    /**
+     * @return frame rate that the audio devices will be opened at
+     */
+    public int getDeviceFrameRate() {
+        return (deviceFrameRate > 0) ? deviceFrameRate : frameRate;
+    }
+
+    /**
+     * Run the audio devices at a different frame rate than the engine. Audio will be converted
+     * between the two rates using a polyphase filter. For example, a heavy patch can be run at
+     * 32000 Hz, or oversampled at 96000 Hz, while the device stays at 48000 Hz. This is only
+     * supported for blocking devices. Must be called before start().
+     *
+     * @param deviceFrameRate frame rate for the devices, or zero to use the engine frame rate
+     */
+    public void setDeviceFrameRate(int deviceFrameRate) {
+        this.deviceFrameRate = deviceFrameRate;
+    }
+
+    public PolyphaseResampler.Quality getResamplerQuality() {
+        return resamplerQuality;
+    }
+
+    /**
+     * @param quality filter used when the device frame rate differs from the engine frame rate
+     */
+    public void setResamplerQuality(PolyphaseResampler.Quality quality) {
+        this.resamplerQuality = quality;
+    }
+
+    public boolean isInputDriftCompensationEnabled() {
+        return inputDriftCompensationEnabled;
+    }
+
+    /**
+     * If set true then audio input will be resampled to follow the clock of the output device.
+     * Use this when the input and output are different devices that will run for a long time.
+     * Otherwise the input will eventually overrun or underrun. This adds some input latency.
+     * Must be called before start().
+     *
+     * @param enabled
+     */
+    public void setInputDriftCompensationEnabled(boolean enabled) {
+        this.inputDriftCompensationEnabled = enabled;
+    }
+
+    /**
+     * @return the stream that is compensating for clock drift, or null if it is not being used
+     */
+    public DriftCompensatedInputStream getDriftCompensatedInput() {
+        return driftCompensatedInput;
+    }
+
     private void setupAudioBuffers(int numInputChannels, int numOutputChannels) {
         inputBuffer = new InterleavingBuffer(FRAMES_PER_BUFFER, Synthesizer.FRAMES_PER_BLOCK,
                 numInputChannels);
@@ -156,23 +224,21 @@ public class SynthesisEngine implements Synthesizer {
         }
 
         int deinterleave(int inIndex) {
-            for (int jf = 0; jf < Synthesizer.FRAMES_PER_BLOCK; jf++) {
-                for (int iob = 0; iob < blockBuffers.length; iob++) {
-                    ChannelBlockBuffer buffer = blockBuffers[iob];
-                    buffer.values[jf] = interleavedBuffer[inIndex++];
-                }
+            int numChannels = blockBuffers.length;
+            for (int iob = 0; iob < numChannels; iob++) {
+                BlockKernels.deinterleave(interleavedBuffer, inIndex + iob, numChannels,
+                        blockBuffers[iob].values, Synthesizer.FRAMES_PER_BLOCK);
             }
-            return inIndex;
+            return inIndex + (Synthesizer.FRAMES_PER_BLOCK * numChannels);
         }
 
         int interleave(int outIndex) {
-            for (int jf = 0; jf < Synthesizer.FRAMES_PER_BLOCK; jf++) {
-                for (int iob = 0; iob < blockBuffers.length; iob++) {
-                    ChannelBlockBuffer buffer = blockBuffers[iob];
-                    interleavedBuffer[outIndex++] = buffer.values[jf];
-                }
+            int numChannels = blockBuffers.length;
+            for (int iob = 0; iob < numChannels; iob++) {
+                BlockKernels.interleave(blockBuffers[iob].values, interleavedBuffer,
+                        outIndex + iob, numChannels, Synthesizer.FRAMES_PER_BLOCK);
             }
-            return outIndex;
+            return outIndex + (Synthesizer.FRAMES_PER_BLOCK * numChannels);
         }
 
         public double[] getChannelBuffer(int i) {
@@ -232,7 +298,20 @@ public class SynthesisEngine implements Synthesizer {
 
         inverseNyquist = 2.0 / frameRate;
 
-        if (useRealTime) {
+        if (useRealTime && (audioDeviceManager instanceof CallbackAudioDeviceManager)) {
+            CallbackAudioDeviceManager callbackManager =
+                    (CallbackAudioDeviceManager) audioDeviceManager;
+            if (getDeviceFrameRate() != frameRate) {
+                logger.warning("Callback devices run at the engine frame rate, " + frameRate);
+            }
+            loadAnalyzer = new LoadAnalyzer();
+            callbackStream = callbackManager.createCallbackStream(inputDeviceID,
+                    numInputChannels, outputDeviceID, numOutputChannels, frameRate,
+                    new EngineCallback(numInputChannels));
+            callbackStream.start();
+            mInputLatency = callbackStream.getInputLatency();
+            mOutputLatency = callbackStream.getOutputLatency();
+        } else if (useRealTime) {
             engineThread = new EngineThread(inputDeviceID, numInputChannels,
                     outputDeviceID, numOutputChannels);
             logger.fine("Synth thread old priority = " + engineThread.getPriority());
@@ -248,6 +327,9 @@ public class SynthesisEngine implements Synthesizer {
 
     @Override
     public boolean isRunning() {
+        if (callbackStream != null) {
+            return true;
+        }
         Thread thread = engineThread;
         return (thread != null) && thread.isAlive();
     }
@@ -259,6 +341,10 @@ public class SynthesisEngine implements Synthesizer {
             return;
         }
 
+        if (callbackStream != null) {
+            callbackStream.stop();
+            callbackStream = null;
+        }
         if (useRealTime) {
             // Stop audio synthesis and all units.
             if (engineThread != null) {
@@ -285,13 +371,29 @@ public class SynthesisEngine implements Synthesizer {
 
         EngineThread(int inputDeviceID, int numInputChannels,
             int outputDeviceID, int numOutputChannels) {
+            driftCompensatedInput = null;
+            int deviceRate = getDeviceFrameRate();
+            boolean resampling = (deviceRate != frameRate);
             if (numInputChannels > 0) {
-                audioInputStream = audioDeviceManager.createInputStream(inputDeviceID, frameRate,
+                audioInputStream = audioDeviceManager.createInputStream(inputDeviceID, deviceRate,
                         numInputChannels);
+                if (inputDriftCompensationEnabled && (numOutputChannels > 0)) {
+                    driftCompensatedInput = new DriftCompensatedInputStream(audioInputStream,
+                            numInputChannels, deviceRate);
+                    audioInputStream = driftCompensatedInput;
+                }
+                if (resampling) {
+                    audioInputStream = new ResamplingInputStream(audioInputStream,
+                            numInputChannels, frameRate, deviceRate, resamplerQuality);
+                }
             }
             if (numOutputChannels > 0) {
                 audioOutputStream = audioDeviceManager.createOutputStream(outputDeviceID,
-                        frameRate, numOutputChannels);
+                        deviceRate, numOutputChannels);
+                if (resampling) {
+                    audioOutputStream = new ResamplingOutputStream(audioOutputStream,
+                            numOutputChannels, frameRate, deviceRate, resamplerQuality);
+                }
             }
         }
 
@@ -303,6 +405,7 @@ public class SynthesisEngine implements Synthesizer {
         @Override
         public void run() {
             logger.fine("JSyn synthesis thread starting.");
+            audioThread = this;
             try {
                 if (audioInputStream != null) {
                     logger.fine("JSyn synthesis thread trying to start audio INPUT!");
@@ -364,6 +467,53 @@ public class SynthesisEngine implements Synthesizer {
         }
     }
 
+    /**
+     * Called by the thread of a callback driven device. The device buffers can be any size, so a
+     * new engine buffer is generated whenever the previous one has been used up. The output has no
+     * added latency. Input frames are collected and used for the next engine buffer, so the input
+     * is delayed by one engine buffer.
+     */
+    private class EngineCallback implements AudioDeviceCallback {
+        private final double[] capturedInput;
+        private final int numInputChannels;
+        private int cursor = FRAMES_PER_BUFFER;
+
+        EngineCallback(int numInputChannels) {
+            this.numInputChannels = numInputChannels;
+            capturedInput = new double[FRAMES_PER_BUFFER * numInputChannels];
+        }
+
+        @Override
+        public void onAudio(double[] input, double[] output, int numFrames) {
+            audioThread = Thread.currentThread();
+            int numOutputChannels = outputBuffer.blockBuffers.length;
+            int framesDone = 0;
+            while (framesDone < numFrames) {
+                if (cursor == FRAMES_PER_BUFFER) {
+                    System.arraycopy(capturedInput, 0, inputBuffer.interleavedBuffer, 0,
+                            capturedInput.length);
+                    loadAnalyzer.start();
+                    runAudioTasks();
+                    generateNextBuffer();
+                    loadAnalyzer.stop();
+                    cursor = 0;
+                }
+                int numToCopy = Math.min(numFrames - framesDone, FRAMES_PER_BUFFER - cursor);
+                if (input != null) {
+                    System.arraycopy(input, framesDone * numInputChannels, capturedInput,
+                            cursor * numInputChannels, numToCopy * numInputChannels);
+                }
+                if (output != null) {
+                    System.arraycopy(outputBuffer.interleavedBuffer, cursor * numOutputChannels,
+                            output, framesDone * numOutputChannels,
+                            numToCopy * numOutputChannels);
+                }
+                cursor += numToCopy;
+                framesDone += numToCopy;
+            }
+        }
+    }
+
     private void runAudioTasks() {
         for (Runnable task : audioTasks) {
             task.run();
@@ -419,7 +569,7 @@ public class SynthesisEngine implements Synthesizer {
 
     @Override
     public void scheduleCommand(TimeStamp timeStamp, ScheduledCommand command) {
-        if ((Thread.currentThread() == engineThread) && (timeStamp.getTime() <= getCurrentTime())) {
+        if ((Thread.currentThread() == audioThread) && (timeStamp.getTime() <= getCurrentTime())) {
             command.run();
         } else {
             logger.fine("scheduling " + command + ", at time " + timeStamp.getTime());
@@ -669,7 +819,9 @@ public class SynthesisEngine implements Synthesizer {
         double timeToSleep = time - getCurrentTime();
         while (timeToSleep > 0.0) {
             if (useRealTime) {
-                long msecToSleep = (long) (1000 * timeToSleep);
+                // Sleep in slices in case the engine is running faster than real time,
+                // for example with an unthrottled FileAudioDevice.
+                long msecToSleep = Math.min(MAX_SLEEP_MSEC, (long) (1000 * timeToSleep));
                 if (msecToSleep <= 0) {
                     msecToSleep = 1;
                 }
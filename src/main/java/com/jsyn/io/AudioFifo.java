@@ -16,31 +16,75 @@
 
 package com.jsyn.io;
 
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * FIFO that implements AudioInputStream, AudioOutputStream interfaces. This can be used to send
  * audio data between different threads. The reads or writes may or may not wait based on flags.
+ * <p>
+ * By default any number of threads may read and write. Each read or write holds a ReentrantLock
+ * for its side of the FIFO so that concurrent readers, or concurrent writers, do not interleave.
+ * A reader never waits for the write lock, or a writer for the read lock.
+ * <p>
+ * <b>A FIFO constructed with lockFree true takes no locks and is only safe with exactly one
+ * reading thread and one writing thread.</b> Using it from more threads will corrupt the data.
+ * That mode suits real-time threads that must never wait on a lock.
+ * <p>
+ * In both modes the data is stored in an AudioRingBuffer, which copies blocks with
+ * System.arraycopy(). A waiting thread spins briefly and then parks until the other side unparks
+ * it.
+ * <p>
+ * Multi-channel audio can be transferred as interleaved frames using readFrames() and
+ * writeFrames(). Those methods never split a frame.
  *
  * @author Phil Burk (C) 2010 Mobileer Inc
+ * @see AudioRingBuffer
  */
 public class AudioFifo implements AudioInputStream, AudioOutputStream {
-    // These indices run double the FIFO size so that we can tell empty from full.
-    private volatile int readIndex;
-    private volatile int writeIndex;
-    private volatile double[] buffer;
-    // Used to mask the index into range when accessing the buffer array.
-    private int accessMask;
-    // Used to mask the index so it wraps around.
-    private int sizeMask;
-    private boolean writeWaitEnabled = true;
-    private boolean readWaitEnabled = true;
+    private volatile AudioRingBuffer ring;
+    private int samplesPerFrame = 1;
+    private volatile boolean writeWaitEnabled = true;
+    private volatile boolean readWaitEnabled = true;
     private volatile boolean mOpen = true;
-    final Lock lock = new ReentrantLock();
-    final Condition notFull  = lock.newCondition();
-    final Condition notEmpty = lock.newCondition();
+    // Threads that are parked waiting for the other side.
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+    // Null when lock-free.
+    private final Lock readLock;
+    private final Lock writeLock;
+
+    /** Create a FIFO that may be used by any number of reading and writing threads. */
+    public AudioFifo() {
+        this(false);
+    }
+
+    /**
+     * @param lockFree if true then take no locks. Only one thread may read and only one thread
+     *            may write.
+     */
+    public AudioFifo(boolean lockFree) {
+        readLock = lockFree ? null : new ReentrantLock();
+        writeLock = lockFree ? null : new ReentrantLock();
+    }
+
+    /** @return true if only one reader and one writer are supported */
+    public boolean isLockFree() {
+        return readLock == null;
+    }
+
+    private static void lock(Lock lock) {
+        if (lock != null) {
+            lock.lock();
+        }
+    }
+
+    private static void unlock(Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
 
     /**
      * @param size Number of doubles in the FIFO. Must be a power of 2. Eg. 1024.
@@ -49,13 +93,11 @@ public class AudioFifo implements AudioInputStream, AudioOutputStream {
         if (!isPowerOfTwo(size)) {
             throw new IllegalArgumentException("Size must be a power of two.");
         }
-        buffer = new double[size];
-        accessMask = size - 1;
-        sizeMask = (size * 2) - 1;
+        ring = new AudioRingBuffer(size);
     }
 
     public int size() {
-        return buffer.length;
+        return ring.size();
     }
 
     public static boolean isPowerOfTwo(int size) {
@@ -65,96 +107,127 @@ public class AudioFifo implements AudioInputStream, AudioOutputStream {
     /** How many samples are available for reading without blocking? */
     @Override
     public int available() {
-        return (writeIndex - readIndex) & sizeMask;
+        return ring.available();
+    }
+
+    /** How many samples can be written without blocking? */
+    public int room() {
+        return ring.room();
+    }
+
+    /**
+     * Set the number of interleaved samples in a frame for readFrames() and writeFrames().
+     * Default is 1.
+     */
+    public void setSamplesPerFrame(int samplesPerFrame) {
+        if (samplesPerFrame < 1 || samplesPerFrame > size()) {
+            throw new IllegalArgumentException("samplesPerFrame out of range, " + samplesPerFrame);
+        }
+        this.samplesPerFrame = samplesPerFrame;
+    }
+
+    public int getSamplesPerFrame() {
+        return samplesPerFrame;
+    }
+
+    /** How many whole frames are available for reading without blocking? */
+    public int availableFrames() {
+        return available() / samplesPerFrame;
     }
 
     @Override
     public void close() {
         // Tell any thread that is waiting that the FIFO is closed.
         mOpen = false;
-        lock.lock();
-        notEmpty.signal();
-        notFull.signal();
-        lock.unlock();
+        wake(waitingReader);
+        wake(waitingWriter);
     }
 
-    @Override
-    public double read() {
-        double value = Double.NaN;
-        if (readWaitEnabled) {
-            lock.lock();
-            try {
-              while (mOpen && available() < 1) {
-                try {
-                    notEmpty.await();
-                } catch (InterruptedException e) {
-                    return Double.NaN;
-                }
-              }
-              if (mOpen) {
-                  value = readOneInternal();
-              }
-            } finally {
-              lock.unlock();
-            }
+    private static void wake(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
 
-        } else {
-            if (mOpen && readIndex != writeIndex) {
-                value = readOneInternal();
+    /**
+     * Wait until at least minimum samples can be read, if waiting is enabled.
+     *
+     * @return number available, or zero if the FIFO was closed or the thread interrupted
+     */
+    private int waitForData(int minimum) {
+        int numAvailable = available();
+        if (numAvailable >= minimum || !readWaitEnabled) {
+            return numAvailable;
+        }
+        waitingReader = Thread.currentThread();
+        try {
+            int tries = 0;
+            while (numAvailable < minimum) {
+                if (!mOpen || Thread.currentThread().isInterrupted()) {
+                    return 0;
+                }
+                AudioRingBuffer.pause(tries++);
+                numAvailable = available();
             }
+        } finally {
+            waitingReader = null;
         }
+        return numAvailable;
+    }
 
-        if (writeWaitEnabled) {
-            lock.lock();
-            notFull.signal();
-            lock.unlock();
+    /**
+     * Wait until at least minimum samples can be written, if waiting is enabled.
+     *
+     * @return room for writing, or zero if the FIFO was closed or the thread interrupted
+     */
+    private int waitForRoom(int minimum) {
+        int room = room();
+        if (room >= minimum || !writeWaitEnabled) {
+            return room;
         }
-
-        return value;
+        waitingWriter = Thread.currentThread();
+        try {
+            int tries = 0;
+            while (room < minimum) {
+                if (!mOpen || Thread.currentThread().isInterrupted()) {
+                    return 0;
+                }
+                AudioRingBuffer.pause(tries++);
+                room = room();
+            }
+        } finally {
+            waitingWriter = null;
+        }
+        return room;
     }
 
-    private double readOneInternal() {
-        double value = buffer[readIndex & accessMask];
-        readIndex = (readIndex + 1) & sizeMask;
-        return value;
+    @Override
+    public double read() {
+        lock(readLock);
+        try {
+            if (!mOpen || waitForData(1) < 1 || !mOpen) {
+                return Double.NaN;
+            }
+            double value = ring.copyOut();
+            wake(waitingWriter);
+            return value;
+        } finally {
+            unlock(readLock);
+        }
     }
 
     @Override
     public void write(double value) {
-        if (writeWaitEnabled) {
-            lock.lock();
-            try {
-                while (mOpen && available() == buffer.length)
-                {
-                    try {
-                        notFull.await();
-                    } catch (InterruptedException e) {
-                        return; // Silently fail
-                    }
-                }
-                if (mOpen) {
-                    writeOneInternal(value);
-                }
-            } finally {
-                lock.unlock();
-            }
-
-        } else {
-            if (available() != buffer.length) {
-                writeOneInternal(value);
+        lock(writeLock);
+        try {
+            if (!mOpen || waitForRoom(1) < 1) {
+                return; // Silently fail
             }
+            ring.copyIn(value);
+            wake(waitingReader);
+        } finally {
+            unlock(writeLock);
         }
-
-        if (readWaitEnabled) {
-            lock.lock();
-            notEmpty.signal();
-            lock.unlock();
-        }
-    }
-
-    private void writeOneInternal(double value) {
-        buffer[writeIndex & accessMask] = value;
-        writeIndex = (writeIndex + 1) & sizeMask;
     }
 
     @Override
@@ -162,20 +235,40 @@ public class AudioFifo implements AudioInputStream, AudioOutputStream {
         return read(buffer, 0, buffer.length);
     }
 
+    /**
+     * Read from the FIFO. If read waiting is enabled then wait until count samples have been read
+     * or the FIFO is closed. Otherwise just read what is available.
+     *
+     * @return number of samples read
+     */
     @Override
     public int read(double[] buffer, int start, int count) {
-        if (!mOpen) {
-            return 0;
-        }
-        if (!readWaitEnabled) {
-            count = Math.min(available(), count);
-        }
+        return readChunks(buffer, start, count, 1);
+    }
+
+    /**
+     * Read samples in multiples of granularity, so that a frame is never split.
+     */
+    private int readChunks(double[] data, int start, int count, int granularity) {
         int numRead = 0;
-        for (int i = 0; mOpen && i < count; i++) {
-            double value = read();
-            if (Double.isNaN(value)) break;
-            buffer[i + start] = value;
-            numRead++;
+        lock(readLock);
+        try {
+            while (mOpen && numRead < count) {
+                int numAvailable = waitForData(granularity);
+                int numToRead = Math.min(count - numRead, numAvailable);
+                numToRead -= numToRead % granularity;
+                if (numToRead <= 0) {
+                    break;
+                }
+                ring.copyOut(data, start + numRead, numToRead);
+                wake(waitingWriter);
+                numRead += numToRead;
+                if (!readWaitEnabled) {
+                    break;
+                }
+            }
+        } finally {
+            unlock(readLock);
         }
         return numRead;
     }
@@ -185,11 +278,126 @@ public class AudioFifo implements AudioInputStream, AudioOutputStream {
         write(buffer, 0, buffer.length);
     }
 
+    /**
+     * Write to the FIFO. If write waiting is enabled then wait until all the samples have been
+     * written or the FIFO is closed. Otherwise write what will fit and drop the rest.
+     */
     @Override
     public void write(double[] buffer, int start, int count) {
-        for (int i = 0; i < count; i++) {
-            write(buffer[i + start]);
+        writeChunks(buffer, start, count, 1);
+    }
+
+    private int writeChunks(double[] data, int start, int count, int granularity) {
+        int numWritten = 0;
+        lock(writeLock);
+        try {
+            while (mOpen && numWritten < count) {
+                int room = waitForRoom(granularity);
+                int numToWrite = Math.min(count - numWritten, room);
+                numToWrite -= numToWrite % granularity;
+                if (numToWrite <= 0) {
+                    break;
+                }
+                ring.copyIn(data, start + numWritten, numToWrite);
+                wake(waitingReader);
+                numWritten += numToWrite;
+                if (!writeWaitEnabled) {
+                    break;
+                }
+            }
+        } finally {
+            unlock(writeLock);
+        }
+        return numWritten;
+    }
+
+    /**
+     * Read whole interleaved frames. Waits like read(double[], int, int).
+     *
+     * @param frames array to receive samplesPerFrame * numFrames samples
+     * @param startFrame index of the first frame in the array
+     * @param numFrames number of frames to read
+     * @return number of frames read
+     */
+    public int readFrames(double[] frames, int startFrame, int numFrames) {
+        int spf = samplesPerFrame;
+        return readChunks(frames, startFrame * spf, numFrames * spf, spf) / spf;
+    }
+
+    /**
+     * Write whole interleaved frames. Waits like write(double[], int, int).
+     *
+     * @return number of frames written
+     */
+    public int writeFrames(double[] frames, int startFrame, int numFrames) {
+        int spf = samplesPerFrame;
+        return writeChunks(frames, startFrame * spf, numFrames * spf, spf) / spf;
+    }
+
+    /**
+     * Interleave separate channel arrays into the FIFO, for example the outputs of a multi-part
+     * port. The number of channels must match samplesPerFrame.
+     *
+     * @return number of frames written
+     */
+    public int writeFrames(double[][] channels, int start, int numFrames) {
+        int spf = checkChannels(channels);
+        int numWritten = 0;
+        lock(writeLock);
+        try {
+            while (mOpen && numWritten < numFrames) {
+                int numToWrite = Math.min(numFrames - numWritten, waitForRoom(spf) / spf);
+                if (numToWrite <= 0) {
+                    break;
+                }
+                ring.copyInFrames(channels, start + numWritten, numToWrite);
+                wake(waitingReader);
+                numWritten += numToWrite;
+                if (!writeWaitEnabled) {
+                    break;
+                }
+            }
+        } finally {
+            unlock(writeLock);
+        }
+        return numWritten;
+    }
+
+    /**
+     * De-interleave frames from the FIFO into separate channel arrays. The number of channels must
+     * match samplesPerFrame.
+     *
+     * @return number of frames read
+     */
+    public int readFrames(double[][] channels, int start, int numFrames) {
+        int spf = checkChannels(channels);
+        int numRead = 0;
+        lock(readLock);
+        try {
+            while (mOpen && numRead < numFrames) {
+                int numToRead = Math.min(numFrames - numRead, waitForData(spf) / spf);
+                if (numToRead <= 0) {
+                    break;
+                }
+                ring.copyOutFrames(channels, start + numRead, numToRead);
+                wake(waitingWriter);
+                numRead += numToRead;
+                if (!readWaitEnabled) {
+                    break;
+                }
+            }
+        } finally {
+            unlock(readLock);
+        }
+        return numRead;
+    }
+
+    private int checkChannels(double[][] channels) {
+        if (channels.length != samplesPerFrame) {
+            throw new IllegalArgumentException("Expected " + samplesPerFrame + " channels, got "
+                    + channels.length);
         }
+        return samplesPerFrame;
     }
 
     /** If true then a subsequent write call will wait if there is no room to write. */
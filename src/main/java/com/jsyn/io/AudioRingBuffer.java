@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free FIFO for passing audio from exactly one writing thread to exactly one reading thread.
+ * The buffer is allocated once. Writes never take a lock or allocate memory so they are safe to
+ * call from the audio thread. If there is no room then the whole write is dropped and counted as
+ * an overflow, unless write waiting is enabled.
+ * <p>
+ * A waiting reader or writer spins briefly and then parks, polling the other side. The other
+ * thread never has to signal, so it is never blocked.
+ * <p>
+ * AudioFifo uses the package-private copy methods of this class as its storage.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see AudioFifo
+ */
+public class AudioRingBuffer implements AudioInputStream, AudioOutputStream {
+    private static final int SPIN_COUNT = 100;
+    private static final long PARK_NANOS = 500 * 1000;
+
+    private final double[] buffer;
+    private final int accessMask;
+    // These counters only increase. Each is written by one thread and read by the other.
+    private final AtomicLong readCounter = new AtomicLong();
+    private final AtomicLong writeCounter = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private volatile boolean open = true;
+    private volatile boolean readWaitEnabled = true;
+    private volatile boolean writeWaitEnabled = false;
+
+    /**
+     * @param size Number of doubles in the buffer. Must be a power of 2. Eg. 65536.
+     */
+    public AudioRingBuffer(int size) {
+        if (!AudioFifo.isPowerOfTwo(size)) {
+            throw new IllegalArgumentException("Size must be a power of two.");
+        }
+        buffer = new double[size];
+        accessMask = size - 1;
+    }
+
+    public int size() {
+        return buffer.length;
+    }
+
+    /** How many samples are available for reading without blocking? */
+    @Override
+    public int available() {
+        return (int) (writeCounter.get() - readCounter.get());
+    }
+
+    /** How many samples can be written without overflowing? */
+    public int room() {
+        return buffer.length - available();
+    }
+
+    /**
+     * @return number of samples that were dropped because the buffer was full
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Stop accepting writes. A reader can still drain any data left in the buffer. Reads will not
+     * wait after the buffer is closed.
+     */
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    /** If true then a read will wait until the requested amount of data is available. */
+    public void setReadWaitEnabled(boolean enabled) {
+        readWaitEnabled = enabled;
+    }
+
+    public boolean isReadWaitEnabled() {
+        return readWaitEnabled;
+    }
+
+    /**
+     * If true then a write will wait for room instead of overflowing. Only enable this when the
+     * writer is not a real-time thread, for example a non-real-time engine.
+     */
+    public void setWriteWaitEnabled(boolean enabled) {
+        writeWaitEnabled = enabled;
+    }
+
+    public boolean isWriteWaitEnabled() {
+        return writeWaitEnabled;
+    }
+
+    static void pause(int tries) {
+        if (tries < SPIN_COUNT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void write(double value) {
+        if (!waitForRoom(1)) {
+            return;
+        }
+        copyIn(value);
+    }
+
+    /** Write one value without checking for room. */
+    void copyIn(double value) {
+        long writeIndex = writeCounter.get();
+        buffer[(int) writeIndex & accessMask] = value;
+        writeCounter.lazySet(writeIndex + 1);
+    }
+
+    /**
+     * Copy into the buffer without checking for room. The copy wraps around the end of the buffer
+     * using at most two System.arraycopy() calls.
+     */
+    void copyIn(double[] data, int start, int count) {
+        long writeIndex = writeCounter.get();
+        int first = (int) writeIndex & accessMask;
+        int numBeforeWrap = Math.min(count, buffer.length - first);
+        System.arraycopy(data, start, buffer, first, numBeforeWrap);
+        System.arraycopy(data, start + numBeforeWrap, buffer, 0, count - numBeforeWrap);
+        writeCounter.lazySet(writeIndex + count);
+    }
+
+    /** Interleave numFrames frames from separate channel arrays without checking for room. */
+    void copyInFrames(double[][] channels, int start, int numFrames) {
+        int spf = channels.length;
+        long writeIndex = writeCounter.get();
+        for (int channel = 0; channel < spf; channel++) {
+            double[] source = channels[channel];
+            long index = writeIndex + channel;
+            int sourceIndex = start;
+            for (int i = 0; i < numFrames; i++) {
+                buffer[(int) index & accessMask] = source[sourceIndex++];
+                index += spf;
+            }
+        }
+        writeCounter.lazySet(writeIndex + (numFrames * spf));
+    }
+
+    /** Copy out of the buffer without checking that the data is available. */
+    void copyOut(double[] data, int start, int count) {
+        long readIndex = readCounter.get();
+        int first = (int) readIndex & accessMask;
+        int numBeforeWrap = Math.min(count, buffer.length - first);
+        System.arraycopy(buffer, first, data, start, numBeforeWrap);
+        System.arraycopy(buffer, 0, data, start + numBeforeWrap, count - numBeforeWrap);
+        readCounter.lazySet(readIndex + count);
+    }
+
+    /** De-interleave numFrames frames into separate channel arrays without checking. */
+    void copyOutFrames(double[][] channels, int start, int numFrames) {
+        int spf = channels.length;
+        long readIndex = readCounter.get();
+        for (int channel = 0; channel < spf; channel++) {
+            double[] target = channels[channel];
+            long index = readIndex + channel;
+            int targetIndex = start;
+            for (int i = 0; i < numFrames; i++) {
+                target[targetIndex++] = buffer[(int) index & accessMask];
+                index += spf;
+            }
+        }
+        readCounter.lazySet(readIndex + (numFrames * spf));
+    }
+
+    @Override
+    public void write(double[] data) {
+        write(data, 0, data.length);
+    }
+
+    /** Write all of the samples or none of them. */
+    @Override
+    public void write(double[] data, int start, int count) {
+        if (count > buffer.length) {
+            throw new IllegalArgumentException("count larger than buffer, " + count);
+        }
+        if (!waitForRoom(count)) {
+            return;
+        }
+        copyIn(data, start, count);
+    }
+
+    private boolean waitForRoom(int count) {
+        int tries = 0;
+        while (room() < count) {
+            if (!open || !writeWaitEnabled || Thread.currentThread().isInterrupted()) {
+                overflowCount.addAndGet(count);
+                return false;
+            }
+            pause(tries++);
+        }
+        return open;
+    }
+
+    /**
+     * @return next value or NaN if none is available
+     */
+    @Override
+    public double read() {
+        if (waitForData(1) < 1) {
+            return Double.NaN;
+        }
+        return copyOut();
+    }
+
+    /** Read one value without checking that it is available. */
+    double copyOut() {
+        long readIndex = readCounter.get();
+        double value = buffer[(int) readIndex & accessMask];
+        readCounter.lazySet(readIndex + 1);
+        return value;
+    }
+
+    @Override
+    public int read(double[] data) {
+        return read(data, 0, data.length);
+    }
+
+    /**
+     * Read from the buffer. If read waiting is enabled then wait until count samples are
+     * available or the buffer is closed. Otherwise just read what is available.
+     *
+     * @return number of samples read, less than count only if the buffer was closed or read
+     *         waiting is disabled
+     */
+    @Override
+    public int read(double[] data, int start, int count) {
+        int numRead = 0;
+        while (numRead < count) {
+            int numWanted = Math.min(count - numRead, buffer.length);
+            int numAvailable = Math.min(numWanted, waitForData(numWanted));
+            copyOut(data, start + numRead, numAvailable);
+            numRead += numAvailable;
+            if (numAvailable < numWanted) {
+                break; // closed or not waiting
+            }
+        }
+        return numRead;
+    }
+
+    private int waitForData(int count) {
+        int tries = 0;
+        int numAvailable = available();
+        while (numAvailable < count && open && readWaitEnabled
+                && !Thread.currentThread().isInterrupted()) {
+            pause(tries++);
+            numAvailable = available();
+        }
+        return numAvailable;
+    }
+}
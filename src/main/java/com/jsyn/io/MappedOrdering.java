@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ordered access to the counters and flags in a memory-mapped header that is shared with another
+ * process. A release store makes earlier stores to the mapping visible before the stored value. An
+ * acquire load makes later loads from the mapping see at least what was released before the
+ * loaded value.
+ * <p>
+ * This is the portable version, which is used with Java 8. Java 8 has no ordered access to a
+ * ByteBuffer, so a volatile field is written before a release store and read after an acquire
+ * load. The Java memory model only promises that this orders memory for threads in the same JVM.
+ * HotSpot implements the volatile accesses with hardware barriers, and on x86 and x86-64 the
+ * processor never reorders stores with stores or loads with loads anyway, so the order also holds
+ * for another process. On other processors, such as ARM, run the reading and writing processes on
+ * Java 17 or later. The JSyn jar is a multi-release jar, and the version in META-INF/versions/17
+ * uses VarHandle acquire and release access, which is defined for any shared memory.
+ * <p>
+ * The offsets must be aligned to the size of the value.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+final class MappedOrdering {
+    private static volatile int fence;
+
+    private MappedOrdering() {
+    }
+
+    static long getLongAcquire(ByteBuffer buffer, int offset) {
+        long value = buffer.getLong(offset);
+        int ignored = fence;
+        return value;
+    }
+
+    static void putLongRelease(ByteBuffer buffer, int offset, long value) {
+        fence = 0;
+        buffer.putLong(offset, value);
+    }
+
+    static int getIntAcquire(ByteBuffer buffer, int offset) {
+        int value = buffer.getInt(offset);
+        int ignored = fence;
+        return value;
+    }
+
+    static void putIntRelease(ByteBuffer buffer, int offset, int value) {
+        fence = 0;
+        buffer.putInt(offset, value);
+    }
+}
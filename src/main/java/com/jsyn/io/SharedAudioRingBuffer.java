@@ -0,0 +1,385 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring buffer in a memory-mapped file for streaming audio between two processes on the same
+ * machine. One process creates the buffer and writes to it, for example from a
+ * {@link com.jsyn.unitgen.MonoStreamWriter}. Another process opens the same file and reads from
+ * it, for example with a {@link com.jsyn.unitgen.StreamReader}.
+ *
+ * <pre>
+ * <code>
+ *     // In the synthesis process.
+ *     SharedAudioRingBuffer output = SharedAudioRingBuffer.create(file, 2, 16 * 1024, 44100);
+ *     output.setFrameTimeOrigin(synth.getFrameCount());
+ *     streamWriter.setOutputStream(output);
+ *
+ *     // In the analysis process.
+ *     SharedAudioRingBuffer input = SharedAudioRingBuffer.open(file);
+ *     int numRead = input.read(buffer);
+ * </code>
+ * </pre>
+ *
+ * The read and write counters live in the mapped header so no locks or system calls are needed to
+ * pass data. Each side only writes its own counter. A waiting reader or writer spins briefly and
+ * then sleeps for short periods while polling the other side. The counters are published with
+ * release stores and read with acquire loads. See MappedOrdering for the processors on which this
+ * is guaranteed when running on Java 8.
+ * <p>
+ * Frames are counted from the time origin set by the writer, so the reader knows the exact
+ * synthesizer frame time of the data it reads.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see AudioRingBuffer
+ */
+public class SharedAudioRingBuffer implements AudioInputStream, AudioOutputStream {
+    private static final int MAGIC = ('J' << 24) | ('S' << 16) | ('R' << 8) | 'B';
+    private static final int VERSION = 1;
+
+    // Header layout. The counters are in separate cache lines to avoid false sharing.
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SAMPLES_PER_FRAME_OFFSET = 12;
+    private static final int FRAME_RATE_OFFSET = 16;
+    private static final int FRAME_TIME_ORIGIN_OFFSET = 24;
+    private static final int WRITE_COUNTER_OFFSET = 64;
+    private static final int WRITE_NANO_TIME_OFFSET = 72;
+    private static final int WRITER_CLOSED_OFFSET = 80;
+    private static final int READ_COUNTER_OFFSET = 128;
+    private static final int READER_CLOSED_OFFSET = 136;
+    private static final int HEADER_SIZE = 192;
+
+    private static final int SPIN_COUNT = 1000;
+    private static final long PARK_NANOS = 50 * 1000;
+
+    private final MappedByteBuffer mapped;
+    private final DoubleBuffer data;
+    private final int capacity;
+    private final int accessMask;
+    private final int samplesPerFrame;
+    private final double frameRate;
+    private final boolean writer;
+    private long overflowCount;
+    private volatile boolean readWaitEnabled = true;
+    private volatile boolean writeWaitEnabled = false;
+    // For single sample reads or writes, each instance is only used by one side.
+    private final double[] scratch = new double[1];
+
+    private SharedAudioRingBuffer(MappedByteBuffer mapped, boolean writer) {
+        this.mapped = mapped;
+        this.writer = writer;
+        capacity = mapped.getInt(CAPACITY_OFFSET);
+        accessMask = capacity - 1;
+        samplesPerFrame = mapped.getInt(SAMPLES_PER_FRAME_OFFSET);
+        frameRate = mapped.getDouble(FRAME_RATE_OFFSET);
+        mapped.position(HEADER_SIZE);
+        data = mapped.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        mapped.position(0);
+    }
+
+    private static MappedByteBuffer map(File file, long size, boolean create) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            if (create) {
+                randomAccessFile.setLength(0); // clear any old counters
+                randomAccessFile.setLength(size);
+            } else {
+                size = randomAccessFile.length();
+            }
+            MappedByteBuffer mapped = randomAccessFile.getChannel().map(
+                    FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(ByteOrder.nativeOrder());
+            return mapped;
+        } finally {
+            randomAccessFile.close(); // mapping remains valid
+        }
+    }
+
+    /**
+     * Create a new shared buffer for writing. Any existing file is overwritten. On Linux a file in
+     * /dev/shm will never be written to disk.
+     *
+     * @param file file to share with the reading process
+     * @param samplesPerFrame number of interleaved channels
+     * @param capacity number of doubles in the buffer, must be a power of two
+     * @param frameRate frames per second, passed to the reader
+     */
+    public static SharedAudioRingBuffer create(File file, int samplesPerFrame, int capacity,
+            double frameRate) throws IOException {
+        if (!AudioFifo.isPowerOfTwo(capacity)) {
+            throw new IllegalArgumentException("Capacity must be a power of two.");
+        }
+        MappedByteBuffer mapped = map(file, HEADER_SIZE + (capacity * 8L), true);
+        mapped.putInt(VERSION_OFFSET, VERSION);
+        mapped.putInt(CAPACITY_OFFSET, capacity);
+        mapped.putInt(SAMPLES_PER_FRAME_OFFSET, samplesPerFrame);
+        mapped.putDouble(FRAME_RATE_OFFSET, frameRate);
+        SharedAudioRingBuffer buffer = new SharedAudioRingBuffer(mapped, true);
+        MappedOrdering.putIntRelease(mapped, MAGIC_OFFSET, MAGIC); // header is complete
+        return buffer;
+    }
+
+    /**
+     * Open a shared buffer that was created by another process, for reading.
+     *
+     * @throws IOException if the file is not a shared audio buffer
+     */
+    public static SharedAudioRingBuffer open(File file) throws IOException {
+        MappedByteBuffer mapped = map(file, 0, false);
+        if (mapped.capacity() < HEADER_SIZE
+                || MappedOrdering.getIntAcquire(mapped, MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Not a shared audio buffer: " + file);
+        }
+        if (mapped.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported shared audio buffer version "
+                    + mapped.getInt(VERSION_OFFSET));
+        }
+        return new SharedAudioRingBuffer(mapped, false);
+    }
+
+    public int size() {
+        return capacity;
+    }
+
+    public int getSamplesPerFrame() {
+        return samplesPerFrame;
+    }
+
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Set the frame time of the first frame written, for example Synthesizer.getFrameCount(). Call
+     * this before writing.
+     */
+    public void setFrameTimeOrigin(long frameTime) {
+        MappedOrdering.putLongRelease(mapped, FRAME_TIME_ORIGIN_OFFSET, frameTime);
+    }
+
+    public long getFrameTimeOrigin() {
+        return MappedOrdering.getLongAcquire(mapped, FRAME_TIME_ORIGIN_OFFSET);
+    }
+
+    private long getWriteCounter() {
+        return MappedOrdering.getLongAcquire(mapped, WRITE_COUNTER_OFFSET);
+    }
+
+    private long getReadCounter() {
+        return MappedOrdering.getLongAcquire(mapped, READ_COUNTER_OFFSET);
+    }
+
+    /** @return frame time of the next frame that will be read */
+    public long getReadFrameTime() {
+        return getFrameTimeOrigin() + (getReadCounter() / samplesPerFrame);
+    }
+
+    /** @return frame time of the next frame that will be written */
+    public long getWriteFrameTime() {
+        return getFrameTimeOrigin() + (getWriteCounter() / samplesPerFrame);
+    }
+
+    /**
+     * @return System.nanoTime() when the writer last published data. On Linux this can be compared
+     *         with System.nanoTime() in the reading process to measure the handoff latency.
+     */
+    public long getWriteNanoTime() {
+        return MappedOrdering.getLongAcquire(mapped, WRITE_NANO_TIME_OFFSET);
+    }
+
+    /** How many samples are available for reading without blocking? */
+    @Override
+    public int available() {
+        return (int) (getWriteCounter() - getReadCounter());
+    }
+
+    /** How many samples can be written without overflowing? */
+    public int room() {
+        return capacity - available();
+    }
+
+    /**
+     * @return number of samples dropped by this writer because the buffer was full
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    public boolean isWriterClosed() {
+        return MappedOrdering.getIntAcquire(mapped, WRITER_CLOSED_OFFSET) != 0;
+    }
+
+    public boolean isReaderClosed() {
+        return MappedOrdering.getIntAcquire(mapped, READER_CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Close this end of the buffer. When the writer closes, the reader can drain what is left and
+     * then reads will not wait. When the reader closes, writes are dropped.
+     */
+    @Override
+    public void close() {
+        MappedOrdering.putIntRelease(mapped, writer ? WRITER_CLOSED_OFFSET : READER_CLOSED_OFFSET,
+                1);
+    }
+
+    /** If true then a read will wait until the requested amount of data is available. */
+    public void setReadWaitEnabled(boolean enabled) {
+        readWaitEnabled = enabled;
+    }
+
+    public boolean isReadWaitEnabled() {
+        return readWaitEnabled;
+    }
+
+    /**
+     * If true then a write will wait for room instead of overflowing. Only enable this when the
+     * writer is not a real-time thread.
+     */
+    public void setWriteWaitEnabled(boolean enabled) {
+        writeWaitEnabled = enabled;
+    }
+
+    public boolean isWriteWaitEnabled() {
+        return writeWaitEnabled;
+    }
+
+    private static void pause(int tries) {
+        if (tries < SPIN_COUNT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private void checkWriter() {
+        if (!writer) {
+            throw new IllegalStateException("This buffer was opened for reading.");
+        }
+    }
+
+    @Override
+    public void write(double value) {
+        scratch[0] = value;
+        write(scratch, 0, 1);
+    }
+
+    @Override
+    public void write(double[] buffer) {
+        write(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Write all of the samples or none of them.
+     */
+    @Override
+    public void write(double[] buffer, int start, int count) {
+        checkWriter();
+        if (count > capacity) {
+            throw new IllegalArgumentException("count larger than buffer, " + count);
+        }
+        int tries = 0;
+        while (room() < count) {
+            if (isReaderClosed() || !writeWaitEnabled || Thread.currentThread().isInterrupted()) {
+                overflowCount += count;
+                return;
+            }
+            pause(tries++);
+        }
+        long writeIndex = mapped.getLong(WRITE_COUNTER_OFFSET);
+        int first = (int) writeIndex & accessMask;
+        int numBeforeWrap = Math.min(count, capacity - first);
+        data.position(first);
+        data.put(buffer, start, numBeforeWrap);
+        data.position(0);
+        data.put(buffer, start + numBeforeWrap, count - numBeforeWrap);
+        mapped.putLong(WRITE_NANO_TIME_OFFSET, System.nanoTime());
+        // Release the data before publishing the counter.
+        MappedOrdering.putLongRelease(mapped, WRITE_COUNTER_OFFSET, writeIndex + count);
+    }
+
+    /**
+     * @return next value or NaN if none is available
+     */
+    @Override
+    public double read() {
+        return (read(scratch, 0, 1) == 1) ? scratch[0] : Double.NaN;
+    }
+
+    @Override
+    public int read(double[] buffer) {
+        return read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Read from the buffer. If read waiting is enabled then wait until count samples are
+     * available or the writer has closed. Otherwise just read what is available.
+     *
+     * @return number of samples read
+     */
+    @Override
+    public int read(double[] buffer, int start, int count) {
+        if (writer) {
+            throw new IllegalStateException("This buffer was opened for writing.");
+        }
+        int numRead = 0;
+        while (numRead < count) {
+            int numWanted = Math.min(count - numRead, capacity);
+            int numAvailable = Math.min(numWanted, waitForData(numWanted));
+            long readIndex = mapped.getLong(READ_COUNTER_OFFSET);
+            int first = (int) readIndex & accessMask;
+            int numBeforeWrap = Math.min(numAvailable, capacity - first);
+            int cursor = start + numRead;
+            data.position(first);
+            data.get(buffer, cursor, numBeforeWrap);
+            data.position(0);
+            data.get(buffer, cursor + numBeforeWrap, numAvailable - numBeforeWrap);
+            // Finish reading the data before releasing the space.
+            MappedOrdering.putLongRelease(mapped, READ_COUNTER_OFFSET, readIndex + numAvailable);
+            numRead += numAvailable;
+            if (numAvailable < numWanted) {
+                break; // closed or not waiting
+            }
+        }
+        return numRead;
+    }
+
+    private int waitForData(int count) {
+        int tries = 0;
+        int numAvailable = available();
+        while (numAvailable < count && readWaitEnabled
+                && !Thread.currentThread().isInterrupted()) {
+            if (isWriterClosed()) {
+                return available(); // data may have been written just before closing
+            }
+            pause(tries++);
+            numAvailable = available();
+        }
+        return numAvailable;
+    }
+}
@@ -19,6 +19,7 @@ package com.jsyn.ports;
 import java.io.PrintStream;
 
 import com.jsyn.Synthesizer;
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.unitgen.UnitGenerator;
 
 /**
@@ -71,16 +72,12 @@ public class InputMixingBlockPart extends PortBlockPart {
                 inputs = otherPart.getValues(); // prime mixer with first connected
                 jCon = 1;
             }
-            for (int i = 0; i < mixer.length; i++) {
-                mixer[i] = inputs[i];
-            }
+            System.arraycopy(inputs, 0, mixer, 0, mixer.length);
             // Now mix in the remaining inputs.
             for (; jCon < numConnections; jCon++) {
                 otherPart = getConnection(jCon);
                 inputs = otherPart.getValues();
-                for (int i = 0; i < mixer.length; i++) {
-                    mixer[i] += inputs[i];
-                }
+                BlockKernels.accumulate(inputs, mixer, 0, mixer.length);
             }
             result = mixer;
         }
@@ -237,6 +237,40 @@ public class UnitDataQueuePort extends UnitPort {
         return value;
     }
 
+    /**
+     * Read several frames with one call. This stops at the end of the current block or at a loop
+     * point, so callbacks and crossfades happen on the same frames as when reading one at a time.
+     * They happen when the frames are read, which may be ahead of the frames the caller is playing.
+     * The rate scaler of the first frame is used for all of them, which is fine for samples but not
+     * for envelopes.
+     *
+     * @param synthesisPeriod frame period of the engine
+     * @param buffer receives interleaved frames
+     * @param offset index in buffer of the first value
+     * @param maxFrames maximum number of frames to read
+     * @return number of frames read, or zero if nothing is queued
+     */
+    public int readNextFrames(double synthesisPeriod, double[] buffer, int offset,
+            int maxFrames) {
+        if (!hasMore() || (maxFrames <= 0)) {
+            return 0;
+        }
+        beginFrame(synthesisPeriod);
+        SequentialData data = currentBlock.currentData;
+        int endIndex = currentBlock.getStartFrame() + currentBlock.getNumFrames();
+        int numFrames = Math.max(1, Math.min(maxFrames, endIndex - frameIndex));
+        int numSamples = numFrames * numChannels;
+        int sampleIndex = frameIndex * numChannels;
+        for (int i = 0; i < numSamples; i++) {
+            buffer[offset + i] = data.readDouble(sampleIndex + i);
+        }
+        // endFrame() moves past the last frame and handles the end of the block.
+        frameIndex += numFrames - 1;
+        framesMoved += numFrames - 1;
+        endFrame();
+        return numFrames;
+    }
+
     /** Write directly to the port queue. This is only called by unit tests! */
     protected void addQueuedBlock(QueueDataEvent block) {
         blocks.add((QueuedBlock) block);
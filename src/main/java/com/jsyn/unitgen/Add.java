@@ -16,6 +16,8 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.engine.BlockKernels;
+
 /**
  * This unit performs a signed addition on its two inputs. <br>
  *
@@ -40,11 +42,6 @@ public class Add extends UnitBinaryOperator {
         double[] bValues = inputB.getValues();
         double[] outputs = output.getValues();
 
-        // LOGGER.debug("adder = " + this);
-        // LOGGER.debug("A = " + aValues[0]);
-        for (int i = start; i < limit; i++) {
-            outputs[i] = aValues[i] + bValues[i];
-        }
-        // LOGGER.debug("add out = " + outputs[0]);
+        BlockKernels.add(aValues, bValues, outputs, start, limit);
     }
 }
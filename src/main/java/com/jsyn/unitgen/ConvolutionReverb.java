@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.unitgen;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.dsp.PartitionedConvolver;
+import com.jsyn.ports.UnitInputPort;
+import com.jsyn.ports.UnitOutputPort;
+import com.jsyn.util.SampleLoader;
+
+/**
+ * Reverberation by convolving the input with a recorded impulse response of a real room. Impulse
+ * responses that are several seconds long can be used. There is no added latency.
+ * <p>
+ * A mono impulse response gives the same signal on both outputs. A stereo impulse response gives
+ * a stereo output. Only the first two channels are used. The impulse response is not resampled so
+ * it should be recorded at the same frame rate as the synthesizer.
+ * <p>
+ * The output is only the reverberated signal. Mix it with the dry signal as needed.
+ *
+ * <pre>
+ * <code>
+ *     ConvolutionReverb reverb = new ConvolutionReverb();
+ *     reverb.loadImpulseResponse(new File("hall.wav"));
+ *     synth.add(reverb);
+ *     source.output.connect(reverb.input);
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see PartitionedConvolver
+ * @see PlateReverb
+ */
+public class ConvolutionReverb extends UnitGenerator {
+    /**
+     * Mono input.
+     */
+    public UnitInputPort input;
+
+    /**
+     * Stereo output.
+     */
+    public UnitOutputPort output;
+
+    private volatile PartitionedConvolver convolver;
+    private boolean tailThreadEnabled;
+    // Kept so the convolver can be rebuilt when the tail thread is enabled or disabled.
+    private float[][] impulseChannels;
+    private int headSize;
+    private int maxPartitionSize;
+    private final double[][] outputArrays = new double[2][];
+
+    public ConvolutionReverb() {
+        addPort(input = new UnitInputPort("Input"));
+        addPort(output = new UnitOutputPort(2, "Output"));
+    }
+
+    /**
+     * @param impulse impulse response, mono or stereo
+     */
+    public ConvolutionReverb(FloatSample impulse) {
+        this();
+        setImpulseResponse(impulse);
+    }
+
+    /**
+     * Load an impulse response from an audio file using the SampleLoader.
+     *
+     * @param file WAV or AIFF file
+     * @throws IOException if the file cannot be read
+     */
+    public void loadImpulseResponse(File file) throws IOException {
+        setImpulseResponse(SampleLoader.loadFloatSample(file));
+    }
+
+    /**
+     * Use a new impulse response. The partitions are prepared in the calling thread so this can
+     * take a while for a long impulse response. The reverb tail starts over.
+     *
+     * @param impulse impulse response, mono or stereo
+     */
+    public void setImpulseResponse(FloatSample impulse) {
+        setImpulseResponse(impulse, PartitionedConvolver.DEFAULT_HEAD_SIZE,
+                PartitionedConvolver.DEFAULT_MAX_PARTITION_SIZE);
+    }
+
+    /**
+     * @param impulse impulse response, mono or stereo
+     * @param headSize size of the directly convolved head and of the smallest partitions
+     * @param maxPartitionSize size of the largest partitions
+     * @see PartitionedConvolver
+     */
+    public void setImpulseResponse(FloatSample impulse, int headSize, int maxPartitionSize) {
+        int numChannels = Math.min(2, impulse.getChannelsPerFrame());
+        int numFrames = impulse.getNumFrames();
+        float[] interleaved = new float[numFrames * impulse.getChannelsPerFrame()];
+        impulse.read(0, interleaved, 0, numFrames);
+        float[][] channels = new float[numChannels][numFrames];
+        for (int i = 0; i < numFrames; i++) {
+            for (int c = 0; c < numChannels; c++) {
+                channels[c][i] = interleaved[(i * impulse.getChannelsPerFrame()) + c];
+            }
+        }
+        impulseChannels = channels;
+        this.headSize = headSize;
+        this.maxPartitionSize = maxPartitionSize;
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        PartitionedConvolver next = new PartitionedConvolver(impulseChannels, headSize,
+                maxPartitionSize);
+        // Set the mode before the audio thread can see the convolver.
+        next.setTailThreadEnabled(tailThreadEnabled);
+        PartitionedConvolver previous = convolver;
+        convolver = next;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Calculate the large partitions of the reverb tail in a background thread. Otherwise that
+     * work is spread evenly over the audio blocks. A thread can help on a machine with spare
+     * cores. The audio thread never waits for it, so if it falls behind then the tail glitches.
+     * Only use this when the synthesizer is running in real time.
+     * <p>
+     * If an impulse response has been set then the partitions are prepared again in the calling
+     * thread and the reverb tail starts over.
+     *
+     * @param enabled true to use a background thread, default is false
+     */
+    public void setTailThreadEnabled(boolean enabled) {
+        if (enabled != tailThreadEnabled) {
+            tailThreadEnabled = enabled;
+            if (impulseChannels != null) {
+                rebuild();
+            }
+        }
+    }
+
+    public boolean isTailThreadEnabled() {
+        return tailThreadEnabled;
+    }
+
+    /** Stop the background thread, if any. The reverb keeps working without it. */
+    public void close() {
+        PartitionedConvolver current = convolver;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        double[] inputs = input.getValues();
+        double[] leftOutputs = output.getValues(0);
+        double[] rightOutputs = output.getValues(1);
+        PartitionedConvolver current = convolver;
+        if (current == null) {
+            for (int i = start; i < limit; i++) {
+                leftOutputs[i] = 0.0;
+                rightOutputs[i] = 0.0;
+            }
+            return;
+        }
+        outputArrays[0] = leftOutputs;
+        outputArrays[1] = rightOutputs;
+        current.process(inputs, outputArrays, start, limit);
+        if (current.getNumChannels() == 1) {
+            System.arraycopy(leftOutputs, start, rightOutputs, start, limit - start);
+        }
+    }
+}
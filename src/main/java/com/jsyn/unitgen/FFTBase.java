@@ -53,6 +53,7 @@ public abstract class FFTBase extends UnitGenerator {
         imaginaryInput = new double[size];
         imaginaryOutput = new double[size];
         cursor = 0;
+        FourierMath.warmUp(size);
     }
 
     public int getSize() {
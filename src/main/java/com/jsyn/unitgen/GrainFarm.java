@@ -16,6 +16,7 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.Synthesizer;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitOutputPort;
 import com.jsyn.util.PseudoRandom;
@@ -30,6 +31,10 @@ import com.jsyn.util.PseudoRandom;
    synth.add( sampleGrainFarm = new GrainFarm() );
    grainFarm.allocate( NUM_GRAINS );
 </code></pre>
+ *
+ * For thousands of overlapping grains, use allocateHighDensity() instead of allocate(). That keeps
+ * the state of every grain in arrays and renders each active grain in a tight loop. The port
+ * values are read once per block when grains start.
  *
  * @author Phil Burk (C) 2011 Mobileer Inc
  * @see Grain
@@ -52,6 +57,25 @@ public class GrainFarm extends UnitGenerator implements UnitSource {
     private double countScaler = 1.0;
     private final GrainScheduler scheduler = new StochasticGrainScheduler();
 
+    // State for allocateHighDensity(), one element per grain.
+    private int numDenseGrains;
+    private int[] gapCountdowns; // negative before the first gap
+    private int[] remainingFrames;
+    private double[] gapErrors;
+    private double[] durations;
+    private double[] grainAmplitudes;
+    // The raised cosine envelope is 0.5 - 0.5 * cos(phase). Rotate a (cos, sin) pair.
+    private double[] envelopeCosines;
+    private double[] envelopeSines;
+    private double[] envelopeCosineDeltas;
+    private double[] envelopeSineDeltas;
+    /** Phase or position of the source for each grain, used by the high density sources. */
+    protected double[] sourcePhases;
+    /** Increment of sourcePhases for each frame. */
+    protected double[] sourceIncrements;
+    private final double[] sourceValues = new double[Synthesizer.FRAMES_PER_BLOCK];
+    private final double[] mix = new double[Synthesizer.FRAMES_PER_BLOCK];
+
     public GrainFarm() {
         randomizer = new PseudoRandom();
         addPort(rate = new UnitInputPort("Rate", 1.0));
@@ -135,10 +159,75 @@ public class GrainFarm extends UnitGenerator implements UnitSource {
         // Scale the amplitude range so that we never go above
         // original amplitude.
         double base = amplitude.getValues()[i];
-        double offset = base * Math.random() * amplitudeRange.getValues()[i];
+        double offset = base * randomizer.random() * amplitudeRange.getValues()[i];
         grain.setAmplitude(base - offset);
     }
 
+    /**
+     * Allocate grains for the high density engine. The grains use a sine source, or the sample
+     * for a SampleGrainFarm, with a RaisedCosineEnvelope. Any grains from allocate() or
+     * setGrainArray() are released.
+     *
+     * @param numGrains maximum number of grains that can overlap
+     */
+    public void allocateHighDensity(int numGrains) {
+        gapCountdowns = new int[numGrains];
+        remainingFrames = new int[numGrains];
+        gapErrors = new double[numGrains];
+        durations = new double[numGrains];
+        grainAmplitudes = new double[numGrains];
+        envelopeCosines = new double[numGrains];
+        envelopeSines = new double[numGrains];
+        envelopeCosineDeltas = new double[numGrains];
+        envelopeSineDeltas = new double[numGrains];
+        sourcePhases = new double[numGrains];
+        sourceIncrements = new double[numGrains];
+        for (int k = 0; k < numGrains; k++) {
+            gapCountdowns[k] = -1;
+        }
+        countScaler = 1.0 / numGrains;
+        states = null;
+        numDenseGrains = numGrains;
+    }
+
+    /** @return true if allocateHighDensity() was used */
+    public boolean isHighDensity() {
+        return states == null && numDenseGrains > 0;
+    }
+
+    /**
+     * Set up the source of a high density grain when it starts.
+     *
+     * @param grain index of the grain
+     * @param rate playback rate, nominally 1.0
+     * @param i index into the port values
+     */
+    protected void startDenseSource(int grain, double rate, int i) {
+        // Same frequency as GrainSourceSine.
+        sourceIncrements[grain] = rate * 0.1 / Math.PI;
+    }
+
+    /**
+     * Generate the source signal of a high density grain.
+     *
+     * @param grain index of the grain
+     * @param buffer receives the source values
+     * @param start index of first value
+     * @param limit index after the last value
+     */
+    protected void generateDenseSource(int grain, double[] buffer, int start, int limit) {
+        double phase = sourcePhases[grain];
+        double phaseIncrement = sourceIncrements[grain];
+        for (int i = start; i < limit; i++) {
+            phase += phaseIncrement;
+            if (phase > 1.0) {
+                phase -= 2.0;
+            }
+            buffer[i] = SineOscillator.fastSin(phase);
+        }
+        sourcePhases[grain] = phase;
+    }
+
     public void allocate(int numGrains) {
         Grain[] grainArray = new Grain[numGrains];
         for (int i = 0; i < numGrains; i++) {
@@ -160,6 +249,10 @@ public class GrainFarm extends UnitGenerator implements UnitSource {
 
     @Override
     public void generate(int start, int limit) {
+        if (isHighDensity()) {
+            generateDense(start, limit);
+            return;
+        }
         double[] outputs = output.getValues();
         double[] amplitudes = amplitude.getValues();
         // double frp = getSynthesisEngine().getFramePeriod();
@@ -175,4 +268,81 @@ public class GrainFarm extends UnitGenerator implements UnitSource {
         }
 
     }
+
+    private void generateDense(int start, int limit) {
+        double[] outputs = output.getValues();
+        double[] amplitudes = amplitude.getValues();
+        double dens = density.getValues()[start];
+        for (int i = start; i < limit; i++) {
+            mix[i] = 0.0;
+        }
+
+        for (int k = 0; k < numDenseGrains; k++) {
+            int i = start;
+            while (i < limit) {
+                if (remainingFrames[k] > 0) {
+                    int end = Math.min(limit, i + remainingFrames[k]);
+                    mixDenseGrain(k, i, end);
+                    remainingFrames[k] -= end - i;
+                    i = end;
+                    if (remainingFrames[k] == 0) {
+                        startDenseGap(k, dens);
+                    }
+                } else if (gapCountdowns[k] > 0) {
+                    int numFrames = Math.min(gapCountdowns[k], limit - i);
+                    gapCountdowns[k] -= numFrames;
+                    i += numFrames;
+                } else if (gapCountdowns[k] == 0) {
+                    startDenseGrain(k, start);
+                } else {
+                    durations[k] = scheduler.nextDuration(duration.getValues()[start]);
+                    startDenseGap(k, dens);
+                }
+            }
+        }
+
+        for (int i = start; i < limit; i++) {
+            outputs[i] = mix[i] * amplitudes[i] * countScaler;
+        }
+    }
+
+    private void mixDenseGrain(int k, int start, int limit) {
+        generateDenseSource(k, sourceValues, start, limit);
+        double cosine = envelopeCosines[k];
+        double sine = envelopeSines[k];
+        double cosineDelta = envelopeCosineDeltas[k];
+        double sineDelta = envelopeSineDeltas[k];
+        double grainAmplitude = grainAmplitudes[k] * 0.5;
+        for (int i = start; i < limit; i++) {
+            double nextCosine = (cosine * cosineDelta) - (sine * sineDelta);
+            sine = (sine * cosineDelta) + (cosine * sineDelta);
+            cosine = nextCosine;
+            mix[i] += sourceValues[i] * (1.0 - cosine) * grainAmplitude;
+        }
+        envelopeCosines[k] = cosine;
+        envelopeSines[k] = sine;
+    }
+
+    private void startDenseGap(int k, double dens) {
+        double gap = (scheduler.nextGap(durations[k], dens) * getFrameRate()) + gapErrors[k];
+        gapCountdowns[k] = (int) gap;
+        gapErrors[k] = gap - gapCountdowns[k];
+    }
+
+    private void startDenseGrain(int k, int i) {
+        double dur = scheduler.nextDuration(duration.getValues()[i]);
+        durations[k] = dur;
+        int numFrames = Math.max(1, (int) (dur * getFrameRate()));
+        remainingFrames[k] = numFrames;
+        double phaseIncrement = 2.0 * Math.PI / numFrames;
+        envelopeCosines[k] = 1.0;
+        envelopeSines[k] = 0.0;
+        envelopeCosineDeltas[k] = Math.cos(phaseIncrement);
+        envelopeSineDeltas[k] = Math.sin(phaseIncrement);
+
+        double base = amplitude.getValues()[i];
+        grainAmplitudes[k] = base - (base * randomizer.random() * amplitudeRange.getValues()[i]);
+        double grainRate = rate.getValues()[i] * calculateOctaveScaler(rateRange.getValues()[i]);
+        startDenseSource(k, grainRate, i);
+    }
 }
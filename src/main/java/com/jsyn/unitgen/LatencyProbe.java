@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.unitgen;
+
+import com.jsyn.ports.UnitInputPort;
+import com.jsyn.ports.UnitOutputPort;
+
+/**
+ * Play a probe signal and record the input starting on the same frame. The recording can then be
+ * searched for the probe to find the delay between the output and the input. The output is silent
+ * when the probe is not armed.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see com.jsyn.util.LatencyMeter
+ */
+public class LatencyProbe extends UnitGenerator {
+    public UnitInputPort input;
+    public UnitOutputPort output;
+
+    private double[] probe;
+    private double[] recording;
+    private int cursor;
+    private volatile boolean armed;
+    private volatile boolean done;
+
+    public LatencyProbe() {
+        addPort(input = new UnitInputPort("Input"));
+        addPort(output = new UnitOutputPort("Output"));
+    }
+
+    /**
+     * Start playing the probe at the beginning of the next block. Do not call this while a
+     * previous capture is still running.
+     *
+     * @param probe signal to play
+     * @param recording receives the input, should be longer than the probe plus the largest
+     *            expected latency
+     */
+    public void arm(double[] probe, double[] recording) {
+        if (armed) {
+            throw new IllegalStateException("Probe is already armed.");
+        }
+        this.probe = probe;
+        this.recording = recording;
+        cursor = 0;
+        done = false;
+        armed = true;
+    }
+
+    /** Stop the capture early, for example after a timeout. */
+    public void disarm() {
+        armed = false;
+    }
+
+    public boolean isArmed() {
+        return armed;
+    }
+
+    /** @return true when the recording passed to arm() has been filled */
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        double[] inputs = input.getValues();
+        double[] outputs = output.getValues();
+        if (!armed) {
+            for (int i = start; i < limit; i++) {
+                outputs[i] = 0.0;
+            }
+            return;
+        }
+        for (int i = start; i < limit; i++) {
+            if (cursor < recording.length) {
+                outputs[i] = (cursor < probe.length) ? probe[cursor] : 0.0;
+                recording[cursor++] = inputs[i];
+            } else {
+                outputs[i] = 0.0;
+            }
+        }
+        if (cursor >= recording.length) {
+            armed = false;
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.data.FloatSampleMipmap;
+import com.jsyn.ports.UnitInputPort;
+import com.jsyn.ports.UnitOutputPort;
+
+/**
+ * Play a mono FloatSample at any rate without aliasing, using the mipmap of the sample. The level
+ * is picked from the rate at the start of each block and two adjacent levels are crossfaded, like
+ * the band-limited oscillators do with MultiTable. The cost per frame does not depend on the rate,
+ * so extreme transpositions stay cheap.
+ *
+ * <pre><code>
+	synth.add(reader = new MipmapSampleReader());
+	reader.rate.set(sample.getFrameRate() * 8.0); // three octaves up
+	reader.play(sample, sample.getSustainBegin(), sample.getSustainEnd());
+</code></pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see FloatSampleMipmap
+ * @see VariableRateMonoReader
+ */
+public class MipmapSampleReader extends UnitGenerator implements UnitSource {
+    /**
+     * Frames of the original sample per second. Use the frame rate of the sample for no change.
+     * Negative rates are treated as zero, which holds the current position.
+     */
+    public UnitInputPort rate;
+    public UnitInputPort amplitude;
+    public UnitOutputPort output;
+
+    private volatile Playback pending;
+    private Playback playback;
+    // Set by the audio thread when a playback without a loop reaches the end.
+    private volatile Playback finished;
+    private double position;
+
+    /** Immutable so it can be handed to the audio thread in one write. */
+    private static class Playback {
+        final FloatSampleMipmap mipmap;
+        final int loopStart;
+        final int loopEnd;
+
+        Playback(FloatSampleMipmap mipmap, int loopStart, int loopEnd) {
+            this.mipmap = mipmap;
+            this.loopStart = loopStart;
+            this.loopEnd = loopEnd;
+        }
+    }
+
+    public MipmapSampleReader() {
+        addPort(rate = new UnitInputPort("Rate", 44100.0));
+        addPort(amplitude = new UnitInputPort("Amplitude", UnitOscillator.DEFAULT_AMPLITUDE));
+        addPort(output = new UnitOutputPort("Output"));
+    }
+
+    /**
+     * Play the whole sample once, starting at the next block. This builds the mipmap if needed.
+     */
+    public void play(FloatSample sample) {
+        play(sample, -1, -1);
+    }
+
+    /**
+     * Play the sample from the beginning and repeat the loop until stopPlaying() is called. This
+     * builds the mipmap if needed.
+     *
+     * @param loopStart first frame of the loop, or -1 for no loop
+     * @param loopEnd frame after the end of the loop
+     */
+    public void play(FloatSample sample, int loopStart, int loopEnd) {
+        FloatSampleMipmap mipmap = sample.getMipmap();
+        if ((loopStart >= 0) && ((loopEnd <= loopStart) || (loopEnd > sample.getNumFrames()))) {
+            throw new IllegalArgumentException("Bad loop " + loopStart + " to " + loopEnd);
+        }
+        pending = new Playback(mipmap, loopStart, loopEnd);
+    }
+
+    /** Stop at the start of the next block. */
+    public void stopPlaying() {
+        pending = null;
+    }
+
+    /** @return true until a sample without a loop reaches its end or stopPlaying() is called */
+    public boolean isPlaying() {
+        Playback current = pending;
+        return (current != null) && (current != finished);
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        double[] rates = rate.getValues();
+        double[] amplitudes = amplitude.getValues();
+        double[] outputs = output.getValues();
+
+        Playback next = pending;
+        if (next != playback) {
+            playback = next;
+            position = 0.0;
+        }
+        if ((playback == null) || (playback == finished)) {
+            for (int i = start; i < limit; i++) {
+                outputs[i] = 0.0;
+            }
+            return;
+        }
+
+        FloatSampleMipmap mipmap = playback.mipmap;
+        double framePeriod = getFramePeriod();
+        double level = mipmap.convertIncrementToLevel(rates[start] * framePeriod);
+        boolean looping = playback.loopStart >= 0;
+        double loopStart = playback.loopStart;
+        double loopSize = playback.loopEnd - playback.loopStart;
+        double end = looping ? playback.loopEnd : (mipmap.getNumFrames() - 1);
+        for (int i = start; i < limit; i++) {
+            if (position >= end) {
+                if (looping) {
+                    position = loopStart + ((position - loopStart) % loopSize);
+                } else {
+                    outputs[i] = 0.0;
+                    continue;
+                }
+            }
+            outputs[i] = mipmap.interpolate(position, level) * amplitudes[i];
+            double increment = rates[i] * framePeriod;
+            if (increment > 0.0) {
+                position += increment;
+            }
+        }
+        if (!looping && (position >= end)) {
+            finished = playback;
+        }
+    }
+
+    @Override
+    public UnitOutputPort getOutput() {
+        return output;
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitOutputPort;
 
@@ -37,6 +39,7 @@ public class MixerMono extends UnitGenerator implements UnitSink, UnitSource {
      */
     public UnitInputPort amplitude;
     public UnitOutputPort output;
+    private final double[] sums = new double[Synthesizer.FRAMES_PER_BLOCK];
 
     public MixerMono(int numInputs) {
         addPort(input = new UnitInputPort(numInputs, "Input"));
@@ -54,14 +57,14 @@ public class MixerMono extends UnitGenerator implements UnitSink, UnitSource {
         double[] amplitudes = amplitude.getValues(0);
         double[] outputs = output.getValues(0);
         for (int i = start; i < limit; i++) {
-            double sum = 0;
-            for (int n = 0; n < input.getNumParts(); n++) {
-                double[] inputs = input.getValues(n);
-                double[] gains = gain.getValues(n);
-                sum += inputs[i] * gains[i];
-            }
-            outputs[i] = sum * amplitudes[i];
+            sums[i] = 0.0;
         }
+        // Mix one whole input at a time.
+        for (int n = 0; n < input.getNumParts(); n++) {
+            BlockKernels.accumulateProduct(input.getValues(n), gain.getValues(n), sums, start,
+                    limit);
+        }
+        BlockKernels.multiply(sums, amplitudes, outputs, start, limit);
     }
 
     @Override
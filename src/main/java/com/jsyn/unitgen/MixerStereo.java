@@ -16,6 +16,8 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.ports.UnitInputPort;
 
 /**
@@ -34,6 +36,11 @@ public class MixerStereo extends MixerMono {
      */
     public UnitInputPort pan;
     protected PanTracker[] panTrackers;
+    private final double[] scaledInputs = new double[Synthesizer.FRAMES_PER_BLOCK];
+    private final double[] leftGains = new double[Synthesizer.FRAMES_PER_BLOCK];
+    private final double[] rightGains = new double[Synthesizer.FRAMES_PER_BLOCK];
+    private final double[] sums0 = new double[Synthesizer.FRAMES_PER_BLOCK];
+    private final double[] sums1 = new double[Synthesizer.FRAMES_PER_BLOCK];
 
     static class PanTracker {
         double previousPan = Double.MAX_VALUE; // so we update immediately
@@ -73,22 +80,25 @@ public class MixerStereo extends MixerMono {
         double[] outputs0 = output.getValues(0);
         double[] outputs1 = output.getValues(1);
         for (int i = start; i < limit; i++) {
-            double sum0 = 0.0;
-            double sum1 = 0.0;
-            for (int n = 0; n < input.getNumParts(); n++) {
-                double[] inputs = input.getValues(n);
-                double[] gains = gain.getValues(n);
-                double[] pans = pan.getValues(n);
-                PanTracker panTracker = panTrackers[n];
+            sums0[i] = 0.0;
+            sums1[i] = 0.0;
+        }
+        // Mix one whole input at a time.
+        for (int n = 0; n < input.getNumParts(); n++) {
+            double[] pans = pan.getValues(n);
+            PanTracker panTracker = panTrackers[n];
+            for (int i = start; i < limit; i++) {
                 panTracker.update(pans[i]);
-                double scaledInput = inputs[i] * gains[i];
-                sum0 += scaledInput * panTracker.leftGain;
-                sum1 += scaledInput * panTracker.rightGain;
+                leftGains[i] = panTracker.leftGain;
+                rightGains[i] = panTracker.rightGain;
             }
-            double amp = amplitudes[i];
-            outputs0[i] = sum0 * amp;
-            outputs1[i] = sum1 * amp;
+            BlockKernels.multiply(input.getValues(n), gain.getValues(n), scaledInputs, start,
+                    limit);
+            BlockKernels.accumulateProduct(scaledInputs, leftGains, sums0, start, limit);
+            BlockKernels.accumulateProduct(scaledInputs, rightGains, sums1, start, limit);
         }
+        BlockKernels.multiply(sums0, amplitudes, outputs0, start, limit);
+        BlockKernels.multiply(sums1, amplitudes, outputs1, start, limit);
     }
 
 }
@@ -16,6 +16,7 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitOutputPort;
 
@@ -56,9 +57,7 @@ public class Multiply extends UnitBinaryOperator {
         double[] aValues = inputA.getValues();
         double[] bValues = inputB.getValues();
         double[] outputs = output.getValues();
-        for (int i = start; i < limit; i++) {
-            outputs[i] = aValues[i] * bValues[i];
-        }
+        BlockKernels.multiply(aValues, bValues, outputs, start, limit);
     }
 
 }
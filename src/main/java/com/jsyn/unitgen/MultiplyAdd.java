@@ -16,6 +16,7 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitOutputPort;
 
@@ -49,9 +50,7 @@ public class MultiplyAdd extends UnitGenerator {
         double[] bValues = inputB.getValues();
         double[] cValues = inputC.getValues();
         double[] outputs = output.getValues();
-        for (int i = start; i < limit; i++) {
-            outputs[i] = (aValues[i] * bValues[i]) + cValues[i];
-        }
+        BlockKernels.multiplyAdd(aValues, bValues, cValues, outputs, start, limit);
     }
 
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.ports.UnitInputPort;
+import com.jsyn.ports.UnitOutputPort;
+
+/**
+ * A bank of sine oscillators that are summed into one output, for additive synthesis with
+ * thousands of partials. This is much faster than using one SineOscillator per partial because
+ * the partials have no ports or connections. The phase, frequency and amplitude of every partial
+ * are kept in arrays and updated together.
+ * <p>
+ * Frequencies and amplitudes are set with setPartial() and friends. The new values are picked up
+ * at the start of the next block. Each partial then glides towards its new values with the
+ * half-life set by setHalfLife(). Frequencies change once per block. Amplitudes ramp linearly
+ * over the samples of each block, so there is no zipper noise.
+ * <p>
+ * The inner loop works on one sample of every partial at a time with no branches, so the JIT
+ * can use SIMD instructions. The sine is a Taylor expansion over a quarter cycle, like
+ * SineOscillator.fastSin(), with an error below 1.0E-7.
+ *
+ * <pre>
+ * <code>
+ *     OscillatorBank bank = new OscillatorBank(1000);
+ *     for (int i = 0; i &lt; 1000; i++) {
+ *         bank.setPartial(i, 100.0 * (i + 1), 0.5 / (i + 1));
+ *     }
+ *     bank.setNumPartials(1000);
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SineOscillator
+ */
+public class OscillatorBank extends UnitGenerator implements UnitSource {
+    /** Multiplies the frequency of every partial, read once per block. Default is 1.0. */
+    public UnitInputPort frequencyScaler;
+    /** Master amplitude applied to the sum. Default is 1.0. */
+    public UnitInputPort amplitude;
+    public UnitOutputPort output;
+
+    public static final double DEFAULT_HALF_LIFE = 0.005;
+
+    // Factorial constants for the Taylor expansion.
+    private static final double IF3 = 1.0 / (2 * 3);
+    private static final double IF5 = IF3 / (4 * 5);
+    private static final double IF7 = IF5 / (6 * 7);
+    private static final double IF9 = IF7 / (8 * 9);
+    private static final double IF11 = IF9 / (10 * 11);
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    private final int maxPartials;
+    private volatile int numPartials;
+    private volatile double halfLife = DEFAULT_HALF_LIFE;
+    // Written by the application.
+    private final double[] targetFrequencies;
+    private final double[] targetAmplitudes;
+    // Only used by the audio thread. Phases are in cycles, offset by a quarter cycle.
+    private final double[] phases;
+    private final double[] increments;
+    private final double[] amplitudes;
+    private final double[] amplitudeDeltas;
+    private final double[] values;
+    private final double[] sums = new double[Synthesizer.FRAMES_PER_BLOCK];
+
+    /**
+     * @param maxPartials size of the arrays, the number of partials that are played can be set
+     *            up to this with setNumPartials()
+     */
+    public OscillatorBank(int maxPartials) {
+        addPort(frequencyScaler = new UnitInputPort("FrequencyScaler", 1.0));
+        addPort(amplitude = new UnitInputPort(PORT_NAME_AMPLITUDE, 1.0));
+        addPort(output = new UnitOutputPort(PORT_NAME_OUTPUT));
+        this.maxPartials = maxPartials;
+        targetFrequencies = new double[maxPartials];
+        targetAmplitudes = new double[maxPartials];
+        phases = new double[maxPartials];
+        increments = new double[maxPartials];
+        amplitudes = new double[maxPartials];
+        amplitudeDeltas = new double[maxPartials];
+        values = new double[maxPartials];
+        for (int i = 0; i < maxPartials; i++) {
+            phases[i] = 0.25;
+        }
+        numPartials = maxPartials;
+    }
+
+    public int getMaxPartials() {
+        return maxPartials;
+    }
+
+    /**
+     * Only partials below this index are played. Partials that are added later start from the
+     * amplitude they had when they were removed, so set the amplitude to zero before removing a
+     * partial.
+     */
+    public void setNumPartials(int numPartials) {
+        if ((numPartials < 0) || (numPartials > maxPartials)) {
+            throw new IllegalArgumentException("numPartials must be between 0 and " + maxPartials);
+        }
+        this.numPartials = numPartials;
+    }
+
+    public int getNumPartials() {
+        return numPartials;
+    }
+
+    /**
+     * @param halfLife time in seconds for the partials to move half way to new frequencies and
+     *            amplitudes, default is DEFAULT_HALF_LIFE, zero for one block
+     */
+    public void setHalfLife(double halfLife) {
+        this.halfLife = halfLife;
+    }
+
+    public double getHalfLife() {
+        return halfLife;
+    }
+
+    public void setPartial(int index, double frequency, double amplitude) {
+        targetFrequencies[index] = frequency;
+        targetAmplitudes[index] = amplitude;
+    }
+
+    public void setFrequency(int index, double frequency) {
+        targetFrequencies[index] = frequency;
+    }
+
+    public double getFrequency(int index) {
+        return targetFrequencies[index];
+    }
+
+    public void setAmplitude(int index, double amplitude) {
+        targetAmplitudes[index] = amplitude;
+    }
+
+    public double getAmplitude(int index) {
+        return targetAmplitudes[index];
+    }
+
+    /**
+     * Set partials from arrays.
+     *
+     * @param frequencies in Hertz
+     * @param amplitudes linear amplitudes
+     * @param index first partial to set
+     * @param count number of partials to set
+     */
+    public void setPartials(double[] frequencies, double[] amplitudes, int index, int count) {
+        System.arraycopy(frequencies, 0, targetFrequencies, index, count);
+        System.arraycopy(amplitudes, 0, targetAmplitudes, index, count);
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        double[] amplitudeValues = amplitude.getValues();
+        double[] outputs = output.getValues();
+        int count = numPartials;
+        int numFrames = limit - start;
+        if (numFrames <= 0) {
+            return;
+        }
+
+        // Move part of the way to the targets once per block.
+        double framePeriod = getFramePeriod();
+        double life = halfLife;
+        double glide = (life < framePeriod) ? 1.0
+                : (1.0 - Math.pow(0.5, (numFrames * framePeriod) / life));
+        double scaler = frequencyScaler.getValues()[start] * framePeriod;
+        double rampScaler = glide / numFrames;
+        for (int k = 0; k < count; k++) {
+            double increment = targetFrequencies[k] * scaler;
+            // Clip to the Nyquist rate.
+            increment = Math.max(-0.5, Math.min(0.5, increment));
+            increments[k] += (increment - increments[k]) * glide;
+            amplitudeDeltas[k] = (targetAmplitudes[k] - amplitudes[k]) * rampScaler;
+        }
+
+        for (int i = start; i < limit; i++) {
+            for (int k = 0; k < count; k++) {
+                double phase = phases[k] + increments[k];
+                phase -= Math.floor(phase);
+                phases[k] = phase;
+                double partialAmplitude = amplitudes[k] + amplitudeDeltas[k];
+                amplitudes[k] = partialAmplitude;
+                values[k] = partialAmplitude * quarterSine(phase);
+            }
+            sums[i] = sum(values, count);
+        }
+
+        for (int i = start; i < limit; i++) {
+            outputs[i] = sums[i] * amplitudeValues[i];
+        }
+    }
+
+    /**
+     * Because the phase is offset by a quarter cycle, folding it around the half cycle gives a
+     * value between -1/4 and +1/4 cycle with the same sine.
+     *
+     * @param phase in cycles between 0.0 and 1.0, plus a quarter cycle
+     */
+    private static double quarterSine(double phase) {
+        double x = (0.25 - Math.abs(phase - 0.5)) * TWO_PI;
+        double x2 = x * x;
+        return x * (x2 * (x2 * (x2 * (x2 * ((x2 * (-IF11)) + IF9) - IF7) + IF5) - IF3) + 1);
+    }
+
+    /** Use separate sums so the additions can overlap. */
+    private static double sum(double[] data, int count) {
+        double sum0 = 0.0;
+        double sum1 = 0.0;
+        double sum2 = 0.0;
+        double sum3 = 0.0;
+        int k = 0;
+        for (; k < (count - 3); k += 4) {
+            sum0 += data[k];
+            sum1 += data[k + 1];
+            sum2 += data[k + 2];
+            sum3 += data[k + 3];
+        }
+        for (; k < count; k++) {
+            sum0 += data[k];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public UnitOutputPort getOutput() {
+        return output;
+    }
+}
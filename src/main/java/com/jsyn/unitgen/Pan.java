@@ -16,6 +16,7 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.engine.BlockKernels;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitOutputPort;
 
@@ -52,14 +53,6 @@ public class Pan extends UnitGenerator {
         double[] outputs_0 = output.getValues(0);
         double[] outputs_1 = output.getValues(1);
 
-        for (int i = start; i < limit; i++) {
-            double gainB = (panPtr[i] * 0.5) + 0.5; /*
-                                                     * Scale and offset to 0.0 to 1.0
-                                                     */
-            double gainA = 1.0 - gainB;
-            double inVal = inputs[i];
-            outputs_0[i] = inVal * gainA;
-            outputs_1[i] = inVal * gainB;
-        }
+        BlockKernels.pan(inputs, panPtr, outputs_0, outputs_1, start, limit);
     }
 }
@@ -53,13 +53,29 @@ public class PitchDetector extends UnitGenerator {
 
     public PitchDetector() {
         super();
+        addPorts();
+        signalCorrelator = createSignalCorrelator();
+    }
+
+    /**
+     * Use a specific correlator. For example, an FFTAutoCorrelator can analyze much larger
+     * windows than the default AutoCorrelator for the same CPU load.
+     *
+     * @param signalCorrelator analyzes the input
+     */
+    public PitchDetector(SignalCorrelator signalCorrelator) {
+        super();
+        addPorts();
+        this.signalCorrelator = signalCorrelator;
+    }
+
+    private void addPorts() {
         addPort(input = new UnitInputPort("Input"));
 
         addPort(period = new UnitOutputPort("Period"));
         addPort(confidence = new UnitOutputPort("Confidence"));
         addPort(frequency = new UnitOutputPort("Frequency"));
         addPort(updated = new UnitOutputPort("Updated"));
-        signalCorrelator = createSignalCorrelator();
     }
 
     public SignalCorrelator createSignalCorrelator() {
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import com.jsyn.data.Spectrum;
+
+/**
+ * Base class for spectral processors that work on the magnitude and phase of each bin. Implement
+ * processPolar() and modify the arrays in place. Only the bins up to and including the Nyquist
+ * frequency are passed. The mirrored upper half of the spectrum is rebuilt from them.
+ * <p>
+ * This can be used with SpectralOverlapAdd, which calls processInPlace(), or connected between
+ * the spectral ports of a SpectralFilter.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SpectralOverlapAdd
+ */
+public abstract class PolarSpectralProcessor extends SpectralProcessor {
+    private double[] magnitudes;
+    private double[] phases;
+
+    public PolarSpectralProcessor() {
+        super();
+    }
+
+    /**
+     * @param size number of bins in the spectrum, used to allocate the polar arrays in advance
+     */
+    public PolarSpectralProcessor(int size) {
+        super(size);
+        prepare(size);
+    }
+
+    @Override
+    public void prepare(int size) {
+        int numBins = (size / 2) + 1;
+        if ((magnitudes == null) || (magnitudes.length != numBins)) {
+            magnitudes = new double[numBins];
+            phases = new double[numBins];
+        }
+    }
+
+    @Override
+    public void processInPlace(Spectrum spectrum) {
+        int size = spectrum.size();
+        prepare(size);
+        double[] real = spectrum.getReal();
+        double[] imaginary = spectrum.getImaginary();
+        int numBins = (size / 2) + 1;
+        for (int k = 0; k < numBins; k++) {
+            double re = real[k];
+            double im = imaginary[k];
+            magnitudes[k] = Math.sqrt((re * re) + (im * im));
+            phases[k] = Math.atan2(im, re);
+        }
+
+        processPolar(magnitudes, phases, numBins);
+
+        for (int k = 0; k < numBins; k++) {
+            double magnitude = magnitudes[k];
+            double phase = phases[k];
+            real[k] = magnitude * Math.cos(phase);
+            imaginary[k] = magnitude * Math.sin(phase);
+        }
+        for (int k = 1; k < (numBins - 1); k++) {
+            real[size - k] = real[k];
+            imaginary[size - k] = -imaginary[k];
+        }
+    }
+
+    @Override
+    public void processSpectrum(Spectrum inputSpectrum, Spectrum outputSpectrum) {
+        outputSpectrum.setSize(inputSpectrum.size());
+        inputSpectrum.copyTo(outputSpectrum);
+        processInPlace(outputSpectrum);
+    }
+
+    /**
+     * Define this method to modify the magnitude and phase of each bin in place.
+     *
+     * @param magnitudes magnitude of each bin, from DC to the Nyquist frequency
+     * @param phases phase of each bin in radians
+     * @param numBins number of valid bins, which is size/2 + 1
+     */
+    public abstract void processPolar(double[] magnitudes, double[] phases, int numBins);
+}
@@ -65,6 +65,48 @@ public class SampleGrainFarm extends GrainFarm {
         super.setupGrain(grain, i);
     }
 
+    @Override
+    protected void startDenseSource(int grain, double rate, int i) {
+        FloatSample source = sample;
+        if (source == null) {
+            return;
+        }
+        int numFramesGuarded = source.getNumFrames() - 1;
+        double randomPosition = position.getValues()[i]
+                + (positionRange.getValues()[i] * (randomizer.random() - 0.5));
+        double phase = (randomPosition * 0.5) + 0.5;
+        if (phase < 0.0) {
+            phase = 0.0;
+        } else if (phase > SampleGrainSource.MAX_PHASE) {
+            phase = SampleGrainSource.MAX_PHASE;
+        }
+        // Track the position in frames instead of as a fraction of the sample.
+        sourcePhases[grain] = phase * numFramesGuarded;
+        sourceIncrements[grain] = rate * source.getFrameRate() / getFrameRate();
+    }
+
+    @Override
+    protected void generateDenseSource(int grain, double[] buffer, int start, int limit) {
+        FloatSample source = sample;
+        if (source == null) {
+            for (int i = start; i < limit; i++) {
+                buffer[i] = 0.0;
+            }
+            return;
+        }
+        double maxIndex = SampleGrainSource.MAX_PHASE * (source.getNumFrames() - 1);
+        double fractionalIndex = sourcePhases[grain];
+        double indexIncrement = sourceIncrements[grain];
+        for (int i = start; i < limit; i++) {
+            fractionalIndex += indexIncrement;
+            if (fractionalIndex > maxIndex) {
+                fractionalIndex = maxIndex;
+            }
+            buffer[i] = source.interpolate(fractionalIndex);
+        }
+        sourcePhases[grain] = fractionalIndex;
+    }
+
     public void setSample(FloatSample sample) {
         this.sample = sample;
     }
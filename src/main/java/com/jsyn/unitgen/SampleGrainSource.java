@@ -17,6 +17,7 @@
 package com.jsyn.unitgen;
 
 import com.jsyn.data.FloatSample;
+import com.jsyn.util.PseudoRandom;
 
 public class SampleGrainSource extends GrainCommon implements GrainSource {
     private FloatSample sample;
@@ -25,7 +26,8 @@ public class SampleGrainSource extends GrainCommon implements GrainSource {
     private double phase; // ranges from 0.0 to 1.0
     private double phaseIncrement;
     private int numFramesGuarded;
-    private static final double MAX_PHASE = 0.9999999999;
+    private final PseudoRandom randomizer = new PseudoRandom();
+    static final double MAX_PHASE = 0.9999999999;
 
     @Override
     public double next() {
@@ -53,7 +55,7 @@ public class SampleGrainSource extends GrainCommon implements GrainSource {
 
     @Override
     public void reset() {
-        double randomPosition = position + (positionRange * (Math.random() - 0.5));
+        double randomPosition = position + (positionRange * (randomizer.random() - 0.5));
         phase = (randomPosition * 0.5) + 0.5;
         if (phase < 0.0) {
             phase = 0.0;
@@ -25,6 +25,12 @@ import com.jsyn.engine.MultiTable;
  * @author Phil Burk (C) 2009 Mobileer Inc
  */
 public class SawtoothOscillatorBL extends UnitOscillator {
+
+    public SawtoothOscillatorBL() {
+        // Build the shared tables now so the audio thread does not have to.
+        MultiTable.getInstance();
+    }
+
     @Override
     public void generate(int start, int limit) {
         MultiTable multiTable = MultiTable.getInstance();
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import com.jsyn.dsp.PolyphaseSincTable;
+import com.jsyn.ports.UnitDataQueuePort;
+
+/**
+ * Frame history and read position for the sinc interpolation mode of the variable rate readers.
+ * Frames are pulled from the queue in blocks. When the queue runs dry the last frame is repeated,
+ * which holds the output like the linear mode does.
+ * <p>
+ * The queue is read up to (zeroCrossings + FRAMES_PER_READ + 1) frames ahead of the position. Its
+ * callbacks and frame count follow the reads, not the position.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+class SincFrameReader {
+    static final int FRAMES_PER_READ = 64;
+    private final UnitDataQueuePort dataQueue;
+    private final PolyphaseSincTable table;
+    private final int zeroCrossings;
+    private final int numChannels;
+    private final int capacity;
+    // Interleaved frames. Frames before readFrame are kept for the left wing of the filter.
+    private final double[] history;
+    private int readFrame; // frame just before the interpolated position
+    private int writeFrame; // next frame to be written
+    private int endFrame; // first repeated frame after the queue ran dry, or -1
+    private double phase;
+    private double baseIncrement;
+    private boolean ranout;
+
+    SincFrameReader(UnitDataQueuePort dataQueue, int zeroCrossings) {
+        this.dataQueue = dataQueue;
+        this.zeroCrossings = zeroCrossings;
+        table = PolyphaseSincTable.getInstance(zeroCrossings);
+        numChannels = dataQueue.getNumChannels();
+        capacity = (2 * zeroCrossings) + (3 * FRAMES_PER_READ);
+        history = new double[capacity * numChannels];
+        // Start with silence before the interpolated position.
+        readFrame = zeroCrossings - 1;
+        writeFrame = readFrame + 1;
+        endFrame = -1;
+    }
+
+    int getZeroCrossings() {
+        return zeroCrossings;
+    }
+
+    /**
+     * Called at the beginning of each block. A starved reader can only be restarted here, like
+     * the linear mode.
+     */
+    void beginBlock(double framePeriod) {
+        if (!dataQueue.isTargetValid()) {
+            // The queue was cleared. Drop the frames that were read ahead.
+            writeFrame = readFrame + 1;
+            endFrame = -1;
+        } else if ((endFrame >= 0) && dataQueue.hasMore()) {
+            // Replace the repeated frames with new data.
+            writeFrame = Math.max(readFrame + 1, endFrame);
+            endFrame = -1;
+        }
+        fill(framePeriod);
+    }
+
+    PolyphaseSincTable getTable() {
+        return table;
+    }
+
+    /** @return cutoff for the current rate, lower when reading fast */
+    int selectCutoff(double rate) {
+        return table.selectCutoff(baseIncrement * rate);
+    }
+
+    double[] getHistory() {
+        return history;
+    }
+
+    /** @return index in the history of the first channel of the frame before the position */
+    int getIndex() {
+        return readFrame * numChannels;
+    }
+
+    double getPhase() {
+        return phase;
+    }
+
+    void advance(double rate, double framePeriod) {
+        double increment = baseIncrement * rate;
+        if (increment < 0.0) {
+            increment = 0.0;
+        } else if (increment > FRAMES_PER_READ) {
+            increment = FRAMES_PER_READ;
+        }
+        phase += increment;
+        if (phase >= 1.0) {
+            int numFrames = (int) phase;
+            phase -= numFrames;
+            readFrame += numFrames;
+            if ((endFrame >= 0) && (readFrame >= endFrame)) {
+                // Hold the output until more data is queued.
+                ranout = true;
+                baseIncrement = 0.0;
+                phase = 0.0;
+            }
+            fill(framePeriod);
+        }
+    }
+
+    /** @return true once after the position passes the end of the queued data */
+    boolean testAndClearRanout() {
+        boolean result = ranout;
+        ranout = false;
+        return result;
+    }
+
+    private void fill(double framePeriod) {
+        while (writeFrame <= (readFrame + zeroCrossings)) {
+            if ((writeFrame + FRAMES_PER_READ) > capacity) {
+                compact();
+            }
+            int numFrames = 0;
+            if (endFrame < 0) {
+                dataQueue.firePendingCallbacks();
+                numFrames = dataQueue.readNextFrames(framePeriod, history,
+                        writeFrame * numChannels, FRAMES_PER_READ);
+                if (numFrames > 0) {
+                    baseIncrement = framePeriod * dataQueue.getNormalizedRate();
+                } else {
+                    endFrame = writeFrame;
+                }
+            }
+            if (numFrames == 0) {
+                System.arraycopy(history, (writeFrame - 1) * numChannels, history,
+                        writeFrame * numChannels, numChannels);
+                numFrames = 1;
+            }
+            writeFrame += numFrames;
+        }
+    }
+
+    /** Move the frames still needed to the start of the history. */
+    private void compact() {
+        // Keep at least one frame so it can be repeated.
+        int keep = Math.min(readFrame - (zeroCrossings - 1), writeFrame - 1);
+        System.arraycopy(history, keep * numChannels, history, 0,
+                (writeFrame - keep) * numChannels);
+        readFrame -= keep;
+        writeFrame -= keep;
+        if (endFrame >= 0) {
+            endFrame = Math.max(0, endFrame - keep);
+        }
+    }
+}
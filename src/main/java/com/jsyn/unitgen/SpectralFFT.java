@@ -16,16 +16,19 @@
 
 package com.jsyn.unitgen;
 
-import java.util.Arrays;
-
 import com.jsyn.data.SpectralWindow;
 import com.jsyn.data.Spectrum;
 import com.jsyn.ports.UnitInputPort;
 import com.jsyn.ports.UnitSpectralOutputPort;
 import com.softsynth.math.FourierMath;
+import com.softsynth.math.StagedRealFFT;
 
 /**
  * Periodically transform the input signal using an FFT. Output complete spectra.
+ * <p>
+ * Normally the whole FFT is done in the block that completes the input frame, which causes a
+ * periodic spike in the CPU load. If amortized then the FFT is spread evenly over the blocks of
+ * the next frame instead. This delays the spectrum by one frame, see getAddedLatencyFrames().
  * 
  * @author Phil Burk (C) 2013 Mobileer Inc
  * @version 016
@@ -45,6 +48,14 @@ public class SpectralFFT extends UnitGenerator {
     private int sizeLog2;
     private int offset;
     private boolean running;
+    private boolean amortized;
+    // Used when amortized. One frame is collected while the previous one is transformed.
+    private StagedRealFFT stagedFFT;
+    private double[][] frames;
+    private int frameIndex;
+    private boolean pending;
+    // Units of transform work done for each input sample.
+    private int workPerSample;
 
     /* Define Unit Ports used by connect() and set(). */
     public SpectralFFT() {
@@ -70,6 +81,47 @@ public class SpectralFFT extends UnitGenerator {
         output.setSize(1 << sizeLog2);
         buffer = output.getSpectrum().getReal();
         cursor = 0;
+        FourierMath.warmUp(1 << sizeLog2);
+        allocateStaging();
+    }
+
+    private void allocateStaging() {
+        pending = false;
+        if (amortized) {
+            int size = 1 << sizeLog2;
+            stagedFFT = new StagedRealFFT(size);
+            frames = new double[2][size];
+            frameIndex = 0;
+            // Round up so the transform always finishes within one frame.
+            workPerSample = (stagedFFT.getTotalWork() + size - 1) / size;
+        } else {
+            stagedFFT = null;
+            frames = null;
+        }
+    }
+
+    /**
+     * Spread the FFT over the blocks of the following frame to avoid a spike in the CPU load.
+     * Please do not change this while JSyn is running.
+     *
+     * @param amortized true to spread out the work, default is false
+     */
+    public void setAmortized(boolean amortized) {
+        this.amortized = amortized;
+        cursor = 0;
+        allocateStaging();
+    }
+
+    public boolean isAmortized() {
+        return amortized;
+    }
+
+    /**
+     * @return number of frames that amortizing adds before the spectrum is output, one frame
+     *         when amortized, otherwise zero
+     */
+    public int getAddedLatencyFrames() {
+        return amortized ? (1 << sizeLog2) : 0;
     }
 
     public int getSizeLog2() {
@@ -86,7 +138,9 @@ public class SpectralFFT extends UnitGenerator {
             }
         }
         // Don't use "else" because "running" may have changed in above block.
-        if (running) {
+        if (running && amortized) {
+            generateAmortized(start, limit);
+        } else if (running) {
             double[] inputs = input.getValues();
             for (int i = start; i < limit; i++) {
                 buffer[cursor] = inputs[i] * window.get(cursor);
@@ -94,8 +148,7 @@ public class SpectralFFT extends UnitGenerator {
                 // When it is full, do the FFT.
                 if (cursor == buffer.length) {
                     Spectrum spectrum = output.getSpectrum();
-                    Arrays.fill(spectrum.getImaginary(), 0.0);
-                    FourierMath.fft(buffer.length, spectrum.getReal(), spectrum.getImaginary());
+                    transformReal(buffer.length, spectrum.getReal(), spectrum.getImaginary());
                     output.advance();
                     cursor = 0;
                 }
@@ -103,6 +156,46 @@ public class SpectralFFT extends UnitGenerator {
         }
     }
 
+    private void generateAmortized(int start, int limit) {
+        double[] inputs = input.getValues();
+        double[] frame = frames[frameIndex];
+        for (int i = start; i < limit; i++) {
+            frame[cursor] = inputs[i] * window.get(cursor);
+            ++cursor;
+            if (cursor == frame.length) {
+                // Output the spectrum of the previous frame, then start on this one.
+                if (pending) {
+                    stagedFFT.finish();
+                    Spectrum spectrum = output.getSpectrum();
+                    System.arraycopy(stagedFFT.getReal(), 0, spectrum.getReal(), 0, frame.length);
+                    System.arraycopy(stagedFFT.getImaginary(), 0, spectrum.getImaginary(), 0,
+                            frame.length);
+                    output.advance();
+                }
+                stagedFFT.begin(frame);
+                pending = true;
+                frameIndex ^= 1;
+                frame = frames[frameIndex];
+                cursor = 0;
+            }
+        }
+        if (pending) {
+            stagedFFT.step((limit - start) * workPerSample);
+        }
+    }
+
+    /**
+     * The input is real so use the faster real FFT then fill in the upper half of the spectrum
+     * with the complex conjugates.
+     */
+    private static void transformReal(int size, double[] real, double[] imaginary) {
+        FourierMath.fftReal(size, real, real, imaginary);
+        for (int k = 1; k < (size / 2); k++) {
+            real[size - k] = real[k];
+            imaginary[size - k] = -imaginary[k];
+        }
+    }
+
     public SpectralWindow getWindow() {
         return window;
     }
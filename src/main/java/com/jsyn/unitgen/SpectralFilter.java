@@ -74,7 +74,7 @@ public class SpectralFilter extends Circuit implements UnitSink, UnitSource {
             inlet.output.connect(ffts[i].input);
             ffts[i].setOffset(i * offset);
 
-            add(iffts[i] = new SpectralIFFT());
+            add(iffts[i] = new SpectralIFFT(sizeLog2));
             iffts[i].output.connect(sum.input);
         }
         setWindow(SpectralWindowFactory.getHammingWindow(sizeLog2));
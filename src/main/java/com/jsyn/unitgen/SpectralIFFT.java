@@ -21,9 +21,13 @@ import com.jsyn.data.Spectrum;
 import com.jsyn.ports.UnitOutputPort;
 import com.jsyn.ports.UnitSpectralInputPort;
 import com.softsynth.math.FourierMath;
+import com.softsynth.math.StagedRealIFFT;
 
 /**
  * Periodically transform the input signal using an Inverse FFT.
+ * <p>
+ * If amortized then the inverse FFT is spread evenly over the blocks of a frame instead of being
+ * done all at once. The output is delayed by one frame, see getAddedLatencyFrames().
  * 
  * @author Phil Burk (C) 2013 Mobileer Inc
  * @version 016
@@ -36,6 +40,14 @@ public class SpectralIFFT extends UnitGenerator {
     private double[] buffer;
     private int cursor;
     private SpectralWindow window = RectangularWindow.getInstance();
+    private boolean amortized;
+    // Used when amortized. One frame is played while the next one is transformed.
+    private StagedRealIFFT stagedIFFT;
+    private double[][] frames;
+    private int playIndex;
+    private boolean pending;
+    // Units of transform work done for each output sample.
+    private int workPerSample;
 
     /* Define Unit Ports used by connect() and set(). */
     public SpectralIFFT() {
@@ -43,6 +55,17 @@ public class SpectralIFFT extends UnitGenerator {
         addPort(input = new UnitSpectralInputPort("Input"));
     }
 
+    /**
+     * Allocate the buffers in advance so that nothing is allocated in the audio thread when the
+     * first spectrum arrives.
+     *
+     * @param sizeLog2 log2 of the size of the spectra that will be connected
+     */
+    public SpectralIFFT(int sizeLog2) {
+        this();
+        localSpectrum = new Spectrum(1 << sizeLog2);
+    }
+
     @Override
     public void generate(int start, int limit) {
         double[] outputs = output.getValues();
@@ -51,9 +74,14 @@ public class SpectralIFFT extends UnitGenerator {
             if (input.isAvailable()) {
                 Spectrum spectrum = input.getSpectrum();
                 int size = spectrum.size();
-                localSpectrum = new Spectrum(size);
+                if ((localSpectrum == null) || (localSpectrum.size() != size)) {
+                    localSpectrum = new Spectrum(size);
+                }
                 buffer = localSpectrum.getReal();
                 cursor = 0;
+                if (amortized) {
+                    startStaging(size);
+                }
             } else {
                 for (int i = start; i < limit; i++) {
                     outputs[i] = 0.0;
@@ -61,12 +89,14 @@ public class SpectralIFFT extends UnitGenerator {
             }
         }
 
-        if (buffer != null) {
+        if ((buffer != null) && amortized) {
+            generateAmortized(start, limit);
+        } else if (buffer != null) {
             for (int i = start; i < limit; i++) {
                 if (cursor == 0) {
                     Spectrum spectrum = input.getSpectrum();
                     spectrum.copyTo(localSpectrum);
-                    FourierMath.ifft(buffer.length, localSpectrum.getReal(),
+                    transformReal(buffer.length, localSpectrum.getReal(),
                             localSpectrum.getImaginary());
                 }
 
@@ -79,6 +109,84 @@ public class SpectralIFFT extends UnitGenerator {
         }
     }
 
+    private void startStaging(int size) {
+        if ((stagedIFFT == null) || (stagedIFFT.getSize() != size)) {
+            stagedIFFT = new StagedRealIFFT(size);
+            frames = new double[2][size];
+        }
+        playIndex = 0;
+        pending = false;
+        // Round up so the transform always finishes within one frame.
+        workPerSample = (stagedIFFT.getTotalWork() + size - 1) / size;
+    }
+
+    private void generateAmortized(int start, int limit) {
+        double[] outputs = output.getValues();
+        for (int i = start; i < limit; i++) {
+            if (cursor == 0) {
+                // Play the frame that was transformed during the previous frame.
+                if (pending) {
+                    stagedIFFT.finish();
+                    playIndex ^= 1;
+                }
+                Spectrum spectrum = input.getSpectrum();
+                spectrum.copyTo(localSpectrum);
+                stagedIFFT.begin(localSpectrum.getReal(), localSpectrum.getImaginary(),
+                        frames[playIndex ^ 1]);
+                pending = true;
+            }
+
+            outputs[i] = frames[playIndex][cursor] * window.get(cursor);
+            cursor += 1;
+            if (cursor == buffer.length) {
+                cursor = 0;
+            }
+        }
+        stagedIFFT.step((limit - start) * workPerSample);
+    }
+
+    /**
+     * Spread the inverse FFT over the blocks of a frame to avoid a spike in the CPU load. Please
+     * do not change this while JSyn is running.
+     *
+     * @param amortized true to spread out the work, default is false
+     */
+    public void setAmortized(boolean amortized) {
+        this.amortized = amortized;
+        // Start over when the next spectrum arrives.
+        buffer = null;
+        if (amortized && (localSpectrum != null)) {
+            startStaging(localSpectrum.size());
+        }
+    }
+
+    public boolean isAmortized() {
+        return amortized;
+    }
+
+    /**
+     * @return number of frames that amortizing adds to the output, one frame when amortized,
+     *         otherwise zero. The frame size is not known until the first spectrum arrives.
+     */
+    public int getAddedLatencyFrames() {
+        return (amortized && (buffer != null)) ? buffer.length : 0;
+    }
+
+    /**
+     * Only the real part of the inverse FFT is output. That comes from the conjugate symmetric
+     * part of the spectrum, so keep that part and use the faster real inverse FFT.
+     */
+    private static void transformReal(int size, double[] real, double[] imaginary) {
+        int half = size / 2;
+        imaginary[0] = 0.0;
+        imaginary[half] = 0.0;
+        for (int k = 1; k < half; k++) {
+            real[k] = 0.5 * (real[k] + real[size - k]);
+            imaginary[k] = 0.5 * (imaginary[k] - imaginary[size - k]);
+        }
+        FourierMath.ifftReal(size, real, imaginary, real);
+    }
+
     public SpectralWindow getWindow() {
         return window;
     }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import com.jsyn.data.SpectralWindow;
+import com.jsyn.data.SpectralWindowFactory;
+import com.jsyn.data.Spectrum;
+import com.softsynth.math.FourierMath;
+
+/**
+ * Short-time Fourier transform with overlap-add resynthesis in a single unit. Every hopSize frames
+ * the most recent size input samples are windowed and transformed, passed to each
+ * SpectralProcessor in turn, transformed back, windowed again and added to the output.
+ * <p>
+ * Unlike SpectralFilter, all of the hops share one input history, one spectrum and one output
+ * accumulator, so adding overlap does not add buffers or units. The output is divided by the
+ * sum of the products of the analysis and synthesis windows that overlap each sample, so
+ * unprocessed input is reconstructed exactly for any pair of windows and any hop size. The output
+ * is delayed by getLatencyFrames().
+ *
+ * <pre>
+ * <code>
+ *     SpectralOverlapAdd stft = new SpectralOverlapAdd(10, 256);
+ *     stft.addProcessor(new MyPolarProcessor());
+ * </code>
+ * </pre>
+ *
+ * Nothing is allocated by generate(). Processors are prepared for the spectrum size when they are
+ * added.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SpectralProcessor
+ * @see PolarSpectralProcessor
+ */
+public class SpectralOverlapAdd extends UnitFilter {
+    // Sums smaller than this are not corrected because the windows removed that sample.
+    private static final double MIN_WINDOW_SUM = 1.0e-6;
+
+    private final int size;
+    private final int hopSize;
+    private final int mask;
+    private final double[] history; // ring of the last size input samples
+    private final double[] accumulator; // ring of output samples that are still being summed
+    private final double[] frame;
+    private final double[] analysisWindow;
+    private final double[] synthesisWindow;
+    private final double[] normalizers; // one for each position within a hop
+    private final Spectrum spectrum;
+    private volatile SpectralProcessor[] processors = new SpectralProcessor[0];
+    private int cursor;
+    private int hopCounter;
+
+    /**
+     * Create a unit with a size of 2^Spectrum.DEFAULT_SIZE_LOG_2 and a hop of one quarter of the
+     * size.
+     */
+    public SpectralOverlapAdd() {
+        this(Spectrum.DEFAULT_SIZE_LOG_2, Spectrum.DEFAULT_SIZE / 4);
+    }
+
+    /**
+     * Use Hann windows for analysis and synthesis.
+     *
+     * @param sizeLog2 for example, use 10 to get a 1024 bin FFT
+     * @param hopSize number of frames between transforms, a power of 2 no larger than the size
+     */
+    public SpectralOverlapAdd(int sizeLog2, int hopSize) {
+        size = 1 << sizeLog2;
+        if ((hopSize < 1) || (hopSize > size) || ((hopSize & (hopSize - 1)) != 0)) {
+            throw new IllegalArgumentException("Hop size must be a power of 2 no larger than "
+                    + size + ", not " + hopSize);
+        }
+        this.hopSize = hopSize;
+        mask = size - 1;
+        history = new double[size];
+        accumulator = new double[size];
+        frame = new double[size];
+        analysisWindow = new double[size];
+        synthesisWindow = new double[size];
+        normalizers = new double[hopSize];
+        spectrum = new Spectrum(size);
+        SpectralWindow window = SpectralWindowFactory.getHannWindow(sizeLog2);
+        fillWindow(analysisWindow, window);
+        fillWindow(synthesisWindow, window);
+        updateNormalizers();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    /** @return number of frames between an input sample and the matching output sample */
+    public int getLatencyFrames() {
+        return size - 1;
+    }
+
+    /**
+     * Add a processor to the end of the chain. Processors are called in the order they were added,
+     * each one modifying the spectrum in place. The processor does not need to be added to the
+     * synthesizer.
+     */
+    public synchronized void addProcessor(SpectralProcessor processor) {
+        processor.prepare(size);
+        SpectralProcessor[] older = processors;
+        SpectralProcessor[] newer = new SpectralProcessor[older.length + 1];
+        System.arraycopy(older, 0, newer, 0, older.length);
+        newer[older.length] = processor;
+        processors = newer;
+    }
+
+    public synchronized void removeProcessor(SpectralProcessor processor) {
+        SpectralProcessor[] older = processors;
+        for (int i = 0; i < older.length; i++) {
+            if (older[i] == processor) {
+                SpectralProcessor[] newer = new SpectralProcessor[older.length - 1];
+                System.arraycopy(older, 0, newer, 0, i);
+                System.arraycopy(older, i + 1, newer, i, newer.length - i);
+                processors = newer;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Multiply the input by this window before the FFT. The window should be the same size as the
+     * FFT. The default is a HannWindow.
+     */
+    public synchronized void setAnalysisWindow(SpectralWindow window) {
+        fillWindow(analysisWindow, window);
+        updateNormalizers();
+    }
+
+    /**
+     * Multiply the output of the inverse FFT by this window before it is added to the output. The
+     * window should be the same size as the FFT. The default is a HannWindow.
+     */
+    public synchronized void setSynthesisWindow(SpectralWindow window) {
+        fillWindow(synthesisWindow, window);
+        updateNormalizers();
+    }
+
+    private void fillWindow(double[] values, SpectralWindow window) {
+        for (int i = 0; i < size; i++) {
+            values[i] = window.get(i);
+        }
+    }
+
+    /**
+     * Each input sample is seen by size/hopSize frames, at positions that differ by multiples of
+     * the hop. So the gain for a sample only depends on its position within a hop.
+     */
+    private void updateNormalizers() {
+        for (int phase = 0; phase < hopSize; phase++) {
+            double sum = 0.0;
+            for (int i = phase; i < size; i += hopSize) {
+                sum += analysisWindow[i] * synthesisWindow[i];
+            }
+            normalizers[phase] = (sum > MIN_WINDOW_SUM) ? (1.0 / sum) : 0.0;
+        }
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        double[] inputs = input.getValues();
+        double[] outputs = output.getValues();
+        for (int i = start; i < limit; i++) {
+            history[cursor] = inputs[i];
+            hopCounter += 1;
+            if (hopCounter == hopSize) {
+                hopCounter = 0;
+                processHop();
+            }
+            outputs[i] = accumulator[cursor];
+            accumulator[cursor] = 0.0;
+            cursor = (cursor + 1) & mask;
+        }
+    }
+
+    /** Transform the last size input samples and add the result to the accumulator. */
+    private void processHop() {
+        int oldest = (cursor + 1) & mask;
+        for (int i = 0; i < size; i++) {
+            frame[i] = history[(oldest + i) & mask] * analysisWindow[i];
+        }
+
+        double[] real = spectrum.getReal();
+        double[] imaginary = spectrum.getImaginary();
+        FourierMath.fftReal(size, frame, real, imaginary);
+        int half = size / 2;
+        // Processors expect the full spectrum, including the mirrored upper half.
+        for (int k = 1; k < half; k++) {
+            real[size - k] = real[k];
+            imaginary[size - k] = -imaginary[k];
+        }
+
+        SpectralProcessor[] chain = processors;
+        for (int i = 0; i < chain.length; i++) {
+            chain[i].processInPlace(spectrum);
+        }
+
+        // Only the real part of the inverse FFT is used, so keep the conjugate symmetric part.
+        imaginary[0] = 0.0;
+        imaginary[half] = 0.0;
+        for (int k = 1; k < half; k++) {
+            real[k] = 0.5 * (real[k] + real[size - k]);
+            imaginary[k] = 0.5 * (imaginary[k] - imaginary[size - k]);
+        }
+        FourierMath.ifftReal(size, real, imaginary, frame);
+
+        // Sample i of the frame is output size-1 frames after it was input.
+        int hopMask = hopSize - 1;
+        for (int i = 0; i < size; i++) {
+            accumulator[(cursor + i) & mask] += frame[i] * synthesisWindow[i]
+                    * normalizers[i & hopMask];
+        }
+    }
+}
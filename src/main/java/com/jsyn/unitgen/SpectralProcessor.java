@@ -31,6 +31,7 @@ public abstract class SpectralProcessor extends UnitGenerator {
     public UnitSpectralInputPort input;
     public UnitSpectralOutputPort output;
     private int counter;
+    private Spectrum scratch;
 
     /* Define Unit Ports used by connect() and set(). */
     public SpectralProcessor() {
@@ -70,4 +71,30 @@ public abstract class SpectralProcessor extends UnitGenerator {
      */
     public abstract void processSpectrum(Spectrum inputSpectrum, Spectrum outputSpectrum);
 
+    /**
+     * Allocate anything needed to process spectra of this size in place. This is called by
+     * SpectralOverlapAdd when the processor is added so that nothing is allocated in the audio
+     * thread.
+     *
+     * @param size number of bins in the spectrum
+     */
+    public void prepare(int size) {
+        if ((scratch == null) || (scratch.size() != size)) {
+            scratch = new Spectrum(size);
+        }
+    }
+
+    /**
+     * Process a spectrum and replace it with the result. The default calls processSpectrum()
+     * with a scratch spectrum and copies the result back. Override this if the processing can be
+     * done in place.
+     *
+     * @param spectrum full spectrum, including the mirrored upper half
+     */
+    public void processInPlace(Spectrum spectrum) {
+        prepare(spectrum.size());
+        processSpectrum(spectrum, scratch);
+        scratch.copyTo(spectrum);
+    }
+
 }
@@ -18,6 +18,7 @@ package com.jsyn.unitgen;
 
 import java.io.IOException;
 
+import com.jsyn.Synthesizer;
 import com.jsyn.io.AudioOutputStream;
 import com.jsyn.ports.UnitInputPort;
 
@@ -29,6 +30,9 @@ import com.jsyn.ports.UnitInputPort;
  * @author Phil Burk (C) 2009 Mobileer Inc
  */
 public class StereoStreamWriter extends UnitStreamWriter {
+    // Interleave a block here so it can be written with one call.
+    private double[] frames = new double[2 * Synthesizer.FRAMES_PER_BLOCK];
+
     public StereoStreamWriter() {
         addPort(input = new UnitInputPort(2, "Input"));
     }
@@ -39,11 +43,17 @@ public class StereoStreamWriter extends UnitStreamWriter {
         double[] rightInputs = input.getValues(1);
         AudioOutputStream output = outputStream;
         if (output != null) {
+            int count = 2 * (limit - start);
+            if (frames.length < count) {
+                frames = new double[count];
+            }
+            int cursor = 0;
+            for (int i = start; i < limit; i++) {
+                frames[cursor++] = leftInputs[i];
+                frames[cursor++] = rightInputs[i];
+            }
             try {
-                for (int i = start; i < limit; i++) {
-                    output.write(leftInputs[i]);
-                    output.write(rightInputs[i]);
-                }
+                output.write(frames, 0, count);
             } catch (IOException e) {
                 e.printStackTrace();
                 output = null;
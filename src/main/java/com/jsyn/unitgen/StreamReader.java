@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.unitgen;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.io.AudioInputStream;
+import com.jsyn.ports.UnitOutputPort;
+
+/**
+ * Play interleaved audio from an AudioInputStream, for example an
+ * {@link com.jsyn.util.AudioFileReader}. Each channel of the stream appears on one part of the
+ * output port.
+ * <p>
+ * In a real-time engine this unit only reads what is already available so it never blocks the
+ * audio thread. Missing frames are output as silence and counted. In a non-real-time engine it
+ * waits for the stream so nothing is skipped.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see UnitStreamWriter
+ */
+public class StreamReader extends UnitGenerator implements UnitSource {
+    public UnitOutputPort output;
+    private volatile AudioInputStream inputStream;
+    private final int channelsPerFrame;
+    private final double[] frames;
+    private long underflowCount;
+
+    public StreamReader() {
+        this(1);
+    }
+
+    /**
+     * @param channelsPerFrame number of interleaved channels in the stream
+     */
+    public StreamReader(int channelsPerFrame) {
+        this.channelsPerFrame = channelsPerFrame;
+        frames = new double[channelsPerFrame * Synthesizer.FRAMES_PER_BLOCK];
+        addPort(output = new UnitOutputPort(channelsPerFrame, "Output"));
+    }
+
+    public AudioInputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * @param inputStream stream to play, or null for silence
+     */
+    public void setInputStream(AudioInputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    public int getChannelsPerFrame() {
+        return channelsPerFrame;
+    }
+
+    /**
+     * @return number of frames output as silence because the stream had no data ready
+     */
+    public long getUnderflowCount() {
+        return underflowCount;
+    }
+
+    @Override
+    public void generate(int start, int limit) {
+        int numSamples = (limit - start) * channelsPerFrame;
+        int numRead = 0;
+        AudioInputStream stream = inputStream;
+        if (stream != null) {
+            int numToRead = numSamples;
+            if (synthesisEngine.isRealTime()) {
+                int numAvailable = stream.available();
+                numToRead = Math.min(numSamples, numAvailable - (numAvailable % channelsPerFrame));
+            }
+            if (numToRead > 0) {
+                numRead = stream.read(frames, 0, numToRead);
+            }
+            if (numRead < numSamples) {
+                underflowCount += (numSamples - numRead) / channelsPerFrame;
+            }
+        }
+        for (int i = numRead; i < numSamples; i++) {
+            frames[i] = 0.0;
+        }
+
+        for (int channel = 0; channel < channelsPerFrame; channel++) {
+            double[] outputs = output.getValues(channel);
+            int cursor = channel;
+            for (int i = start; i < limit; i++) {
+                outputs[i] = frames[cursor];
+                cursor += channelsPerFrame;
+            }
+        }
+    }
+
+    @Override
+    public UnitOutputPort getOutput() {
+        return output;
+    }
+
+    @Override
+    public UnitGenerator getUnitGenerator() {
+        return this;
+    }
+}
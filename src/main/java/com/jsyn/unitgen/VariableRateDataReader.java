@@ -21,9 +21,38 @@ import com.jsyn.ports.UnitInputPort;
 public abstract class VariableRateDataReader extends SequentialDataReader {
     /** A scaler for playback rate. Nominally 1.0. */
     public UnitInputPort rate;
+    private volatile SincFrameReader sincReader;
 
     public VariableRateDataReader() {
         super();
         addPort(rate = new UnitInputPort("Rate", 1.0));
     }
+
+    /**
+     * Use band-limited sinc interpolation instead of linear interpolation. This sounds much better
+     * when samples are pitched up or down, at a higher CPU cost that depends on the number of
+     * zero crossings but not on the rate. The filter uses 2 * zeroCrossings frames, which are read
+     * from the queue in blocks. It is meant for samples, not envelopes.
+     * <p>
+     * Frames are read ahead of the output position. So the queue callbacks and
+     * dataQueue.getFrameCount() run ahead of what is heard by up to (zeroCrossings + 65) frames.
+     * <p>
+     * Call this before the reader is started because it may build tables.
+     *
+     * @param zeroCrossings frames used on each side of the position, eg. 8, or 0 for linear
+     */
+    public void setSincInterpolation(int zeroCrossings) {
+        sincReader = (zeroCrossings > 0) ? new SincFrameReader(dataQueue, zeroCrossings) : null;
+    }
+
+    /** @return zero crossings used by the sinc interpolation, or 0 if it is linear */
+    public int getSincInterpolation() {
+        SincFrameReader reader = sincReader;
+        return (reader == null) ? 0 : reader.getZeroCrossings();
+    }
+
+    /** @return the frame history for the sinc mode, or null if it is linear */
+    SincFrameReader getSincReader() {
+        return sincReader;
+    }
 }
@@ -19,6 +19,7 @@ package com.jsyn.unitgen;
 import com.jsyn.data.FloatSample;
 import com.jsyn.data.SegmentedEnvelope;
 import com.jsyn.data.ShortSample;
+import com.jsyn.dsp.PolyphaseSincTable;
 import com.jsyn.ports.UnitOutputPort;
 
 /**
@@ -53,6 +54,11 @@ public class VariableRateMonoReader extends VariableRateDataReader {
 
     @Override
     public void generate(int start, int limit) {
+        SincFrameReader reader = getSincReader();
+        if (reader != null) {
+            generateSinc(reader, start, limit);
+            return;
+        }
         double[] amplitudes = amplitude.getValues();
         double[] rates = rate.getValues();
         double[] outputs = output.getValues();
@@ -90,6 +96,29 @@ public class VariableRateMonoReader extends VariableRateDataReader {
         }
     }
 
+    private void generateSinc(SincFrameReader reader, int start, int limit) {
+        double[] amplitudes = amplitude.getValues();
+        double[] rates = rate.getValues();
+        double[] outputs = output.getValues();
+        double framePeriod = getFramePeriod();
+        reader.beginBlock(framePeriod);
+        PolyphaseSincTable table = reader.getTable();
+        int cutoffIndex = reader.selectCutoff(rates[start]);
+        double[] history = reader.getHistory();
+        for (int i = start; i < limit; i++) {
+            current = table.interpolate(cutoffIndex, history, reader.getIndex(), 1,
+                    reader.getPhase());
+            outputs[i] = current * amplitudes[i];
+            reader.advance(rates[i], framePeriod);
+        }
+
+        if (reader.testAndClearRanout()) {
+            if (dataQueue.testAndClearAutoStop()) {
+                autoStop();
+            }
+        }
+    }
+
     public double limitPhaseIncrement(double phaseIncrement) {
         return phaseIncrement;
     }
@@ -16,6 +16,7 @@
 
 package com.jsyn.unitgen;
 
+import com.jsyn.dsp.PolyphaseSincTable;
 import com.jsyn.ports.UnitOutputPort;
 
 /**
@@ -45,6 +46,11 @@ public class VariableRateStereoReader extends VariableRateDataReader {
 
     @Override
     public void generate(int start, int limit) {
+        SincFrameReader reader = getSincReader();
+        if (reader != null) {
+            generateSinc(reader, start, limit);
+            return;
+        }
         double[] amplitudes = amplitude.getValues();
         double[] rates = rate.getValues();
         double[] output0s = output.getValues(0);
@@ -86,6 +92,33 @@ public class VariableRateStereoReader extends VariableRateDataReader {
         }
     }
 
+    private void generateSinc(SincFrameReader reader, int start, int limit) {
+        double[] amplitudes = amplitude.getValues();
+        double[] rates = rate.getValues();
+        double[] output0s = output.getValues(0);
+        double[] output1s = output.getValues(1);
+        double framePeriod = getFramePeriod();
+        reader.beginBlock(framePeriod);
+        PolyphaseSincTable table = reader.getTable();
+        int cutoffIndex = reader.selectCutoff(rates[start]);
+        double[] history = reader.getHistory();
+        for (int i = start; i < limit; i++) {
+            int index = reader.getIndex();
+            double phase = reader.getPhase();
+            current0 = table.interpolate(cutoffIndex, history, index, 2, phase);
+            output0s[i] = current0 * amplitudes[i];
+            current1 = table.interpolate(cutoffIndex, history, index + 1, 2, phase);
+            output1s[i] = current1 * amplitudes[i];
+            reader.advance(rates[i], framePeriod);
+        }
+
+        if (reader.testAndClearRanout()) {
+            if (dataQueue.testAndClearAutoStop()) {
+                autoStop();
+            }
+        }
+    }
+
     public double limitPhaseIncrement(double phaseIncrement) {
         return phaseIncrement;
     }
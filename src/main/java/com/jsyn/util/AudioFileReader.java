@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.jsyn.io.AudioInputStream;
+import com.jsyn.io.AudioRingBuffer;
+import com.jsyn.util.soundfile.SampleFileHeader;
+
+/**
+ * Stream interleaved audio from a WAV or AIF file without loading the whole file into memory. The
+ * data is decoded a chunk at a time as it is read, so files of any length can be played or
+ * processed using a constant amount of memory.
+ * <p>
+ * By default the file is decoded in the thread that calls read(). Call startReadAhead() to decode
+ * in a background thread instead. Then a real-time reader, such as a
+ * {@link com.jsyn.unitgen.StreamReader}, is not delayed by disk access.
+ *
+ * <pre>
+ * <code>
+ *     // Convert a file to 24-bit WAV without loading it.
+ *     AudioFileReader reader = new AudioFileReader(new File("input.aif"));
+ *     WaveFileWriter writer = new WaveFileWriter(new File("output.wav"));
+ *     writer.setFrameRate((int) reader.getFrameRate());
+ *     writer.setSamplesPerFrame(reader.getChannelsPerFrame());
+ *     writer.setBitsPerSample(24);
+ *     StreamingThread thread = new StreamingThread(reader, writer);
+ *     thread.setSamplesPerFrame(reader.getChannelsPerFrame());
+ *     thread.run();
+ *     reader.close();
+ *     writer.close();
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SampleFileHeader
+ * @see WaveFileWriter
+ */
+public class AudioFileReader implements AudioInputStream {
+    /** Number of frames decoded per file read. */
+    private static final int FRAMES_PER_CHUNK = 4096;
+
+    private final SampleFileHeader header;
+    private final FileChannel channel;
+    private final ByteBuffer bytes;
+    private final float[] floats;
+    private int floatCursor;
+    private int floatLimit;
+    private long filePosition;
+    private final long endPosition;
+    private long framePosition;
+    private final double[] oneValue = new double[1];
+
+    private AudioRingBuffer readAheadBuffer;
+    private Thread readAheadThread;
+    private volatile IOException readAheadError;
+
+    public AudioFileReader(File file) throws IOException {
+        this(SampleFileHeader.read(file));
+    }
+
+    /**
+     * @param header parsed header of the file to stream
+     */
+    public AudioFileReader(SampleFileHeader header) throws IOException {
+        this.header = header;
+        int bytesPerFrame = header.getBytesPerFrame();
+        bytes = ByteBuffer.allocateDirect(FRAMES_PER_CHUNK * bytesPerFrame);
+        floats = new float[FRAMES_PER_CHUNK * header.getChannelsPerFrame()];
+        filePosition = header.getDataPosition();
+        int numWholeFrames = header.getNumDataBytes() / bytesPerFrame;
+        endPosition = filePosition + ((long) numWholeFrames * bytesPerFrame);
+        channel = FileChannel.open(header.getFile().toPath(), StandardOpenOption.READ);
+    }
+
+    public SampleFileHeader getHeader() {
+        return header;
+    }
+
+    public int getChannelsPerFrame() {
+        return header.getChannelsPerFrame();
+    }
+
+    public double getFrameRate() {
+        return header.getFrameRate();
+    }
+
+    public int getNumFrames() {
+        return header.getNumFrames();
+    }
+
+    /**
+     * Decode the file in a background thread, keeping up to numFrames frames ready to be read.
+     * Reads will wait for the decoder if they get ahead of it. Call this before the first read.
+     *
+     * @param numFrames size of the read-ahead buffer, for example two seconds worth of frames
+     */
+    public synchronized void startReadAhead(int numFrames) {
+        if (readAheadThread != null) {
+            throw new IllegalStateException("Read ahead already started.");
+        }
+        int samplesPerChunk = floats.length;
+        int numSamples = Math.max(numFrames * getChannelsPerFrame(), 2 * samplesPerChunk);
+        AudioRingBuffer ring = new AudioRingBuffer(Integer.highestOneBit(numSamples - 1) << 1);
+        ring.setWriteWaitEnabled(true);
+        readAheadBuffer = ring;
+        readAheadThread = new Thread("AudioFileReader " + header.getFile().getName()) {
+            @Override
+            public void run() {
+                fillReadAheadBuffer();
+            }
+        };
+        readAheadThread.setDaemon(true);
+        readAheadThread.start();
+    }
+
+    private void fillReadAheadBuffer() {
+        AudioRingBuffer ring = readAheadBuffer;
+        double[] chunk = new double[floats.length];
+        try {
+            while (ring.isOpen()) {
+                int numRead = readFromFile(chunk, 0, chunk.length);
+                if (numRead > 0) {
+                    ring.write(chunk, 0, numRead);
+                }
+                if (numRead < chunk.length) {
+                    break; // end of file
+                }
+            }
+        } catch (IOException e) {
+            readAheadError = e;
+        } finally {
+            ring.close(); // let the reader drain what is left
+        }
+    }
+
+    /**
+     * @return number of frames that have been read, not including any that are read ahead
+     */
+    public long getFramePosition() {
+        return framePosition;
+    }
+
+    /** Decode the next chunk of the file into the float buffer. */
+    private int decodeChunk() throws IOException {
+        int bytesPerFrame = header.getBytesPerFrame();
+        long numBytesLeft = endPosition - filePosition;
+        int numFrames = (int) Math.min(FRAMES_PER_CHUNK, numBytesLeft / bytesPerFrame);
+        floatCursor = 0;
+        floatLimit = 0;
+        if (numFrames > 0) {
+            bytes.clear();
+            bytes.limit(numFrames * bytesPerFrame);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, filePosition + bytes.position()) < 0) {
+                    throw new IOException("Sound data too short!");
+                }
+            }
+            bytes.flip();
+            header.decode(bytes, numFrames, floats, 0);
+            filePosition += bytes.limit();
+            floatLimit = numFrames * getChannelsPerFrame();
+        }
+        return floatLimit;
+    }
+
+    private int readFromFile(double[] buffer, int start, int count) throws IOException {
+        int numRead = 0;
+        while (numRead < count) {
+            if (floatCursor >= floatLimit && decodeChunk() == 0) {
+                break;
+            }
+            int numToCopy = Math.min(count - numRead, floatLimit - floatCursor);
+            int cursor = start + numRead;
+            for (int i = 0; i < numToCopy; i++) {
+                buffer[cursor + i] = floats[floatCursor + i];
+            }
+            floatCursor += numToCopy;
+            numRead += numToCopy;
+        }
+        return numRead;
+    }
+
+    /**
+     * @return next sample or NaN at the end of the file
+     */
+    @Override
+    public double read() {
+        return (read(oneValue, 0, 1) == 1) ? oneValue[0] : Double.NaN;
+    }
+
+    @Override
+    public int read(double[] buffer) {
+        return read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Read interleaved samples. This will only return fewer than count samples at the end of the
+     * file.
+     *
+     * @throws RuntimeException if the file could not be read
+     */
+    @Override
+    public int read(double[] buffer, int start, int count) {
+        int numRead;
+        if (readAheadBuffer != null) {
+            numRead = readAheadBuffer.read(buffer, start, count);
+            if ((numRead < count) && (readAheadError != null)) {
+                throw new RuntimeException("Could not read " + header.getFile(), readAheadError);
+            }
+        } else {
+            try {
+                numRead = readFromFile(buffer, start, count);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read " + header.getFile(), e);
+            }
+        }
+        framePosition += numRead / getChannelsPerFrame();
+        return numRead;
+    }
+
+    /**
+     * @return number of samples that can be read without waiting for the background decoder, or
+     *         the number left in the file if read ahead was not started
+     */
+    @Override
+    public int available() {
+        if (readAheadBuffer != null) {
+            return readAheadBuffer.available();
+        }
+        long numSamplesLeft = ((endPosition - filePosition) / header.getBytesPerFrame())
+                * getChannelsPerFrame() + (floatLimit - floatCursor);
+        return (int) Math.min(Integer.MAX_VALUE, numSamplesLeft);
+    }
+
+    /** Stop any background decoding and close the file. */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = readAheadThread;
+        }
+        if (thread != null) {
+            readAheadBuffer.close();
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.util.soundfile.SampleFileHeader;
+
+/**
+ * Load many WAV or AIF files at once, for example all the samples of a multi-sampled instrument.
+ * The file headers are parsed immediately so the size, rate and loop points of every sample are
+ * known when load() returns. The sound data is then decoded in parallel on a ForkJoinPool, or
+ * deferred until the sample is first requested.
+ *
+ * <pre>
+ * <code>
+ *     BulkSampleLoader loader = new BulkSampleLoader();
+ *     List&lt;BulkSampleLoader.PendingSample&gt; pending = loader.load(files);
+ *     // Start playing while the rest of the data loads.
+ *     FloatSample first = pending.get(0).get();
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see SampleLoader
+ */
+public class BulkSampleLoader {
+    private final ForkJoinPool pool;
+    private boolean lazy = false;
+
+    /** Decode using the common ForkJoinPool. */
+    public BulkSampleLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BulkSampleLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * If true then the sound data will not be decoded until PendingSample.get() or prefetch() is
+     * called. Otherwise decoding starts in the background as soon as the header is parsed.
+     *
+     * @param lazy
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * A sample whose header has been parsed but whose data may not be resident yet.
+     */
+    public class PendingSample {
+        private final SampleFileHeader header;
+        private FloatSample sample; // allocated when first needed
+        private final FutureTask<FloatSample> task;
+        private volatile boolean submitted;
+
+        PendingSample(SampleFileHeader header) {
+            this.header = header;
+            this.task = new FutureTask<FloatSample>(new Callable<FloatSample>() {
+                @Override
+                public FloatSample call() throws Exception {
+                    FloatSample placeholder = getPlaceholder();
+                    PendingSample.this.header.loadData(placeholder);
+                    return placeholder;
+                }
+            });
+        }
+
+        public SampleFileHeader getHeader() {
+            return header;
+        }
+
+        /**
+         * Return the sample immediately, before its data is loaded. It has the correct size,
+         * frame rate and loop points but will play silence until the data is decoded.
+         * This can be used as a placeholder so an instrument can start before everything is
+         * resident. The memory for the sample is allocated by the first call to this, prefetch()
+         * or get(), so a lazy sample that is never used only costs its header.
+         */
+        public synchronized FloatSample getPlaceholder() {
+            if (sample == null) {
+                sample = header.createSample();
+            }
+            return sample;
+        }
+
+        /** Start decoding in the background if it has not already started. */
+        public synchronized void prefetch() {
+            if (!submitted) {
+                submitted = true;
+                pool.execute(task);
+            }
+        }
+
+        public boolean isDone() {
+            return task.isDone();
+        }
+
+        /**
+         * Wait for the data to be decoded. If decoding has not started then it is done in the
+         * calling thread.
+         *
+         * @return the fully loaded sample
+         */
+        public FloatSample get() throws IOException, InterruptedException {
+            boolean runHere;
+            synchronized (this) {
+                runHere = !submitted;
+                submitted = true;
+            }
+            if (runHere) {
+                task.run();
+            }
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    /**
+     * Parse the header of one file and schedule its data to be decoded.
+     */
+    public PendingSample load(File file) throws IOException {
+        PendingSample pending = new PendingSample(SampleFileHeader.read(file));
+        if (!lazy) {
+            pending.prefetch();
+        }
+        return pending;
+    }
+
+    /**
+     * Parse the headers of all the files and schedule their data to be decoded.
+     *
+     * @return pending samples in the same order as the files
+     * @throws IOException if any header cannot be parsed
+     */
+    public List<PendingSample> load(List<File> files) throws IOException {
+        ArrayList<PendingSample> pendingSamples = new ArrayList<PendingSample>(files.size());
+        for (File file : files) {
+            pendingSamples.add(load(file));
+        }
+        return pendingSamples;
+    }
+
+    /**
+     * Load all the files and wait until they are completely decoded.
+     */
+    public List<FloatSample> loadAll(List<File> files) throws IOException, InterruptedException {
+        List<PendingSample> pendingSamples = load(files);
+        for (PendingSample pending : pendingSamples) {
+            pending.prefetch();
+        }
+        ArrayList<FloatSample> samples = new ArrayList<FloatSample>(files.size());
+        for (PendingSample pending : pendingSamples) {
+            samples.add(pending.get());
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.util;
+
+import com.softsynth.math.FourierMath;
+
+/**
+ * Calculate the period of a repeated waveform using the normalized square difference function
+ * from "A Smarter Way to Find Pitch" by Philip McLeod and Geoff Wyvill, like AutoCorrelator. But
+ * the autocorrelation for every lag is calculated at once using an FFT, which is O(N log N)
+ * instead of O(N^2). So much larger windows can be used, and many more detectors can run at once.
+ * <p>
+ * The analysis is done every hopSize samples, over the most recent numFrames samples. Periods up to
+ * numFrames/2 can be detected. Nothing is allocated after construction.
+ *
+ * <pre>
+ * <code>
+ *     PitchDetector detector = new PitchDetector(new FFTAutoCorrelator(4800, 256));
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see AutoCorrelator
+ */
+public class FFTAutoCorrelator implements SignalCorrelator {
+    // Pick the first peak that is at least this fraction of the highest peak. From the paper.
+    private static final double PEAK_THRESHOLD = 0.93;
+    private static final int DEFAULT_HOPS_PER_WINDOW = 8;
+
+    private final int numFrames;
+    private final int hopSize;
+    private final int fftSize;
+    private final int maxLag;
+    private final double[] buffer; // ring of the most recent numFrames samples
+    private final double[] real;
+    private final double[] imaginary;
+    private final double[] nsdf;
+    private float[] diffs;
+    private float[] diffs1;
+    private float[] diffs2;
+    private int cursor;
+    private int hopCounter;
+    private boolean bufferValid;
+
+    // Results of analysis.
+    private double period = 2.0;
+    private double confidence;
+    private double noiseThreshold = 0.001;
+
+    /**
+     * Analyze every numFrames/8 samples.
+     *
+     * @param numFrames number of samples in the analysis window
+     */
+    public FFTAutoCorrelator(int numFrames) {
+        this(numFrames, Math.max(1, numFrames / DEFAULT_HOPS_PER_WINDOW));
+    }
+
+    /**
+     * @param numFrames number of samples in the analysis window
+     * @param hopSize number of samples between analyses
+     */
+    public FFTAutoCorrelator(int numFrames, int hopSize) {
+        if ((numFrames < 4) || (hopSize < 1)) {
+            throw new IllegalArgumentException("Window must be at least 4 and hop at least 1.");
+        }
+        this.numFrames = numFrames;
+        this.hopSize = hopSize;
+        maxLag = numFrames / 2;
+        // Pad with enough zeros that the circular correlation does not wrap around up to maxLag.
+        int size = 4;
+        while (size < (numFrames + maxLag)) {
+            size *= 2;
+        }
+        fftSize = size;
+        buffer = new double[numFrames];
+        real = new double[fftSize];
+        imaginary = new double[fftSize];
+        nsdf = new double[maxLag + 1];
+        diffs1 = new float[maxLag + 1];
+        diffs2 = new float[maxLag + 1];
+        diffs = diffs1;
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    /**
+     * @param noiseThreshold signals with an RMS amplitude below this have zero confidence, default
+     *            is 0.001
+     */
+    public void setNoiseThreshold(double noiseThreshold) {
+        this.noiseThreshold = noiseThreshold;
+    }
+
+    public double getNoiseThreshold() {
+        return noiseThreshold;
+    }
+
+    @Override
+    public boolean addSample(double value) {
+        buffer[cursor] = value;
+        cursor += 1;
+        if (cursor == numFrames) {
+            cursor = 0;
+            bufferValid = true;
+        }
+        hopCounter += 1;
+        if (bufferValid && (hopCounter >= hopSize)) {
+            hopCounter = 0;
+            analyze();
+            return true;
+        }
+        return false;
+    }
+
+    private void analyze() {
+        // Copy the window in time order and pad with zeros.
+        int firstPart = numFrames - cursor;
+        System.arraycopy(buffer, cursor, real, 0, firstPart);
+        System.arraycopy(buffer, 0, real, firstPart, cursor);
+        for (int i = numFrames; i < fftSize; i++) {
+            real[i] = 0.0;
+        }
+
+        // The autocorrelation is the inverse transform of the power spectrum.
+        FourierMath.fftReal(fftSize, real, real, imaginary);
+        int half = fftSize / 2;
+        for (int k = 0; k <= half; k++) {
+            real[k] = (real[k] * real[k]) + (imaginary[k] * imaginary[k]);
+            imaginary[k] = 0.0;
+        }
+        FourierMath.ifftReal(fftSize, real, imaginary, real);
+        // Undo the scaling of the forward and inverse transforms.
+        double autoScale = fftSize * 0.5;
+
+        // Sum of the squares of both parts of the window that overlap at each lag.
+        double sumSquares = 0.0;
+        for (int i = 0; i < numFrames; i++) {
+            double sample = buffer[i];
+            sumSquares += sample * sample;
+        }
+        double rms = Math.sqrt(sumSquares / numFrames);
+        sumSquares *= 2.0;
+
+        switchDiffs();
+        for (int tau = 0; tau <= maxLag; tau++) {
+            if (tau > 0) {
+                double early = sampleAt(numFrames - tau);
+                double late = sampleAt(tau - 1);
+                sumSquares -= (early * early) + (late * late);
+            }
+            double value = (sumSquares > 0.0) ? ((2.0 * real[tau] * autoScale) / sumSquares)
+                    : 0.0;
+            nsdf[tau] = value;
+            diffs[tau] = (float) value;
+        }
+
+        if (rms < noiseThreshold) {
+            confidence = 0.0;
+        } else {
+            pickPeak();
+        }
+    }
+
+    /** @return sample at an index within the window, oldest first */
+    private double sampleAt(int index) {
+        int position = cursor + index;
+        if (position >= numFrames) {
+            position -= numFrames;
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Find the highest maximum between each pair of positive going and negative going zero
+     * crossings, then pick the first one that is close to the highest.
+     */
+    private void pickPeak() {
+        // Skip the peak at zero lag.
+        int tau = 1;
+        while ((tau < maxLag) && (nsdf[tau] > 0.0)) {
+            tau++;
+        }
+        double highest = 0.0;
+        // First pass finds the highest key maximum, second pass picks one.
+        for (int pass = 0; pass < 2; pass++) {
+            int scan = tau;
+            while (scan < maxLag) {
+                while ((scan < maxLag) && (nsdf[scan] <= 0.0)) {
+                    scan++;
+                }
+                int best = -1;
+                while ((scan < maxLag) && (nsdf[scan] > 0.0)) {
+                    if ((best < 0) || (nsdf[scan] > nsdf[best])) {
+                        best = scan;
+                    }
+                    scan++;
+                }
+                if (best > 0) {
+                    if (pass == 0) {
+                        highest = Math.max(highest, nsdf[best]);
+                    } else if (nsdf[best] >= (highest * PEAK_THRESHOLD)) {
+                        period = best + AutoCorrelator.interpolatePeak(nsdf[best - 1],
+                                nsdf[best], nsdf[best + 1]);
+                        confidence = Math.min(1.0, nsdf[best]);
+                        return;
+                    }
+                }
+            }
+        }
+        confidence = 0.0;
+    }
+
+    @Override
+    public double getPeriod() {
+        return period;
+    }
+
+    @Override
+    public double getConfidence() {
+        return confidence;
+    }
+
+    @Override
+    public float[] getDiffs() {
+        return diffs;
+    }
+
+    private void switchDiffs() {
+        diffs = (diffs == diffs1) ? diffs2 : diffs1;
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.util.Arrays;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.unitgen.ChannelIn;
+import com.jsyn.unitgen.LatencyProbe;
+import com.jsyn.unitgen.LineOut;
+import com.softsynth.math.FourierMath;
+
+/**
+ * Measure the round trip latency from the audio output to the audio input. Connect the line out
+ * to the line in with a cable, or hold a microphone near a speaker. A short chirp is played and
+ * the input is searched for it using a normalized cross-correlation, similar to the one used by
+ * the AutoCorrelator. The chirp has a very sharp correlation peak so it can be found in noise.
+ * <p>
+ * The result includes all of the buffering in the engine, the driver and the hardware. The
+ * getOutputLatency() and getInputLatency() methods of the SynthesisEngine only report the size of
+ * the device buffers.
+ *
+ * <pre>
+ * <code>
+ *     synth.start(48000, inputDeviceID, 2, outputDeviceID, 2);
+ *     LatencyMeter meter = new LatencyMeter(synth);
+ *     LatencyMeter.Result result = meter.measure(10);
+ *     System.out.println(result);
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class LatencyMeter {
+    public static final int DEFAULT_PROBE_FRAMES = 4096;
+    private static final double CHIRP_LOW_FREQUENCY = 200.0;
+    private static final double CHIRP_HIGH_FREQUENCY = 12000.0;
+    // Fraction of the chirp used to fade in and out.
+    private static final double CHIRP_TAPER = 0.1;
+    private static final long POLL_MSEC = 5;
+
+    private final Synthesizer synth;
+    private final LatencyProbe probeUnit;
+    private final ChannelIn channelIn;
+    private final LineOut lineOut;
+    private int probeFrames = DEFAULT_PROBE_FRAMES;
+    private double amplitude = 0.5;
+    private double maxLatency = 0.5;
+    private double minConfidence = 0.5;
+
+    /** Result of searching a recording for the probe. */
+    public static class Detection {
+        private final double delay;
+        private final double confidence;
+
+        Detection(double delay, double confidence) {
+            this.delay = delay;
+            this.confidence = confidence;
+        }
+
+        /** @return frames between the start of the recording and the probe, with a fraction */
+        public double getDelay() {
+            return delay;
+        }
+
+        /**
+         * @return normalized correlation at the peak, 1.0 is a perfect match, negative if the
+         *         signal was inverted
+         */
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+
+    /** Latency statistics for a series of measurements. */
+    public static class Result {
+        private final double[] latencies;
+        private final int numTrials;
+        private final int frameRate;
+
+        Result(double[] latencies, int numTrials, int frameRate) {
+            this.latencies = latencies;
+            this.numTrials = numTrials;
+            this.frameRate = frameRate;
+        }
+
+        public int getNumTrials() {
+            return numTrials;
+        }
+
+        /** @return number of trials where the probe was found in the input */
+        public int getNumDetected() {
+            return latencies.length;
+        }
+
+        /** @return latency of one detected trial in frames */
+        public double getLatencyFrames(int index) {
+            return latencies[index];
+        }
+
+        public double getMeanFrames() {
+            double sum = 0.0;
+            for (double latency : latencies) {
+                sum += latency;
+            }
+            return (latencies.length == 0) ? Double.NaN : sum / latencies.length;
+        }
+
+        public double getMinFrames() {
+            double min = Double.NaN;
+            for (double latency : latencies) {
+                min = (min < latency) ? min : latency;
+            }
+            return min;
+        }
+
+        public double getMaxFrames() {
+            double max = Double.NaN;
+            for (double latency : latencies) {
+                max = (max > latency) ? max : latency;
+            }
+            return max;
+        }
+
+        /** @return standard deviation of the latency in frames */
+        public double getJitterFrames() {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            double mean = getMeanFrames();
+            double sum = 0.0;
+            for (double latency : latencies) {
+                sum += (latency - mean) * (latency - mean);
+            }
+            return Math.sqrt(sum / latencies.length);
+        }
+
+        /** @return mean latency in seconds */
+        public double getLatency() {
+            return getMeanFrames() / frameRate;
+        }
+
+        /** @return standard deviation of the latency in seconds */
+        public double getJitter() {
+            return getJitterFrames() / frameRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "latency = %.2f msec, jitter = %.3f msec, min = %.1f, max = %.1f frames,"
+                            + " detected %d of %d",
+                    getLatency() * 1000.0, getJitter() * 1000.0, getMinFrames(), getMaxFrames(),
+                    getNumDetected(), getNumTrials());
+        }
+    }
+
+    /**
+     * Add the units needed for the measurement to the synthesizer. The synthesizer must be
+     * started with at least one input channel and two output channels. Input channel 0 is used.
+     */
+    public LatencyMeter(Synthesizer synth) {
+        this.synth = synth;
+        synth.add(channelIn = new ChannelIn(0));
+        synth.add(probeUnit = new LatencyProbe());
+        synth.add(lineOut = new LineOut());
+        channelIn.output.connect(probeUnit.input);
+        probeUnit.output.connect(0, lineOut.input, 0);
+        probeUnit.output.connect(0, lineOut.input, 1);
+    }
+
+    /**
+     * @param probeFrames length of the chirp, longer is more robust in noise, default 4096
+     */
+    public void setProbeFrames(int probeFrames) {
+        this.probeFrames = probeFrames;
+    }
+
+    public int getProbeFrames() {
+        return probeFrames;
+    }
+
+    /**
+     * @param amplitude peak amplitude of the chirp, default 0.5
+     */
+    public void setAmplitude(double amplitude) {
+        this.amplitude = amplitude;
+    }
+
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * @param maxLatency longest latency that can be detected in seconds, default 0.5
+     */
+    public void setMaxLatency(double maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+
+    public double getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @param minConfidence detections with a lower normalized correlation are ignored, default 0.5
+     */
+    public void setMinConfidence(double minConfidence) {
+        this.minConfidence = minConfidence;
+    }
+
+    public double getMinConfidence() {
+        return minConfidence;
+    }
+
+    /**
+     * Play the probe several times and measure the delay each time. This blocks until the
+     * measurements are finished. Trials that time out or have a low confidence are not included
+     * in the statistics.
+     *
+     * @param numTrials number of times to play the probe
+     */
+    public Result measure(int numTrials) throws InterruptedException {
+        int frameRate = synth.getFrameRate();
+        double[] probe = createChirp(probeFrames, CHIRP_LOW_FREQUENCY,
+                Math.min(CHIRP_HIGH_FREQUENCY, frameRate * 0.4), frameRate, amplitude);
+        double[] recording = new double[probeFrames + (int) (maxLatency * frameRate)];
+        double[] latencies = new double[numTrials];
+        int numDetected = 0;
+        long timeoutMsec = (long) (4000.0 * recording.length / frameRate) + 1000;
+        lineOut.start();
+        try {
+            for (int trial = 0; trial < numTrials; trial++) {
+                probeUnit.arm(probe, recording);
+                long deadline = System.currentTimeMillis() + timeoutMsec;
+                while (!probeUnit.isDone() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(POLL_MSEC);
+                }
+                if (!probeUnit.isDone()) {
+                    probeUnit.disarm();
+                    continue;
+                }
+                Detection detection = detect(recording, probe);
+                if (Math.abs(detection.getConfidence()) >= minConfidence) {
+                    latencies[numDetected++] = detection.getDelay();
+                }
+            }
+        } finally {
+            lineOut.stop();
+        }
+        double[] detected = new double[numDetected];
+        System.arraycopy(latencies, 0, detected, 0, numDetected);
+        return new Result(detected, numTrials, frameRate);
+    }
+
+    /**
+     * Create a linear chirp with tapered ends.
+     *
+     * @param numFrames length of the chirp
+     * @param startFrequency frequency at the beginning in Hertz
+     * @param endFrequency frequency at the end in Hertz
+     * @param frameRate frames per second
+     * @param amplitude peak amplitude
+     */
+    public static double[] createChirp(int numFrames, double startFrequency, double endFrequency,
+            int frameRate, double amplitude) {
+        double[] chirp = new double[numFrames];
+        double duration = ((double) numFrames) / frameRate;
+        double sweepRate = (endFrequency - startFrequency) / duration;
+        int taperFrames = Math.max(1, (int) (numFrames * CHIRP_TAPER));
+        for (int i = 0; i < numFrames; i++) {
+            double time = ((double) i) / frameRate;
+            double phase = 2.0 * Math.PI * ((startFrequency * time)
+                    + (0.5 * sweepRate * time * time));
+            double envelope = 1.0;
+            if (i < taperFrames) {
+                envelope = 0.5 - (0.5 * Math.cos(Math.PI * i / taperFrames));
+            } else if (i >= (numFrames - taperFrames)) {
+                envelope = 0.5 - (0.5 * Math.cos(Math.PI * (numFrames - 1 - i) / taperFrames));
+            }
+            chirp[i] = amplitude * envelope * Math.sin(phase);
+        }
+        return chirp;
+    }
+
+    /**
+     * Find the position in the recording that best matches the probe. The correlation is
+     * calculated with FFTs using the overlap-save method so that long recordings can be searched
+     * quickly. The peak is then refined to a fraction of a frame by fitting a parabola.
+     *
+     * @param recording signal to search
+     * @param probe signal to look for, must be shorter than the recording
+     */
+    public static Detection detect(double[] recording, double[] probe) {
+        int probeLength = probe.length;
+        int numLags = recording.length - probeLength + 1;
+        if (numLags <= 0) {
+            throw new IllegalArgumentException("Recording must be longer than the probe.");
+        }
+        int fftSize = 2;
+        while (fftSize < probeLength) {
+            fftSize *= 2;
+        }
+        fftSize *= 2;
+        int step = fftSize - probeLength + 1;
+
+        double[] probeReal = new double[fftSize];
+        double[] probeImag = new double[fftSize];
+        System.arraycopy(probe, 0, probeReal, 0, probeLength);
+        FourierMath.fft(fftSize, probeReal, probeImag);
+
+        // Energy of the recording under the probe for each lag, from a running sum.
+        double[] energySums = new double[recording.length + 1];
+        for (int i = 0; i < recording.length; i++) {
+            energySums[i + 1] = energySums[i] + (recording[i] * recording[i]);
+        }
+        double probeEnergy = energy(probe, 0, probeLength);
+        double energyFloor = probeEnergy * 1.0e-9;
+
+        double[] real = new double[fftSize];
+        double[] imag = new double[fftSize];
+        int bestLag = 0;
+        double bestScore = -1.0;
+        for (int segment = 0; segment < numLags; segment += step) {
+            int numToCopy = Math.min(fftSize, recording.length - segment);
+            System.arraycopy(recording, segment, real, 0, numToCopy);
+            Arrays.fill(real, numToCopy, fftSize, 0.0);
+            Arrays.fill(imag, 0.0);
+            FourierMath.fft(fftSize, real, imag);
+            // Multiply by the complex conjugate of the probe spectrum to correlate.
+            for (int k = 0; k < fftSize; k++) {
+                double re = (real[k] * probeReal[k]) + (imag[k] * probeImag[k]);
+                double im = (imag[k] * probeReal[k]) - (real[k] * probeImag[k]);
+                real[k] = re;
+                imag[k] = im;
+            }
+            FourierMath.ifft(fftSize, real, imag);
+            int numValid = Math.min(step, numLags - segment);
+            for (int k = 0; k < numValid; k++) {
+                int lag = segment + k;
+                double windowEnergy = energySums[lag + probeLength] - energySums[lag];
+                // The FFT scaling is the same for every lag so it does not affect the peak.
+                double score = Math.abs(real[k]) / Math.sqrt(windowEnergy + energyFloor);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestLag = lag;
+                }
+            }
+        }
+
+        // Recalculate the peak and its neighbors exactly.
+        double peak = normalizedCorrelation(recording, probe, bestLag, probeEnergy, energyFloor);
+        double delay = bestLag;
+        if (bestLag > 0 && bestLag < (numLags - 1)) {
+            double before = normalizedCorrelation(recording, probe, bestLag - 1, probeEnergy,
+                    energyFloor);
+            double after = normalizedCorrelation(recording, probe, bestLag + 1, probeEnergy,
+                    energyFloor);
+            double denominator = before - (2.0 * peak) + after;
+            if (denominator != 0.0) {
+                double offset = 0.5 * (before - after) / denominator;
+                delay += Math.max(-0.5, Math.min(0.5, offset));
+            }
+        }
+        return new Detection(delay, peak);
+    }
+
+    private static double energy(double[] data, int start, int count) {
+        double sum = 0.0;
+        for (int i = start; i < (start + count); i++) {
+            sum += data[i] * data[i];
+        }
+        return sum;
+    }
+
+    private static double normalizedCorrelation(double[] recording, double[] probe, int lag,
+            double probeEnergy, double energyFloor) {
+        double sum = 0.0;
+        for (int i = 0; i < probe.length; i++) {
+            sum += recording[lag + i] * probe[i];
+        }
+        double windowEnergy = energy(recording, lag, probe.length);
+        return sum / Math.sqrt(probeEnergy * (windowEnergy + energyFloor));
+    }
+}
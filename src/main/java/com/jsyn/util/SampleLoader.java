@@ -20,6 +20,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 import com.jsyn.data.FloatSample;
 import com.jsyn.util.soundfile.CustomSampleLoader;
@@ -38,7 +43,11 @@ import com.jsyn.util.soundfile.CustomSampleLoader;
  * </code>
  * </pre>
  *
+ * To load many files in parallel, or to defer decoding until a sample is needed, use
+ * BulkSampleLoader.
+ *
  * @author Phil Burk (C) 2011 Mobileer Inc
+ * @see BulkSampleLoader
  */
 public class SampleLoader {
     private static boolean javaSoundPreferred = false;
@@ -227,4 +236,67 @@ public class SampleLoader {
         }
     }
 
+    /**
+     * Decode 16 bit samples from a ByteBuffer into a float array. The byte order of the buffer
+     * determines the byte order of the samples. The samples are read starting at the buffer's
+     * position, which is not changed.
+     *
+     * @param buffer raw data from an audio file, for example from a FileChannel
+     * @param data array to be filled with floats
+     * @param outputOffset first element of float array to be filled
+     * @param numSamples number of samples to decode
+     */
+    public static void decodeI16ToF32(ByteBuffer buffer, float[] data, int outputOffset,
+            int numSamples) {
+        ShortBuffer shorts = buffer.asShortBuffer();
+        for (int i = 0; i < numSamples; i++) {
+            data[outputOffset + i] = shorts.get(i) * (1.0f / 32768);
+        }
+    }
+
+    /**
+     * Decode packed 24 bit samples from a ByteBuffer into a float array.
+     *
+     * @see #decodeI16ToF32(ByteBuffer, float[], int, int)
+     */
+    public static void decodeI24ToF32(ByteBuffer buffer, float[] data, int outputOffset,
+            int numSamples) {
+        int byteCursor = buffer.position();
+        // Select which byte is most significant.
+        int hiOffset = (buffer.order() == ByteOrder.BIG_ENDIAN) ? 0 : 2;
+        int loOffset = 2 - hiOffset;
+        for (int i = 0; i < numSamples; i++) {
+            int hi = buffer.get(byteCursor + hiOffset) & 0x00FF;
+            int mid = buffer.get(byteCursor + 1) & 0x00FF;
+            int lo = buffer.get(byteCursor + loOffset) & 0x00FF;
+            int value = (hi << 24) | (mid << 16) | (lo << 8);
+            data[outputOffset + i] = value * (1.0f / Integer.MAX_VALUE);
+            byteCursor += 3;
+        }
+    }
+
+    /**
+     * Decode 32 bit integer samples from a ByteBuffer into a float array.
+     *
+     * @see #decodeI16ToF32(ByteBuffer, float[], int, int)
+     */
+    public static void decodeI32ToF32(ByteBuffer buffer, float[] data, int outputOffset,
+            int numSamples) {
+        IntBuffer ints = buffer.asIntBuffer();
+        for (int i = 0; i < numSamples; i++) {
+            data[outputOffset + i] = ints.get(i) * (1.0f / Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Copy 32 bit float samples from a ByteBuffer into a float array.
+     *
+     * @see #decodeI16ToF32(ByteBuffer, float[], int, int)
+     */
+    public static void decodeF32ToF32(ByteBuffer buffer, float[] data, int outputOffset,
+            int numSamples) {
+        FloatBuffer floats = buffer.asFloatBuffer();
+        floats.get(data, outputOffset, numSamples);
+    }
+
 }
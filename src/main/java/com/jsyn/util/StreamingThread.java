@@ -31,7 +31,7 @@ public class StreamingThread extends Thread {
     private AudioOutputStream outputStream;
     private int framesPerBuffer = 1024;
     private volatile boolean go = true;
-    private TransportModel transportModel;
+    private TransportModel transportModel = new TransportModel();
     private long framePosition;
     private long maxFrames;
     private int samplesPerFrame = 1;
@@ -50,14 +50,15 @@ public class StreamingThread extends Thread {
             int framesToRead = getFramesToRead(buffer);
             while (go && (framesToRead > 0)) {
                 int samplesToRead = framesToRead * samplesPerFrame;
-                while (samplesToRead > 0) {
-                    int samplesRead = inputStream.read(buffer, 0, samplesToRead);
+                int samplesRead = inputStream.read(buffer, 0, samplesToRead);
+                if (samplesRead > 0) {
                     outputStream.write(buffer, 0, samplesRead);
-                    samplesToRead -= samplesRead;
-                    if (samplesRead < samplesToRead) break; // stream closed
                 }
-                framePosition += framesToRead;
+                framePosition += samplesRead / samplesPerFrame;
                 transportModel.firePositionChanged(framePosition);
+                if (samplesRead < samplesToRead) {
+                    break; // stream closed and drained
+                }
                 framesToRead = getFramesToRead(buffer);
             }
             transportModel.fireStateChanged(TransportModel.STATE_STOPPED);
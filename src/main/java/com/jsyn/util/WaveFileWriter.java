@@ -4,9 +4,9 @@
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- * 
+ *
  *     http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -16,19 +16,20 @@
 
 package com.jsyn.util;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
 
 import com.jsyn.io.AudioOutputStream;
 
 /**
  * Write audio data to a WAV file.
- * 
+ *
  * <pre>
  * <code>
  * WaveFileWriter writer = new WaveFileWriter(file);
@@ -38,18 +39,38 @@ import com.jsyn.io.AudioOutputStream;
  * writer.close();
  * </code>
  * </pre>
- * 
+ *
+ * Whole buffers are encoded into a direct ByteBuffer and written to a FileChannel in large
+ * pieces. The data can be 16 or 24 bit PCM, or 32-bit IEEE float. A normal WAV file is limited to
+ * 4 GB. Call setRF64Enabled(true) to reserve room in the header so that larger files can be
+ * converted to RF64 when closed.
+ * <p>
+ * Interrupting the writing thread, for example when an engine is stopped, does not lose the file.
+ * The interrupt status is kept and the write completes.
+ *
  * @author Phil Burk (C) 2011 Mobileer Inc
  */
 public class WaveFileWriter implements AudioOutputStream {
     private static final short WAVE_FORMAT_PCM = 1;
-    private OutputStream outputStream;
+    private static final short WAVE_FORMAT_IEEE_FLOAT = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Size of a 'ds64' chunk body without a table.
+    private static final int DS64_SIZE = 28;
+    private static final long MAX_RIFF_SIZE = 0xFFFFFFFFL;
+    private RandomAccessFile randomFile;
+    private FileChannel channel;
+    private final ByteBuffer byteBuffer;
     private long riffSizePosition = 0;
     private long dataSizePosition = 0;
+    private long junkPosition = -1;
+    private long factPosition = -1;
     private int frameRate = 44100;
     private int samplesPerFrame = 1;
     private int bitsPerSample = 16;
-    private int bytesWritten;
+    private long bytesWritten;
+    private long dataStartPosition;
+    private long preallocatedSize;
+    private boolean rf64Enabled = false;
     private File outputFile;
     private boolean headerWritten = false;
     private final static int PCM24_MIN = -(1 << 23);
@@ -57,14 +78,15 @@ public class WaveFileWriter implements AudioOutputStream {
 
     /**
      * Create a writer that will write to the specified file.
-     * 
+     *
      * @param outputFile
      * @throws FileNotFoundException
      */
     public WaveFileWriter(File outputFile) throws FileNotFoundException {
         this.outputFile = outputFile;
-        FileOutputStream fileOut = new FileOutputStream(outputFile);
-        outputStream = new BufferedOutputStream(fileOut);
+        randomFile = new RandomAccessFile(outputFile, "rw");
+        channel = randomFile.getChannel();
+        byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
     }
 
     /**
@@ -87,10 +109,14 @@ public class WaveFileWriter implements AudioOutputStream {
         return samplesPerFrame;
     }
 
-    /** Only 16 or 24 bit samples supported at the moment. Default is 16. */
+    /**
+     * Set the format of the data. 16 and 24 bit data is written as PCM integers. 32 bit data is
+     * written as IEEE float, which will not clip. Default is 16.
+     */
     public void setBitsPerSample(int bits) {
-        if ((bits != 16) && (bits != 24)) {
-            throw new IllegalArgumentException("Only 16 or 24 bits per sample allowed. Not " + bits);
+        if ((bits != 16) && (bits != 24) && (bits != 32)) {
+            throw new IllegalArgumentException("Only 16, 24 or 32 bits per sample allowed. Not "
+                    + bits);
         }
         bitsPerSample = bits;
     }
@@ -99,10 +125,58 @@ public class WaveFileWriter implements AudioOutputStream {
         return bitsPerSample;
     }
 
+    /**
+     * If true then a JUNK chunk is written after the RIFF header. If the file grows beyond 4 GB
+     * then it is replaced with a 'ds64' chunk and the file is converted to RF64 when closed. Smaller
+     * files stay normal WAV files. Must be set before writing any data. Default is false.
+     *
+     * @param enabled
+     */
+    public void setRF64Enabled(boolean enabled) {
+        if (headerWritten) {
+            throw new IllegalStateException("Header already written.");
+        }
+        rf64Enabled = enabled;
+    }
+
+    public boolean isRF64Enabled() {
+        return rf64Enabled;
+    }
+
+    /**
+     * Reserve space for the file before writing so the file system does not have to extend the
+     * file while recording. The file will be truncated to its actual size when closed. Must be set
+     * before writing any data. Note that some file systems may create a sparse file.
+     *
+     * @param numBytes expected size of the file in bytes, or 0 for none
+     */
+    public void setPreallocatedSize(long numBytes) {
+        if (headerWritten) {
+            throw new IllegalStateException("Header already written.");
+        }
+        preallocatedSize = numBytes;
+    }
+
+    public long getPreallocatedSize() {
+        return preallocatedSize;
+    }
+
+    private boolean isFloat() {
+        return bitsPerSample == 32;
+    }
+
     @Override
     public void close() throws IOException {
-        outputStream.close();
-        fixSizes();
+        try {
+            if (!headerWritten) {
+                writeHeader();
+            }
+            flushBuffer();
+            fixSizes();
+            randomFile.setLength(bytesWritten);
+        } finally {
+            randomFile.close();
+        }
     }
 
     /** Write entire buffer of audio samples to the WAV file. */
@@ -122,15 +196,20 @@ public class WaveFileWriter implements AudioOutputStream {
         if (!headerWritten) {
             writeHeader();
         }
+        if (byteBuffer.remaining() < 4) {
+            flushBuffer();
+        }
 
         if (bitsPerSample == 24) {
-            writePCM24(value);
+            putPCM24(value);
+        } else if (bitsPerSample == 32) {
+            byteBuffer.putFloat((float) value);
         } else {
-            writePCM16(value);
+            byteBuffer.putShort(convertToPCM16(value));
         }
     }
 
-    private void writePCM24(double value) throws IOException {
+    private void putPCM24(double value) {
         // Offset before casting so that we can avoid using floor().
         // Also round by adding 0.5 so that very small signals go to zero.
         double temp = (PCM24_MAX * value) + 0.5 - PCM24_MIN;
@@ -142,12 +221,12 @@ public class WaveFileWriter implements AudioOutputStream {
             sample = PCM24_MIN;
         }
         // encode as little-endian
-        writeByte(sample); // little end
-        writeByte(sample >> 8); // middle
-        writeByte(sample >> 16); // big end
+        byteBuffer.put((byte) sample); // little end
+        byteBuffer.put((byte) (sample >> 8)); // middle
+        byteBuffer.put((byte) (sample >> 16)); // big end
     }
 
-    private void writePCM16(double value) throws IOException {
+    private static short convertToPCM16(double value) {
         // Offset before casting so that we can avoid using floor().
         // Also round by adding 0.5 so that very small signals go to zero.
         double temp = (Short.MAX_VALUE * value) + 0.5 - Short.MIN_VALUE;
@@ -157,29 +236,92 @@ public class WaveFileWriter implements AudioOutputStream {
         } else if (sample < Short.MIN_VALUE) {
             sample = Short.MIN_VALUE;
         }
-        writeByte(sample); // little end
-        writeByte(sample >> 8); // big end
+        return (short) sample;
+    }
+
+    /**
+     * @return number of samples that will fit in the byte buffer, flushing it if needed
+     */
+    private int prepareBuffer(int count) throws IOException {
+        if (!headerWritten) {
+            writeHeader();
+        }
+        int bytesPerSample = bitsPerSample / 8;
+        if (byteBuffer.remaining() < bytesPerSample) {
+            flushBuffer();
+        }
+        return Math.min(count, byteBuffer.remaining() / bytesPerSample);
     }
 
     /** Write audio to the WAV file. */
     @Override
     public void write(double[] buffer, int start, int count) throws IOException {
-        for (int i = 0; i < count; i++) {
-            write(buffer[start + i]);
+        while (count > 0) {
+            int numSamples = prepareBuffer(count);
+            int limit = start + numSamples;
+            if (bitsPerSample == 24) {
+                for (int i = start; i < limit; i++) {
+                    putPCM24(buffer[i]);
+                }
+            } else if (bitsPerSample == 32) {
+                for (int i = start; i < limit; i++) {
+                    byteBuffer.putFloat((float) buffer[i]);
+                }
+            } else {
+                for (int i = start; i < limit; i++) {
+                    byteBuffer.putShort(convertToPCM16(buffer[i]));
+                }
+            }
+            start += numSamples;
+            count -= numSamples;
         }
     }
 
     /** Write audio to the WAV file. */
     public void write(float[] buffer, int start, int count) throws IOException {
-        for (int i = 0; i < count; i++) {
-            write(buffer[start + i]);
+        while (count > 0) {
+            int numSamples = prepareBuffer(count);
+            int limit = start + numSamples;
+            if (bitsPerSample == 24) {
+                for (int i = start; i < limit; i++) {
+                    putPCM24(buffer[i]);
+                }
+            } else if (bitsPerSample == 32) {
+                byteBuffer.asFloatBuffer().put(buffer, start, numSamples);
+                byteBuffer.position(byteBuffer.position() + (numSamples * 4));
+            } else {
+                for (int i = start; i < limit; i++) {
+                    byteBuffer.putShort(convertToPCM16(buffer[i]));
+                }
+            }
+            start += numSamples;
+            count -= numSamples;
         }
     }
 
+    private void flushBuffer() throws IOException {
+        byteBuffer.flip();
+        long end = bytesWritten + byteBuffer.remaining();
+        if (!rf64Enabled && (end - 8) > MAX_RIFF_SIZE) {
+            byteBuffer.clear();
+            throw new IOException("WAV file would exceed 4 GB. Use setRF64Enabled(true).");
+        }
+        writeAt(byteBuffer, bytesWritten);
+        bytesWritten = end;
+        byteBuffer.clear();
+    }
+
     // Write lower 8 bits. Upper bits ignored.
     private void writeByte(int b) throws IOException {
-        outputStream.write(b);
-        bytesWritten += 1;
+        if (!byteBuffer.hasRemaining()) {
+            flushBuffer();
+        }
+        byteBuffer.put((byte) b);
+    }
+
+    /** @return position in the file of the next byte to be written */
+    private long getPosition() {
+        return bytesWritten + byteBuffer.position();
     }
 
     /**
@@ -200,31 +342,54 @@ public class WaveFileWriter implements AudioOutputStream {
         writeByte(n >> 8);
     }
 
+    private void writeID(String id) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            writeByte(id.charAt(i));
+        }
+    }
+
     /**
      * Write a simple WAV header for PCM data.
      */
     private void writeHeader() throws IOException {
+        // Set before writing so the header can be flushed.
+        headerWritten = true;
+        if (preallocatedSize > 0) {
+            randomFile.setLength(preallocatedSize);
+        }
         writeRiffHeader();
+        if (rf64Enabled) {
+            writeJunkChunk();
+        }
         writeFormatChunk();
+        if (isFloat()) {
+            writeFactChunk();
+        }
         writeDataChunkHeader();
-        outputStream.flush();
-        headerWritten = true;
+        dataStartPosition = getPosition();
+        flushBuffer();
     }
 
     /**
      * Write a 'RIFF' file header and a 'WAVE' ID to the WAV file.
      */
     private void writeRiffHeader() throws IOException {
-        writeByte('R');
-        writeByte('I');
-        writeByte('F');
-        writeByte('F');
-        riffSizePosition = bytesWritten;
+        writeID("RIFF");
+        riffSizePosition = getPosition();
         writeIntLittle(Integer.MAX_VALUE);
-        writeByte('W');
-        writeByte('A');
-        writeByte('V');
-        writeByte('E');
+        writeID("WAVE");
+    }
+
+    /**
+     * Reserve room for a 'ds64' chunk.
+     */
+    private void writeJunkChunk() throws IOException {
+        junkPosition = getPosition();
+        writeID("JUNK");
+        writeIntLittle(DS64_SIZE);
+        for (int i = 0; i < DS64_SIZE; i++) {
+            writeByte(0);
+        }
     }
 
     /**
@@ -233,12 +398,9 @@ public class WaveFileWriter implements AudioOutputStream {
     public void writeFormatChunk() throws IOException {
         int bytesPerSample = (bitsPerSample + 7) / 8;
 
-        writeByte('f');
-        writeByte('m');
-        writeByte('t');
-        writeByte(' ');
-        writeIntLittle(16); // chunk size
-        writeShortLittle(WAVE_FORMAT_PCM);
+        writeID("fmt ");
+        writeIntLittle(isFloat() ? 18 : 16); // chunk size
+        writeShortLittle(isFloat() ? WAVE_FORMAT_IEEE_FLOAT : WAVE_FORMAT_PCM);
         writeShortLittle((short) samplesPerFrame);
         writeIntLittle(frameRate);
         // bytes/second
@@ -246,6 +408,19 @@ public class WaveFileWriter implements AudioOutputStream {
         // block align
         writeShortLittle((short) (samplesPerFrame * bytesPerSample));
         writeShortLittle((short) bitsPerSample);
+        if (isFloat()) {
+            writeShortLittle((short) 0); // cbSize
+        }
+    }
+
+    /**
+     * Write a 'fact' chunk, which is required for non-PCM data.
+     */
+    private void writeFactChunk() throws IOException {
+        writeID("fact");
+        writeIntLittle(4);
+        factPosition = getPosition();
+        writeIntLittle(0); // number of frames, set by fixSizes()
     }
 
     /**
@@ -253,11 +428,8 @@ public class WaveFileWriter implements AudioOutputStream {
      * writeShortLittle() to write the data to the chunk.
      */
     public void writeDataChunkHeader() throws IOException {
-        writeByte('d');
-        writeByte('a');
-        writeByte('t');
-        writeByte('a');
-        dataSizePosition = bytesWritten;
+        writeID("data");
+        dataSizePosition = getPosition();
         writeIntLittle(Integer.MAX_VALUE); // size
     }
 
@@ -265,29 +437,83 @@ public class WaveFileWriter implements AudioOutputStream {
      * Fix RIFF and data chunk sizes based on final size. Assume data chunk is the last chunk.
      */
     private void fixSizes() throws IOException {
-        RandomAccessFile randomFile = new RandomAccessFile(outputFile, "rw");
+        long end = bytesWritten;
+        long riffSize = (end - riffSizePosition) - 4;
+        long dataSize = (end - dataSizePosition) - 4;
+        int bytesPerFrame = samplesPerFrame * ((bitsPerSample + 7) / 8);
+        long numFrames = (end - dataStartPosition) / bytesPerFrame;
+        if (riffSize > MAX_RIFF_SIZE) {
+            // Convert to RF64. The 32-bit sizes are set to -1 and the real sizes go in 'ds64'.
+            ByteBuffer ds64 = ByteBuffer.allocate(8 + DS64_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ds64.put((byte) 'd').put((byte) 's').put((byte) '6').put((byte) '4');
+            ds64.putInt(DS64_SIZE);
+            ds64.putLong(riffSize);
+            ds64.putLong(dataSize);
+            ds64.putLong(numFrames);
+            ds64.putInt(0); // table length
+            ds64.flip();
+            writeAt(ds64, junkPosition);
+            writeAt(wrapID("RF64"), 0);
+            riffSize = MAX_RIFF_SIZE;
+            dataSize = MAX_RIFF_SIZE;
+            numFrames = MAX_RIFF_SIZE;
+        }
+        writeIntAt(riffSizePosition, (int) riffSize);
+        writeIntAt(dataSizePosition, (int) dataSize);
+        if (factPosition >= 0) {
+            writeIntAt(factPosition, (int) numFrames);
+        }
+    }
+
+    private static ByteBuffer wrapID(String id) {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        for (int i = 0; i < 4; i++) {
+            buffer.put((byte) id.charAt(i));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void writeIntAt(long position, int n) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(n);
+        buffer.flip();
+        writeAt(buffer, position);
+    }
+
+    /**
+     * Write the whole buffer at the position. A FileChannel is closed if the thread is
+     * interrupted, so the interrupt status is cleared while writing and restored afterwards. If an
+     * interrupt arrives in the middle of a write then the file is opened again and the write is
+     * repeated. That is safe because all writes are positional.
+     */
+    private void writeAt(ByteBuffer buffer, long position) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        int start = buffer.position();
         try {
-            // adjust RIFF size
-            long end = bytesWritten;
-            int riffSize = (int) (end - riffSizePosition) - 4;
-            randomFile.seek(riffSizePosition);
-            writeRandomIntLittle(randomFile, riffSize);
-            // adjust data size
-            int dataSize = (int) (end - dataSizePosition) - 4;
-            randomFile.seek(dataSizePosition);
-            writeRandomIntLittle(randomFile, dataSize);
+            while (true) {
+                try {
+                    long cursor = position;
+                    while (buffer.hasRemaining()) {
+                        cursor += channel.write(buffer, cursor);
+                    }
+                    return;
+                } catch (ClosedByInterruptException e) {
+                    interrupted |= Thread.interrupted();
+                    buffer.position(start);
+                    reopen();
+                }
+            }
         } finally {
-            randomFile.close();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
-    private void writeRandomIntLittle(RandomAccessFile randomFile, int n) throws IOException {
-        byte[] buffer = new byte[4];
-        buffer[0] = (byte) n;
-        buffer[1] = (byte) (n >> 8);
-        buffer[2] = (byte) (n >> 16);
-        buffer[3] = (byte) (n >> 24);
-        randomFile.write(buffer);
+    private void reopen() throws IOException {
+        randomFile = new RandomAccessFile(outputFile, "rw");
+        channel = randomFile.getChannel();
     }
 
 }
@@ -21,17 +21,32 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import com.jsyn.Synthesizer;
+import com.jsyn.io.AudioRingBuffer;
 import com.jsyn.ports.UnitInputPort;
+import com.jsyn.unitgen.MonoStreamWriter;
+import com.jsyn.unitgen.StereoStreamWriter;
+import com.jsyn.unitgen.UnitStreamWriter;
 
 /**
  * Connect a unit generator to the input. Then start() recording.
  * The signal will be written to a
  * WAV format file that can be read by other programs.
+ * <p>
+ * The synthesis engine writes each block into a lock-free AudioRingBuffer. A background thread
+ * converts the audio and writes it to the file, so a slow disk will not cause a glitch in the
+ * audio. If the disk falls more than getBufferDuration() seconds behind then audio is dropped and
+ * counted by getOverflowCount().
  *
  * @author Phil Burk (C) 2011 Mobileer Inc
  */
 public class WaveRecorder {
-    private AudioStreamReader reader;
+    private static final double DEFAULT_BUFFER_DURATION = 2.0;
+    private static final int FRAMES_PER_WRITE = 4096;
+    private UnitStreamWriter streamWriter;
+    private AudioRingBuffer ringBuffer;
+    private double bufferDuration = DEFAULT_BUFFER_DURATION;
+    private long previousOverflowCount;
+    private final int samplesPerFrame;
     private WaveFileWriter writer;
     private StreamingThread thread;
     private Synthesizer synth;
@@ -58,14 +73,23 @@ public class WaveRecorder {
      * @param synth
      * @param outputFile
      * @param samplesPerFrame 1 for mono, 2 for stereo
-     * @param bitsPerSample 16 or 24
+     * @param bitsPerSample 16 or 24, or 32 for float
      * @throws FileNotFoundException
      */
     public WaveRecorder(Synthesizer synth, File outputFile,
             int samplesPerFrame, int bitsPerSample)
             throws FileNotFoundException {
         this.synth = synth;
-        reader = new AudioStreamReader(synth, samplesPerFrame);
+        this.samplesPerFrame = samplesPerFrame;
+        if (samplesPerFrame == 1) {
+            streamWriter = new MonoStreamWriter();
+        } else if (samplesPerFrame == 2) {
+            streamWriter = new StereoStreamWriter();
+        } else {
+            throw new IllegalArgumentException("Only 1 or 2 samplesPerFrame supported.");
+        }
+        synth.add(streamWriter);
+        streamWriter.start();
 
         writer = new WaveFileWriter(outputFile);
         writer.setFrameRate(synth.getFrameRate());
@@ -74,24 +98,84 @@ public class WaveRecorder {
     }
 
     public UnitInputPort getInput() {
-        return reader.getInput();
+        return streamWriter.input;
+    }
+
+    /**
+     * Set the amount of audio that can be buffered while waiting for the disk. Takes effect the
+     * next time start() is called.
+     *
+     * @param seconds default is 2.0
+     */
+    public void setBufferDuration(double seconds) {
+        this.bufferDuration = seconds;
+    }
+
+    public double getBufferDuration() {
+        return bufferDuration;
+    }
+
+    /**
+     * @return number of frames dropped since the recorder was created because the file could not
+     *         be written fast enough
+     */
+    public long getOverflowCount() {
+        long count = previousOverflowCount;
+        AudioRingBuffer buffer = ringBuffer;
+        if (buffer != null) {
+            count += buffer.getOverflowCount();
+        }
+        return count / samplesPerFrame;
+    }
+
+    private AudioRingBuffer createRingBuffer() {
+        int minSize = Math.max(FRAMES_PER_WRITE,
+                (int) (bufferDuration * synth.getFrameRate())) * samplesPerFrame;
+        int size = Integer.highestOneBit(minSize);
+        if (size < minSize) {
+            size *= 2;
+        }
+        AudioRingBuffer buffer = new AudioRingBuffer(size);
+        // Do not lose data when rendering faster than real-time.
+        buffer.setWriteWaitEnabled(!synth.isRealTime());
+        buffer.setReadWaitEnabled(true);
+        return buffer;
     }
 
     public void start() {
         stop();
-        thread = new StreamingThread(reader, writer);
+        if (ringBuffer != null) {
+            previousOverflowCount += ringBuffer.getOverflowCount();
+        }
+        final AudioRingBuffer buffer = createRingBuffer();
+        ringBuffer = buffer;
+        thread = new StreamingThread(buffer, writer) {
+            @Override
+            public void run() {
+                super.run();
+                // Stop accepting data, for example after reaching maxRecordingTime,
+                // so that a non-real-time engine does not wait forever.
+                buffer.close();
+            }
+        };
         thread.setTransportModel(transportModel);
-        thread.setSamplesPerFrame(writer.getSamplesPerFrame());
+        thread.setSamplesPerFrame(samplesPerFrame);
+        thread.setFramesPerBuffer(FRAMES_PER_WRITE);
         updateMaxRecordingTime();
         thread.start();
+        streamWriter.setOutputStream(ringBuffer);
     }
 
+    /**
+     * Stop recording. Audio that is still in the buffer will be written to the file before this
+     * returns.
+     */
     public void stop() {
         if (thread != null) {
-            reader.close();
-            thread.requestStop();
+            streamWriter.setOutputStream(null);
+            ringBuffer.close(); // the thread will drain the buffer and then finish
             try {
-                thread.join(500);
+                thread.join();
             } catch (InterruptedException ignored) {
                 System.out.println("join() " + ignored);
             }
@@ -106,12 +190,13 @@ public class WaveRecorder {
             writer.close();
             writer = null;
         }
-        if (reader != null) {
-            reader.close();
-            for (int i = 0; i < reader.getInput().getNumParts(); i++) {
-                reader.getInput().disconnectAll(i);
+        if (streamWriter != null) {
+            streamWriter.stop();
+            for (int i = 0; i < streamWriter.input.getNumParts(); i++) {
+                streamWriter.input.disconnectAll(i);
             }
-            reader = null;
+            synth.remove(streamWriter);
+            streamWriter = null;
         }
     }
 
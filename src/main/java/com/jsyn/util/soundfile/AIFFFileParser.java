@@ -18,6 +18,8 @@ package com.jsyn.util.soundfile;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.jsyn.data.FloatSample;
 import com.jsyn.data.SampleMarker;
@@ -44,27 +46,61 @@ public class AIFFFileParser extends AudioFileParser {
 
     @Override
     FloatSample finish() throws IOException {
-        setLoops();
-
         if ((byteData == null)) {
             throw new IOException("No data found in audio sample.");
         }
         float[] floatData = new float[numFrames * samplesPerFrame];
+        decode(byteData, 0, byteData.length, floatData, 0);
+
+        return makeSample(floatData);
+    }
+
+    @Override
+    void resolveLoops() {
+        setLoops();
+        super.resolveLoops();
+    }
+
+    @Override
+    ByteOrder getByteOrder() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    void decode(byte[] bytes, int offset, int numBytes, float[] data, int outputOffset)
+            throws IOException {
         if (bitsPerSample == 16) {
-            SampleLoader.decodeBigI16ToF32(byteData, 0, byteData.length, floatData, 0);
+            SampleLoader.decodeBigI16ToF32(bytes, offset, numBytes, data, outputOffset);
         } else if (bitsPerSample == 24) {
-            SampleLoader.decodeBigI24ToF32(byteData, 0, byteData.length, floatData, 0);
+            SampleLoader.decodeBigI24ToF32(bytes, offset, numBytes, data, outputOffset);
         } else if (bitsPerSample == 32) {
             if (typeFloat) {
-                SampleLoader.decodeBigF32ToF32(byteData, 0, byteData.length, floatData, 0);
+                SampleLoader.decodeBigF32ToF32(bytes, offset, numBytes, data, outputOffset);
             } else {
-                SampleLoader.decodeBigI32ToF32(byteData, 0, byteData.length, floatData, 0);
+                SampleLoader.decodeBigI32ToF32(bytes, offset, numBytes, data, outputOffset);
             }
         } else {
             throw new IOException(SUPPORTED_FORMATS + " size = " + bitsPerSample);
         }
+    }
 
-        return makeSample(floatData);
+    @Override
+    void decode(ByteBuffer buffer, float[] data, int outputOffset, int numSamples)
+            throws IOException {
+        buffer.order(getByteOrder());
+        if (bitsPerSample == 16) {
+            SampleLoader.decodeI16ToF32(buffer, data, outputOffset, numSamples);
+        } else if (bitsPerSample == 24) {
+            SampleLoader.decodeI24ToF32(buffer, data, outputOffset, numSamples);
+        } else if (bitsPerSample == 32) {
+            if (typeFloat) {
+                SampleLoader.decodeF32ToF32(buffer, data, outputOffset, numSamples);
+            } else {
+                SampleLoader.decodeI32ToF32(buffer, data, outputOffset, numSamples);
+            }
+        } else {
+            throw new IOException(SUPPORTED_FORMATS + " size = " + bitsPerSample);
+        }
     }
 
     double read80BitFloat() throws IOException {
@@ -142,6 +178,7 @@ public class AIFFFileParser extends AudioFileParser {
         parser.skip(offset);
         dataPosition = parser.getOffset();
         int numBytes = ckSize - 8 - offset;
+        numDataBytes = numBytes;
         if (ifLoadData) {
             byteData = new byte[numBytes];
             numRead = parser.read(byteData);
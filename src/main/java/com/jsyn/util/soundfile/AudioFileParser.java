@@ -17,7 +17,11 @@
 package com.jsyn.util.soundfile;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import com.jsyn.data.FloatSample;
 import com.jsyn.data.SampleMarker;
@@ -35,6 +39,7 @@ abstract class AudioFileParser implements ChunkHandler {
     long dataPosition; /*
                         * Number of bytes from beginning of file where sound data resides.
                         */
+    int numDataBytes; /* Number of bytes of sound data in the file. */
     protected int bitsPerSample;
     protected int bytesPerFrame; // in the file
     protected int bytesPerSample; // in the file
@@ -95,10 +100,79 @@ abstract class AudioFileParser implements ChunkHandler {
         return finish();
     }
 
+    /**
+     * Parse the chunks but skip over the sound data. No sample data is allocated. Afterwards the
+     * format fields describe the file and the data can be decoded later by reading numDataBytes
+     * from dataPosition and passing them to decode().
+     */
+    void loadHeader(IFFParser parser) throws IOException {
+        ifLoadData = false;
+        this.parser = parser;
+        parser.parseAfterHead(this);
+        if (numDataBytes == 0) {
+            throw new IOException("No data found in audio sample.");
+        }
+        resolveLoops();
+    }
+
+    /** @return byte order of the sound data in the file */
+    abstract ByteOrder getByteOrder();
+
+    /** @return cue points sorted by position, like AudioSample.addMarker() */
+    List<SampleMarker> getSortedMarkers() {
+        List<SampleMarker> markers = new ArrayList<SampleMarker>();
+        for (SampleMarker marker : cueMap.values()) {
+            int index = markers.size();
+            for (int k = 0; k < markers.size(); k++) {
+                if (markers.get(k).position > marker.position) {
+                    index = k;
+                    break;
+                }
+            }
+            markers.add(index, marker);
+        }
+        return markers;
+    }
+
+    /** Set sustainBegin and sustainEnd after all of the chunks have been parsed. */
+    void resolveLoops() {
+        /* Set Sustain Loop by assuming first two markers are loop points. */
+        List<SampleMarker> markers = getSortedMarkers();
+        if (markers.size() >= 2) {
+            sustainBegin = markers.get(0).position;
+            sustainEnd = markers.get(1).position;
+        }
+    }
+
     abstract FloatSample finish() throws IOException;
 
+    /**
+     * Convert raw bytes from the data chunk to normalized floats.
+     *
+     * @param bytes raw data from an audio file
+     * @param offset first element of byte array
+     * @param numBytes number of bytes to process, should be a multiple of bytesPerFrame
+     * @param data array to be filled with floats
+     * @param outputOffset first element of float array to be filled
+     */
+    abstract void decode(byte[] bytes, int offset, int numBytes, float[] data, int outputOffset)
+            throws IOException;
+
+    /**
+     * Convert samples from a ByteBuffer to normalized floats, for example from a FileChannel or a
+     * memory mapped file. The byte order of the buffer will be set to match the file.
+     *
+     * @param buffer raw data positioned at the first sample
+     * @param data array to be filled with floats
+     * @param outputOffset first element of float array to be filled
+     * @param numSamples number of samples, not frames, to convert
+     */
+    abstract void decode(ByteBuffer buffer, float[] data, int outputOffset, int numSamples)
+            throws IOException;
+
     FloatSample makeSample(float[] floatData) throws IOException {
         FloatSample floatSample = new FloatSample(floatData, samplesPerFrame);
+        resolveLoops();
 
         floatSample.setChannelsPerFrame(samplesPerFrame);
         floatSample.setFrameRate(frameRate);
@@ -112,12 +186,6 @@ abstract class AudioFileParser implements ChunkHandler {
         for (SampleMarker marker : cueMap.values()) {
             floatSample.addMarker(marker);
         }
-
-        /* Set Sustain Loop by assuming first two markers are loop points. */
-        if (floatSample.getMarkerCount() >= 2) {
-            floatSample.setSustainBegin(floatSample.getMarker(0).position);
-            floatSample.setSustainEnd(floatSample.getMarker(1).position);
-        }
         return floatSample;
     }
 
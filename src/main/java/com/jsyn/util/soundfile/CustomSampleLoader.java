@@ -18,7 +18,6 @@ package com.jsyn.util.soundfile;
 
 import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -30,9 +29,12 @@ public class CustomSampleLoader implements AudioSampleLoader {
 
     @Override
     public FloatSample loadFloatSample(File fileIn) throws IOException {
-        FileInputStream fileStream = new FileInputStream(fileIn);
-        BufferedInputStream inputStream = new BufferedInputStream(fileStream);
-        return loadFloatSample(inputStream);
+        // Decode through a FileChannel so the data chunk is not copied into a byte array.
+        // The header only holds format fields so the float data is allocated exactly once.
+        SampleFileHeader header = SampleFileHeader.read(fileIn);
+        FloatSample sample = header.createSample();
+        header.loadData(sample);
+        return sample;
     }
 
     @Override
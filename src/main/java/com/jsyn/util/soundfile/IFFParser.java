@@ -106,7 +106,15 @@ class IFFParser extends FilterInputStream {
     @Override
     public long skip(long numBytes) throws IOException {
         numBytesRead += numBytes;
-        return super.skip(numBytes);
+        // A BufferedInputStream may skip less than requested so keep skipping.
+        long numLeft = numBytes;
+        while (numLeft > 0) {
+            long numSkipped = super.skip(numLeft);
+            if (numSkipped <= 0)
+                break;
+            numLeft -= numSkipped;
+        }
+        return numBytes - numLeft;
     }
 
     /** Read 32 bit signed integer assuming Big Endian byte order. */
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util.soundfile;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.data.SampleMarker;
+
+/**
+ * Format information parsed from the header of a WAV or AIF file without reading the sound data.
+ * The data can be decoded later, in pieces or all at once, possibly in another thread. A header
+ * only holds the format, the position of the data and the markers, so it is small no matter how
+ * long the file is.
+ *
+ * <pre>
+ * <code>
+ *     SampleFileHeader header = SampleFileHeader.read(new File("guitar.wav"));
+ *     FloatSample sample = header.createSample(); // silent but correctly sized
+ *     header.loadData(sample);
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class SampleFileHeader {
+    /** Number of frames decoded per file read by loadData(). */
+    private static final int FRAMES_PER_CHUNK = 16 * 1024;
+
+    private final File file;
+    // Only used to decode, the parser does not hold any sound data.
+    private final AudioFileParser fileParser;
+    private final int numFrames;
+    private final int channelsPerFrame;
+    private final double frameRate;
+    private final double pitch;
+    private final int bitsPerSample;
+    private final int bytesPerFrame;
+    private final long dataPosition;
+    private final int numDataBytes;
+    private final ByteOrder byteOrder;
+    private final int sustainBegin;
+    private final int sustainEnd;
+    private final List<SampleMarker> markers;
+
+    private SampleFileHeader(File file, AudioFileParser fileParser) {
+        this.file = file;
+        this.fileParser = fileParser;
+        numFrames = fileParser.numFrames;
+        channelsPerFrame = fileParser.samplesPerFrame;
+        frameRate = fileParser.frameRate;
+        pitch = fileParser.originalPitch;
+        bitsPerSample = fileParser.bitsPerSample;
+        bytesPerFrame = fileParser.bytesPerFrame;
+        dataPosition = fileParser.dataPosition;
+        numDataBytes = fileParser.numDataBytes;
+        byteOrder = fileParser.getByteOrder();
+        sustainBegin = fileParser.sustainBegin;
+        sustainEnd = fileParser.sustainEnd;
+        markers = fileParser.getSortedMarkers();
+    }
+
+    /**
+     * Parse the chunks of a WAV or AIF file but skip over the sound data.
+     *
+     * @param file
+     * @return header information
+     * @throws IOException if the file cannot be read or is an unsupported format
+     */
+    public static SampleFileHeader read(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            AudioFileParser fileParser;
+            IFFParser parser = new IFFParser(inputStream);
+            parser.readHead();
+            if (parser.isRIFF()) {
+                fileParser = new WAVEFileParser();
+            } else if (parser.isIFF()) {
+                fileParser = new AIFFFileParser();
+            } else {
+                throw new IOException("Unsupported audio file type.");
+            }
+            fileParser.loadHeader(parser);
+            fileParser.parser = null; // the stream is closed below
+            return new SampleFileHeader(file, fileParser);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getNumFrames() {
+        return numFrames;
+    }
+
+    public int getChannelsPerFrame() {
+        return channelsPerFrame;
+    }
+
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /** @return recorded pitch as a fractional MIDI semitone value */
+    public double getPitch() {
+        return pitch;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /** @return number of bytes used by one frame in the file */
+    public int getBytesPerFrame() {
+        return bytesPerFrame;
+    }
+
+    /** @return number of bytes from beginning of file where sound data resides */
+    public long getDataPosition() {
+        return dataPosition;
+    }
+
+    /** @return number of bytes of sound data in the file */
+    public int getNumDataBytes() {
+        return numDataBytes;
+    }
+
+    /** @return byte order of the sound data in the file */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /** @return first frame of the sustain loop, or -1 */
+    public int getSustainBegin() {
+        return sustainBegin;
+    }
+
+    /** @return frame after the sustain loop, or -1 */
+    public int getSustainEnd() {
+        return sustainEnd;
+    }
+
+    public int getMarkerCount() {
+        return markers.size();
+    }
+
+    /** @return markers are sorted by position */
+    public SampleMarker getMarker(int index) {
+        return markers.get(index);
+    }
+
+    /**
+     * Create a silent sample with the size, frame rate, pitch, loops and markers of the file. The
+     * sample can be queued immediately and will be filled in when loadData() is called. This is
+     * the only place the sample data is allocated.
+     */
+    public FloatSample createSample() {
+        FloatSample sample = new FloatSample(numFrames, channelsPerFrame);
+        sample.setFrameRate(frameRate);
+        sample.setPitch(pitch);
+        if (sustainBegin >= 0) {
+            sample.setSustainBegin(sustainBegin);
+            sample.setSustainEnd(sustainEnd);
+        }
+        for (SampleMarker marker : markers) {
+            sample.addMarker(marker);
+        }
+        return sample;
+    }
+
+    /**
+     * Convert raw frames from the data chunk to normalized floats.
+     *
+     * @param bytes raw data read from the file
+     * @param offset first element of byte array
+     * @param numFrames number of frames to convert
+     * @param data array to be filled with floats
+     * @param outputOffset first element of float array to be filled
+     */
+    public void decode(byte[] bytes, int offset, int numFrames, float[] data, int outputOffset)
+            throws IOException {
+        fileParser.decode(bytes, offset, numFrames * getBytesPerFrame(), data, outputOffset);
+    }
+
+    /**
+     * Convert frames from a ByteBuffer to normalized floats. The buffer's position is not changed
+     * but its byte order will be set to getByteOrder().
+     *
+     * @param buffer raw data positioned at the first frame, for example from mapData()
+     * @param numFrames number of frames to convert
+     * @param data array to be filled with floats
+     * @param outputOffset first element of float array to be filled
+     */
+    public void decode(ByteBuffer buffer, int numFrames, float[] data, int outputOffset)
+            throws IOException {
+        fileParser.decode(buffer, data, outputOffset, numFrames * getChannelsPerFrame());
+    }
+
+    /**
+     * Read the sound data from the file and write it into the sample. The data is read through a
+     * FileChannel into a small direct buffer and bulk converted, so the whole data chunk is never
+     * held in memory as bytes.
+     *
+     * @param sample a sample from createSample()
+     */
+    public void loadData(FloatSample sample) throws IOException {
+        int bytesPerFrame = getBytesPerFrame();
+        int framesLeft = Math.min(sample.getNumFrames(), getNumDataBytes() / bytesPerFrame);
+        int framesPerChunk = Math.max(1, Math.min(framesLeft, FRAMES_PER_CHUNK));
+        ByteBuffer bytes = ByteBuffer.allocateDirect(framesPerChunk * bytesPerFrame);
+        float[] floats = new float[framesPerChunk * getChannelsPerFrame()];
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long filePosition = getDataPosition();
+            int frameCursor = 0;
+            while (framesLeft > 0) {
+                int numFrames = Math.min(framesLeft, framesPerChunk);
+                bytes.clear();
+                bytes.limit(numFrames * bytesPerFrame);
+                readFully(channel, bytes, filePosition);
+                bytes.flip();
+                decode(bytes, numFrames, floats, 0);
+                sample.write(frameCursor, floats, 0, numFrames);
+                filePosition += bytes.limit();
+                frameCursor += numFrames;
+                framesLeft -= numFrames;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Map the sound data into memory without copying it onto the Java heap. The frames can then be
+     * converted on demand using decode(ByteBuffer, int, float[], int).
+     *
+     * @return a read-only buffer containing only the sound data, in the file's byte order
+     */
+    public MappedByteBuffer mapData() throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    getDataPosition(), getNumDataBytes());
+            buffer.order(byteOrder);
+            return buffer;
+        } finally {
+            channel.close(); // mapping remains valid
+        }
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long filePosition)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int numRead = channel.read(buffer, filePosition);
+            if (numRead < 0) {
+                throw new EOFException("Sound data too short!");
+            }
+            filePosition += numRead;
+        }
+    }
+}
@@ -18,6 +18,8 @@ package com.jsyn.util.soundfile;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.jsyn.data.FloatSample;
 import com.jsyn.data.SampleMarker;
@@ -53,29 +55,61 @@ class WAVEFileParser extends AudioFileParser implements ChunkHandler {
     WAVEFileParser() {
     }
 
+    @Override
+    ByteOrder getByteOrder() {
+        return ByteOrder.LITTLE_ENDIAN;
+    }
+
     @Override
     FloatSample finish() throws IOException {
         if ((byteData == null)) {
             throw new IOException("No data found in audio sample.");
         }
         float[] floatData = new float[numFrames * samplesPerFrame];
+        decode(byteData, 0, byteData.length, floatData, 0);
+
+        return makeSample(floatData);
+    }
+
+    @Override
+    void decode(byte[] bytes, int offset, int numBytes, float[] data, int outputOffset)
+            throws IOException {
         if (bitsPerSample == 16) {
-            SampleLoader.decodeLittleI16ToF32(byteData, 0, byteData.length, floatData, 0);
+            SampleLoader.decodeLittleI16ToF32(bytes, offset, numBytes, data, outputOffset);
         } else if (bitsPerSample == 24) {
-            SampleLoader.decodeLittleI24ToF32(byteData, 0, byteData.length, floatData, 0);
+            SampleLoader.decodeLittleI24ToF32(bytes, offset, numBytes, data, outputOffset);
         } else if (bitsPerSample == 32) {
             if (format == WAVE_FORMAT_IEEE_FLOAT) {
-                SampleLoader.decodeLittleF32ToF32(byteData, 0, byteData.length, floatData, 0);
+                SampleLoader.decodeLittleF32ToF32(bytes, offset, numBytes, data, outputOffset);
             } else if (format == WAVE_FORMAT_PCM) {
-                SampleLoader.decodeLittleI32ToF32(byteData, 0, byteData.length, floatData, 0);
+                SampleLoader.decodeLittleI32ToF32(bytes, offset, numBytes, data, outputOffset);
             } else {
                 throw new IOException("WAV: Unsupported format = " + format);
             }
         } else {
             throw new IOException("WAV: Unsupported bitsPerSample = " + bitsPerSample);
         }
+    }
 
-        return makeSample(floatData);
+    @Override
+    void decode(ByteBuffer buffer, float[] data, int outputOffset, int numSamples)
+            throws IOException {
+        buffer.order(getByteOrder());
+        if (bitsPerSample == 16) {
+            SampleLoader.decodeI16ToF32(buffer, data, outputOffset, numSamples);
+        } else if (bitsPerSample == 24) {
+            SampleLoader.decodeI24ToF32(buffer, data, outputOffset, numSamples);
+        } else if (bitsPerSample == 32) {
+            if (format == WAVE_FORMAT_IEEE_FLOAT) {
+                SampleLoader.decodeF32ToF32(buffer, data, outputOffset, numSamples);
+            } else if (format == WAVE_FORMAT_PCM) {
+                SampleLoader.decodeI32ToF32(buffer, data, outputOffset, numSamples);
+            } else {
+                throw new IOException("WAV: Unsupported format = " + format);
+            }
+        } else {
+            throw new IOException("WAV: Unsupported bitsPerSample = " + bitsPerSample);
+        }
     }
 
     // typedef struct {
@@ -237,6 +271,7 @@ class WAVEFileParser extends AudioFileParser implements ChunkHandler {
     void parseDataChunk(IFFParser parser, int ckSize) throws IOException {
         long numRead;
         dataPosition = parser.getOffset();
+        numDataBytes = ckSize;
         if (ifLoadData) {
             byteData = new byte[ckSize];
             numRead = parser.read(byteData);
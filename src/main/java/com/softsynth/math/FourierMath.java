@@ -16,84 +16,132 @@
 
 package com.softsynth.math;
 
-//Simple Fast Fourier Transform.
+/**
+ * Simple Fast Fourier Transform.
+ * <p>
+ * The transforms are in place. Pairs of radix-2 stages are combined into radix-4 stages, which
+ * uses fewer multiplies and makes half as many passes over the data. The twiddle factors are
+ * calculated once and shared by every size and by all threads. Sizes up to getMaxSize() are
+ * supported.
+ * <p>
+ * The forward transform is scaled by 2/n so that a sine wave with an amplitude of 1.0 has a
+ * magnitude of 1.0 in its bin. The inverse transform is scaled by 0.5 so that it undoes the
+ * forward transform.
+ * <p>
+ * Use fftReal() and ifftReal() for real signals. They use a complex FFT of half the size.
+ */
 public class FourierMath {
-    static private final int MAX_SIZE_LOG_2 = 16;
-    static BitReverseTable[] reverseTables = new BitReverseTable[MAX_SIZE_LOG_2];
-    static DoubleSineTable[] sineTables = new DoubleSineTable[MAX_SIZE_LOG_2];
-    static FloatSineTable[] floatSineTables = new FloatSineTable[MAX_SIZE_LOG_2];
-
-    private static class DoubleSineTable {
-        double[] sineValues;
-
-        DoubleSineTable(int numBits) {
-            int len = 1 << numBits;
-            sineValues = new double[1 << numBits];
-            for (int i = 0; i < len; i++) {
-                sineValues[i] = Math.sin((i * Math.PI * 2.0) / len);
+    static private final int MAX_SIZE_LOG_2 = 24;
+
+    // Shared twiddle factors. Replaced by a larger set when needed.
+    private static volatile Twiddles twiddles = new Twiddles(4);
+
+    /**
+     * Holds e^(i*PI*k/m) at index (m + k) for every power of 2 m and every k less than m. So the
+     * twiddle factors for each stage are contiguous and shared by every size.
+     */
+    private static final class Twiddles {
+        final int size;
+        final double[] cosines;
+        final double[] sines;
+        final float[] floatCosines;
+        final float[] floatSines;
+
+        Twiddles(int size) {
+            this.size = size;
+            cosines = new double[size];
+            sines = new double[size];
+            for (int m = 1; m < size; m *= 2) {
+                for (int k = 0; k < m; k++) {
+                    double angle = (Math.PI * k) / m;
+                    cosines[m + k] = Math.cos(angle);
+                    sines[m + k] = Math.sin(angle);
+                }
             }
+            floatCosines = toFloats(cosines);
+            floatSines = toFloats(sines);
         }
-    }
 
-    private static double[] getDoubleSineTable(int n) {
-        DoubleSineTable sineTable = sineTables[n];
-        if (sineTable == null) {
-            sineTable = new DoubleSineTable(n);
-            sineTables[n] = sineTable;
+        /** Take the factors from one cycle of a sine wave without calling Math.sin(). */
+        Twiddles(double[] sineTable) {
+            size = sineTable.length;
+            cosines = new double[size];
+            sines = new double[size];
+            int mask = size - 1;
+            int cosineOffset = size / 4;
+            for (int m = 1; m < size; m *= 2) {
+                int stride = size / (2 * m);
+                for (int k = 0; k < m; k++) {
+                    int index = k * stride;
+                    cosines[m + k] = sineTable[(index + cosineOffset) & mask];
+                    sines[m + k] = sineTable[index];
+                }
+            }
+            floatCosines = toFloats(cosines);
+            floatSines = toFloats(sines);
         }
-        return sineTable.sineValues;
-    }
 
-    private static class FloatSineTable {
-        float[] sineValues;
-
-        FloatSineTable(int numBits) {
-            int len = 1 << numBits;
-            sineValues = new float[1 << numBits];
-            for (int i = 0; i < len; i++) {
-                sineValues[i] = (float) Math.sin((i * Math.PI * 2.0) / len);
+        private static float[] toFloats(double[] values) {
+            float[] result = new float[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = (float) values[i];
             }
+            return result;
         }
     }
 
-    private static float[] getFloatSineTable(int n) {
-        FloatSineTable sineTable = floatSineTables[n];
-        if (sineTable == null) {
-            sineTable = new FloatSineTable(n);
-            floatSineTables[n] = sineTable;
+    private static Twiddles getTwiddles(int n) {
+        Twiddles current = twiddles;
+        if (current.size < n) {
+            current = growTwiddles(n);
         }
-        return sineTable.sineValues;
+        return current;
     }
 
-    private static class BitReverseTable {
-        int[] reversedBits;
-
-        BitReverseTable(int numBits) {
-            reversedBits = new int[1 << numBits];
-            for (int i = 0; i < reversedBits.length; i++) {
-                reversedBits[i] = reverseBits(i, numBits);
-            }
+    private static synchronized Twiddles growTwiddles(int n) {
+        if (twiddles.size < n) {
+            twiddles = new Twiddles(n);
         }
+        return twiddles;
+    }
 
-        static int reverseBits(int index, int numBits) {
-            int i, rev;
+    /** @return the largest size that can be transformed */
+    public static int getMaxSize() {
+        return 1 << MAX_SIZE_LOG_2;
+    }
 
-            for (i = rev = 0; i < numBits; i++) {
-                rev = (rev << 1) | (index & 1);
-                index >>= 1;
-            }
+    /**
+     * Build the tables for every size up to maxSize. Otherwise they are built by the first
+     * transform that needs them, which might be in the audio thread.
+     *
+     * @param maxSize largest size that will be used, a power of 2
+     */
+    public static void warmUp(int maxSize) {
+        getTwiddles(Math.min(maxSize, getMaxSize()));
+    }
 
-            return rev;
+    /**
+     * @param size a power of 2
+     * @return a new table with one cycle of a sine wave
+     */
+    public static double[] getSineTable(int size) {
+        double[] sineValues = new double[size];
+        for (int i = 0; i < size; i++) {
+            sineValues[i] = Math.sin((i * Math.PI * 2.0) / size);
         }
+        return sineValues;
     }
 
-    private static int[] getReverseTable(int n) {
-        BitReverseTable reverseTable = reverseTables[n];
-        if (reverseTable == null) {
-            reverseTable = new BitReverseTable(n);
-            reverseTables[n] = reverseTable;
+    /**
+     * Use a sine table that was calculated earlier, for example loaded from a file. The twiddle
+     * factors for every size up to the length of the table are taken from it.
+     *
+     * @param sineValues one cycle of a sine wave, the length must be a power of 2
+     */
+    public static synchronized void setSineTable(double[] sineValues) {
+        if (sineValues.length > twiddles.size) {
+            twiddles = new Twiddles(sineValues);
         }
-        return reverseTable.reversedBits;
     }
 
     /**
@@ -122,97 +170,372 @@ public class FourierMath {
         }
     }
 
+    private static void checkSize(int n) {
+        if (n > getMaxSize()) {
+            throw new IllegalArgumentException("FFT size " + n + " is larger than "
+                    + getMaxSize());
+        }
+    }
+
+    /**
+     * Transform in place.
+     *
+     * @param sign 1 for a forward transform, -1 for an inverse transform
+     * @param n size, a power of 2
+     */
     public static void transform(int sign, int n, double ar[], double ai[]) {
         double scale = (sign > 0) ? (2.0 / n) : (0.5);
+        transformUnscaled(sign, n, ar, ai, scale);
+    }
 
-        int numBits = FourierMath.numBits(n);
-        int[] reverseTable = getReverseTable(numBits);
-        double[] sineTable = getDoubleSineTable(numBits);
-        int mask = n - 1;
-        int cosineOffset = n / 4; // phase offset between cos and sin
+    /**
+     * Reorder the data, multiply it by the scale, then run the butterflies.
+     */
+    private static void transformUnscaled(int sign, int n, double ar[], double ai[],
+            double scale) {
+        checkSize(n);
+        getTwiddles(n);
+        bitReverse(n, ar, ai, scale, 0, n);
+        int m = 1;
+        if ((numBits(n) & 1) != 0) {
+            radix2Stage(n, ar, ai, 0, n / 2);
+            m = 2;
+        }
+        for (; m < n; m *= 4) {
+            radix4Stage(sign, n, m, ar, ai, 0, n / 4);
+        }
+    }
+
+    /*
+     * The passes below each do part of a transform so that the work can be spread over time, see
+     * StagedRealFFT. A pass over the full range does the whole job.
+     */
 
-        int i, j;
-        for (i = 0; i < n; i++) {
-            j = reverseTable[i];
-            if (j >= i) {
+    /**
+     * Swap elements into bit reversed order and multiply them by the scale.
+     *
+     * @param from first index to consider
+     * @param to one past the last index
+     */
+    static void bitReverse(int n, double ar[], double ai[], double scale, int from, int to) {
+        int numBits = numBits(n);
+        // The reversed index j is incremented from the top bit down.
+        int j = (numBits == 0) ? 0 : (Integer.reverse(from) >>> (32 - numBits));
+        for (int i = from; i < to; i++) {
+            if (j > i) {
                 double tempr = ar[j] * scale;
                 double tempi = ai[j] * scale;
                 ar[j] = ar[i] * scale;
                 ai[j] = ai[i] * scale;
                 ar[i] = tempr;
                 ai[i] = tempi;
+            } else if (j == i) {
+                ar[i] *= scale;
+                ai[i] *= scale;
+            }
+            int bit = n >> 1;
+            while ((bit > 0) && ((j & bit) != 0)) {
+                j ^= bit;
+                bit >>= 1;
             }
+            j |= bit;
         }
+    }
 
-        int mmax, stride;
-        int numerator = sign * n;
-        for (mmax = 1, stride = 2 * mmax; mmax < n; mmax = stride, stride = 2 * mmax) {
-            int phase = 0;
-            int phaseIncrement = numerator / (2 * mmax);
-            for (int m = 0; m < mmax; ++m) {
-                double wr = sineTable[(phase + cosineOffset) & mask]; // cosine
-                double wi = sineTable[phase];
-
-                for (i = m; i < n; i += stride) {
-                    j = i + mmax;
-                    double tr = (wr * ar[j]) - (wi * ai[j]);
-                    double ti = (wr * ai[j]) + (wi * ar[j]);
-                    ar[j] = ar[i] - tr;
-                    ai[j] = ai[i] - ti;
-                    ar[i] += tr;
-                    ai[i] += ti;
-                }
+    /**
+     * The first stage when log2(n) is odd, so the rest can be radix-4.
+     *
+     * @param from first butterfly, there are n/2
+     * @param to one past the last butterfly
+     */
+    static void radix2Stage(int n, double ar[], double ai[], int from, int to) {
+        for (int b = from; b < to; b++) {
+            int i = 2 * b;
+            double tr = ar[i + 1];
+            double ti = ai[i + 1];
+            ar[i + 1] = ar[i] - tr;
+            ai[i + 1] = ai[i] - ti;
+            ar[i] += tr;
+            ai[i] += ti;
+        }
+    }
 
-                phase = (phase + phaseIncrement) & mask;
+    /**
+     * Combine four transforms of size m into transforms of size 4m. The butterflies are numbered
+     * so that all of the butterflies that use the same twiddle factors are together.
+     *
+     * @param from first butterfly, there are n/4
+     * @param to one past the last butterfly
+     */
+    static void radix4Stage(int sign, int n, int m, double ar[], double ai[], int from,
+            int to) {
+        Twiddles factors = getTwiddles(n);
+        final double[] cosines = factors.cosines;
+        final double[] sines = factors.sines;
+        int stride = 4 * m;
+        int numGroups = n / stride;
+        int b = from;
+        while (b < to) {
+            int k = b / numGroups;
+            int groupEnd = Math.min(to, (k + 1) * numGroups);
+            // W^k, W^2k and W^3k where W = e^(sign*i*2*PI/(4m))
+            double w1r = cosines[(2 * m) + k];
+            double w1i = sign * sines[(2 * m) + k];
+            double w2r = cosines[m + k];
+            double w2i = sign * sines[m + k];
+            double w3r = (w1r * w2r) - (w1i * w2i);
+            double w3i = (w1r * w2i) + (w1i * w2r);
+
+            int iEnd = k + ((groupEnd - (k * numGroups)) * stride);
+            for (int i0 = k + ((b - (k * numGroups)) * stride); i0 < iEnd; i0 += stride) {
+                int i1 = i0 + m;
+                int i2 = i1 + m;
+                int i3 = i2 + m;
+                // The bit reversal leaves the odd quarter in the third position.
+                double br = (w1r * ar[i2]) - (w1i * ai[i2]);
+                double bi = (w1r * ai[i2]) + (w1i * ar[i2]);
+                double cr = (w2r * ar[i1]) - (w2i * ai[i1]);
+                double ci = (w2r * ai[i1]) + (w2i * ar[i1]);
+                double dr = (w3r * ar[i3]) - (w3i * ai[i3]);
+                double di = (w3r * ai[i3]) + (w3i * ar[i3]);
+
+                double s0r = ar[i0] + cr;
+                double s0i = ai[i0] + ci;
+                double s1r = ar[i0] - cr;
+                double s1i = ai[i0] - ci;
+                double s2r = br + dr;
+                double s2i = bi + di;
+                // Multiply (B - D) by sign*i.
+                double s3r = sign * (di - bi);
+                double s3i = sign * (br - dr);
+
+                ar[i0] = s0r + s2r;
+                ai[i0] = s0i + s2i;
+                ar[i2] = s0r - s2r;
+                ai[i2] = s0i - s2i;
+                ar[i1] = s1r + s3r;
+                ai[i1] = s1i + s3i;
+                ar[i3] = s1r - s3r;
+                ai[i3] = s1i - s3i;
             }
-            mmax = stride;
+            b = groupEnd;
         }
     }
 
+    /**
+     * Transform in place.
+     *
+     * @param sign 1 for a forward transform, -1 for an inverse transform
+     * @param n size, a power of 2
+     */
     public static void transform(int sign, int n, float ar[], float ai[]) {
         float scale = (sign > 0) ? (2.0f / n) : (0.5f);
+        checkSize(n);
+        Twiddles factors = getTwiddles(n);
+        final float[] cosines = factors.floatCosines;
+        final float[] sines = factors.floatSines;
 
-        int numBits = FourierMath.numBits(n);
-        int[] reverseTable = getReverseTable(numBits);
-        float[] sineTable = getFloatSineTable(numBits);
-        int mask = n - 1;
-        int cosineOffset = n / 4; // phase offset between cos and sin
-
-        int i, j;
-        for (i = 0; i < n; i++) {
-            j = reverseTable[i];
-            if (j >= i) {
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (j > i) {
                 float tempr = ar[j] * scale;
                 float tempi = ai[j] * scale;
                 ar[j] = ar[i] * scale;
                 ai[j] = ai[i] * scale;
                 ar[i] = tempr;
                 ai[i] = tempi;
+            } else if (j == i) {
+                ar[i] *= scale;
+                ai[i] *= scale;
+            }
+            int bit = n >> 1;
+            while ((bit > 0) && ((j & bit) != 0)) {
+                j ^= bit;
+                bit >>= 1;
             }
+            j |= bit;
         }
 
-        int mmax, stride;
-        int numerator = sign * n;
-        for (mmax = 1, stride = 2 * mmax; mmax < n; mmax = stride, stride = 2 * mmax) {
-            int phase = 0;
-            int phaseIncrement = numerator / (2 * mmax);
-            for (int m = 0; m < mmax; ++m) {
-                float wr = sineTable[(phase + cosineOffset) & mask]; // cosine
-                float wi = sineTable[phase];
-
-                for (i = m; i < n; i += stride) {
-                    j = i + mmax;
-                    float tr = (wr * ar[j]) - (wi * ai[j]);
-                    float ti = (wr * ai[j]) + (wi * ar[j]);
-                    ar[j] = ar[i] - tr;
-                    ai[j] = ai[i] - ti;
-                    ar[i] += tr;
-                    ai[i] += ti;
-                }
+        int m = 1;
+        if ((numBits(n) & 1) != 0) {
+            for (int i = 0; i < n; i += 2) {
+                float tr = ar[i + 1];
+                float ti = ai[i + 1];
+                ar[i + 1] = ar[i] - tr;
+                ai[i + 1] = ai[i] - ti;
+                ar[i] += tr;
+                ai[i] += ti;
+            }
+            m = 2;
+        }
 
-                phase = (phase + phaseIncrement) & mask;
+        for (; m < n; m *= 4) {
+            int stride = 4 * m;
+            for (int k = 0; k < m; k++) {
+                float w1r = cosines[(2 * m) + k];
+                float w1i = sign * sines[(2 * m) + k];
+                float w2r = cosines[m + k];
+                float w2i = sign * sines[m + k];
+                float w3r = (w1r * w2r) - (w1i * w2i);
+                float w3i = (w1r * w2i) + (w1i * w2r);
+
+                for (int i0 = k; i0 < n; i0 += stride) {
+                    int i1 = i0 + m;
+                    int i2 = i1 + m;
+                    int i3 = i2 + m;
+                    float br = (w1r * ar[i2]) - (w1i * ai[i2]);
+                    float bi = (w1r * ai[i2]) + (w1i * ar[i2]);
+                    float cr = (w2r * ar[i1]) - (w2i * ai[i1]);
+                    float ci = (w2r * ai[i1]) + (w2i * ar[i1]);
+                    float dr = (w3r * ar[i3]) - (w3i * ai[i3]);
+                    float di = (w3r * ai[i3]) + (w3i * ar[i3]);
+
+                    float s0r = ar[i0] + cr;
+                    float s0i = ai[i0] + ci;
+                    float s1r = ar[i0] - cr;
+                    float s1i = ai[i0] - ci;
+                    float s2r = br + dr;
+                    float s2i = bi + di;
+                    float s3r = sign * (di - bi);
+                    float s3i = sign * (br - dr);
+
+                    ar[i0] = s0r + s2r;
+                    ai[i0] = s0i + s2i;
+                    ar[i2] = s0r - s2r;
+                    ai[i2] = s0i - s2i;
+                    ar[i1] = s1r + s3r;
+                    ai[i1] = s1i + s3i;
+                    ar[i3] = s1r - s3r;
+                    ai[i3] = s1i - s3i;
+                }
             }
-            mmax = stride;
+        }
+    }
+
+    /**
+     * Forward FFT of real data. This packs the n real values into n/2 complex values and does a
+     * complex FFT of half the size, so it is about twice as fast as transform() with a zero
+     * imaginary part. The result and scaling match fft().
+     * <p>
+     * Only bins 0 to n/2 are calculated. For real input the other bins are the complex conjugates,
+     * bin (n - k) is the conjugate of bin k.
+     *
+     * @param n number of real values, a power of 2
+     * @param input real values, can be the same array as ar
+     * @param ar receives the real part of bins 0 to n/2, needs room for n/2 + 1 values
+     * @param ai receives the imaginary part of bins 0 to n/2, needs room for n/2 + 1 values
+     */
+    public static void fftReal(int n, double[] input, double[] ar, double[] ai) {
+        int half = n / 2;
+        // Even samples become the real part, odd samples the imaginary part.
+        for (int i = 0; i < half; i++) {
+            ar[i] = input[2 * i];
+            ai[i] = input[(2 * i) + 1];
+        }
+        transformUnscaled(1, half, ar, ai, 1.0);
+        // Split into the transforms of the even and odd samples, then combine them.
+        realForwardPass(n, ar, ai, 0, (half / 2) + 1);
+    }
+
+    /**
+     * Split the transform of the packed real data into the transforms of the even and odd samples,
+     * then combine them into bins k and n/2 - k.
+     *
+     * @param from first k, k goes from 0 to n/4
+     * @param to one past the last k
+     */
+    static void realForwardPass(int n, double[] ar, double[] ai, int from, int to) {
+        int half = n / 2;
+        Twiddles factors = getTwiddles(n);
+        final double[] cosines = factors.cosines;
+        final double[] sines = factors.sines;
+        double scale = 2.0 / n;
+        int k = from;
+        if (k == 0) {
+            double z0r = ar[0];
+            double z0i = ai[0];
+            ar[0] = (z0r + z0i) * scale;
+            ai[0] = 0.0;
+            ar[half] = (z0r - z0i) * scale;
+            ai[half] = 0.0;
+            k++;
+        }
+        for (; k < to; k++) {
+            int j = half - k;
+            double evenR = 0.5 * (ar[k] + ar[j]);
+            double evenI = 0.5 * (ai[k] - ai[j]);
+            double oddR = 0.5 * (ai[k] + ai[j]);
+            double oddI = -0.5 * (ar[k] - ar[j]);
+            double wr = cosines[half + k];
+            double wi = sines[half + k];
+            double tr = (wr * oddR) - (wi * oddI);
+            double ti = (wr * oddI) + (wi * oddR);
+            ar[k] = (evenR + tr) * scale;
+            ai[k] = (evenI + ti) * scale;
+            // Bin j uses the conjugates.
+            ar[j] = (evenR - tr) * scale;
+            ai[j] = -(evenI - ti) * scale;
+        }
+    }
+
+    /**
+     * Inverse FFT that produces real data. The spectrum is assumed to be conjugate symmetric, as
+     * it is for a real signal, so only bins 0 to n/2 are used. The result and scaling match the
+     * real part of ifft().
+     *
+     * @param n number of real values, a power of 2
+     * @param ar real part of bins 0 to n/2, overwritten
+     * @param ai imaginary part of bins 0 to n/2, overwritten
+     * @param output receives n real values, can be the same array as ar
+     */
+    public static void ifftReal(int n, double[] ar, double[] ai, double[] output) {
+        int half = n / 2;
+        realInversePass(n, ar, ai, 0, (half / 2) + 1);
+        transformUnscaled(-1, half, ar, ai, 1.0);
+        // Unpack from the top down so that output can be the same array as ar.
+        for (int i = half - 1; i >= 0; i--) {
+            double even = ar[i];
+            output[(2 * i) + 1] = ai[i];
+            output[2 * i] = even;
+        }
+    }
+
+    /**
+     * Pack bins k and n/2 - k of a real signal into the complex values that an inverse transform
+     * of size n/2 turns into the even and odd samples.
+     *
+     * @param from first k, k goes from 0 to n/4
+     * @param to one past the last k
+     */
+    static void realInversePass(int n, double[] ar, double[] ai, int from, int to) {
+        int half = n / 2;
+        Twiddles factors = getTwiddles(n);
+        final double[] cosines = factors.cosines;
+        final double[] sines = factors.sines;
+        int k = from;
+        if (k == 0) {
+            double first = ar[0];
+            double last = ar[half];
+            ar[0] = 0.5 * (first + last);
+            ai[0] = 0.5 * (first - last);
+            k++;
+        }
+        for (; k < to; k++) {
+            int j = half - k;
+            double evenR = 0.5 * (ar[k] + ar[j]);
+            double evenI = 0.5 * (ai[k] - ai[j]);
+            double diffR = 0.5 * (ar[k] - ar[j]);
+            double diffI = 0.5 * (ai[k] + ai[j]);
+            // Multiply by the inverse twiddle factor.
+            double wr = cosines[half + k];
+            double wi = -sines[half + k];
+            double oddR = (wr * diffR) - (wi * diffI);
+            double oddI = (wr * diffI) + (wi * diffR);
+            // Pack as even + i*odd. Bin j uses the conjugates.
+            ar[k] = evenR - oddI;
+            ai[k] = evenI + oddR;
+            ar[j] = evenR + oddI;
+            ai[j] = oddR - evenI;
         }
     }
 
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.softsynth.math;
+
+/**
+ * An FFT of real data that can be done a little at a time. This spreads the cost of a large
+ * transform over many audio blocks instead of doing it all in one block, which would cause a spike
+ * in the CPU load.
+ * <p>
+ * Call begin() to start a transform, then call step() regularly until isDone() returns true. The
+ * work is measured in arbitrary units of similar cost. getTotalWork() gives the number of units in
+ * one transform.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see StagedRealFFT
+ * @see StagedRealIFFT
+ */
+public abstract class StagedFFT {
+    private static final int FIRST = 0;
+    private static final int BIT_REVERSE = 1;
+    private static final int RADIX_2 = 2;
+    private static final int RADIX_4 = 3;
+    private static final int LAST = 4;
+
+    private final int size;
+    private final int sign;
+    private final int[] passKinds;
+    private final int[] passLengths;
+    // Size of the transforms combined by each radix-4 stage.
+    private final int[] passSpans;
+    private final int totalWork;
+    private int pass;
+    private int cursor;
+    // Work space for the complex FFT of half the size.
+    protected final double[] ar;
+    protected final double[] ai;
+
+    /**
+     * @param size number of real values, a power of 2
+     * @param sign 1 for a forward transform, -1 for an inverse transform
+     * @param firstLength work in the pass before the complex FFT
+     * @param lastLength work in the pass after the complex FFT
+     * @param scratchSize size of the work space
+     */
+    StagedFFT(int size, int sign, int firstLength, int lastLength, int scratchSize) {
+        if ((size < 2) || ((size & (size - 1)) != 0) || (size > FourierMath.getMaxSize())) {
+            throw new IllegalArgumentException("FFT size must be a power of 2, not " + size);
+        }
+        this.size = size;
+        this.sign = sign;
+        ar = new double[scratchSize];
+        ai = new double[scratchSize];
+        FourierMath.warmUp(size);
+
+        int half = size / 2;
+        int halfBits = FourierMath.numBits(half);
+        int numPasses = 3 + (halfBits & 1) + (halfBits / 2);
+        passKinds = new int[numPasses];
+        passLengths = new int[numPasses];
+        passSpans = new int[numPasses];
+        int index = 0;
+        passKinds[index] = FIRST;
+        passLengths[index++] = firstLength;
+        passKinds[index] = BIT_REVERSE;
+        passLengths[index++] = half;
+        int span = 1;
+        if ((halfBits & 1) != 0) {
+            passKinds[index] = RADIX_2;
+            passLengths[index++] = half / 2;
+            span = 2;
+        }
+        while (index < (numPasses - 1)) {
+            passKinds[index] = RADIX_4;
+            passSpans[index] = span;
+            passLengths[index++] = half / 4;
+            span *= 4;
+        }
+        passKinds[index] = LAST;
+        passLengths[index] = lastLength;
+
+        int sum = 0;
+        for (int length : passLengths) {
+            sum += length;
+        }
+        totalWork = sum;
+        pass = numPasses;
+    }
+
+    /** @return number of real values */
+    public int getSize() {
+        return size;
+    }
+
+    /** @return number of work units in one transform */
+    public int getTotalWork() {
+        return totalWork;
+    }
+
+    /** @return true if the last transform has finished, or none was started */
+    public boolean isDone() {
+        return pass >= passKinds.length;
+    }
+
+    /** Called by begin() in the subclasses. */
+    void start() {
+        pass = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Do part of the transform.
+     *
+     * @param work maximum number of units of work to do
+     * @return number of units done, less than work if the transform finished
+     */
+    public int step(int work) {
+        int remaining = work;
+        while ((remaining > 0) && !isDone()) {
+            int length = passLengths[pass];
+            int end = (int) Math.min(length, ((long) cursor) + remaining);
+            runPass(pass, cursor, end);
+            remaining -= end - cursor;
+            cursor = end;
+            if (cursor >= length) {
+                pass++;
+                cursor = 0;
+            }
+        }
+        return work - remaining;
+    }
+
+    /** Do whatever work is left. */
+    public void finish() {
+        step(Integer.MAX_VALUE);
+    }
+
+    private void runPass(int pass, int from, int to) {
+        int half = size / 2;
+        switch (passKinds[pass]) {
+            case FIRST:
+                runFirstPass(from, to);
+                break;
+            case BIT_REVERSE:
+                FourierMath.bitReverse(half, ar, ai, 1.0, from, to);
+                break;
+            case RADIX_2:
+                FourierMath.radix2Stage(half, ar, ai, from, to);
+                break;
+            case RADIX_4:
+                FourierMath.radix4Stage(sign, half, passSpans[pass], ar, ai, from, to);
+                break;
+            default:
+                runLastPass(from, to);
+                break;
+        }
+    }
+
+    /** Prepare the data for the complex FFT. */
+    abstract void runFirstPass(int from, int to);
+
+    /** Produce the results from the complex FFT. */
+    abstract void runLastPass(int from, int to);
+}
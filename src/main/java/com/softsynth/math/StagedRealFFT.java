@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.softsynth.math;
+
+/**
+ * Forward FFT of real data that can be done a little at a time. The result matches
+ * FourierMath.fft() of the same data, including the upper half of the spectrum.
+ *
+ * <pre>
+ * <code>
+ *     fft.begin(samples);
+ *     // then in each audio block
+ *     fft.step(workPerBlock);
+ *     if (fft.isDone()) {
+ *         useSpectrum(fft.getReal(), fft.getImaginary());
+ *     }
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class StagedRealFFT extends StagedFFT {
+    private double[] input;
+
+    /**
+     * @param size number of real values, a power of 2
+     */
+    public StagedRealFFT(int size) {
+        super(size, 1, size / 2, (size / 4) + 1, size);
+    }
+
+    /**
+     * Start a new transform. Any transform in progress is abandoned.
+     *
+     * @param input real values, must not be changed until the transform is done
+     */
+    public void begin(double[] input) {
+        this.input = input;
+        start();
+    }
+
+    /** @return real part of all of the bins, valid when isDone() */
+    public double[] getReal() {
+        return ar;
+    }
+
+    /** @return imaginary part of all of the bins, valid when isDone() */
+    public double[] getImaginary() {
+        return ai;
+    }
+
+    @Override
+    void runFirstPass(int from, int to) {
+        // Even samples become the real part, odd samples the imaginary part.
+        for (int i = from; i < to; i++) {
+            ar[i] = input[2 * i];
+            ai[i] = input[(2 * i) + 1];
+        }
+    }
+
+    @Override
+    void runLastPass(int from, int to) {
+        int size = getSize();
+        int half = size / 2;
+        FourierMath.realForwardPass(size, ar, ai, from, to);
+        // Fill in the upper half with the complex conjugates.
+        for (int k = Math.max(1, from); k < to; k++) {
+            int j = half - k;
+            ar[size - k] = ar[k];
+            ai[size - k] = -ai[k];
+            if (j != k) {
+                ar[size - j] = ar[j];
+                ai[size - j] = -ai[j];
+            }
+        }
+    }
+}
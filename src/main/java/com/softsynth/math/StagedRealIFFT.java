@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.softsynth.math;
+
+/**
+ * Inverse FFT producing real data that can be done a little at a time. The result matches the real
+ * part of FourierMath.ifft() of the same spectrum. Only the conjugate symmetric part of the
+ * spectrum contributes to the real part so that is all that gets transformed.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ * @see StagedRealFFT
+ */
+public class StagedRealIFFT extends StagedFFT {
+    private double[] real;
+    private double[] imaginary;
+    private double[] output;
+
+    /**
+     * @param size number of real values, a power of 2
+     */
+    public StagedRealIFFT(int size) {
+        super(size, -1, (size / 4) + 1, size / 2, (size / 2) + 1);
+    }
+
+    /**
+     * Start a new transform. Any transform in progress is abandoned. The arrays must not be
+     * changed by anything else until the transform is done.
+     *
+     * @param real real part of all of the bins
+     * @param imaginary imaginary part of all of the bins
+     * @param output receives the real values, can not be the same array as real
+     */
+    public void begin(double[] real, double[] imaginary, double[] output) {
+        this.real = real;
+        this.imaginary = imaginary;
+        this.output = output;
+        start();
+    }
+
+    @Override
+    void runFirstPass(int from, int to) {
+        int size = getSize();
+        int half = size / 2;
+        int k = from;
+        if (k == 0) {
+            ar[0] = real[0];
+            ar[half] = real[half];
+            k++;
+        }
+        for (; k < to; k++) {
+            int j = half - k;
+            ar[k] = 0.5 * (real[k] + real[size - k]);
+            ai[k] = 0.5 * (imaginary[k] - imaginary[size - k]);
+            ar[j] = 0.5 * (real[j] + real[size - j]);
+            ai[j] = 0.5 * (imaginary[j] - imaginary[size - j]);
+        }
+        FourierMath.realInversePass(size, ar, ai, from, to);
+    }
+
+    @Override
+    void runLastPass(int from, int to) {
+        for (int i = from; i < to; i++) {
+            output[2 * i] = ar[i];
+            output[(2 * i) + 1] = ai[i];
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.engine;
+
+/**
+ * Element-wise loops over blocks of samples that are shared by the core units and ports.
+ * <p>
+ * This is the version for Java 17 and later in the multi-release jar. It has the same API as the
+ * portable version. When the jdk.incubator.vector module has been added, for example with
+ * <code>--add-modules jdk.incubator.vector</code>, the loops use the Vector API, then finish any
+ * remaining samples one at a time. Otherwise they are the same as the portable loops. Run with
+ * -Djsyn.vector=false to disable the vector code.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public final class BlockKernels {
+    // VectorKernels is only loaded if this is true.
+    private static final boolean VECTORIZED = ModuleLayer.boot()
+            .findModule("jdk.incubator.vector").isPresent()
+            && !"false".equals(System.getProperty("jsyn.vector"));
+
+    private BlockKernels() {
+    }
+
+    /** @return true if the Vector API is being used */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /** out[i] = a[i] + b[i] */
+    public static void add(double[] a, double[] b, double[] out, int start, int limit) {
+        int i = VECTORIZED ? VectorKernels.add(a, b, out, start, limit) : start;
+        for (; i < limit; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    /** out[i] = a[i] * b[i] */
+    public static void multiply(double[] a, double[] b, double[] out, int start, int limit) {
+        int i = VECTORIZED ? VectorKernels.multiply(a, b, out, start, limit) : start;
+        for (; i < limit; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    /** out[i] = (a[i] * b[i]) + c[i] */
+    public static void multiplyAdd(double[] a, double[] b, double[] c, double[] out, int start,
+            int limit) {
+        int i = VECTORIZED ? VectorKernels.multiplyAdd(a, b, c, out, start, limit) : start;
+        for (; i < limit; i++) {
+            out[i] = (a[i] * b[i]) + c[i];
+        }
+    }
+
+    /** sum[i] += a[i] */
+    public static void accumulate(double[] a, double[] sum, int start, int limit) {
+        int i = VECTORIZED ? VectorKernels.accumulate(a, sum, start, limit) : start;
+        for (; i < limit; i++) {
+            sum[i] += a[i];
+        }
+    }
+
+    /** sum[i] += a[i] * b[i] */
+    public static void accumulateProduct(double[] a, double[] b, double[] sum, int start,
+            int limit) {
+        int i = VECTORIZED ? VectorKernels.accumulateProduct(a, b, sum, start, limit) : start;
+        for (; i < limit; i++) {
+            sum[i] += a[i] * b[i];
+        }
+    }
+
+    /**
+     * Linear pan between two outputs.
+     *
+     * @param pans -1.0 for all left, 0.0 for center, +1.0 for all right
+     */
+    public static void pan(double[] inputs, double[] pans, double[] left, double[] right,
+            int start, int limit) {
+        int i = VECTORIZED ? VectorKernels.pan(inputs, pans, left, right, start, limit) : start;
+        for (; i < limit; i++) {
+            double gainB = (pans[i] * 0.5) + 0.5;
+            double gainA = 1.0 - gainB;
+            double inVal = inputs[i];
+            left[i] = inVal * gainA;
+            right[i] = inVal * gainB;
+        }
+    }
+
+    /**
+     * interleaved[offset + (i * stride)] = source[i] for i from 0 to count-1
+     * <p>
+     * Scattering with the Vector API was slower than this loop, so it is not used.
+     */
+    public static void interleave(double[] source, double[] interleaved, int offset, int stride,
+            int count) {
+        for (int i = 0; i < count; i++) {
+            interleaved[offset + (i * stride)] = source[i];
+        }
+    }
+
+    /**
+     * destination[i] = interleaved[offset + (i * stride)] for i from 0 to count-1
+     * <p>
+     * Gathering with the Vector API was slower than this loop for short blocks, so it is not used.
+     */
+    public static void deinterleave(double[] interleaved, int offset, int stride,
+            double[] destination, int count) {
+        for (int i = 0; i < count; i++) {
+            destination[i] = interleaved[offset + (i * stride)];
+        }
+    }
+}
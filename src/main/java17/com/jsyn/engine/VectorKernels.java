@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.engine;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the BlockKernels loops. Each method processes as many whole vectors as
+ * fit and returns the index of the first sample that was not processed. Only the basic add and
+ * multiply operations are used, not fused multiply-add, so the results match the scalar loops
+ * exactly.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorKernels() {
+    }
+
+    static int add(double[] a, double[] b, double[] out, int start, int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            va.add(vb).intoArray(out, i);
+        }
+        return i;
+    }
+
+    static int multiply(double[] a, double[] b, double[] out, int start, int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            va.mul(vb).intoArray(out, i);
+        }
+        return i;
+    }
+
+    static int multiplyAdd(double[] a, double[] b, double[] c, double[] out, int start,
+            int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            DoubleVector vc = DoubleVector.fromArray(SPECIES, c, i);
+            va.mul(vb).add(vc).intoArray(out, i);
+        }
+        return i;
+    }
+
+    static int accumulate(double[] a, double[] sum, int start, int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vs = DoubleVector.fromArray(SPECIES, sum, i);
+            vs.add(va).intoArray(sum, i);
+        }
+        return i;
+    }
+
+    static int accumulateProduct(double[] a, double[] b, double[] sum, int start, int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, i);
+            DoubleVector vs = DoubleVector.fromArray(SPECIES, sum, i);
+            vs.add(va.mul(vb)).intoArray(sum, i);
+        }
+        return i;
+    }
+
+    static int pan(double[] inputs, double[] pans, double[] left, double[] right, int start,
+            int limit) {
+        int i = start;
+        int bound = start + SPECIES.loopBound(limit - start);
+        for (; i < bound; i += LANES) {
+            DoubleVector gainB = DoubleVector.fromArray(SPECIES, pans, i).mul(0.5).add(0.5);
+            DoubleVector gainA = DoubleVector.broadcast(SPECIES, 1.0).sub(gainB);
+            DoubleVector in = DoubleVector.fromArray(SPECIES, inputs, i);
+            in.mul(gainA).intoArray(left, i);
+            in.mul(gainB).intoArray(right, i);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.io;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Ordered access to the counters and flags in a memory-mapped header that is shared with another
+ * process.
+ * <p>
+ * This is the version for Java 17 and later in the multi-release jar. It has the same API as the
+ * portable version but uses VarHandle acquire and release access to the buffer, which orders
+ * memory on every processor. The buffers must use the native byte order.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+final class MappedOrdering {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.nativeOrder());
+
+    private MappedOrdering() {
+    }
+
+    static long getLongAcquire(ByteBuffer buffer, int offset) {
+        return (long) LONGS.getAcquire(buffer, offset);
+    }
+
+    static void putLongRelease(ByteBuffer buffer, int offset, long value) {
+        LONGS.setRelease(buffer, offset, value);
+    }
+
+    static int getIntAcquire(ByteBuffer buffer, int offset) {
+        return (int) INTS.getAcquire(buffer, offset);
+    }
+
+    static void putIntRelease(ByteBuffer buffer, int offset, int value) {
+        INTS.setRelease(buffer, offset, value);
+    }
+}
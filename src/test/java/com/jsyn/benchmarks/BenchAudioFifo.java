@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.jsyn.io.AudioFifo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measure how fast AudioFifo passes samples between two threads, in the locked and lock-free
+ * modes, for several block sizes. Prints millions of samples per second.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchAudioFifo {
+
+    /**
+     * Pass blocks between two threads and report the throughput.
+     */
+    private static double measureThroughput(int fifoSize, int blockSize, int numSamples,
+            boolean lockFree) {
+        final AudioFifo fifo = new AudioFifo(lockFree);
+        fifo.allocate(fifoSize);
+        Thread writer = new Thread(() -> {
+            double[] block = new double[blockSize];
+            int value = 0;
+            while (value < numSamples) {
+                for (int i = 0; i < blockSize; i++) {
+                    block[i] = value++;
+                }
+                if (blockSize == 1) {
+                    fifo.write(block[0]);
+                } else {
+                    fifo.write(block);
+                }
+            }
+        });
+        long startTime = System.nanoTime();
+        writer.start();
+        double[] block = new double[blockSize];
+        int expected = 0;
+        while (expected < numSamples) {
+            if (blockSize == 1) {
+                block[0] = fifo.read();
+            } else {
+                assertEquals(blockSize, fifo.read(block), "read whole block");
+            }
+            for (int i = 0; i < blockSize; i++) {
+                assertEquals(expected++, block[i], 0.0, "data in order");
+            }
+        }
+        double elapsed = (System.nanoTime() - startTime) * 1.0e-9;
+        double samplesPerSecond = numSamples / elapsed;
+        System.out.printf("AudioFifo %s size %6d, block %4d: %8.1f Msamples/sec%n",
+                (lockFree ? "lock-free" : "locked   "), fifoSize, blockSize,
+                samplesPerSecond * 1.0e-6);
+        return samplesPerSecond;
+    }
+
+    @Test
+    public void benchThroughput() {
+        final int numSamples = 4 * 1024 * 1024;
+        for (boolean lockFree : new boolean[] { false, true }) {
+            measureThroughput(32 * 1024, 1, numSamples / 4, lockFree);
+            measureThroughput(32 * 1024, 8, numSamples, lockFree);
+            measureThroughput(32 * 1024, 1024, numSamples, lockFree);
+            measureThroughput(4 * 1024, 1024, numSamples, lockFree);
+        }
+    }
+}
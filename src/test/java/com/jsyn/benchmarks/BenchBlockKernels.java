@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.BlockKernels;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.MixerStereo;
+import com.jsyn.util.PseudoRandom;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare the BlockKernels with plain scalar loops. The loops run over the engine block size and
+ * over a longer array, in nanoseconds per sample. Run with
+ * <code>--add-modules jdk.incubator.vector</code> on Java 17 or later, with the java17 classes
+ * ahead of the main classes, to measure the Vector API versions. Otherwise both columns measure
+ * scalar code.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchBlockKernels {
+    private static final int LONG_LENGTH = 1024;
+    private static final long SAMPLES_PER_TEST = 1L << 26;
+    private static double sink;
+
+    private interface Kernel {
+        void run(int length);
+    }
+
+    private final double[] a;
+    private final double[] b;
+    private final double[] c;
+    private final double[] out;
+    private final double[] out2;
+    private final double[] interleaved;
+
+    public BenchBlockKernels() {
+        PseudoRandom random = new PseudoRandom(1234);
+        a = new double[LONG_LENGTH];
+        b = new double[LONG_LENGTH];
+        c = new double[LONG_LENGTH];
+        out = new double[LONG_LENGTH];
+        out2 = new double[LONG_LENGTH];
+        interleaved = new double[2 * LONG_LENGTH];
+        for (int i = 0; i < LONG_LENGTH; i++) {
+            a[i] = random.nextRandomDouble();
+            b[i] = random.nextRandomDouble();
+            c[i] = random.nextRandomDouble();
+        }
+    }
+
+    private static double nanosPerSample(Kernel kernel, int length) {
+        long numCalls = SAMPLES_PER_TEST / length;
+        // Warm up the JIT.
+        for (long i = 0; i < numCalls; i++) {
+            kernel.run(length);
+        }
+        long startTime = System.nanoTime();
+        for (long i = 0; i < numCalls; i++) {
+            kernel.run(length);
+        }
+        return ((double) (System.nanoTime() - startTime)) / (numCalls * length);
+    }
+
+    private void compare(String name, Kernel scalar, Kernel kernel) {
+        int[] lengths = {
+                Synthesizer.FRAMES_PER_BLOCK, LONG_LENGTH
+        };
+        StringBuilder line = new StringBuilder(String.format("%-18s", name));
+        for (int length : lengths) {
+            double scalarNanos = nanosPerSample(scalar, length);
+            double kernelNanos = nanosPerSample(kernel, length);
+            line.append(String.format("  %5d: %6.3f / %6.3f ns = %5.2fx", length, scalarNanos,
+                    kernelNanos, scalarNanos / kernelNanos));
+        }
+        sink += out[0] + out2[0];
+        System.out.println(line);
+    }
+
+    @Test
+    public void benchKernels() {
+        System.out.println("Scalar / BlockKernels, vectorized = " + BlockKernels.isVectorized());
+        compare("add", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    out[i] = a[i] + b[i];
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.add(a, b, out, 0, length);
+            }
+        });
+        compare("multiplyAdd", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    out[i] = (a[i] * b[i]) + c[i];
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.multiplyAdd(a, b, c, out, 0, length);
+            }
+        });
+        compare("accumulateProduct", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    out[i] += a[i] * b[i];
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.accumulateProduct(a, b, out, 0, length);
+            }
+        });
+        compare("pan", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    double gainB = (b[i] * 0.5) + 0.5;
+                    out[i] = a[i] * (1.0 - gainB);
+                    out2[i] = a[i] * gainB;
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.pan(a, b, out, out2, 0, length);
+            }
+        });
+        compare("interleave", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    interleaved[2 * i] = a[i];
+                    interleaved[(2 * i) + 1] = b[i];
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.interleave(a, interleaved, 0, 2, length);
+                BlockKernels.interleave(b, interleaved, 1, 2, length);
+            }
+        });
+        compare("deinterleave", new Kernel() {
+            @Override
+            public void run(int length) {
+                for (int i = 0; i < length; i++) {
+                    out[i] = interleaved[2 * i];
+                    out2[i] = interleaved[(2 * i) + 1];
+                }
+            }
+        }, new Kernel() {
+            @Override
+            public void run(int length) {
+                BlockKernels.deinterleave(interleaved, 0, 2, out, length);
+                BlockKernels.deinterleave(interleaved, 1, 2, out2, length);
+            }
+        });
+        System.out.println("sink = " + sink);
+    }
+
+    @Test
+    public void benchMixerStereo() {
+        int numInputs = 16;
+        int numBlocks = 400000;
+        MixerStereo mixer = new MixerStereo(numInputs);
+        mixer.setSynthesisEngine(new SynthesisEngine());
+        for (int n = 0; n < numInputs; n++) {
+            System.arraycopy(a, 0, mixer.input.getValues(n), 0, Synthesizer.FRAMES_PER_BLOCK);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (int i = 0; i < numBlocks; i++) {
+                mixer.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+            }
+            long elapsed = System.nanoTime() - startTime;
+            if (pass > 0) {
+                System.out.printf("MixerStereo(%d) %6.1f ns per block, vectorized = %b%n",
+                        numInputs, ((double) elapsed) / numBlocks, BlockKernels.isVectorized());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.dsp.PartitionedConvolver;
+import com.jsyn.util.PseudoRandom;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measure the CPU cost of convolution reverb for impulse responses of several lengths. Costs are
+ * printed as a percentage of one CPU core, and per second of impulse response.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchConvolutionReverb {
+    private static final int FRAME_RATE = 48000;
+    private static final double SECONDS = 4.0;
+    private static final int FRAMES_PER_BLOCK = 8;
+
+    private static float[][] makeImpulse(double seconds) {
+        PseudoRandom randomNum = new PseudoRandom(1234);
+        int length = (int) (seconds * FRAME_RATE);
+        float[][] impulse = new float[2][length];
+        for (float[] channel : impulse) {
+            for (int i = 0; i < length; i++) {
+                channel[i] = (float) (randomNum.nextRandomDouble()
+                        * Math.exp(-6.9 * i / length));
+            }
+        }
+        return impulse;
+    }
+
+    /** @return CPU load of convolving SECONDS of audio, as a fraction of real time */
+    private static double measure(PartitionedConvolver convolver) {
+        double[] input = new double[FRAMES_PER_BLOCK];
+        double[][] outputs = new double[2][FRAMES_PER_BLOCK];
+        int numBlocks = (int) (SECONDS * FRAME_RATE / FRAMES_PER_BLOCK);
+        PseudoRandom randomNum = new PseudoRandom(99);
+        long elapsed = 0;
+        for (int pass = 0; pass < 2; pass++) { // first pass warms up the JIT
+            long startTime = System.nanoTime();
+            for (int b = 0; b < numBlocks; b++) {
+                for (int i = 0; i < FRAMES_PER_BLOCK; i++) {
+                    input[i] = randomNum.nextRandomDouble();
+                }
+                convolver.process(input, outputs, 0, FRAMES_PER_BLOCK);
+            }
+            elapsed = System.nanoTime() - startTime;
+        }
+        return elapsed * 1.0e-9 / SECONDS;
+    }
+
+    private static void report(String name, double seconds, double load) {
+        System.out.printf("  %-22s %5.2f%% CPU, %5.2f%% per second of IR%n", name, load * 100,
+                load * 100 / seconds);
+    }
+
+    @Test
+    public void benchImpulseLengths() {
+        int head = PartitionedConvolver.DEFAULT_HEAD_SIZE;
+        // Compile all of the code paths before measuring.
+        float[][] warmUp = makeImpulse(0.5);
+        measure(new PartitionedConvolver(warmUp, head, head));
+        measure(new PartitionedConvolver(warmUp));
+        for (double seconds = 1.0; seconds <= 4.0; seconds *= 2.0) {
+            float[][] impulse = makeImpulse(seconds);
+            System.out.printf("Stereo impulse response, %3.1f seconds at %d Hz%n", seconds,
+                    FRAME_RATE);
+            report("uniform " + head, seconds,
+                    measure(new PartitionedConvolver(impulse, head, head)));
+            report("uniform 1024", seconds,
+                    measure(new PartitionedConvolver(impulse, 1024, 1024)));
+            report("non-uniform", seconds, measure(new PartitionedConvolver(impulse)));
+            PartitionedConvolver threaded = new PartitionedConvolver(impulse);
+            threaded.setTailThreadEnabled(true);
+            report("non-uniform, thread", seconds, measure(threaded));
+            threaded.close();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.SpectralFFT;
+import com.jsyn.unitgen.SpectralIFFT;
+import com.softsynth.math.FourierMath;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measure the FourierMath transforms against the original radix-2 transform, which is kept here
+ * as a reference. Times are printed in microseconds per transform along with the speedup.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchFFT {
+    private static final int[] SIZES = {
+            256, 2048, 16384, 131072
+    };
+    // Roughly the same number of butterflies for every size.
+    private static final int WORK_PER_SIZE = 1 << 23;
+
+    private interface Transform {
+        void run(int size);
+    }
+
+    /** The radix-2 transform that FourierMath used before the radix-4 kernels. */
+    private static void transformRadix2(int sign, int n, double[] ar, double[] ai,
+            double[] sineTable) {
+        double scale = (sign > 0) ? (2.0 / n) : (0.5);
+        int numBits = FourierMath.numBits(n);
+        int mask = n - 1;
+        int cosineOffset = n / 4;
+        for (int i = 0; i < n; i++) {
+            int j = Integer.reverse(i) >>> (32 - numBits);
+            if (j >= i) {
+                double tempr = ar[j] * scale;
+                double tempi = ai[j] * scale;
+                ar[j] = ar[i] * scale;
+                ai[j] = ai[i] * scale;
+                ar[i] = tempr;
+                ai[i] = tempi;
+            }
+        }
+        int numerator = sign * n;
+        for (int mmax = 1, stride = 2; mmax < n; mmax = stride, stride = 2 * mmax) {
+            int phase = 0;
+            int phaseIncrement = numerator / (2 * mmax);
+            for (int m = 0; m < mmax; ++m) {
+                double wr = sineTable[(phase + cosineOffset) & mask];
+                double wi = sineTable[phase];
+                for (int i = m; i < n; i += stride) {
+                    int j = i + mmax;
+                    double tr = (wr * ar[j]) - (wi * ai[j]);
+                    double ti = (wr * ai[j]) + (wi * ar[j]);
+                    ar[j] = ar[i] - tr;
+                    ai[j] = ai[i] - ti;
+                    ar[i] += tr;
+                    ai[i] += ti;
+                }
+                phase = (phase + phaseIncrement) & mask;
+            }
+        }
+    }
+
+    /** @return microseconds per transform */
+    private static double measure(int size, Transform transform) {
+        int count = Math.max(4, WORK_PER_SIZE / (size * FourierMath.numBits(size)));
+        long elapsed = 0;
+        for (int pass = 0; pass < 3; pass++) { // first passes warm up the JIT
+            long startTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                transform.run(size);
+            }
+            elapsed = System.nanoTime() - startTime;
+        }
+        return elapsed * 1.0e-3 / count;
+    }
+
+    private static double[] makeSignal(int size) {
+        double[] signal = new double[size];
+        for (int i = 0; i < size; i++) {
+            signal[i] = Math.sin(i * 0.1) + (0.5 * Math.sin(i * 0.77));
+        }
+        return signal;
+    }
+
+    @Test
+    public void benchComplexDouble() {
+        System.out.println("Complex double FFT, microseconds per transform");
+        for (int size : SIZES) {
+            final double[] ar = makeSignal(size);
+            final double[] ai = new double[size];
+            final double[] sineTable = FourierMath.getSineTable(size);
+            double radix2 = measure(size, n -> transformRadix2(1, n, ar, ai, sineTable));
+            double radix4 = measure(size, n -> FourierMath.transform(1, n, ar, ai));
+            System.out.printf("%7d: radix-2 %9.2f, radix-4 %9.2f, speedup %5.2f%n", size, radix2,
+                    radix4, radix2 / radix4);
+        }
+    }
+
+    @Test
+    public void benchComplexFloat() {
+        System.out.println("Complex float FFT, microseconds per transform");
+        for (int size : SIZES) {
+            final float[] ar = new float[size];
+            final float[] ai = new float[size];
+            double[] signal = makeSignal(size);
+            for (int i = 0; i < size; i++) {
+                ar[i] = (float) signal[i];
+            }
+            double radix4 = measure(size, n -> FourierMath.transform(1, n, ar, ai));
+            System.out.printf("%7d: radix-4 %9.2f%n", size, radix4);
+        }
+    }
+
+    @Test
+    public void benchReal() {
+        System.out.println("FFT of real data, microseconds per transform");
+        for (int size : SIZES) {
+            final double[] signal = makeSignal(size);
+            final double[] ar = new double[size];
+            final double[] ai = new double[size];
+            final double[] sineTable = FourierMath.getSineTable(size);
+            // How real data was transformed before fftReal().
+            double radix2 = measure(size, n -> {
+                System.arraycopy(signal, 0, ar, 0, n);
+                Arrays.fill(ai, 0.0);
+                transformRadix2(1, n, ar, ai, sineTable);
+            });
+            double complex = measure(size, n -> {
+                System.arraycopy(signal, 0, ar, 0, n);
+                Arrays.fill(ai, 0.0);
+                FourierMath.fft(n, ar, ai);
+            });
+            double real = measure(size, n -> FourierMath.fftReal(n, signal, ar, ai));
+            System.out.printf("%7d: radix-2 %9.2f, complex %9.2f, real %9.2f, speedup %5.2f%n",
+                    size, radix2, complex, real, radix2 / real);
+        }
+    }
+
+    /**
+     * Print the average and peak time for one block of an FFT/IFFT pair. The load repeats every
+     * frame so the peak is the largest of the fastest times seen at each block within a frame.
+     * That filters out interruptions by other threads.
+     */
+    private static void measureBlocks(int sizeLog2, boolean amortized) {
+        SynthesisEngine synth = new SynthesisEngine();
+        SpectralFFT fft = new SpectralFFT(sizeLog2);
+        SpectralIFFT ifft = new SpectralIFFT();
+        fft.setAmortized(amortized);
+        ifft.setAmortized(amortized);
+        synth.add(fft);
+        synth.add(ifft);
+        fft.output.connect(ifft.input);
+        int blockSize = Synthesizer.FRAMES_PER_BLOCK;
+        int blocksPerFrame = (1 << sizeLog2) / blockSize;
+        int numBlocks = 32 * blocksPerFrame;
+        long[] fastest = new long[blocksPerFrame];
+        long total = 0;
+        for (int pass = 0; pass < 2; pass++) { // first pass warms up the JIT
+            Arrays.fill(fastest, Long.MAX_VALUE);
+            total = 0;
+            for (int b = 0; b < numBlocks; b++) {
+                double[] inputs = fft.input.getValues();
+                for (int i = 0; i < blockSize; i++) {
+                    inputs[i] = Math.sin(((b * blockSize) + i) * 0.01);
+                }
+                long startTime = System.nanoTime();
+                fft.generate(0, blockSize);
+                ifft.generate(0, blockSize);
+                long elapsed = System.nanoTime() - startTime;
+                total += elapsed;
+                int phase = b % blocksPerFrame;
+                fastest[phase] = Math.min(fastest[phase], elapsed);
+            }
+        }
+        long peak = 0;
+        for (long elapsed : fastest) {
+            peak = Math.max(peak, elapsed);
+        }
+        System.out.printf("%6d %-9s: average %6.2f, peak %8.2f microseconds per block,"
+                + " added latency %d frames%n", 1 << sizeLog2,
+                amortized ? "amortized" : "direct", total * 1.0e-3 / numBlocks, peak * 1.0e-3,
+                fft.getAddedLatencyFrames() + ifft.getAddedLatencyFrames());
+    }
+
+    @Test
+    public void benchSpectralBlocks() {
+        System.out.println("SpectralFFT and SpectralIFFT");
+        for (int sizeLog2 = 10; sizeLog2 <= 14; sizeLog2 += 2) {
+            measureBlocks(sizeLog2, false);
+            measureBlocks(sizeLog2, true);
+        }
+    }
+
+    @Test
+    public void testReference() {
+        // Make sure the reference computes the same thing.
+        int size = 1024;
+        double[] ar = makeSignal(size);
+        double[] ai = new double[size];
+        double[] br = ar.clone();
+        double[] bi = new double[size];
+        transformRadix2(1, size, ar, ai, FourierMath.getSineTable(size));
+        FourierMath.fft(size, br, bi);
+        for (int i = 0; i < size; i++) {
+            assertEquals(ar[i], br[i], 1.0e-12);
+            assertEquals(ai[i], bi[i], 1.0e-12);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.GrainFarm;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare a GrainFarm using Grain objects with one using allocateHighDensity(). Prints nanoseconds
+ * per grain per frame and the number of grains one core could play at 48000 Hz.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchGrainFarm {
+    private static final int FRAME_RATE = 48000;
+    private static final long GRAIN_FRAMES = 1L << 27;
+    private static double sink;
+
+    private static void measure(int numGrains, boolean highDensity) {
+        SynthesisEngine engine = new SynthesisEngine();
+        GrainFarm farm = new GrainFarm();
+        engine.add(farm);
+        if (highDensity) {
+            farm.allocateHighDensity(numGrains);
+        } else {
+            farm.allocate(numGrains);
+        }
+        // Most grains are running at any time.
+        farm.density.setValueInternal(0.8);
+        farm.duration.setValueInternal(0.05);
+        farm.rateRange.setValueInternal(1.0);
+        long numBlocks = GRAIN_FRAMES / (numGrains * Synthesizer.FRAMES_PER_BLOCK);
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (long b = 0; b < numBlocks; b++) {
+                farm.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+                sink += farm.output.getValues()[0];
+            }
+            if (pass > 0) {
+                double nanos = ((double) (System.nanoTime() - startTime))
+                        / (numBlocks * Synthesizer.FRAMES_PER_BLOCK * numGrains);
+                System.out.printf("%-12s %5d grains: %6.3f ns per grain-frame, "
+                        + "%6.0f grains per core%n", highDensity ? "HighDensity" : "Grain",
+                        numGrains, nanos, 1.0e9 / (nanos * FRAME_RATE));
+            }
+        }
+    }
+
+    @Test
+    public void benchGrainFarm() {
+        measure(100, false);
+        measure(100, true);
+        measure(2000, false);
+        measure(2000, true);
+        measure(8000, true);
+        System.out.println("sink = " + sink);
+    }
+}
@@ -27,12 +27,13 @@ import com.jsyn.unitgen.SineOscillator;
 import com.jsyn.unitgen.SquareOscillator;
 import com.jsyn.unitgen.SquareOscillatorBL;
 import com.jsyn.unitgen.UnitOscillator;
-import com.softsynth.math.FourierMath;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 /**
  * @author Phil Burk (C) 2013 Mobileer Inc
  */
+@Tag("benchmark")
 public class BenchJSyn {
 
     private Synthesizer synth;
@@ -57,8 +58,7 @@ public class BenchJSyn {
         double realTime = 10.0;
         int count = 40;
 
-        // benchFFTDouble();
-        // benchFFTFloat();
+        // FFT benchmarks are in BenchFFT.
         /*
          * realTime = 20.0; benchmarkOscillator(SawtoothOscillator.class, count, realTime);
          * benchmarkOscillator(SawtoothOscillatorDPW.class, count, realTime);
@@ -72,77 +72,6 @@ public class BenchJSyn {
 
     }
 
-    public void benchFFTDouble() {
-        int size = 2048;
-        int bin = 5;
-        int count = 20000;
-        double[] ar = new double[size];
-        double[] ai = new double[size];
-        double[] magnitudes = new double[size];
-
-        double amplitude = 1.0;
-        addSineWave(size, bin, ar, amplitude);
-        System.out.println("Bench double FFT");
-        startTiming();
-        for (int i = 0; i < count; i++) {
-            FourierMath.transform(1, size, ar, ai);
-        }
-
-        endTiming(FourierMath.class, count, size / (2.0 * 44100));
-        FourierMath.calculateMagnitudes(ar, ai, magnitudes);
-
-        assert (magnitudes[bin - 1] < 0.001);
-        assert (magnitudes[bin] > 0.5);
-        assert (magnitudes[bin + 1] < 0.001);
-
-    }
-
-    public void benchFFTFloat() {
-        int size = 2048;
-        int bin = 5;
-        int count = 20000;
-        float[] ar = new float[size];
-        float[] ai = new float[size];
-        float[] magnitudes = new float[size];
-
-        float amplitude = 1.0f;
-        addSineWave(size, bin, ar, amplitude);
-
-        System.out.println("Bench float FFT");
-        startTiming();
-        for (int i = 0; i < count; i++) {
-            FourierMath.transform(1, size, ar, ai);
-        }
-
-        endTiming(FourierMath.class, count, size / (2.0 * 44100));
-        FourierMath.calculateMagnitudes(ar, ai, magnitudes);
-
-        assert (magnitudes[bin - 1] < 0.001);
-        assert (magnitudes[bin] > 0.5);
-        assert (magnitudes[bin + 1] < 0.001);
-
-    }
-
-    private void addSineWave(int size, int bin, double[] ar, double amplitude) {
-        double phase = 0.0;
-        double phaseIncrement = 2.0 * Math.PI * bin / size;
-        for (int i = 0; i < size; i++) {
-            ar[i] += Math.sin(phase) * amplitude;
-            // System.out.println( i + " = " + ar[i] );
-            phase += phaseIncrement;
-        }
-    }
-
-    private void addSineWave(int size, int bin, float[] ar, float amplitude) {
-        float phase = 0.0f;
-        float phaseIncrement = (float) (2.0 * Math.PI * bin / size);
-        for (int i = 0; i < size; i++) {
-            ar[i] += (float) Math.sin(phase) * amplitude;
-            // System.out.println( i + " = " + ar[i] );
-            phase += phaseIncrement;
-        }
-    }
-
     private void stopSynth() {
         synth.stop();
     }
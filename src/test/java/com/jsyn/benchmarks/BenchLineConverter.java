@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import javax.sound.sampled.AudioFormat;
+
+import com.jsyn.devices.javasound.LineConverter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measure the loops that convert between engine buffers and JavaSound line bytes.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchLineConverter {
+    private static final int FRAME_RATE = 48000;
+    private static final int SAMPLES_PER_FRAME = 2;
+    // Same size as the engine's interleaved buffer.
+    private static final int BUFFER_SIZE = 8 * 8 * SAMPLES_PER_FRAME;
+    private static final int NUM_BUFFERS = 400000;
+
+    private static AudioFormat makeFormat(int bits) {
+        if (bits == 32) {
+            return new AudioFormat(AudioFormat.Encoding.PCM_FLOAT, FRAME_RATE, 32,
+                    SAMPLES_PER_FRAME, SAMPLES_PER_FRAME * 4, FRAME_RATE, false);
+        }
+        return new AudioFormat(FRAME_RATE, bits, SAMPLES_PER_FRAME, true, false);
+    }
+
+    private static double[] makeSignal() {
+        double[] samples = new double[BUFFER_SIZE];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.sin(i * 0.1) * 1.1; // some of it clips
+        }
+        return samples;
+    }
+
+    /** The loop JavaSoundAudioDevice used before the converters. */
+    private static void encodeLegacy(double[] buffer, int start, int count, byte[] bytes) {
+        int byteIndex = 0;
+        for (int i = 0; i < count; i++) {
+            double temp = (32767.0 * buffer[i + start]) + 32768.5;
+            int sample = ((int) temp) - 32768;
+            if (sample > Short.MAX_VALUE) {
+                sample = Short.MAX_VALUE;
+            } else if (sample < Short.MIN_VALUE) {
+                sample = Short.MIN_VALUE;
+            }
+            bytes[byteIndex++] = (byte) sample;
+            bytes[byteIndex++] = (byte) (sample >> 8);
+        }
+    }
+
+    private static void report(String name, long nanos) {
+        double seconds = nanos * 1.0e-9;
+        double samplesPerSecond = ((double) NUM_BUFFERS * BUFFER_SIZE) / seconds;
+        System.out.printf("%-16s %8.1f Msamples/sec, %6.0fx real time%n", name,
+                samplesPerSecond * 1.0e-6, samplesPerSecond / (FRAME_RATE * SAMPLES_PER_FRAME));
+    }
+
+    @Test
+    public void testLegacyEncode() {
+        double[] samples = makeSignal();
+        byte[] bytes = new byte[BUFFER_SIZE * 2];
+        for (int pass = 0; pass < 2; pass++) { // first pass warms up the JIT
+            long startTime = System.nanoTime();
+            for (int i = 0; i < NUM_BUFFERS; i++) {
+                encodeLegacy(samples, 0, BUFFER_SIZE, bytes);
+            }
+            if (pass > 0) {
+                report("legacy 16 enc", System.nanoTime() - startTime);
+            }
+        }
+        // Legacy and new 16-bit loops must produce the same bytes.
+        byte[] expected = new byte[bytes.length];
+        LineConverter.forFormat(makeFormat(16)).encode(samples, 0, BUFFER_SIZE, expected);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(expected[i], bytes[i], "byte " + i);
+        }
+    }
+
+    private void benchmark(int bits) {
+        LineConverter converter = LineConverter.forFormat(makeFormat(bits));
+        double[] samples = makeSignal();
+        byte[] bytes = new byte[BUFFER_SIZE * converter.getBytesPerSample()];
+        double[] decoded = new double[BUFFER_SIZE];
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (int i = 0; i < NUM_BUFFERS; i++) {
+                converter.encode(samples, 0, BUFFER_SIZE, bytes);
+            }
+            long encodeNanos = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            for (int i = 0; i < NUM_BUFFERS; i++) {
+                converter.decode(bytes, decoded, 0, BUFFER_SIZE);
+            }
+            long decodeNanos = System.nanoTime() - startTime;
+            if (pass > 0) {
+                report("pcm" + bits + " encode", encodeNanos);
+                report("pcm" + bits + " decode", decodeNanos);
+            }
+        }
+
+        double tolerance = (bits == 32) ? 1.0e-6 : 2.0 / (1 << (bits - 1));
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            double expected = (bits == 32) ? samples[i]
+                    : Math.max(-1.0, Math.min(1.0, samples[i]));
+            // Negative full scale is one step below -1.0.
+            assertEquals(expected, decoded[i], tolerance * 2, "round trip " + i);
+        }
+    }
+
+    @Test
+    public void testPCM16() {
+        benchmark(16);
+    }
+
+    @Test
+    public void testPCM24() {
+        benchmark(24);
+    }
+
+    @Test
+    public void testFloat32() {
+        benchmark(32);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.OscillatorBank;
+import com.jsyn.unitgen.PassThrough;
+import com.jsyn.unitgen.SineOscillator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare an OscillatorBank with the same number of SineOscillators mixed by connecting them to
+ * one input. Prints nanoseconds per partial per frame and the number of partials one core could
+ * play at 48000 Hz.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchOscillatorBank {
+    private static final int FRAME_RATE = 48000;
+    private static final long PARTIAL_FRAMES = 1L << 28;
+    private static double sink;
+
+    private static void report(String name, int numPartials, long elapsed, long numBlocks) {
+        double nanos = ((double) elapsed)
+                / (numBlocks * Synthesizer.FRAMES_PER_BLOCK * numPartials);
+        System.out.printf("%-16s %6d partials: %6.3f ns per partial-frame, "
+                + "%6.0f partials per core%n", name, numPartials, nanos,
+                1.0e9 / (nanos * FRAME_RATE));
+    }
+
+    private static void measureOscillators(int numPartials) {
+        SynthesisEngine engine = new SynthesisEngine();
+        SineOscillator[] oscillators = new SineOscillator[numPartials];
+        PassThrough mixer = new PassThrough();
+        engine.add(mixer);
+        for (int k = 0; k < numPartials; k++) {
+            engine.add(oscillators[k] = new SineOscillator());
+            oscillators[k].frequency.setValueInternal(100.0 + (k * 3.7));
+            oscillators[k].amplitude.setValueInternal(1.0 / numPartials);
+            oscillators[k].output.connect(mixer.input);
+        }
+        long numBlocks = PARTIAL_FRAMES / (numPartials * Synthesizer.FRAMES_PER_BLOCK);
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (long b = 0; b < numBlocks; b++) {
+                for (int k = 0; k < numPartials; k++) {
+                    oscillators[k].generate(0, Synthesizer.FRAMES_PER_BLOCK);
+                }
+                // Mix the oscillators through the InputMixingBlockPart.
+                sink += mixer.input.getValues()[0];
+            }
+            if (pass > 0) {
+                report("SineOscillator", numPartials, System.nanoTime() - startTime, numBlocks);
+            }
+        }
+    }
+
+    private static void measureBank(int numPartials) {
+        SynthesisEngine engine = new SynthesisEngine();
+        OscillatorBank bank = new OscillatorBank(numPartials);
+        engine.add(bank);
+        for (int k = 0; k < numPartials; k++) {
+            bank.setPartial(k, 100.0 + (k * 3.7), 1.0 / numPartials);
+        }
+        long numBlocks = PARTIAL_FRAMES / (numPartials * Synthesizer.FRAMES_PER_BLOCK);
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (long b = 0; b < numBlocks; b++) {
+                bank.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+                sink += bank.output.getValues()[0];
+            }
+            if (pass > 0) {
+                report("OscillatorBank", numPartials, System.nanoTime() - startTime, numBlocks);
+            }
+        }
+    }
+
+    @Test
+    public void benchOscillatorBank() {
+        measureOscillators(1000);
+        measureBank(1000);
+        measureBank(10000);
+        measureBank(40000);
+        System.out.println("sink = " + sink);
+    }
+}
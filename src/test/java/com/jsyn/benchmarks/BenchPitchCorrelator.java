@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.util.AutoCorrelator;
+import com.jsyn.util.FFTAutoCorrelator;
+import com.jsyn.util.SignalCorrelator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare the accuracy and CPU load of the time domain AutoCorrelator and the FFTAutoCorrelator
+ * on harmonic tones. The error is the mean of the absolute error in cents over the confident
+ * results. The load is the percentage of one core needed for one detector at 48000 Hz.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchPitchCorrelator {
+    private static final int FRAME_RATE = 48000;
+    // Same window as PitchDetector uses, 2 cycles of 40 Hz.
+    private static final int WINDOW = 2400;
+    private static final double[] FREQUENCIES = {
+            55.0, 110.0, 233.1, 440.0, 987.8, 1760.0
+    };
+    private static final int SECONDS_PER_TONE = 2;
+
+    private interface Factory {
+        SignalCorrelator create();
+    }
+
+    private static double signal(int i, double frequency) {
+        double phase = 2.0 * Math.PI * frequency * i / FRAME_RATE;
+        return (0.4 * Math.sin(phase)) + (0.3 * Math.sin((2.0 * phase) + 0.5))
+                + (0.2 * Math.sin((3.0 * phase) + 1.0)) + (0.1 * Math.sin(4.0 * phase));
+    }
+
+    private static void measure(String name, Factory factory) {
+        int numSamples = SECONDS_PER_TONE * FRAME_RATE;
+        double[][] tones = new double[FREQUENCIES.length][numSamples];
+        for (int f = 0; f < FREQUENCIES.length; f++) {
+            for (int i = 0; i < numSamples; i++) {
+                tones[f][i] = signal(i, FREQUENCIES[f]);
+            }
+        }
+        // Warm up the JIT.
+        for (int f = 0; f < FREQUENCIES.length; f++) {
+            SignalCorrelator correlator = factory.create();
+            for (int i = 0; i < numSamples; i++) {
+                correlator.addSample(tones[f][i]);
+            }
+        }
+
+        long elapsed = 0;
+        double sumCents = 0.0;
+        int numResults = 0;
+        int numConfident = 0;
+        for (int f = 0; f < FREQUENCIES.length; f++) {
+            SignalCorrelator correlator = factory.create();
+            double expected = FRAME_RATE / FREQUENCIES[f];
+            long startTime = System.nanoTime();
+            for (int i = 0; i < numSamples; i++) {
+                if (correlator.addSample(tones[f][i]) && (i > (2 * WINDOW))) {
+                    numResults++;
+                    if (correlator.getConfidence() > 0.5) {
+                        numConfident++;
+                        double ratio = correlator.getPeriod() / expected;
+                        sumCents += Math.abs(1200.0 * Math.log(ratio) / Math.log(2.0));
+                    }
+                }
+            }
+            elapsed += System.nanoTime() - startTime;
+        }
+        double nanosPerSample = ((double) elapsed) / (numSamples * FREQUENCIES.length);
+        double load = 100.0 * nanosPerSample * FRAME_RATE * 1.0e-9;
+        System.out.printf("%-28s %8.1f ns/sample, %6.3f%% CPU, %7.3f cents, %4d/%4d confident%n",
+                name, nanosPerSample, load, sumCents / Math.max(1, numConfident), numConfident,
+                numResults);
+    }
+
+    @Test
+    public void benchCorrelators() {
+        System.out.println("Pitch correlators, window = " + WINDOW);
+        measure("AutoCorrelator", new Factory() {
+            @Override
+            public SignalCorrelator create() {
+                return new AutoCorrelator(WINDOW);
+            }
+        });
+        int[] hops = {
+                64, 256, 1024
+        };
+        for (final int hop : hops) {
+            measure("FFTAutoCorrelator hop " + hop, new Factory() {
+                @Override
+                public SignalCorrelator create() {
+                    return new FFTAutoCorrelator(WINDOW, hop);
+                }
+            });
+        }
+        // Larger windows are affordable with the FFT.
+        measure("FFTAutoCorrelator 4x window", new Factory() {
+            @Override
+            public SignalCorrelator create() {
+                return new FFTAutoCorrelator(4 * WINDOW, 256);
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.devices.file.FileAudioDevice;
+import com.jsyn.dsp.PolyphaseResampler;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.FilterLowPass;
+import com.jsyn.unitgen.PassThrough;
+import com.jsyn.unitgen.SawtoothOscillatorBL;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare the cost of converting the engine output to the device rate with the time saved by
+ * running a heavy patch at a lower rate. Costs are printed as a percentage of one CPU core.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchResampler {
+    private static final int DEVICE_RATE = 48000;
+    private static final int SAMPLES_PER_FRAME = 2;
+    private static final double SECONDS = 5.0;
+    private static final int NUM_VOICES = 64;
+    // Same size as the engine's interleaved buffer.
+    private static final int FRAMES_PER_BUFFER = 64;
+
+    /** @return CPU load of converting SECONDS of engine output, as a fraction of real time */
+    private double measureResampler(int engineRate, PolyphaseResampler.Quality quality) {
+        PolyphaseResampler resampler = new PolyphaseResampler(engineRate, DEVICE_RATE,
+                SAMPLES_PER_FRAME, quality);
+        double[] input = new double[FRAMES_PER_BUFFER * SAMPLES_PER_FRAME];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = Math.sin(i * 0.1);
+        }
+        double[] output = new double[resampler.getMaxOutputFrames(FRAMES_PER_BUFFER)
+                * SAMPLES_PER_FRAME];
+        int numBuffers = (int) (SECONDS * engineRate / FRAMES_PER_BUFFER);
+        long elapsed = 0;
+        for (int pass = 0; pass < 2; pass++) { // first pass warms up the JIT
+            long startTime = System.nanoTime();
+            for (int i = 0; i < numBuffers; i++) {
+                resampler.process(input, 0, FRAMES_PER_BUFFER, output, 0);
+            }
+            elapsed = System.nanoTime() - startTime;
+        }
+        return elapsed * 1.0e-9 / SECONDS;
+    }
+
+    /** @return CPU load of synthesizing the patch at the given rate, as a fraction of real time */
+    private double measureSynthesis(int frameRate) throws InterruptedException {
+        double load = 0.0;
+        for (int pass = 0; pass < 2; pass++) {
+            SynthesisEngine synth = new SynthesisEngine(new FileAudioDevice());
+            synth.setRealTime(false);
+            PassThrough mixer = new PassThrough();
+            synth.add(mixer);
+            for (int i = 0; i < NUM_VOICES; i++) {
+                SawtoothOscillatorBL osc = new SawtoothOscillatorBL();
+                FilterLowPass filter = new FilterLowPass();
+                synth.add(osc);
+                synth.add(filter);
+                osc.frequency.set(110.0 * (1.0 + (i * 0.01)));
+                filter.frequency.set(2000.0);
+                osc.output.connect(filter.input);
+                filter.output.connect(mixer.input);
+            }
+            synth.start(frameRate);
+            mixer.start();
+            long startTime = System.nanoTime();
+            synth.sleepFor(SECONDS);
+            load = (System.nanoTime() - startTime) * 1.0e-9 / SECONDS;
+            synth.stop();
+        }
+        return load;
+    }
+
+    private void compare(int engineRate) throws InterruptedException {
+        double native48 = measureSynthesis(DEVICE_RATE);
+        double synthesis = measureSynthesis(engineRate);
+        System.out.printf("%d voices: %5.1f%% at %d Hz, %5.1f%% at %d Hz%n", NUM_VOICES,
+                native48 * 100, DEVICE_RATE, synthesis * 100, engineRate);
+        for (PolyphaseResampler.Quality quality : PolyphaseResampler.Quality.values()) {
+            double resampling = measureResampler(engineRate, quality);
+            double total = synthesis + resampling;
+            System.out.printf("  %-6s %d to %d costs %5.2f%%, total %5.1f%%, change %+5.1f%%%n",
+                    quality, engineRate, DEVICE_RATE, resampling * 100, total * 100,
+                    (total - native48) * 100);
+        }
+    }
+
+    @Test
+    public void testRunAt32000() throws InterruptedException {
+        compare(32000);
+    }
+
+    @Test
+    public void testOversampleAt96000() throws InterruptedException {
+        compare(96000);
+    }
+}
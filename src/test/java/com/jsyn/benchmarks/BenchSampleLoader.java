@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.util.SampleLoader;
+import com.jsyn.util.WaveFileWriter;
+import com.jsyn.util.soundfile.SampleFileHeader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compare the original stream based sample loader with the FileChannel path on a large file.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchSampleLoader {
+    private static final int FRAME_RATE = 48000;
+    private static final int SECONDS = 60;
+
+    private File createLargeFile(int bitsPerSample) throws IOException {
+        File temp = File.createTempFile("bench_loader", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        writer.setFrameRate(FRAME_RATE);
+        writer.setSamplesPerFrame(2);
+        writer.setBitsPerSample(bitsPerSample);
+        double[] buffer = new double[FRAME_RATE * 2];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = Math.sin(i * 0.001) * 0.8;
+        }
+        for (int i = 0; i < SECONDS; i++) {
+            writer.write(buffer, 0, buffer.length);
+        }
+        writer.close();
+        return temp;
+    }
+
+    private FloatSample loadFromStream(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return SampleLoader.loadFloatSample(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private FloatSample loadFromMapped(File file) throws IOException {
+        SampleFileHeader header = SampleFileHeader.read(file);
+        float[] floats = new float[header.getNumFrames() * header.getChannelsPerFrame()];
+        header.decode(header.mapData(), header.getNumFrames(), floats, 0);
+        return new FloatSample(floats, header.getChannelsPerFrame());
+    }
+
+    private void benchmark(int bitsPerSample) throws IOException {
+        File file = createLargeFile(bitsPerSample);
+        System.out.printf("%d-bit stereo, %d seconds, %d bytes\n", bitsPerSample, SECONDS,
+                file.length());
+        FloatSample expected = null;
+        for (int i = 0; i < 3; i++) {
+            long startTime = System.nanoTime();
+            expected = loadFromStream(file);
+            long streamTime = System.nanoTime();
+            FloatSample sample = SampleLoader.loadFloatSample(file);
+            long channelTime = System.nanoTime();
+            FloatSample mapped = loadFromMapped(file);
+            long mappedTime = System.nanoTime();
+            System.out.printf("  stream %6.1f msec, channel %6.1f msec, mapped %6.1f msec\n",
+                    (streamTime - startTime) * 1E-6, (channelTime - streamTime) * 1E-6,
+                    (mappedTime - channelTime) * 1E-6);
+            assertEquals(expected.getNumFrames(), sample.getNumFrames(), "numFrames");
+            assertEquals(expected.readDouble(12345), sample.readDouble(12345), "sample data");
+            assertEquals(expected.readDouble(12345), mapped.readDouble(12345), "mapped data");
+        }
+    }
+
+    @Test
+    public void run() throws IOException {
+        benchmark(16);
+        benchmark(24);
+    }
+}
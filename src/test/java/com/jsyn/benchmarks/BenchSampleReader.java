@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.benchmarks;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.MipmapSampleReader;
+import com.jsyn.unitgen.VariableRateMonoReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare linear and sinc interpolation in VariableRateMonoReader, and MipmapSampleReader, at
+ * several playback rates. Prints nanoseconds per output frame.
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+@Tag("benchmark")
+public class BenchSampleReader {
+    private static final int NUM_FRAMES = 1 << 24;
+    private static double sink;
+
+    private static FloatSample createSample() {
+        FloatSample sample = new FloatSample(48000);
+        for (int i = 0; i < sample.getNumFrames(); i++) {
+            sample.writeDouble(i, Math.sin(i * 0.01));
+        }
+        return sample;
+    }
+
+    private static void measure(int zeroCrossings, double ratio) {
+        SynthesisEngine engine = new SynthesisEngine();
+        FloatSample sample = createSample();
+        VariableRateMonoReader reader = new VariableRateMonoReader();
+        engine.add(reader);
+        reader.setSincInterpolation(zeroCrossings);
+        reader.rate.setValueInternal(ratio * engine.getFrameRate());
+        reader.dataQueue.queueLoop(sample);
+        int numBlocks = NUM_FRAMES / Synthesizer.FRAMES_PER_BLOCK;
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (int b = 0; b < numBlocks; b++) {
+                reader.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+                sink += reader.output.getValues()[0];
+            }
+            if (pass > 0) {
+                double nanos = ((double) (System.nanoTime() - startTime)) / NUM_FRAMES;
+                System.out.printf("%-8s rate %4.2f: %6.2f ns per frame%n",
+                        (zeroCrossings == 0) ? "linear" : ("sinc " + zeroCrossings), ratio,
+                        nanos);
+            }
+        }
+    }
+
+    private static void measureMipmap(double ratio) {
+        SynthesisEngine engine = new SynthesisEngine();
+        FloatSample sample = createSample();
+        MipmapSampleReader reader = new MipmapSampleReader();
+        engine.add(reader);
+        reader.rate.setValueInternal(ratio * engine.getFrameRate());
+        reader.play(sample, 0, sample.getNumFrames() - 1);
+        int numBlocks = NUM_FRAMES / Synthesizer.FRAMES_PER_BLOCK;
+        for (int pass = 0; pass < 2; pass++) {
+            long startTime = System.nanoTime();
+            for (int b = 0; b < numBlocks; b++) {
+                reader.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+                sink += reader.output.getValues()[0];
+            }
+            if (pass > 0) {
+                double nanos = ((double) (System.nanoTime() - startTime)) / NUM_FRAMES;
+                System.out.printf("%-8s rate %4.2f: %6.2f ns per frame%n", "mipmap", ratio,
+                        nanos);
+            }
+        }
+    }
+
+    @Test
+    public void benchSampleReader() {
+        double[] ratios = {
+                0.5, 1.0, 3.0, 12.0
+        };
+        for (double ratio : ratios) {
+            measure(0, ratio);
+            measure(4, ratio);
+            measure(8, ratio);
+            measure(16, ratio);
+            measureMipmap(ratio);
+        }
+        System.out.println("sink = " + sink);
+    }
+}
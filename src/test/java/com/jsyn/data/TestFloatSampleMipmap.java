@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestFloatSampleMipmap {
+
+    private static FloatSample makeSine(int numFrames, double cyclesPerFrame) {
+        float[] data = new float[numFrames];
+        for (int i = 0; i < numFrames; i++) {
+            data[i] = (float) Math.sin(2.0 * Math.PI * cyclesPerFrame * i);
+        }
+        FloatSample sample = new FloatSample(data);
+        sample.setFrameRate(48000.0);
+        return sample;
+    }
+
+    private static double rms(FloatSample sample, int start, int end) {
+        double sum = 0.0;
+        for (int i = start; i < end; i++) {
+            double value = sample.readDouble(i);
+            sum += value * value;
+        }
+        return Math.sqrt(sum / (end - start));
+    }
+
+    @Test
+    public void testLevels() {
+        FloatSample sample = makeSine(1000, 0.01);
+        FloatSampleMipmap mipmap = new FloatSampleMipmap(sample);
+        assertEquals(FloatSampleMipmap.MAX_LEVELS, mipmap.getNumLevels(), "levels");
+        assertSame(sample, mipmap.getLevel(0));
+        int numFrames = 1000;
+        double frameRate = 48000.0;
+        for (int level = 1; level < mipmap.getNumLevels(); level++) {
+            numFrames = (numFrames + 1) / 2;
+            frameRate *= 0.5;
+            assertEquals(numFrames, mipmap.getLevel(level).getNumFrames(), "frames " + level);
+            assertEquals(frameRate, mipmap.getLevel(level).getFrameRate(), 0.0, "rate " + level);
+        }
+        // Stops when a level would have fewer than two frames.
+        assertEquals(3, new FloatSampleMipmap(makeSine(5, 0.1)).getNumLevels(), "short");
+    }
+
+    @Test
+    public void testPassBand() {
+        FloatSample sample = makeSine(4000, 0.01);
+        FloatSample level1 = new FloatSampleMipmap(sample).getLevel(1);
+        // Away from the ends, frame i of level 1 matches frame 2i of the original.
+        for (int i = 50; i < 1950; i++) {
+            assertEquals(sample.readDouble(2 * i), level1.readDouble(i), 0.01, "frame " + i);
+        }
+    }
+
+    @Test
+    public void testStopBand() {
+        // 0.35 cycles per frame is above the Nyquist rate of level 1.
+        FloatSample sample = makeSine(4000, 0.35);
+        FloatSampleMipmap mipmap = new FloatSampleMipmap(sample);
+        double passed = rms(mipmap.getLevel(1), 50, 1950);
+        assertTrue(passed < 0.001, "level 1 rms = " + passed);
+    }
+
+    @Test
+    public void testCrossfade() {
+        FloatSample sample = makeSine(4000, 0.005);
+        FloatSampleMipmap mipmap = sample.getMipmap();
+        assertEquals(0.0, mipmap.convertIncrementToLevel(0.5), 0.0);
+        assertEquals(1.5, mipmap.convertIncrementToLevel(Math.pow(2.0, 1.5)), 1.0e-12);
+        double low = mipmap.getLevel(1).interpolate(500.25);
+        double high = mipmap.getLevel(2).interpolate(250.125);
+        assertEquals(low + (0.25 * (high - low)), mipmap.interpolate(1000.5, 1.25), 1.0e-6);
+    }
+
+    @Test
+    public void testCache() {
+        FloatSample sample = makeSine(1000, 0.01);
+        FloatSampleMipmap mipmap = sample.getMipmap();
+        assertSame(mipmap, sample.getMipmap(), "cached");
+        sample.writeDouble(10, 0.5);
+        assertNotSame(mipmap, sample.getMipmap(), "discarded after write");
+        assertThrows(IllegalArgumentException.class,
+                () -> new FloatSampleMipmap(new FloatSample(100, 2)));
+    }
+}
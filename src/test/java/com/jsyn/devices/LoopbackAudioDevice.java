@@ -0,0 +1,331 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import java.util.Arrays;
+
+import com.jsyn.util.PseudoRandom;
+
+/**
+ * Audio device that feeds its output back to its input after a fixed delay, like a cable between
+ * the line out and line in of a sound card. Useful for testing latency measurements without
+ * hardware. Channel N of the output is recorded on channel N of the input.
+ * <p>
+ * The device has no clock. Reads and writes never block so the engine runs as fast as it can.
+ *
+ * <pre>
+ * <code>
+ *     LoopbackAudioDevice device = new LoopbackAudioDevice();
+ *     device.setDelayFrames(480);
+ *     Synthesizer synth = JSyn.createSynthesizer(device);
+ *     synth.start(48000, LoopbackAudioDevice.INPUT_DEVICE_ID, 2,
+ *             LoopbackAudioDevice.OUTPUT_DEVICE_ID, 2);
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class LoopbackAudioDevice implements AudioDeviceManager {
+    public static final int INPUT_DEVICE_ID = 0;
+    public static final int OUTPUT_DEVICE_ID = 1;
+    private static final int MAX_CHANNELS = 64;
+    // Output frames held beyond the delay before the oldest are dropped.
+    private static final int EXTRA_CAPACITY = 16 * 1024;
+
+    private int delayFrames;
+    private double gain = 1.0;
+    private double noiseAmplitude;
+    private final PseudoRandom randomNum = new PseudoRandom();
+    private volatile DelayLine delayLine;
+
+    /**
+     * @param delayFrames number of frames between writing a frame to the output and reading it
+     *            from the input, not counting the buffering done by the engine
+     */
+    public void setDelayFrames(int delayFrames) {
+        if (delayFrames < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative.");
+        }
+        this.delayFrames = delayFrames;
+    }
+
+    public int getDelayFrames() {
+        return delayFrames;
+    }
+
+    /**
+     * @param gain scales the signal as it goes around the loop, default is 1.0
+     */
+    public void setGain(double gain) {
+        this.gain = gain;
+    }
+
+    public double getGain() {
+        return gain;
+    }
+
+    /**
+     * @param noiseAmplitude amplitude of white noise added to the input, default is 0.0
+     */
+    public void setNoiseAmplitude(double noiseAmplitude) {
+        this.noiseAmplitude = noiseAmplitude;
+    }
+
+    public double getNoiseAmplitude() {
+        return noiseAmplitude;
+    }
+
+    @Override
+    public int getDeviceCount() {
+        return 2;
+    }
+
+    @Override
+    public String getDeviceName(int deviceID) {
+        return (deviceID == INPUT_DEVICE_ID) ? "Loopback Input" : "Loopback Output";
+    }
+
+    @Override
+    public String getName() {
+        return "Loopback";
+    }
+
+    @Override
+    public int getDefaultInputDeviceID() {
+        return INPUT_DEVICE_ID;
+    }
+
+    @Override
+    public int getDefaultOutputDeviceID() {
+        return OUTPUT_DEVICE_ID;
+    }
+
+    @Override
+    public int getMaxInputChannels(int deviceID) {
+        return (deviceID == INPUT_DEVICE_ID) ? MAX_CHANNELS : 0;
+    }
+
+    @Override
+    public int getMaxOutputChannels(int deviceID) {
+        return (deviceID == OUTPUT_DEVICE_ID) ? MAX_CHANNELS : 0;
+    }
+
+    @Override
+    public double getDefaultLowInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultLowOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public int setSuggestedInputLatency(double latency) {
+        return 0;
+    }
+
+    @Override
+    public int setSuggestedOutputLatency(double latency) {
+        return 0;
+    }
+
+    @Override
+    public AudioDeviceOutputStream createOutputStream(int deviceID, int frameRate,
+            int samplesPerFrame) {
+        DelayLine line = new DelayLine(samplesPerFrame, delayFrames + EXTRA_CAPACITY);
+        delayLine = line;
+        return new LoopbackOutputStream(line, frameRate, samplesPerFrame);
+    }
+
+    @Override
+    public AudioDeviceInputStream createInputStream(int deviceID, int frameRate,
+            int samplesPerFrame) {
+        return new LoopbackInputStream(samplesPerFrame);
+    }
+
+    /** Frames written by the output that have not been read by the input yet. */
+    private static class DelayLine {
+        private final int samplesPerFrame;
+        private final int capacity;
+        private final double[] frames;
+        private long writeIndex;
+        private long readIndex;
+
+        DelayLine(int samplesPerFrame, int capacity) {
+            this.samplesPerFrame = samplesPerFrame;
+            this.capacity = capacity;
+            frames = new double[capacity * samplesPerFrame];
+        }
+
+        /** Start with the delay filled with silence. */
+        synchronized void reset(int delayFrames) {
+            Arrays.fill(frames, 0.0);
+            readIndex = 0;
+            writeIndex = delayFrames;
+        }
+
+        synchronized void write(double[] buffer, int start, int numFrames) {
+            for (int i = 0; i < numFrames; i++) {
+                int offset = (int) (writeIndex % capacity) * samplesPerFrame;
+                System.arraycopy(buffer, start + (i * samplesPerFrame), frames, offset,
+                        samplesPerFrame);
+                writeIndex++;
+            }
+            // Drop the oldest frames if nobody is reading.
+            readIndex = Math.max(readIndex, writeIndex - capacity);
+        }
+
+        /** Read frames, or silence if the output has not written them yet. */
+        synchronized void read(double[] buffer, int start, int numFrames, int numChannels) {
+            for (int i = 0; i < numFrames; i++) {
+                int outIndex = start + (i * numChannels);
+                if (readIndex < writeIndex) {
+                    int offset = (int) (readIndex % capacity) * samplesPerFrame;
+                    for (int c = 0; c < numChannels; c++) {
+                        buffer[outIndex + c] = (c < samplesPerFrame) ? frames[offset + c] : 0.0;
+                    }
+                    readIndex++;
+                } else {
+                    for (int c = 0; c < numChannels; c++) {
+                        buffer[outIndex + c] = 0.0;
+                    }
+                }
+            }
+        }
+    }
+
+    private class LoopbackInputStream implements AudioDeviceInputStream {
+        private final int samplesPerFrame;
+
+        LoopbackInputStream(int samplesPerFrame) {
+            this.samplesPerFrame = samplesPerFrame;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public double getLatency() {
+            return 0.0;
+        }
+
+        @Override
+        public double read() {
+            double[] value = new double[1];
+            read(value, 0, 1);
+            return value[0];
+        }
+
+        @Override
+        public int read(double[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public int read(double[] buffer, int start, int count) {
+            int numFrames = count / samplesPerFrame;
+            int numSamples = numFrames * samplesPerFrame;
+            DelayLine line = delayLine;
+            if (line == null) {
+                Arrays.fill(buffer, start, start + numSamples, 0.0);
+            } else {
+                line.read(buffer, start, numFrames, samplesPerFrame);
+            }
+            double scaler = gain;
+            double noise = noiseAmplitude;
+            for (int i = start; i < (start + numSamples); i++) {
+                buffer[i] *= scaler;
+                if (noise > 0.0) {
+                    buffer[i] += noise * randomNum.nextRandomDouble();
+                }
+            }
+            return numSamples;
+        }
+
+        @Override
+        public int available() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private class LoopbackOutputStream implements AudioDeviceOutputStream {
+        private final DelayLine line;
+        private final int frameRate;
+        private final int samplesPerFrame;
+
+        LoopbackOutputStream(DelayLine line, int frameRate, int samplesPerFrame) {
+            this.line = line;
+            this.frameRate = frameRate;
+            this.samplesPerFrame = samplesPerFrame;
+        }
+
+        @Override
+        public void start() {
+            line.reset(delayFrames);
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public double getLatency() {
+            return ((double) delayFrames) / frameRate;
+        }
+
+        @Override
+        public void write(double value) {
+            write(new double[] {
+                value
+            }, 0, 1);
+        }
+
+        @Override
+        public void write(double[] buffer) {
+            write(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void write(double[] buffer, int start, int count) {
+            line.write(buffer, start, count / samplesPerFrame);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jsyn.io.AudioInputStream;
+import com.jsyn.io.AudioOutputStream;
+
+/**
+ * A callback driven audio device that runs in a local thread, for testing without sound
+ * hardware. It behaves like a native callback API. A high priority thread wakes up once per
+ * device buffer and calls the synthesizer.
+ * <p>
+ * Input can be supplied from an AudioInputStream and output can be captured to an
+ * AudioOutputStream, for example an {@link com.jsyn.io.AudioRingBuffer}. Neither is required.
+ * The device counts callbacks that took longer than one buffer period.
+ *
+ * <pre>
+ * <code>
+ *     SimulatedCallbackDevice device = new SimulatedCallbackDevice();
+ *     device.setFramesPerCallback(100); // does not need to match the engine
+ *     Synthesizer synth = JSyn.createSynthesizer(device);
+ *     synth.start();
+ * </code>
+ * </pre>
+ *
+ * @author Phil Burk (C) 2026 Mobileer Inc
+ */
+public class SimulatedCallbackDevice implements CallbackAudioDeviceManager {
+    private static final int MAX_CHANNELS = 64;
+
+    private int framesPerCallback = 256;
+    private boolean throttled = true;
+    private AudioInputStream inputSource;
+    private AudioOutputStream outputSink;
+    private volatile long callbackCount;
+    private volatile long lateCallbackCount;
+    private volatile long maxCallbackNanos;
+
+    public int getFramesPerCallback() {
+        return framesPerCallback;
+    }
+
+    /**
+     * @param framesPerCallback size of each device buffer, default is 256
+     */
+    public void setFramesPerCallback(int framesPerCallback) {
+        this.framesPerCallback = framesPerCallback;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    /**
+     * @param throttled if true then call back at the frame rate in real time, otherwise call back
+     *            as fast as possible
+     */
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    /**
+     * @param inputSource interleaved input for the synthesizer, or null for silence
+     */
+    public void setInputSource(AudioInputStream inputSource) {
+        this.inputSource = inputSource;
+    }
+
+    /**
+     * @param outputSink receives the interleaved output of the synthesizer, or null to discard it
+     */
+    public void setOutputSink(AudioOutputStream outputSink) {
+        this.outputSink = outputSink;
+    }
+
+    /** @return number of times the callback has been called */
+    public long getCallbackCount() {
+        return callbackCount;
+    }
+
+    /** @return number of callbacks that took longer than one device buffer period */
+    public long getLateCallbackCount() {
+        return lateCallbackCount;
+    }
+
+    /** @return longest time spent in one callback, in nanoseconds */
+    public long getMaxCallbackNanos() {
+        return maxCallbackNanos;
+    }
+
+    @Override
+    public int getDeviceCount() {
+        return 1;
+    }
+
+    @Override
+    public String getDeviceName(int deviceID) {
+        return "Simulated Callback";
+    }
+
+    @Override
+    public String getName() {
+        return "Simulated";
+    }
+
+    @Override
+    public int getDefaultInputDeviceID() {
+        return 0;
+    }
+
+    @Override
+    public int getDefaultOutputDeviceID() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxInputChannels(int deviceID) {
+        return MAX_CHANNELS;
+    }
+
+    @Override
+    public int getMaxOutputChannels(int deviceID) {
+        return MAX_CHANNELS;
+    }
+
+    @Override
+    public double getDefaultLowInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighInputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultLowOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public double getDefaultHighOutputLatency(int deviceID) {
+        return 0.0;
+    }
+
+    @Override
+    public int setSuggestedInputLatency(double latency) {
+        return 0;
+    }
+
+    @Override
+    public int setSuggestedOutputLatency(double latency) {
+        return 0;
+    }
+
+    /** This device only supports callbacks. */
+    @Override
+    public AudioDeviceOutputStream createOutputStream(int deviceID, int frameRate,
+            int numOutputChannels) {
+        throw new UnsupportedOperationException("Use createCallbackStream()");
+    }
+
+    /** This device only supports callbacks. */
+    @Override
+    public AudioDeviceInputStream createInputStream(int deviceID, int frameRate,
+            int numInputChannels) {
+        throw new UnsupportedOperationException("Use createCallbackStream()");
+    }
+
+    @Override
+    public AudioDeviceCallbackStream createCallbackStream(int inputDeviceID,
+            int numInputChannels, int outputDeviceID, int numOutputChannels, int frameRate,
+            AudioDeviceCallback callback) {
+        return new SimulatedStream(numInputChannels, numOutputChannels, frameRate, callback);
+    }
+
+    private class SimulatedStream implements AudioDeviceCallbackStream {
+        private final int frameRate;
+        private final AudioDeviceCallback callback;
+        private final double[] input;
+        private final double[] output;
+        private final int numFrames;
+        private volatile boolean go;
+        private Thread thread;
+
+        SimulatedStream(int numInputChannels, int numOutputChannels, int frameRate,
+                AudioDeviceCallback callback) {
+            this.frameRate = frameRate;
+            this.callback = callback;
+            numFrames = framesPerCallback;
+            input = (numInputChannels > 0) ? new double[numFrames * numInputChannels] : null;
+            output = (numOutputChannels > 0) ? new double[numFrames * numOutputChannels] : null;
+        }
+
+        @Override
+        public void start() {
+            go = true;
+            thread = new Thread("SimulatedCallbackDevice") {
+                @Override
+                public void run() {
+                    runCallbacks();
+                }
+            };
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void runCallbacks() {
+            long periodNanos = numFrames * 1000000000L / frameRate;
+            long startNanos = System.nanoTime();
+            long framePosition = 0;
+            while (go) {
+                if (throttled) {
+                    long targetNanos = startNanos + (framePosition * 1000000000L / frameRate);
+                    long nanosToWait = targetNanos - System.nanoTime();
+                    while (go && nanosToWait > 0) {
+                        LockSupport.parkNanos(nanosToWait);
+                        nanosToWait = targetNanos - System.nanoTime();
+                    }
+                }
+                fillInput();
+                long beforeNanos = System.nanoTime();
+                callback.onAudio(input, output, numFrames);
+                long elapsedNanos = System.nanoTime() - beforeNanos;
+                callbackCount++;
+                if (elapsedNanos > periodNanos) {
+                    lateCallbackCount++;
+                }
+                if (elapsedNanos > maxCallbackNanos) {
+                    maxCallbackNanos = elapsedNanos;
+                }
+                writeOutput();
+                framePosition += numFrames;
+            }
+        }
+
+        private void fillInput() {
+            if (input == null) {
+                return;
+            }
+            int numRead = 0;
+            AudioInputStream source = inputSource;
+            if (source != null) {
+                int numToRead = Math.min(input.length, source.available());
+                if (numToRead > 0) {
+                    numRead = source.read(input, 0, numToRead);
+                }
+            }
+            for (int i = numRead; i < input.length; i++) {
+                input[i] = 0.0;
+            }
+        }
+
+        private void writeOutput() {
+            AudioOutputStream sink = outputSink;
+            if (output != null && sink != null) {
+                try {
+                    sink.write(output, 0, output.length);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    outputSink = null;
+                }
+            }
+        }
+
+        @Override
+        public void stop() {
+            go = false;
+            Thread temp = thread;
+            if (temp != null && temp != Thread.currentThread()) {
+                try {
+                    temp.join(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public double getInputLatency() {
+            return ((double) numFrames) / frameRate;
+        }
+
+        @Override
+        public double getOutputLatency() {
+            return ((double) numFrames) / frameRate;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import com.jsyn.JSyn;
+import com.jsyn.Synthesizer;
+import com.jsyn.io.AudioRingBuffer;
+import com.jsyn.unitgen.ChannelIn;
+import com.jsyn.unitgen.LineOut;
+import com.jsyn.unitgen.SineOscillator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCallbackDevice {
+    private static final int FRAME_RATE = 44100;
+    // Size of the engine buffer in SynthesisEngine.
+    private static final int FRAMES_PER_BUFFER = 64;
+
+    @Test
+    public void testOutputWithOddCallbackSize() throws InterruptedException {
+        SimulatedCallbackDevice device = new SimulatedCallbackDevice();
+        device.setFramesPerCallback(100); // not a multiple of the engine buffer
+        AudioRingBuffer sink = new AudioRingBuffer(1 << 16);
+        sink.setReadWaitEnabled(false);
+        device.setOutputSink(sink);
+
+        Synthesizer synth = JSyn.createSynthesizer(device);
+        SineOscillator osc = new SineOscillator();
+        LineOut lineOut = new LineOut();
+        synth.add(osc);
+        synth.add(lineOut);
+        osc.output.connect(0, lineOut.input, 0);
+        synth.start(FRAME_RATE);
+        lineOut.start();
+        assertTrue(synth.isRunning(), "running");
+        Thread.sleep(300);
+        synth.stop();
+        assertFalse(synth.isRunning(), "stopped");
+
+        long count = device.getCallbackCount();
+        assertTrue(count > 20, "callbacks = " + count);
+        Thread.sleep(50);
+        assertEquals(count, device.getCallbackCount(), "no callbacks after stop");
+        assertEquals(count * 100 * 2, sink.available(), "every frame was written");
+
+        double[] output = new double[sink.available()];
+        sink.read(output);
+        double peak = 0.0;
+        for (int i = 0; i < output.length; i += 2) {
+            peak = Math.max(peak, output[i]);
+            assertEquals(0.0, output[i + 1], 0.0, "right channel silent");
+        }
+        assertTrue(peak > 0.4, "not silent, peak = " + peak);
+        assertEquals(synth.getFrameCount(), count * 100, FRAMES_PER_BUFFER,
+                "engine follows the device");
+    }
+
+    @Test
+    public void testInputDelayedOneBuffer() throws InterruptedException {
+        final int impulseFrame = 200;
+        SimulatedCallbackDevice device = new SimulatedCallbackDevice();
+        device.setFramesPerCallback(37);
+        AudioRingBuffer source = new AudioRingBuffer(1024);
+        source.setReadWaitEnabled(false);
+        for (int i = 0; i < 1000; i++) {
+            source.write((i == impulseFrame) ? 1.0 : 0.0);
+        }
+        device.setInputSource(source);
+        AudioRingBuffer sink = new AudioRingBuffer(1 << 16);
+        device.setOutputSink(sink);
+
+        Synthesizer synth = JSyn.createSynthesizer(device);
+        ChannelIn channelIn = new ChannelIn(0);
+        LineOut lineOut = new LineOut();
+        synth.add(channelIn);
+        synth.add(lineOut);
+        channelIn.output.connect(0, lineOut.input, 0);
+        // Start LineOut before the engine so it is running from the first block.
+        // Otherwise it might start after the impulse has passed.
+        lineOut.start();
+        synth.start(FRAME_RATE, AudioDeviceManager.USE_DEFAULT_DEVICE, 1,
+                AudioDeviceManager.USE_DEFAULT_DEVICE, 2);
+        Thread.sleep(100);
+        synth.stop();
+
+        double[] output = new double[sink.available()];
+        sink.read(output);
+        int found = -1;
+        for (int frame = 0; frame < output.length / 2; frame++) {
+            if (output[frame * 2] != 0.0) {
+                found = frame;
+                break;
+            }
+        }
+        assertEquals(impulseFrame + FRAMES_PER_BUFFER, found, "impulse frame");
+        assertEquals(1.0, output[found * 2], 0.0, "impulse value");
+    }
+}
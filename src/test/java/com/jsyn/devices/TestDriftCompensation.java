@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import com.jsyn.io.AudioInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pass a sine wave from an input device through a DriftCompensatedInputStream while the engine
+ * reads at a different rate. Both clocks are simulated. The test thread advances the output clock
+ * one engine block at a time and releases the input frames that the input device would have
+ * captured by then. It waits until the reading thread has put them in the FIFO before the engine
+ * reads. So every run gives the same result and 20 seconds of drift only take a fraction of a
+ * second.
+ */
+public class TestDriftCompensation {
+    private static final int FRAME_RATE = 44100;
+    private static final int FRAMES_PER_BLOCK = 64;
+    // The input device delivers whole buffers, which makes the FIFO fill level a sawtooth.
+    private static final int FRAMES_PER_BURST = 256;
+    private static final double RUN_SECONDS = 20.0;
+    private static final double SETTLE_SECONDS = 10.0;
+    private static final double FREQUENCY = 1000.0;
+    private static final double AMPLITUDE = 0.5;
+
+    static class SineSource implements AudioInputStream {
+        private final double increment = 2.0 * Math.PI * FREQUENCY / FRAME_RATE;
+        private double phase;
+
+        @Override
+        public double read() {
+            double value = AMPLITUDE * Math.sin(phase);
+            phase += increment;
+            return value;
+        }
+
+        @Override
+        public int read(double[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public int read(double[] buffer, int start, int count) {
+            for (int i = 0; i < count; i++) {
+                buffer[start + i] = read();
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int available() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Mono input device whose clock is advanced by the test. A read blocks until the test has
+     * released more frames.
+     */
+    static class ClockedInputStream implements AudioDeviceInputStream {
+        private final SineSource source = new SineSource();
+        private long releasedFrames;
+        private long deliveredFrames;
+        private boolean readerWaiting;
+        private boolean open;
+
+        /** Make frames available up to the last whole burst before totalFrames. */
+        synchronized void release(long totalFrames) {
+            long frames = totalFrames - (totalFrames % FRAMES_PER_BURST);
+            if (frames > releasedFrames) {
+                releasedFrames = frames;
+                notifyAll();
+            }
+        }
+
+        /** Wait until the reader has taken every released frame and is waiting for more. */
+        synchronized void waitUntilIdle() throws InterruptedException {
+            while (!readerWaiting || (deliveredFrames < releasedFrames)) {
+                wait();
+            }
+        }
+
+        @Override
+        public synchronized int read(double[] buffer, int start, int count) {
+            try {
+                while (open && (deliveredFrames >= releasedFrames)) {
+                    readerWaiting = true;
+                    notifyAll();
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+            readerWaiting = false;
+            if (!open) {
+                return 0;
+            }
+            int numFrames = (int) Math.min(count, releasedFrames - deliveredFrames);
+            source.read(buffer, start, numFrames);
+            deliveredFrames += numFrames;
+            return numFrames;
+        }
+
+        @Override
+        public synchronized void start() {
+            open = true;
+        }
+
+        @Override
+        public synchronized void stop() {
+            open = false;
+            notifyAll();
+        }
+
+        @Override
+        public double read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(double[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+
+        @Override
+        public double getLatency() {
+            return 0.0;
+        }
+    }
+
+    private DriftCompensatedInputStream input;
+    private double[] output;
+    private long settledOverflow;
+    private long settledUnderflow;
+    private double averageRatio;
+
+    /**
+     * Read RUN_SECONDS of output from the compensated stream.
+     *
+     * @param inputSkew fractional error of the input clock
+     * @param outputSkew fractional error of the output clock
+     * @param maxCorrection largest ratio correction allowed, zero for no compensation
+     */
+    private void runClocks(double inputSkew, double outputSkew, double maxCorrection)
+            throws InterruptedException {
+        ClockedInputStream device = new ClockedInputStream();
+        input = new DriftCompensatedInputStream(device, 1, FRAME_RATE);
+        // Lock faster than the default so the test does not have to run as long.
+        input.setBandwidth(0.3);
+        input.setMaxCorrection(maxCorrection);
+        int targetFrames = input.getTargetFrames();
+        // Frames captured while the engine was starting, so start() does not wait.
+        device.release(targetFrames);
+        input.start();
+
+        int numBlocks = (int) (RUN_SECONDS * FRAME_RATE / FRAMES_PER_BLOCK);
+        int settleBlocks = (int) (SETTLE_SECONDS * FRAME_RATE / FRAMES_PER_BLOCK);
+        output = new double[numBlocks * FRAMES_PER_BLOCK];
+        double ratioSum = 0.0;
+        try {
+            for (int block = 0; block < numBlocks; block++) {
+                double seconds = ((block + 1.0) * FRAMES_PER_BLOCK)
+                        / (FRAME_RATE * (1.0 + outputSkew));
+                device.release(targetFrames
+                        + (long) (seconds * FRAME_RATE * (1.0 + inputSkew)));
+                device.waitUntilIdle();
+                // Reading more than is in the FIFO would wait forever for the device.
+                assertTrue(input.available() >= (2 * FRAMES_PER_BLOCK),
+                        "FIFO ran dry at block " + block);
+                assertEquals(FRAMES_PER_BLOCK, input.read(output, block * FRAMES_PER_BLOCK,
+                        FRAMES_PER_BLOCK), "frames read");
+                if (block == settleBlocks) {
+                    settledOverflow = input.getOverflowFrames();
+                    settledUnderflow = input.getUnderflowCount();
+                } else if (block > settleBlocks) {
+                    ratioSum += input.getRatio();
+                }
+            }
+        } finally {
+            input.stop();
+        }
+        averageRatio = ratioSum / (numBlocks - settleBlocks - 1);
+    }
+
+    /**
+     * A sine wave satisfies x[n+1] + x[n-1] = 2 cos(w) x[n]. Count how many samples at the end of
+     * the output are not close to that. A glitch affects a few samples. A poor interpolator or a
+     * jittery ratio affects most of them.
+     */
+    private int countBadSamples() {
+        int end = output.length - 1000;
+        int begin = end - 10000;
+        double correlation = 0.0;
+        double power = 0.0;
+        for (int n = begin; n < end; n++) {
+            correlation += (output[n + 1] + output[n - 1]) * output[n];
+            power += output[n] * output[n];
+        }
+        assertEquals(AMPLITUDE * AMPLITUDE * 0.5, power / (end - begin), 0.01, "power");
+        double twoCos = correlation / power;
+        int numBad = 0;
+        for (int n = begin; n < end; n++) {
+            double residual = output[n + 1] + output[n - 1] - (twoCos * output[n]);
+            if (Math.abs(residual) > 0.001) {
+                numBad++;
+            }
+        }
+        return numBad;
+    }
+
+    @Test
+    public void testDriftCausesOverflow() throws InterruptedException {
+        runClocks(0.02, 0.0, 0.0);
+        assertEquals(1.0, input.getRatio(), 0.0, "not compensated");
+        // About 2% of the frames read after the FIFO filled up.
+        assertTrue(input.getOverflowFrames() > (0.01 * output.length),
+                "input should overflow, lost " + input.getOverflowFrames());
+    }
+
+    private void checkCompensation(double inputSkew, double outputSkew)
+            throws InterruptedException {
+        runClocks(inputSkew, outputSkew, 0.02);
+        double expectedRatio = (1.0 + inputSkew) / (1.0 + outputSkew);
+        System.out.printf("skew in = %7.4f, out = %7.4f, ratio = %9.6f, fill = %6.1f%n",
+                inputSkew, outputSkew, averageRatio, input.getFilteredFill());
+        assertEquals(0, input.getOverflowFrames() - settledOverflow, "overflow after settling");
+        assertEquals(0, input.getUnderflowCount() - settledUnderflow, "underflow after settling");
+        assertEquals(expectedRatio, averageRatio, 0.0001, "locked ratio");
+        assertEquals(input.getTargetFrames(), input.getFilteredFill(), 200.0, "fill");
+        assertEquals(0, countBadSamples(), "clean sine");
+    }
+
+    @Test
+    public void testFastInput() throws InterruptedException {
+        checkCompensation(0.01, 0.0);
+    }
+
+    @Test
+    public void testSlowInputFastOutput() throws InterruptedException {
+        checkCompensation(-0.005, 0.005);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.jsyn.JSyn;
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import com.jsyn.devices.file.FileAudioDevice;
+import com.jsyn.dsp.PolyphaseResampler;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.ChannelIn;
+import com.jsyn.unitgen.LineOut;
+import com.jsyn.unitgen.SineOscillator;
+import com.jsyn.util.SampleLoader;
+import com.jsyn.util.WaveFileWriter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFileAudioDevice {
+    private static final int FRAME_RATE = 44100;
+
+    private static File createTempFile(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".wav");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testRenderFasterThanRealTime() throws IOException, InterruptedException {
+        File outputFile = createTempFile("test_file_device");
+        FileAudioDevice device = new FileAudioDevice();
+        device.setOutputFile(outputFile);
+        device.setThrottled(false);
+
+        Synthesizer synth = JSyn.createSynthesizer(device);
+        SineOscillator osc = new SineOscillator();
+        LineOut lineOut = new LineOut();
+        synth.add(osc);
+        synth.add(lineOut);
+        osc.output.connect(0, lineOut.input, 0);
+        osc.output.connect(0, lineOut.input, 1);
+        synth.start(FRAME_RATE);
+        lineOut.start();
+        long startTime = System.nanoTime();
+        synth.sleepFor(4.0);
+        double elapsed = (System.nanoTime() - startTime) * 1.0e-9;
+        synth.stop();
+
+        assertTrue(elapsed < 3.0, "should run faster than real time, took " + elapsed);
+        FloatSample sample = SampleLoader.loadFloatSample(outputFile);
+        assertEquals(2, sample.getChannelsPerFrame(), "stereo");
+        assertTrue(sample.getNumFrames() >= 4 * FRAME_RATE, "frames " + sample.getNumFrames());
+        double peak = 0.0;
+        for (int i = 0; i < FRAME_RATE; i++) {
+            peak = Math.max(peak, sample.readDouble(i * 2));
+        }
+        assertTrue(peak > 0.4, "not silent, peak = " + peak);
+    }
+
+    @Test
+    public void testThrottledNullDevice() throws InterruptedException {
+        FileAudioDevice device = new FileAudioDevice();
+        assertEquals(FileAudioDevice.NULL_DEVICE_ID, device.getDefaultOutputDeviceID(), "null");
+        Synthesizer synth = JSyn.createSynthesizer(device);
+        synth.start(FRAME_RATE);
+        double startTime = synth.getCurrentTime();
+        Thread.sleep(500);
+        double synthElapsed = synth.getCurrentTime() - startTime;
+        synth.stop();
+        assertEquals(0.5, synthElapsed, 0.2, "engine time follows the wall clock");
+    }
+
+    @Test
+    public void testInputFromFile() throws IOException, InterruptedException {
+        File inputFile = createTempFile("test_file_device_in");
+        WaveFileWriter writer = new WaveFileWriter(inputFile);
+        writer.setFrameRate(FRAME_RATE);
+        writer.setSamplesPerFrame(1);
+        for (int i = 0; i < FRAME_RATE; i++) {
+            writer.write(0.25);
+        }
+        writer.close();
+        File outputFile = createTempFile("test_file_device_out");
+
+        FileAudioDevice device = new FileAudioDevice();
+        device.setInputFile(inputFile);
+        device.setOutputFile(outputFile);
+        device.setThrottled(false);
+        Synthesizer synth = JSyn.createSynthesizer(device);
+        ChannelIn channelIn = new ChannelIn(0);
+        LineOut lineOut = new LineOut();
+        synth.add(channelIn);
+        synth.add(lineOut);
+        channelIn.output.connect(0, lineOut.input, 0);
+        synth.start(FRAME_RATE, AudioDeviceManager.USE_DEFAULT_DEVICE, 1,
+                AudioDeviceManager.USE_DEFAULT_DEVICE, 2);
+        lineOut.start();
+        synth.sleepFor(2.0);
+        synth.stop();
+
+        FloatSample sample = SampleLoader.loadFloatSample(outputFile);
+        assertTrue(sample.getNumFrames() > (FRAME_RATE * 3 / 2), "past end of input");
+        int middle = FRAME_RATE / 2;
+        assertEquals(0.25, sample.readDouble(middle * 2), 0.001, "passed through");
+        assertEquals(0.0, sample.readDouble((middle * 2) + 1), 0.0, "right not connected");
+        int afterEnd = (FRAME_RATE * 3) / 2;
+        assertEquals(0.0, sample.readDouble(afterEnd * 2), 0.0, "silent after end of input");
+    }
+
+    /** Count rising zero crossings of the left channel over one second, after half a second. */
+    private static int countCrossings(FloatSample sample, int frameRate) {
+        int numCrossings = 0;
+        int first = frameRate / 2;
+        double previous = sample.readDouble(first * 2);
+        for (int i = first + 1; i <= first + frameRate; i++) {
+            double value = sample.readDouble(i * 2);
+            if (previous < 0.0 && value >= 0.0) {
+                numCrossings++;
+            }
+            previous = value;
+        }
+        return numCrossings;
+    }
+
+    @Test
+    public void testEngineRateDiffersFromDevice() throws IOException, InterruptedException {
+        final int engineRate = 32000;
+        final int deviceRate = 48000;
+        File outputFile = createTempFile("test_file_device_resampled");
+        FileAudioDevice device = new FileAudioDevice();
+        device.setOutputFile(outputFile);
+        device.setThrottled(false);
+
+        SynthesisEngine synth = new SynthesisEngine(device);
+        synth.setDeviceFrameRate(deviceRate);
+        synth.setResamplerQuality(PolyphaseResampler.Quality.HIGH);
+        SineOscillator osc = new SineOscillator();
+        LineOut lineOut = new LineOut();
+        synth.add(osc);
+        synth.add(lineOut);
+        osc.frequency.set(1000.0);
+        osc.output.connect(0, lineOut.input, 0);
+        synth.start(engineRate);
+        assertEquals(engineRate, synth.getFrameRate(), "engine rate");
+        lineOut.start();
+        synth.sleepFor(2.0);
+        synth.stop();
+
+        FloatSample sample = SampleLoader.loadFloatSample(outputFile);
+        assertEquals(deviceRate, sample.getFrameRate(), 0.0, "file written at device rate");
+        assertTrue(sample.getNumFrames() >= 2 * deviceRate, "frames " + sample.getNumFrames());
+        assertEquals(1000, countCrossings(sample, deviceRate), 1, "frequency at device rate");
+    }
+
+    @Test
+    public void testResampledInput() throws IOException, InterruptedException {
+        final int engineRate = 32000;
+        final int deviceRate = 48000;
+        File inputFile = createTempFile("test_file_device_in48");
+        WaveFileWriter writer = new WaveFileWriter(inputFile);
+        writer.setFrameRate(deviceRate);
+        writer.setSamplesPerFrame(1);
+        for (int i = 0; i < deviceRate * 3; i++) {
+            writer.write(0.5 * Math.sin(2.0 * Math.PI * 500.0 * i / deviceRate));
+        }
+        writer.close();
+        File outputFile = createTempFile("test_file_device_out48");
+
+        FileAudioDevice device = new FileAudioDevice();
+        device.setInputFile(inputFile);
+        device.setOutputFile(outputFile);
+        device.setThrottled(false);
+        SynthesisEngine synth = new SynthesisEngine(device);
+        synth.setDeviceFrameRate(deviceRate);
+        ChannelIn channelIn = new ChannelIn(0);
+        LineOut lineOut = new LineOut();
+        synth.add(channelIn);
+        synth.add(lineOut);
+        channelIn.output.connect(0, lineOut.input, 0);
+        synth.start(engineRate, AudioDeviceManager.USE_DEFAULT_DEVICE, 1,
+                AudioDeviceManager.USE_DEFAULT_DEVICE, 2);
+        lineOut.start();
+        synth.sleepFor(2.0);
+        synth.stop();
+
+        // Converted to the engine rate and back again.
+        FloatSample sample = SampleLoader.loadFloatSample(outputFile);
+        assertEquals(500, countCrossings(sample, deviceRate), 1, "frequency");
+        double peak = 0.0;
+        for (int i = deviceRate / 2; i < deviceRate; i++) {
+            peak = Math.max(peak, sample.readDouble(i * 2));
+        }
+        assertEquals(0.5, peak, 0.01, "amplitude");
+    }
+}
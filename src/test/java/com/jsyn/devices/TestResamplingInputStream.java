@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import com.jsyn.dsp.PolyphaseResampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestResamplingInputStream {
+
+    /** Device that always has the same number of zero samples available. */
+    static class FixedStream implements AudioDeviceInputStream {
+        int numAvailable;
+
+        @Override
+        public double read() {
+            return 0.0;
+        }
+
+        @Override
+        public int read(double[] buffer) {
+            return read(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public int read(double[] buffer, int start, int count) {
+            for (int i = 0; i < count; i++) {
+                buffer[start + i] = 0.0;
+            }
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return numAvailable;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public double getLatency() {
+            return 0.0;
+        }
+    }
+
+    private static void checkAvailable(int engineRate, int deviceRate) {
+        FixedStream device = new FixedStream();
+        ResamplingInputStream stream = new ResamplingInputStream(device, 2, engineRate,
+                deviceRate, PolyphaseResampler.Quality.LOW);
+        stream.start();
+        device.numAvailable = 960 * 2;
+        int expectedFrames = (960 * engineRate) / deviceRate;
+        assertEquals(expectedFrames * 2, stream.available(), "scaled to the engine rate");
+
+        // Reading converts a block of device data. What is left over is counted as well.
+        double[] buffer = new double[2];
+        stream.read(buffer);
+        int pending = stream.available() - (expectedFrames * 2);
+        // The stream reads 64 device frames at a time.
+        int maxPending = ((int) Math.ceil(64.0 * engineRate / deviceRate) - 1) * 2;
+        assertEquals(0, pending % 2, "whole frames");
+        assertTrue((pending > 0) && (pending <= maxPending), "pending = " + pending);
+    }
+
+    @Test
+    public void testAvailableUpsampling() {
+        checkAvailable(48000, 32000);
+    }
+
+    @Test
+    public void testAvailableDownsampling() {
+        checkAvailable(44100, 96000);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jsyn.dsp.PolyphaseResampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestResamplingOutputStream {
+
+    /** Collect everything written to the device. */
+    static class CaptureStream implements AudioDeviceOutputStream {
+        final List<Double> samples = new ArrayList<Double>();
+
+        @Override
+        public void write(double value) {
+            samples.add(value);
+        }
+
+        @Override
+        public void write(double[] buffer) {
+            write(buffer, 0, buffer.length);
+        }
+
+        @Override
+        public void write(double[] buffer, int start, int count) {
+            for (int i = 0; i < count; i++) {
+                samples.add(buffer[start + i]);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public double getLatency() {
+            return 0.0;
+        }
+    }
+
+    private static double[] makeStereo(int numFrames) {
+        double[] data = new double[numFrames * 2];
+        for (int i = 0; i < numFrames; i++) {
+            data[i * 2] = Math.sin(i * 0.05);
+            data[(i * 2) + 1] = Math.cos(i * 0.03);
+        }
+        return data;
+    }
+
+    private static ResamplingOutputStream createStream(CaptureStream device) {
+        ResamplingOutputStream stream = new ResamplingOutputStream(device, 2, 32000, 48000,
+                PolyphaseResampler.Quality.LOW);
+        stream.start();
+        return stream;
+    }
+
+    @Test
+    public void testPartialFrames() throws IOException {
+        double[] data = makeStereo(500);
+        CaptureStream expected = new CaptureStream();
+        createStream(expected).write(data);
+
+        CaptureStream single = new CaptureStream();
+        ResamplingOutputStream stream = createStream(single);
+        for (double value : data) {
+            stream.write(value);
+        }
+
+        CaptureStream odd = new CaptureStream();
+        stream = createStream(odd);
+        int start = 0;
+        int count = 1;
+        while (start < data.length) {
+            int numToWrite = Math.min(count, data.length - start);
+            stream.write(data, start, numToWrite);
+            start += numToWrite;
+            count = (count % 7) + 2; // odd and even counts
+        }
+
+        assertTrue(expected.samples.size() > 700, "converted " + expected.samples.size());
+        assertEquals(expected.samples, single.samples, "one sample at a time");
+        assertEquals(expected.samples, odd.samples, "split frames");
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices.javasound;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.SineOscillator;
+import org.junit.jupiter.api.Test;
+
+public class TestDeviceScan {
+
+    @Test
+    public void testConstructorDoesNotScan() {
+        JavaSoundAudioDevice.rescanDevices();
+        new JavaSoundAudioDevice();
+        assertFalse(JavaSoundAudioDevice.isDeviceScanStarted());
+    }
+
+    @Test
+    public void testNonRealTimeEngineDoesNotScan() throws InterruptedException {
+        JavaSoundAudioDevice.rescanDevices();
+        SynthesisEngine synth = new SynthesisEngine(new JavaSoundAudioDevice());
+        synth.setRealTime(false);
+        SineOscillator osc = new SineOscillator();
+        synth.add(osc);
+        synth.start();
+        osc.start();
+        synth.sleepFor(0.1);
+        synth.stop();
+        assertFalse(JavaSoundAudioDevice.isDeviceScanStarted());
+    }
+
+    @Test
+    public void testScanIsShared() {
+        JavaSoundAudioDevice.rescanDevices();
+        JavaSoundAudioDevice first = new JavaSoundAudioDevice();
+        int numDevices = first.getDeviceCount();
+        assertTrue(JavaSoundAudioDevice.isDeviceScanStarted());
+        JavaSoundAudioDevice second = new JavaSoundAudioDevice();
+        assertEquals(numDevices, second.getDeviceCount(), "device count");
+        assertEquals(first.getDefaultOutputDeviceID(), second.getDefaultOutputDeviceID());
+        for (int i = 0; i < numDevices; i++) {
+            assertEquals(first.getDeviceName(i), second.getDeviceName(i));
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        JavaSoundAudioDevice.rescanDevices();
+        JavaSoundAudioDevice device = new JavaSoundAudioDevice();
+        JavaSoundAudioDevice.startDeviceScan();
+        if (JavaSoundAudioDevice.cancelDeviceScan()) {
+            assertEquals(0, device.getDeviceCount(), "cancelled scan has no devices");
+            assertEquals(-1, device.getDefaultOutputDeviceID());
+        }
+        JavaSoundAudioDevice.rescanDevices();
+        int numDevices = device.getDeviceCount();
+        assertTrue(numDevices >= 0);
+        assertFalse(JavaSoundAudioDevice.cancelDeviceScan(), "scan already finished");
+        assertEquals(numDevices, device.getDeviceCount());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.devices.javasound;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestLineConverter {
+
+    private void checkClipping(AudioFormat format, double tolerance) {
+        LineConverter converter = LineConverter.forFormat(format);
+        double[] samples = {
+                -2.0, -1.0, -0.5, 0.0, 0.25, 1.0, 1.5
+        };
+        double[] expected = {
+                -1.0, -1.0, -0.5, 0.0, 0.25, 1.0, 1.0
+        };
+        byte[] bytes = new byte[samples.length * converter.getBytesPerSample()];
+        converter.encode(samples, 0, samples.length, bytes);
+        double[] decoded = new double[samples.length];
+        converter.decode(bytes, decoded, 0, samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(expected[i], decoded[i], tolerance, format + " sample " + i);
+        }
+    }
+
+    @Test
+    public void testAllFormatsClip() {
+        checkClipping(new AudioFormat(44100.0f, 16, 1, true, false), 1.0 / 32767);
+        checkClipping(new AudioFormat(44100.0f, 24, 1, true, false), 1.0e-6);
+        checkClipping(new AudioFormat(AudioFormat.Encoding.PCM_FLOAT, 44100.0f, 32, 1, 4,
+                44100.0f, false), 0.0);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.unitgen.ConvolutionReverb;
+import com.jsyn.util.PseudoRandom;
+import org.junit.jupiter.api.Test;
+
+public class TestPartitionedConvolver {
+
+    private static float[] makeImpulse(int length, int seed) {
+        PseudoRandom randomNum = new PseudoRandom(seed);
+        float[] impulse = new float[length];
+        for (int i = 0; i < length; i++) {
+            impulse[i] = (float) (randomNum.nextRandomDouble() * Math.exp(-3.0 * i / length));
+        }
+        return impulse;
+    }
+
+    private static double[] makeInput(int length) {
+        PseudoRandom randomNum = new PseudoRandom(77);
+        double[] input = new double[length];
+        for (int i = 0; i < length; i++) {
+            input[i] = randomNum.nextRandomDouble();
+        }
+        return input;
+    }
+
+    private static double directConvolution(float[] impulse, double[] input, int n) {
+        double sum = 0.0;
+        for (int t = 0; (t < impulse.length) && (t <= n); t++) {
+            sum += impulse[t] * input[n - t];
+        }
+        return sum;
+    }
+
+    private void checkConvolver(int impulseLength, int headSize, int maxPartitionSize,
+            boolean useThread) {
+        checkConvolver(impulseLength, headSize, maxPartitionSize, useThread, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param closeFrame stop the tail thread once this many frames have been processed
+     */
+    private void checkConvolver(int impulseLength, int headSize, int maxPartitionSize,
+            boolean useThread, int closeFrame) {
+        float[][] impulse = {
+                makeImpulse(impulseLength, 1), makeImpulse(impulseLength / 2, 2)
+        };
+        PartitionedConvolver convolver = new PartitionedConvolver(impulse, headSize,
+                maxPartitionSize);
+        convolver.setTailThreadEnabled(useThread);
+        double[] input = makeInput(impulseLength * 2);
+        double[][] outputs = new double[2][input.length];
+        // Process in uneven blocks.
+        PseudoRandom randomNum = new PseudoRandom(3);
+        int start = 0;
+        // Like the engine, use small blocks with the tail thread so it gets a chance to run
+        // between the start and the deadline of a job.
+        int maxBlock = useThread ? headSize : 100;
+        while (start < input.length) {
+            int limit = Math.min(input.length, start + 1 + randomNum.choose(maxBlock));
+            convolver.process(input, outputs, start, limit);
+            start = limit;
+            // Like a real-time audio thread, leave time for the tail thread to keep up.
+            while (!convolver.isTailIdle()) {
+                Thread.yield();
+            }
+            if (start >= closeFrame) {
+                convolver.close();
+            }
+        }
+        assertEquals(0, convolver.getLateCount(), "late partitions");
+        convolver.close();
+        for (int c = 0; c < impulse.length; c++) {
+            for (int n = 0; n < input.length; n++) {
+                assertEquals(directConvolution(impulse[c], input, n), outputs[c][n], 1.0e-9,
+                        "channel " + c + ", frame " + n);
+            }
+        }
+    }
+
+    @Test
+    public void testNonUniform() {
+        checkConvolver(5000, 16, 1024, false);
+    }
+
+    @Test
+    public void testUniform() {
+        checkConvolver(3000, 32, 32, false);
+    }
+
+    @Test
+    public void testTailThread() {
+        checkConvolver(5000, 16, 256, true);
+    }
+
+    @Test
+    public void testCloseWhileProcessing() {
+        checkConvolver(5000, 16, 256, true, 3000);
+    }
+
+    @Test
+    public void testTailThreadModeIsFixed() {
+        float[][] impulse = {
+                makeImpulse(1000, 1)
+        };
+        PartitionedConvolver convolver = new PartitionedConvolver(impulse, 16, 64);
+        convolver.setTailThreadEnabled(true);
+        assertTrue(convolver.isTailThreadEnabled(), "threaded");
+        convolver.process(new double[8], new double[][] {
+                new double[8]
+        }, 0, 8);
+        assertThrows(IllegalStateException.class, () -> convolver.setTailThreadEnabled(false));
+        convolver.close();
+        assertFalse(convolver.isTailThreadEnabled(), "closed");
+    }
+
+    @Test
+    public void testShortImpulse() {
+        checkConvolver(40, 64, 1024, false);
+        checkConvolver(130, 64, 1024, false);
+    }
+
+    @Test
+    public void testLevels() {
+        float[][] impulse = {
+                new float[48000 * 3]
+        };
+        PartitionedConvolver convolver = new PartitionedConvolver(impulse);
+        int previous = 0;
+        for (int i = 0; i < convolver.getNumLevels(); i++) {
+            int size = convolver.getPartitionSize(i);
+            assertEquals(true, size > previous, "sizes grow");
+            previous = size;
+        }
+        assertEquals(PartitionedConvolver.DEFAULT_MAX_PARTITION_SIZE, previous, "largest");
+        assertThrows(IllegalArgumentException.class,
+                () -> new PartitionedConvolver(impulse, 100, 1000));
+    }
+
+    @Test
+    public void testStereoReverbUnit() {
+        FloatSample sample = new FloatSample(new float[] {
+                1.0f, 0.5f, 0.0f, 0.0f, 0.25f, -0.25f
+        }, 2);
+        ConvolutionReverb reverb = new ConvolutionReverb(sample);
+        double[] inputs = reverb.input.getValues();
+        inputs[0] = 1.0;
+        reverb.generate(0, inputs.length);
+        double[] left = reverb.output.getValues(0);
+        double[] right = reverb.output.getValues(1);
+        assertEquals(1.0, left[0], 1.0e-9);
+        assertEquals(0.5, right[0], 1.0e-9);
+        assertEquals(0.25, left[2], 1.0e-9);
+        assertEquals(-0.25, right[2], 1.0e-9);
+        assertEquals(0.0, left[3], 1.0e-9);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPolyphaseResampler {
+
+    private static double[] makeSine(int numFrames, int samplesPerFrame, double frequency,
+            int frameRate) {
+        double[] data = new double[numFrames * samplesPerFrame];
+        for (int i = 0; i < numFrames; i++) {
+            double value = Math.sin(2.0 * Math.PI * frequency * i / frameRate);
+            for (int c = 0; c < samplesPerFrame; c++) {
+                data[(i * samplesPerFrame) + c] = value * (c + 1) * 0.25;
+            }
+        }
+        return data;
+    }
+
+    /** Convert in blocks of varying size like a device would. */
+    private static double[] convert(PolyphaseResampler resampler, double[] input,
+            int samplesPerFrame) {
+        int numInputFrames = input.length / samplesPerFrame;
+        double[] output = new double[resampler.getMaxOutputFrames(numInputFrames)
+                * samplesPerFrame];
+        int numOutput = 0;
+        int inputFrame = 0;
+        int blockSize = 1;
+        while (inputFrame < numInputFrames) {
+            int numFrames = Math.min(blockSize, numInputFrames - inputFrame);
+            numOutput += resampler.process(input, inputFrame * samplesPerFrame, numFrames, output,
+                    numOutput * samplesPerFrame);
+            inputFrame += numFrames;
+            blockSize = (blockSize * 7 + 3) % 200 + 1;
+        }
+        double[] result = new double[numOutput * samplesPerFrame];
+        System.arraycopy(output, 0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Compare against an ideal sine. The first output frame lines up with the first input frame.
+     * The filter latency only delays when the output becomes available.
+     */
+    private static double measureError(double[] output, int samplesPerFrame, double frequency,
+            int frameRate) {
+        double maxError = 0.0;
+        int numFrames = output.length / samplesPerFrame;
+        for (int i = 200; i < numFrames - 200; i++) {
+            double expected = Math.sin(2.0 * Math.PI * frequency * i / frameRate);
+            for (int c = 0; c < samplesPerFrame; c++) {
+                double error = output[(i * samplesPerFrame) + c] - (expected * (c + 1) * 0.25);
+                maxError = Math.max(maxError, Math.abs(error));
+            }
+        }
+        return maxError;
+    }
+
+    private void checkConversion(int inputRate, int outputRate,
+            PolyphaseResampler.Quality quality, double tolerance) {
+        int samplesPerFrame = 2;
+        double frequency = 1000.0;
+        int numInputFrames = inputRate / 4;
+        PolyphaseResampler resampler = new PolyphaseResampler(inputRate, outputRate,
+                samplesPerFrame, quality);
+        double[] input = makeSine(numInputFrames, samplesPerFrame, frequency, inputRate);
+        double[] output = convert(resampler, input, samplesPerFrame);
+        int numOutputFrames = output.length / samplesPerFrame;
+        double expectedFrames = ((double) numInputFrames) * outputRate / inputRate;
+        assertEquals(expectedFrames, numOutputFrames, resampler.getNumTaps() * 2.0,
+                "output frames");
+        double error = measureError(output, samplesPerFrame, frequency, outputRate);
+        assertTrue(error < tolerance, inputRate + " to " + outputRate + ", " + quality
+                + ", error = " + error);
+    }
+
+    @Test
+    public void testUpsample() {
+        checkConversion(32000, 48000, PolyphaseResampler.Quality.MEDIUM, 0.001);
+        checkConversion(44100, 48000, PolyphaseResampler.Quality.HIGH, 0.0001);
+    }
+
+    @Test
+    public void testDownsample() {
+        checkConversion(96000, 48000, PolyphaseResampler.Quality.MEDIUM, 0.001);
+        checkConversion(48000, 44100, PolyphaseResampler.Quality.HIGH, 0.0001);
+    }
+
+    @Test
+    public void testUnusualRatio() {
+        // Too many phases for the table so the nearest phase is used.
+        checkConversion(44100, 48001, PolyphaseResampler.Quality.HIGH, 0.001);
+    }
+
+    @Test
+    public void testQualityPresets() {
+        for (PolyphaseResampler.Quality quality : PolyphaseResampler.Quality.values()) {
+            checkConversion(32000, 48000, quality, 0.02);
+        }
+    }
+
+    @Test
+    public void testDownsampleRemovesAliases() {
+        // 20 kHz is above the Nyquist rate of 32 kHz so it should be filtered out.
+        int samplesPerFrame = 1;
+        PolyphaseResampler resampler = new PolyphaseResampler(48000, 32000, samplesPerFrame,
+                PolyphaseResampler.Quality.HIGH);
+        double[] input = makeSine(12000, samplesPerFrame, 20000.0, 48000);
+        double[] output = convert(resampler, input, samplesPerFrame);
+        double peak = 0.0;
+        for (int i = 500; i < output.length - 500; i++) {
+            peak = Math.max(peak, Math.abs(output[i]));
+        }
+        assertTrue(peak < 0.001, "alias should be removed, peak = " + peak);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.dsp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSincInterpolator {
+
+    private void checkSine(double frequency, double tolerance) {
+        SincInterpolator interpolator = new SincInterpolator();
+        int stride = 2; // interpolate the left channel of stereo data
+        double omega = 2.0 * Math.PI * frequency / 44100.0;
+        double[] data = new double[200 * stride];
+        for (int i = 0; i < data.length / stride; i++) {
+            data[i * stride] = Math.sin(omega * i);
+            data[(i * stride) + 1] = 1.0;
+        }
+        for (int n = 50; n < 150; n++) {
+            for (double fraction = 0.0; fraction < 1.0; fraction += 0.1234) {
+                double expected = Math.sin(omega * (n + fraction));
+                double actual = interpolator.interpolate(data, n * stride, stride, fraction);
+                assertEquals(expected, actual, tolerance, "n = " + n + ", fraction " + fraction);
+            }
+        }
+    }
+
+    @Test
+    public void testLowFrequency() {
+        checkSine(440.0, 0.0005);
+    }
+
+    @Test
+    public void testHighFrequency() {
+        checkSine(15000.0, 0.002);
+    }
+
+    @Test
+    public void testBessel() {
+        assertEquals(1.0, SincInterpolator.bessel0(0.0), 1.0e-12, "I0(0)");
+        assertEquals(11.301921952136330, SincInterpolator.bessel0(4.0), 1.0e-9, "I0(4)");
+    }
+}
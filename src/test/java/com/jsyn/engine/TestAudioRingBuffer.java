@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.engine;
+
+import com.jsyn.io.AudioRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAudioRingBuffer {
+
+    @Test
+    public void testWrapping() {
+        AudioRingBuffer ring = new AudioRingBuffer(16);
+        ring.setReadWaitEnabled(false);
+        double[] block = new double[5];
+        double[] readBack = new double[5];
+        double value = 0.0;
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < block.length; j++) {
+                block[j] = value + j;
+            }
+            ring.write(block);
+            assertEquals(block.length, ring.available(), "after write");
+            assertEquals(block.length, ring.read(readBack), "read block");
+            for (int j = 0; j < block.length; j++) {
+                assertEquals(value + j, readBack[j], "reading back data");
+            }
+            value += block.length;
+        }
+        assertEquals(0, ring.getOverflowCount(), "no overflow");
+    }
+
+    @Test
+    public void testOverflow() {
+        AudioRingBuffer ring = new AudioRingBuffer(8);
+        ring.setReadWaitEnabled(false);
+        ring.write(new double[6]);
+        ring.write(new double[4]); // does not fit so it is dropped
+        assertEquals(6, ring.available(), "first block kept");
+        assertEquals(4, ring.getOverflowCount(), "second block counted");
+        ring.write(1.0);
+        ring.write(2.0);
+        ring.write(3.0);
+        assertEquals(8, ring.available(), "full");
+        assertEquals(5, ring.getOverflowCount(), "last value counted");
+    }
+
+    @Test
+    public void testDrainAfterClose() {
+        AudioRingBuffer ring = new AudioRingBuffer(8);
+        ring.write(new double[] {
+                1.0, 2.0, 3.0
+        });
+        ring.close();
+        double[] buffer = new double[8];
+        // Would wait for 8 values if it were still open.
+        assertEquals(3, ring.read(buffer), "drain remaining data");
+        assertEquals(3.0, buffer[2], "last value");
+        assertEquals(0, ring.read(buffer), "empty after drain");
+    }
+
+    @Test
+    public void testThreads() throws InterruptedException {
+        final int numValues = 1000000;
+        final AudioRingBuffer ring = new AudioRingBuffer(256);
+        ring.setWriteWaitEnabled(true);
+        Thread writer = new Thread(() -> {
+            double[] block = new double[16];
+            for (int i = 0; i < numValues; i += block.length) {
+                for (int j = 0; j < block.length; j++) {
+                    block[j] = i + j;
+                }
+                ring.write(block);
+            }
+            ring.close();
+        });
+        writer.start();
+        double[] buffer = new double[100];
+        int expected = 0;
+        int numRead;
+        while ((numRead = ring.read(buffer)) > 0) {
+            for (int i = 0; i < numRead; i++) {
+                assertEquals(expected++, buffer[i], "reading back data");
+            }
+        }
+        writer.join(1000);
+        assertEquals(numValues, expected, "read everything");
+        assertTrue(ring.getOverflowCount() == 0, "writer waited");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.jsyn.util.PseudoRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compare the kernels with simple loops. Whichever version of BlockKernels is on the class path
+ * is tested. The results should be exactly the same.
+ */
+public class TestBlockKernels {
+    private static final int MAX_LENGTH = 37;
+    private final PseudoRandom random = new PseudoRandom(9876);
+
+    private double[] randomArray(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextRandomDouble();
+        }
+        return values;
+    }
+
+    private static void assertSame(double[] expected, double[] actual, String message) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], 0.0, message + " at " + i);
+        }
+    }
+
+    @Test
+    public void testElementWise() {
+        System.out.println("BlockKernels.isVectorized() = " + BlockKernels.isVectorized());
+        for (int start = 0; start < 5; start++) {
+            for (int limit = start; limit <= MAX_LENGTH; limit++) {
+                String where = start + " to " + limit;
+                double[] a = randomArray(MAX_LENGTH);
+                double[] b = randomArray(MAX_LENGTH);
+                double[] c = randomArray(MAX_LENGTH);
+                double[] out = randomArray(MAX_LENGTH);
+                double[] expected = out.clone();
+                for (int i = start; i < limit; i++) {
+                    expected[i] = a[i] + b[i];
+                }
+                BlockKernels.add(a, b, out, start, limit);
+                assertSame(expected, out, "add " + where);
+
+                for (int i = start; i < limit; i++) {
+                    expected[i] = a[i] * b[i];
+                }
+                BlockKernels.multiply(a, b, out, start, limit);
+                assertSame(expected, out, "multiply " + where);
+
+                for (int i = start; i < limit; i++) {
+                    expected[i] = (a[i] * b[i]) + c[i];
+                }
+                BlockKernels.multiplyAdd(a, b, c, out, start, limit);
+                assertSame(expected, out, "multiplyAdd " + where);
+
+                for (int i = start; i < limit; i++) {
+                    expected[i] += a[i];
+                }
+                BlockKernels.accumulate(a, out, start, limit);
+                assertSame(expected, out, "accumulate " + where);
+
+                for (int i = start; i < limit; i++) {
+                    expected[i] += a[i] * b[i];
+                }
+                BlockKernels.accumulateProduct(a, b, out, start, limit);
+                assertSame(expected, out, "accumulateProduct " + where);
+            }
+        }
+    }
+
+    @Test
+    public void testPan() {
+        double[] inputs = randomArray(MAX_LENGTH);
+        double[] pans = randomArray(MAX_LENGTH);
+        double[] left = new double[MAX_LENGTH];
+        double[] right = new double[MAX_LENGTH];
+        BlockKernels.pan(inputs, pans, left, right, 1, MAX_LENGTH - 1);
+        assertEquals(0.0, left[0], 0.0);
+        assertEquals(0.0, right[MAX_LENGTH - 1], 0.0);
+        for (int i = 1; i < (MAX_LENGTH - 1); i++) {
+            double gainB = (pans[i] * 0.5) + 0.5;
+            assertEquals(inputs[i] * (1.0 - gainB), left[i], 0.0, "left " + i);
+            assertEquals(inputs[i] * gainB, right[i], 0.0, "right " + i);
+        }
+    }
+
+    @Test
+    public void testInterleave() {
+        for (int stride = 1; stride <= 18; stride++) {
+            for (int count = 0; count <= 19; count++) {
+                for (int offset = 0; offset < Math.min(stride, 3); offset++) {
+                    double[] source = randomArray(count);
+                    double[] interleaved = randomArray((count * stride) + 3);
+                    double[] expected = interleaved.clone();
+                    for (int i = 0; i < count; i++) {
+                        expected[offset + (i * stride)] = source[i];
+                    }
+                    BlockKernels.interleave(source, interleaved, offset, stride, count);
+                    String where = "stride " + stride + ", count " + count;
+                    assertSame(expected, interleaved, "interleave " + where);
+
+                    double[] destination = new double[count];
+                    BlockKernels.deinterleave(interleaved, offset, stride, destination, count);
+                    assertSame(source, destination, "deinterleave " + where);
+                }
+            }
+        }
+    }
+}
@@ -267,4 +267,118 @@ public class TestFifo {
         }
         watchdog.interrupt();
     }
+
+    @Test
+    public void testWriteWithoutWaitDropsExtra() {
+        AudioFifo fifo = new AudioFifo();
+        fifo.allocate(8);
+        fifo.setWriteWaitEnabled(false);
+        fifo.setReadWaitEnabled(false);
+        double[] data = new double[12];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i;
+        }
+        fifo.write(data, 0, 5);
+        fifo.write(data, 5, 7); // only 3 will fit
+        assertEquals(8, fifo.available(), "full");
+        double[] readBuffer = new double[12];
+        assertEquals(8, fifo.read(readBuffer), "read what is there");
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, readBuffer[i], "data across the wrap");
+        }
+    }
+
+    @Test
+    public void testInterleavedFrames() {
+        AudioFifo fifo = new AudioFifo();
+        fifo.allocate(16);
+        fifo.setSamplesPerFrame(3);
+        fifo.setWriteWaitEnabled(false);
+        fifo.setReadWaitEnabled(false);
+
+        double[][] channels = new double[3][4];
+        for (int frame = 0; frame < 4; frame++) {
+            for (int channel = 0; channel < 3; channel++) {
+                channels[channel][frame] = (frame * 10) + channel;
+            }
+        }
+        assertEquals(4, fifo.writeFrames(channels, 0, 4), "write separate channels");
+        // Only one more whole frame fits in the 4 remaining samples.
+        assertEquals(1, fifo.writeFrames(channels, 0, 4), "never split a frame");
+        assertEquals(5, fifo.availableFrames(), "frames available");
+
+        double[] interleaved = new double[3 * 2];
+        assertEquals(2, fifo.readFrames(interleaved, 0, 2), "read interleaved");
+        assertEquals(0.0, interleaved[0], "frame 0 channel 0");
+        assertEquals(12.0, interleaved[5], "frame 1 channel 2");
+
+        double[] moreFrames = { 40.0, 41.0, 42.0, 50.0, 51.0, 52.0 };
+        assertEquals(2, fifo.writeFrames(moreFrames, 0, 2), "write interleaved across wrap");
+
+        double[][] output = new double[3][8];
+        assertEquals(5, fifo.readFrames(output, 1, 8), "read separate channels");
+        assertEquals(20.0, output[0][1], "frame 2 channel 0");
+        assertEquals(32.0, output[2][2], "frame 3 channel 2");
+        assertEquals(1.0, output[1][3], "frame 4 channel 1");
+        assertEquals(51.0, output[1][5], "frame 6 channel 1");
+        assertEquals(0, fifo.available(), "empty");
+    }
+
+    @Test
+    public void testCloseReleasesReader() throws InterruptedException {
+        final AudioFifo fifo = new AudioFifo();
+        fifo.allocate(8);
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            fifo.close();
+        });
+        closer.start();
+        Thread watchdog = startWatchdog(500);
+        assertEquals(0, fifo.read(new double[4]), "closed while waiting");
+        watchdog.interrupt();
+        closer.join();
+    }
+
+    @Test
+    public void testMultipleWriters() throws InterruptedException {
+        final int numWriters = 4;
+        final int blockSize = 4;
+        final int numBlocks = 2000;
+        final AudioFifo fifo = new AudioFifo();
+        assertFalse(fifo.isLockFree(), "locked by default");
+        fifo.allocate(64);
+        Thread[] writers = new Thread[numWriters];
+        for (int w = 0; w < numWriters; w++) {
+            final int writerIndex = w;
+            writers[w] = new Thread(() -> {
+                double[] block = new double[blockSize];
+                for (int b = 0; b < numBlocks; b++) {
+                    for (int i = 0; i < blockSize; i++) {
+                        block[i] = (writerIndex * 1000000) + (b * blockSize) + i;
+                    }
+                    fifo.write(block);
+                }
+            });
+            writers[w].start();
+        }
+        Thread watchdog = startWatchdog(10 * 1000);
+        int[] nextBlock = new int[numWriters];
+        double[] block = new double[blockSize];
+        for (int n = 0; n < (numWriters * numBlocks); n++) {
+            assertEquals(blockSize, fifo.read(block), "read whole block");
+            int writerIndex = (int) (block[0] / 1000000);
+            double expected = (writerIndex * 1000000) + (nextBlock[writerIndex]++ * blockSize);
+            for (int i = 0; i < blockSize; i++) {
+                assertEquals(expected + i, block[i], "blocks are not interleaved");
+            }
+        }
+        watchdog.interrupt();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(0, fifo.available(), "all read");
+    }
 }
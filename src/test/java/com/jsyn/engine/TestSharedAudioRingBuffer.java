@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.jsyn.io.SharedAudioRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSharedAudioRingBuffer {
+    private static final int NUM_SAMPLES = 1000 * 1000;
+    private static final int BLOCK_SIZE = 500; // not a power of two so blocks straddle the wrap
+
+    private static File createTempFile() throws IOException {
+        File shm = new File("/dev/shm");
+        File file = shm.isDirectory() && shm.canWrite()
+                ? File.createTempFile("test_shared_ring", ".buf", shm)
+                : File.createTempFile("test_shared_ring", ".buf");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void writeRamp(SharedAudioRingBuffer output) {
+        double[] block = new double[BLOCK_SIZE];
+        int value = 0;
+        while (value < NUM_SAMPLES) {
+            for (int i = 0; i < block.length; i++) {
+                block[i] = value++;
+            }
+            output.write(block);
+        }
+        output.close();
+    }
+
+    /**
+     * Read the ramp written by writeRamp().
+     *
+     * @return number of samples read in order
+     */
+    private static int readRamp(SharedAudioRingBuffer input) {
+        double[] block = new double[BLOCK_SIZE * 3];
+        int expected = 0;
+        int numRead;
+        do {
+            numRead = input.read(block);
+            for (int i = 0; i < numRead; i++) {
+                if (block[i] != expected) {
+                    return expected;
+                }
+                expected++;
+            }
+        } while (numRead > 0);
+        return expected;
+    }
+
+    @Test
+    public void testHeader() throws IOException {
+        File file = createTempFile();
+        SharedAudioRingBuffer output = SharedAudioRingBuffer.create(file, 4, 1024, 48000.0);
+        output.setFrameTimeOrigin(12345);
+        SharedAudioRingBuffer input = SharedAudioRingBuffer.open(file);
+        assertEquals(4, input.getSamplesPerFrame(), "samplesPerFrame");
+        assertEquals(1024, input.size(), "size");
+        assertEquals(48000.0, input.getFrameRate(), "frame rate");
+        assertEquals(12345, input.getReadFrameTime(), "frame time origin");
+
+        output.write(new double[4 * 3]);
+        assertEquals(12345 + 3, input.getWriteFrameTime(), "write frame time");
+        input.setReadWaitEnabled(false);
+        assertEquals(8, input.read(new double[8]), "read two frames");
+        assertEquals(12345 + 2, input.getReadFrameTime(), "read frame time");
+        assertTrue(input.getWriteNanoTime() <= System.nanoTime(), "write time in the past");
+
+        // Writes that do not fit are dropped.
+        output.write(new double[1024]);
+        assertEquals(1024, output.getOverflowCount(), "overflow");
+        assertThrows(IllegalStateException.class, () -> input.write(1.0));
+    }
+
+    @Test
+    public void testNotShared() throws IOException {
+        File file = createTempFile();
+        assertThrows(IOException.class, () -> SharedAudioRingBuffer.open(file));
+    }
+
+    @Test
+    public void testThreads() throws IOException, InterruptedException {
+        File file = createTempFile();
+        final SharedAudioRingBuffer output = SharedAudioRingBuffer.create(file, 1, 4096, 44100.0);
+        output.setWriteWaitEnabled(true);
+        SharedAudioRingBuffer input = SharedAudioRingBuffer.open(file);
+        Thread writer = new Thread(() -> writeRamp(output));
+        writer.start();
+        assertEquals(NUM_SAMPLES, readRamp(input), "samples read in order");
+        writer.join();
+    }
+
+    /**
+     * Run in a separate JVM to read the ramp from the file given as the first argument.
+     */
+    public static class ReaderProcess {
+        public static void main(String[] args) throws IOException {
+            SharedAudioRingBuffer input = SharedAudioRingBuffer.open(new File(args[0]));
+            int numRead = readRamp(input);
+            input.close();
+            System.exit((numRead == NUM_SAMPLES) ? 0 : 1);
+        }
+    }
+
+    @Test
+    public void testTwoProcesses() throws IOException, InterruptedException {
+        File file = createTempFile();
+        SharedAudioRingBuffer output = SharedAudioRingBuffer.create(file, 2, 8192, 44100.0);
+        output.setWriteWaitEnabled(true);
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+                + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+                System.getProperty("java.class.path"), ReaderProcess.class.getName(),
+                file.getAbsolutePath());
+        builder.inheritIO();
+        Process process = builder.start();
+        long startTime = System.nanoTime();
+        writeRamp(output);
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), "reader finished");
+        double elapsed = (System.nanoTime() - startTime) * 1.0e-9;
+        System.out.printf("SharedAudioRingBuffer: %d samples between JVMs in %.3f sec%n",
+                NUM_SAMPLES, elapsed);
+        assertEquals(0, process.exitValue(), "reader got all the samples in order");
+        assertTrue(output.isReaderClosed(), "reader closed");
+    }
+}
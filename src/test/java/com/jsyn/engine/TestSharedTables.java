@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import com.softsynth.math.FourierMath;
+import org.junit.jupiter.api.Test;
+
+public class TestSharedTables {
+
+    private static double[] renderSawtooth(MultiTable multiTable) {
+        double[] output = new double[500];
+        double phase = -1.0;
+        double increment = 0.013;
+        double level = multiTable.convertPhaseIncrementToLevel(increment);
+        for (int i = 0; i < output.length; i++) {
+            output[i] = multiTable.calculateSawtooth(phase, increment, level);
+            phase += increment;
+            if (phase >= 1.0) {
+                phase -= 2.0;
+            }
+        }
+        return output;
+    }
+
+    @Test
+    public void testWarmUp() {
+        SharedTables.warmUp(10);
+        double[] sine = FourierMath.getSineTable(1024);
+        assertEquals(1.0, sine[256], 1.0e-12);
+    }
+
+    @Test
+    public void testSaveAndLoadStream() throws IOException {
+        double[] expected = renderSawtooth(MultiTable.getInstance());
+        double[] expectedSine = FourierMath.getSineTable(512).clone();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SharedTables.save(bytes);
+
+        MultiTable before = MultiTable.getInstance();
+        SharedTables.load(new ByteArrayInputStream(bytes.toByteArray()));
+        assertNotSame(before, MultiTable.getInstance(), "tables replaced");
+        assertArrayEquals(expected, renderSawtooth(MultiTable.getInstance()), 0.0);
+        assertArrayEquals(expectedSine, FourierMath.getSineTable(512), 0.0);
+    }
+
+    @Test
+    public void testLoadMappedFile() throws IOException {
+        double[] expected = renderSawtooth(MultiTable.getInstance());
+        File file = File.createTempFile("jsyn_tables", ".bin");
+        file.deleteOnExit();
+        SharedTables.save(file);
+        SharedTables.load(file);
+        assertArrayEquals(expected, renderSawtooth(MultiTable.getInstance()), 0.0);
+
+        // An FFT using the loaded tables.
+        int size = 256;
+        double[] ar = new double[size];
+        double[] ai = new double[size];
+        ar[3] = 1.0;
+        FourierMath.fft(size, ar, ai);
+        FourierMath.ifft(size, ar, ai);
+        assertEquals(1.0, ar[3], 1.0e-9);
+        file.delete();
+    }
+
+    @Test
+    public void testRejectBadSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SharedTables.save(bytes);
+        byte[] data = bytes.toByteArray();
+        MultiTable before = MultiTable.getInstance();
+
+        byte[] wrongVersion = data.clone();
+        wrongVersion[7] = (byte) (SharedTables.FORMAT_VERSION + 1);
+        assertThrows(IOException.class,
+                () -> SharedTables.load(new ByteArrayInputStream(wrongVersion)));
+
+        byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class,
+                () -> SharedTables.load(new ByteArrayInputStream(truncated)));
+
+        assertThrows(IOException.class,
+                () -> SharedTables.load(new ByteArrayInputStream(new byte[] {
+                    1, 2, 3, 4, 5, 6, 7, 8
+                })));
+        assertEquals(before, MultiTable.getInstance(), "bad snapshots are not used");
+    }
+}
@@ -25,11 +25,17 @@ import com.jsyn.util.WaveFileWriter;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class TestWaveFileReadWrite {
 
     public void checkWriteReadWave(int numChannels, float[] data) throws IOException {
+        checkWriteReadWave(numChannels, data, 16, false);
+    }
+
+    public void checkWriteReadWave(int numChannels, float[] data, int bitsPerSample,
+            boolean rf64Enabled) throws IOException {
         File temp = File.createTempFile("test_wave", ".wav");
         temp.deleteOnExit();
         System.out.println("Creating wave file " + temp);
@@ -37,7 +43,8 @@ public class TestWaveFileReadWrite {
         WaveFileWriter writer = new WaveFileWriter(temp);
         writer.setFrameRate(44100);
         writer.setSamplesPerFrame(numChannels);
-        writer.setBitsPerSample(16);
+        writer.setBitsPerSample(bitsPerSample);
+        writer.setRF64Enabled(rf64Enabled);
 
         for (float datum : data) {
             writer.write(datum);
@@ -51,12 +58,16 @@ public class TestWaveFileReadWrite {
         assertEquals(numChannels, sample.getChannelsPerFrame(), "stereo");
         assertEquals(44100.0, sample.getFrameRate(), "frame rate");
 
+        assertEquals(data.length / numChannels, sample.getNumFrames(), "numFrames");
         for (int i = 0; i < data.length; i++) {
             float v = data[i];
-            if (v > 1.0)
-                v = 1.0f;
-            else if (v < -1.0)
-                v = -1.0f;
+            // Float data is not clipped.
+            if (bitsPerSample < 32) {
+                if (v > 1.0)
+                    v = 1.0f;
+                else if (v < -1.0)
+                    v = -1.0f;
+            }
             assertEquals(v, sample.readDouble(i), 0.0001, "sample data");
         }
 
@@ -83,6 +94,76 @@ public class TestWaveFileReadWrite {
         checkWriteReadWave(2, data);
     }
 
+    @Test
+    public void testFloatAnd24Bit() throws IOException {
+        float[] data = new float[3000];
+        for (int i = 0; i < data.length; i++) {
+            double phase = i * Math.PI * 2.0 / 100;
+            data[i] = (float) (1.3 * Math.sin(phase));
+        }
+
+        checkWriteReadWave(2, data, 32, false);
+        checkWriteReadWave(1, data, 24, false);
+        // Writing in bulk uses a different code path.
+        File temp = File.createTempFile("test_wave", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        writer.setBitsPerSample(32);
+        writer.write(data);
+        writer.close();
+        FloatSample sample = SampleLoader.loadFloatSample(temp);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], sample.readDouble(i), "float data");
+        }
+    }
+
+    @Test
+    public void testReservedHeader() throws IOException {
+        float[] data = new float[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i / 2000.0f;
+        }
+        // Small files with room for a ds64 chunk should still be normal WAV files.
+        checkWriteReadWave(2, data, 16, true);
+    }
+
+    @Test
+    public void testPreallocate() throws IOException {
+        File temp = File.createTempFile("test_wave", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        writer.setPreallocatedSize(1024 * 1024);
+        writer.write(new double[100]);
+        assertEquals(1024 * 1024, temp.length(), "preallocated");
+        writer.close();
+        assertEquals(44 + 200, temp.length(), "truncated to actual size");
+    }
+
+    @Test
+    public void testWriteWhileInterrupted() throws IOException {
+        File temp = File.createTempFile("test_wave", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        double[] data = new double[100 * 1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (i % 100) / 200.0;
+        }
+        // Stopping an engine interrupts the thread that writes the file.
+        Thread.currentThread().interrupt();
+        try {
+            writer.write(data);
+            writer.close();
+            assertTrue(Thread.currentThread().isInterrupted(), "interrupt status kept");
+        } finally {
+            Thread.interrupted();
+        }
+
+        FloatSample sample = SampleLoader.loadFloatSample(temp);
+        assertEquals(data.length, sample.getNumFrames(), "numFrames");
+        assertEquals(data[data.length - 1], sample.readDouble(data.length - 1), 0.0001,
+                "last sample");
+    }
+
     @Test
     public void testArguments() throws IOException {
         File temp = File.createTempFile("test_wave", ".wav");
@@ -393,6 +393,32 @@ public class TestQueuedDataPort {
         }
     }
 
+    @Test
+    public void testReadNextFrames() {
+        float[] data = {
+                0.0f, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f
+        };
+        FloatSample sample = new FloatSample(data);
+        UnitDataQueuePort dataQueue = new UnitDataQueuePort("test");
+        queueDirect(dataQueue, sample, 2, 4, 1);
+
+        double[] buffer = new double[12];
+        double period = synth.getFramePeriod();
+        assertEquals(3, dataQueue.readNextFrames(period, buffer, 0, 3), "first read");
+        // Stops at the loop point.
+        assertEquals(1, dataQueue.readNextFrames(period, buffer, 3, 10), "before loop");
+        assertEquals(4, dataQueue.readNextFrames(period, buffer, 4, 10), "after loop");
+        assertFalse(dataQueue.hasMore(), "end empty");
+        assertEquals(0, dataQueue.readNextFrames(period, buffer, 8, 10), "nothing left");
+        double[] expected = {
+                2.0, 3.0, 4.0, 5.0, 2.0, 3.0, 4.0, 5.0, 0.0, 0.0, 0.0, 0.0
+        };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer[i], 0.0, "frame " + i);
+        }
+        assertEquals(8, dataQueue.getFrameCount(), "frames moved");
+    }
+
     @Test
     public void testQueueCallback() {
         float[] data = {
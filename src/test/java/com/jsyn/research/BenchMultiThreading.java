@@ -16,6 +16,7 @@
 
 package com.jsyn.research;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -23,6 +24,7 @@ import java.util.ArrayList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 // TODO: Use thread pools, or maybe JMH?
+@Tag("benchmark")
 public class BenchMultiThreading {
 
     private static final int FRAMES_PER_BLOCK = 64;
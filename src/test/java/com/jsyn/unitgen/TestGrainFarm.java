@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import org.junit.jupiter.api.Test;
+
+public class TestGrainFarm extends NonRealTimeTestCase {
+    private static final int BLOCK = Synthesizer.FRAMES_PER_BLOCK;
+
+    private double[] render(GrainFarm farm, int numBlocks) {
+        double[] result = new double[numBlocks * BLOCK];
+        for (int b = 0; b < numBlocks; b++) {
+            farm.generate(0, BLOCK);
+            System.arraycopy(farm.output.getValues(), 0, result, b * BLOCK, BLOCK);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSingleDenseGrain() {
+        GrainFarm farm = new GrainFarm();
+        synthesisEngine.add(farm);
+        farm.allocateHighDensity(1);
+        assertTrue(farm.isHighDensity());
+        // A density of 1.0 plays the grains back to back.
+        farm.density.setValueInternal(1.0);
+        int grainFrames = (int) (farm.duration.getValues()[0] * synthesisEngine.getFrameRate());
+
+        double[] result = render(farm, 200);
+        double phaseIncrement = 0.1 / Math.PI;
+        double phase = 0.0;
+        for (int n = 0; n < result.length; n++) {
+            phase += phaseIncrement;
+            if (phase > 1.0) {
+                phase -= 2.0;
+            }
+            int frameInGrain = n % grainFrames;
+            double envelope = 0.5
+                    - (0.5 * Math.cos(2.0 * Math.PI * (frameInGrain + 1) / grainFrames));
+            double expected = envelope * SineOscillator.fastSin(phase);
+            assertEquals(expected, result[n], 1.0e-9, "frame " + n);
+        }
+    }
+
+    @Test
+    public void testManyDenseGrains() {
+        int numGrains = 2000;
+        GrainFarm farm = new GrainFarm();
+        synthesisEngine.add(farm);
+        farm.allocateHighDensity(numGrains);
+        farm.density.setValueInternal(0.5);
+        farm.rateRange.setValueInternal(2.0);
+        farm.amplitudeRange.setValueInternal(0.5);
+        double[] result = render(farm, 1000);
+        double sumSquares = 0.0;
+        for (double value : result) {
+            assertTrue(Math.abs(value) <= 1.0, "bounded " + value);
+            sumSquares += value * value;
+        }
+        assertTrue(sumSquares > 0.0, "not silent");
+    }
+
+    @Test
+    public void testDenseSampleGrains() {
+        float[] data = new float[1000];
+        Arrays.fill(data, 0.5f);
+        FloatSample sample = new FloatSample(data);
+        SampleGrainFarm farm = new SampleGrainFarm();
+        synthesisEngine.add(farm);
+        farm.setSample(sample);
+        farm.allocateHighDensity(100);
+        farm.density.setValueInternal(1.0);
+        farm.positionRange.setValueInternal(2.0);
+        farm.rateRange.setValueInternal(1.0);
+        double[] result = render(farm, 500);
+        // Every grain is active and reads 0.5 so the output is 0.5 times the mean envelope.
+        double sum = 0.0;
+        for (double value : result) {
+            assertTrue((value >= 0.0) && (value <= 0.5), "in range " + value);
+            sum += value;
+        }
+        assertEquals(0.25, sum / result.length, 0.01, "mean");
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.jsyn.unitgen;
 
+import java.util.Arrays;
+
 import com.jsyn.engine.SynthesisEngine;
 import com.softsynth.math.AudioMath;
 import org.junit.jupiter.api.BeforeEach;
@@ -75,6 +77,47 @@ public class TestMath {
 
     }
 
+    @Test
+    public void testMixerMono() {
+        MixerMono mixer = new MixerMono(3);
+        mixer.setSynthesisEngine(synthesisEngine);
+        for (int n = 0; n < 3; n++) {
+            Arrays.fill(mixer.input.getValues(n), 0.1 * (n + 1));
+            Arrays.fill(mixer.gain.getValues(n), 1.5 - n);
+        }
+        Arrays.fill(mixer.amplitude.getValues(), 0.5);
+
+        mixer.generate(1, 7);
+
+        double expected = ((0.1 * 1.5) + (0.2 * 0.5) + (0.3 * -0.5)) * 0.5;
+        double[] outputs = mixer.output.getValues(0);
+        assertEquals(0.0, outputs[0], 0.0, "MixerMono before start");
+        for (int i = 1; i < 7; i++) {
+            assertEquals(expected, outputs[i], 1.0e-12, "MixerMono");
+        }
+        assertEquals(0.0, outputs[7], 0.0, "MixerMono after limit");
+    }
+
+    @Test
+    public void testMixerStereo() {
+        MixerStereo mixer = new MixerStereo(2);
+        mixer.setSynthesisEngine(synthesisEngine);
+        Arrays.fill(mixer.input.getValues(0), 0.4);
+        Arrays.fill(mixer.input.getValues(1), -0.2);
+        Arrays.fill(mixer.gain.getValues(0), 0.5);
+        Arrays.fill(mixer.gain.getValues(1), 2.0);
+        Arrays.fill(mixer.pan.getValues(0), -1.0); // left
+        Arrays.fill(mixer.pan.getValues(1), 1.0); // right
+        Arrays.fill(mixer.amplitude.getValues(), 0.25);
+
+        mixer.generate();
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(0.4 * 0.5 * 0.25, mixer.output.getValues(0)[i], 1.0e-6, "left");
+            assertEquals(-0.2 * 2.0 * 0.25, mixer.output.getValues(1)[i], 1.0e-6, "right");
+        }
+    }
+
     /**
      * Unit test for Subtract.java - added by Lisa Tolentino 06/17/2009
      */
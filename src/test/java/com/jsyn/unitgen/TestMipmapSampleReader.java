@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import com.jsyn.ports.UnitOutputPort;
+import org.junit.jupiter.api.Test;
+
+public class TestMipmapSampleReader extends NonRealTimeTestCase {
+    private static final int BLOCK = Synthesizer.FRAMES_PER_BLOCK;
+
+    private FloatSample makeSine(int numFrames, double frequency) {
+        double frameRate = synthesisEngine.getFrameRate();
+        float[] data = new float[numFrames];
+        for (int i = 0; i < numFrames; i++) {
+            data[i] = (float) (0.5 * Math.sin(2.0 * Math.PI * frequency * i / frameRate));
+        }
+        FloatSample sample = new FloatSample(data);
+        sample.setFrameRate(frameRate);
+        return sample;
+    }
+
+    private MipmapSampleReader createReader(double ratio) {
+        MipmapSampleReader reader = new MipmapSampleReader();
+        synthesisEngine.add(reader);
+        Arrays.fill(reader.amplitude.getValues(), 1.0);
+        Arrays.fill(reader.rate.getValues(), ratio * synthesisEngine.getFrameRate());
+        return reader;
+    }
+
+    private double[] render(UnitGenerator unit, UnitOutputPort port, int numFrames) {
+        double[] result = new double[numFrames];
+        for (int i = 0; i < numFrames; i += BLOCK) {
+            unit.generate(0, BLOCK);
+            System.arraycopy(port.getValues(), 0, result, i, BLOCK);
+        }
+        return result;
+    }
+
+    private static double rms(double[] values, int start, int end) {
+        double sum = 0.0;
+        for (int i = start; i < end; i++) {
+            sum += values[i] * values[i];
+        }
+        return Math.sqrt(sum / (end - start));
+    }
+
+    @Test
+    public void testTransposeUp() {
+        FloatSample sample = makeSine(40000, 200.0);
+        MipmapSampleReader reader = createReader(4.0);
+        reader.play(sample);
+        double[] result = render(reader, reader.output, 4096);
+        double frameRate = synthesisEngine.getFrameRate();
+        for (int i = 100; i < result.length; i++) {
+            double expected = 0.5 * Math.sin(2.0 * Math.PI * 800.0 * i / frameRate);
+            assertEquals(expected, result[i], 0.01, "frame " + i);
+        }
+    }
+
+    @Test
+    public void testNoAliasing() {
+        // Three octaves up moves 5 kHz far above the Nyquist rate.
+        FloatSample sample = makeSine(100000, 5000.0);
+        MipmapSampleReader reader = createReader(8.0);
+        reader.play(sample);
+        double mipmapped = rms(render(reader, reader.output, 8192), 512, 8192);
+
+        VariableRateMonoReader linear = new VariableRateMonoReader();
+        synthesisEngine.add(linear);
+        Arrays.fill(linear.amplitude.getValues(), 1.0);
+        Arrays.fill(linear.rate.getValues(), 8.0 * synthesisEngine.getFrameRate());
+        linear.dataQueue.createQueueDataCommand(sample).run();
+        double aliased = rms(render(linear, linear.output, 8192), 512, 8192);
+
+        assertTrue(aliased > 0.1, "linear aliases, rms = " + aliased);
+        assertTrue(mipmapped < 0.01, "mipmap rms = " + mipmapped);
+    }
+
+    @Test
+    public void testEndAndLoop() {
+        FloatSample sample = makeSine(1000, 441.0);
+        MipmapSampleReader reader = createReader(2.0);
+        assertFalse(reader.isPlaying(), "idle");
+        reader.play(sample);
+        assertTrue(reader.isPlaying(), "playing");
+        double[] result = render(reader, reader.output, 1024);
+        assertFalse(reader.isPlaying(), "finished");
+        assertEquals(0.0, rms(result, 520, 1024), 0.0, "silent after end");
+
+        reader.play(sample, 100, 900);
+        result = render(reader, reader.output, 4096);
+        assertTrue(reader.isPlaying(), "looping");
+        assertTrue(rms(result, 3000, 4096) > 0.3, "still playing");
+        reader.stopPlaying();
+        result = render(reader, reader.output, 64);
+        assertEquals(0.0, rms(result, 0, 64), 0.0, "stopped");
+    }
+
+    @Test
+    public void testNegativeRateHolds() {
+        FloatSample sample = makeSine(1000, 441.0);
+        MipmapSampleReader reader = createReader(1.0);
+        reader.play(sample);
+        render(reader, reader.output, 256);
+        Arrays.fill(reader.rate.getValues(), -2.0 * synthesisEngine.getFrameRate());
+        double[] result = render(reader, reader.output, 256);
+        for (int i = 1; i < result.length; i++) {
+            assertEquals(result[0], result[i], 0.0, "held at " + i);
+        }
+        assertTrue(reader.isPlaying(), "still playing");
+    }
+}
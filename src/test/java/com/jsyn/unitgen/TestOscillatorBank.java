@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.Synthesizer;
+import org.junit.jupiter.api.Test;
+
+public class TestOscillatorBank extends NonRealTimeTestCase {
+    private static final int BLOCK = Synthesizer.FRAMES_PER_BLOCK;
+
+    private double[] render(OscillatorBank bank, int numBlocks) {
+        double[] result = new double[numBlocks * BLOCK];
+        for (int b = 0; b < numBlocks; b++) {
+            bank.generate(0, BLOCK);
+            System.arraycopy(bank.output.getValues(), 0, result, b * BLOCK, BLOCK);
+        }
+        return result;
+    }
+
+    @Test
+    public void testPartialsMatchSine() {
+        OscillatorBank bank = new OscillatorBank(3);
+        synthesisEngine.add(bank);
+        bank.setHalfLife(0.0);
+        double[] frequencies = {
+                440.0, 1234.5, 7000.0
+        };
+        double[] amplitudes = {
+                0.5, 0.25, 0.125
+        };
+        bank.setPartials(frequencies, amplitudes, 0, 3);
+        double frameRate = synthesisEngine.getFrameRate();
+        double[] result = render(bank, 100);
+        // The amplitudes ramp up during the first block.
+        for (int n = BLOCK; n < result.length; n++) {
+            double expected = 0.0;
+            for (int k = 0; k < 3; k++) {
+                expected += amplitudes[k]
+                        * Math.sin(2.0 * Math.PI * frequencies[k] * (n + 1) / frameRate);
+            }
+            assertEquals(expected, result[n], 1.0e-6, "frame " + n);
+        }
+    }
+
+    @Test
+    public void testGlide() {
+        OscillatorBank bank = new OscillatorBank(1);
+        synthesisEngine.add(bank);
+        double halfLife = 0.01;
+        bank.setHalfLife(halfLife);
+        bank.setPartial(0, 1000.0, 1.0);
+        int numBlocks = (int) ((halfLife * synthesisEngine.getFrameRate()) / BLOCK);
+        double[] result = render(bank, numBlocks);
+        double peak = 0.0;
+        for (int n = result.length - 100; n < result.length; n++) {
+            peak = Math.max(peak, Math.abs(result[n]));
+        }
+        // About half way there after one half-life.
+        assertEquals(0.5, peak, 0.05, "amplitude after one half-life");
+        // No jumps bigger than the sine itself can make.
+        double maxStep = (2.0 * Math.PI * 1000.0) / synthesisEngine.getFrameRate();
+        for (int n = 1; n < result.length; n++) {
+            assertTrue(Math.abs(result[n] - result[n - 1]) <= maxStep, "step at " + n);
+        }
+    }
+
+    @Test
+    public void testNumPartialsAndScaler() {
+        OscillatorBank bank = new OscillatorBank(4);
+        synthesisEngine.add(bank);
+        bank.setHalfLife(0.0);
+        for (int k = 0; k < 4; k++) {
+            bank.setPartial(k, 500.0 * (k + 1), 0.25);
+        }
+        bank.setNumPartials(1);
+        Arrays.fill(bank.frequencyScaler.getValues(), 2.0);
+        Arrays.fill(bank.amplitude.getValues(), 0.5);
+        double frameRate = synthesisEngine.getFrameRate();
+        double[] result = render(bank, 20);
+        for (int n = BLOCK; n < result.length; n++) {
+            double expected = 0.5 * 0.25 * Math.sin(2.0 * Math.PI * 1000.0 * (n + 1) / frameRate);
+            assertEquals(expected, result[n], 1.0e-6, "frame " + n);
+        }
+        assertThrows(IllegalArgumentException.class, () -> bank.setNumPartials(5));
+    }
+}
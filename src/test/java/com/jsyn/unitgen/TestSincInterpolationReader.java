@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import com.jsyn.ports.QueueDataCommand;
+import com.jsyn.ports.QueueDataEvent;
+import com.jsyn.ports.UnitDataQueueCallback;
+import org.junit.jupiter.api.Test;
+
+public class TestSincInterpolationReader extends NonRealTimeTestCase {
+    private static final int BLOCK = Synthesizer.FRAMES_PER_BLOCK;
+
+    private FloatSample makeSine(int numFrames, double frequency, int numChannels) {
+        double frameRate = synthesisEngine.getFrameRate();
+        float[] data = new float[numFrames * numChannels];
+        for (int i = 0; i < numFrames; i++) {
+            double value = 0.5 * Math.sin(2.0 * Math.PI * frequency * i / frameRate);
+            for (int c = 0; c < numChannels; c++) {
+                // Invert the odd channels.
+                data[(i * numChannels) + c] = (float) (((c & 1) == 0) ? value : -value);
+            }
+        }
+        FloatSample sample = new FloatSample(data, numChannels);
+        sample.setFrameRate(frameRate);
+        return sample;
+    }
+
+    /** @param ratio sample frames per output frame */
+    private double[] render(VariableRateMonoReader reader, double ratio, int numFrames) {
+        double[] result = new double[numFrames];
+        for (int i = 0; i < numFrames; i += BLOCK) {
+            // The rate is in frames per second.
+            Arrays.fill(reader.rate.getValues(), ratio * synthesisEngine.getFrameRate());
+            reader.generate(0, BLOCK);
+            System.arraycopy(reader.output.getValues(), 0, result, i, BLOCK);
+        }
+        return result;
+    }
+
+    private VariableRateMonoReader createMonoReader(FloatSample sample, int zeroCrossings) {
+        VariableRateMonoReader reader = new VariableRateMonoReader();
+        synthesisEngine.add(reader);
+        reader.setSincInterpolation(zeroCrossings);
+        Arrays.fill(reader.amplitude.getValues(), 1.0);
+        reader.dataQueue.createQueueDataCommand(sample).run();
+        return reader;
+    }
+
+    private static double rms(double[] values, int start, int end) {
+        double sum = 0.0;
+        for (int i = start; i < end; i++) {
+            sum += values[i] * values[i];
+        }
+        return Math.sqrt(sum / (end - start));
+    }
+
+    @Test
+    public void testUnityRate() {
+        FloatSample sample = makeSine(4000, 1000.0, 1);
+        VariableRateMonoReader reader = createMonoReader(sample, 8);
+        assertEquals(8, reader.getSincInterpolation());
+        double[] result = render(reader, 1.0, 2048);
+        // The first output is the silence before the sample, like the linear mode, plus some
+        // ringing from the start of the sample.
+        assertEquals(0.0, result[0], 0.01, "start");
+        for (int i = 1; i < result.length; i++) {
+            assertEquals(sample.readDouble(i - 1), result[i], 2.0e-3, "frame " + i);
+        }
+    }
+
+    @Test
+    public void testHalfRate() {
+        FloatSample sample = makeSine(4000, 500.0, 1);
+        VariableRateMonoReader reader = createMonoReader(sample, 16);
+        double[] result = render(reader, 0.5, 2048);
+        double frameRate = synthesisEngine.getFrameRate();
+        for (int i = 100; i < result.length; i++) {
+            // The first frame of the sample is at output frame 2.
+            double position = (i * 0.5) - 1.0;
+            double expected = 0.5 * Math.sin(2.0 * Math.PI * 500.0 * position / frameRate);
+            assertEquals(expected, result[i], 2.0e-3, "frame " + i);
+        }
+    }
+
+    @Test
+    public void testPitchUpDoesNotAlias() {
+        // Two octaves up moves 12 kHz above the output Nyquist rate.
+        FloatSample sample = makeSine(40000, 12000.0, 1);
+        double linear = rms(render(createMonoReader(sample, 0), 4.0, 8192), 1024, 8192);
+        double sinc = rms(render(createMonoReader(sample, 16), 4.0, 8192), 1024, 8192);
+        assertTrue(linear > 0.1, "linear aliases, rms = " + linear);
+        assertTrue(sinc < (linear * 0.1), "sinc rms = " + sinc + ", linear = " + linear);
+    }
+
+    @Test
+    public void testHoldAfterEnd() {
+        float[] data = new float[100];
+        Arrays.fill(data, 0.25f);
+        FloatSample sample = new FloatSample(data);
+        sample.setFrameRate(synthesisEngine.getFrameRate());
+        VariableRateMonoReader reader = createMonoReader(sample, 8);
+        double[] result = render(reader, 1.3, 400);
+        double last = result[result.length - 1];
+        for (int i = 300; i < result.length; i++) {
+            assertEquals(last, result[i], 0.0, "hold " + i);
+        }
+        assertEquals(0.25, last, 0.01, "held value");
+    }
+
+    @Test
+    public void testReadAhead() {
+        int zeroCrossings = 8;
+        int maxLead = zeroCrossings + SincFrameReader.FRAMES_PER_READ + 1;
+        FloatSample sample = makeSine(1000, 1000.0, 1);
+        VariableRateMonoReader reader = new VariableRateMonoReader();
+        synthesisEngine.add(reader);
+        reader.setSincInterpolation(zeroCrossings);
+        final long[] finishedAt = { -1 };
+        final long[] played = { 0 };
+        QueueDataCommand command = reader.dataQueue.createQueueDataCommand(sample);
+        command.setCallback(new UnitDataQueueCallback() {
+            @Override
+            public void started(QueueDataEvent event) {
+            }
+
+            @Override
+            public void looped(QueueDataEvent event) {
+            }
+
+            @Override
+            public void finished(QueueDataEvent event) {
+                finishedAt[0] = played[0];
+            }
+        });
+        command.run();
+        Arrays.fill(reader.rate.getValues(), synthesisEngine.getFrameRate());
+        while (played[0] < sample.getNumFrames()) {
+            reader.generate(0, BLOCK);
+            played[0] += BLOCK;
+            long lead = reader.dataQueue.getFrameCount() - played[0];
+            if (finishedAt[0] < 0) {
+                assertTrue(lead > 0, "reads ahead, lead = " + lead);
+                assertTrue(lead <= maxLead, "lead = " + lead);
+            }
+        }
+        // The callback fires when the last frame is read, before it is played.
+        assertTrue(finishedAt[0] >= 0, "finished");
+        assertTrue(finishedAt[0] < sample.getNumFrames(), "early, at " + finishedAt[0]);
+        assertTrue(finishedAt[0] >= (sample.getNumFrames() - maxLead - BLOCK),
+                "at most maxLead early, at " + finishedAt[0]);
+    }
+
+    @Test
+    public void testStereo() {
+        FloatSample sample = makeSine(4000, 700.0, 2);
+        VariableRateStereoReader reader = new VariableRateStereoReader();
+        synthesisEngine.add(reader);
+        reader.setSincInterpolation(8);
+        Arrays.fill(reader.amplitude.getValues(), 1.0);
+        Arrays.fill(reader.rate.getValues(), 0.75 * synthesisEngine.getFrameRate());
+        reader.dataQueue.createQueueDataCommand(sample).run();
+        double sum = 0.0;
+        for (int b = 0; b < 200; b++) {
+            reader.generate(0, BLOCK);
+            for (int i = 0; i < BLOCK; i++) {
+                double left = reader.output.getValues(0)[i];
+                double right = reader.output.getValues(1)[i];
+                assertEquals(-left, right, 1.0e-12, "channels");
+                sum += Math.abs(left);
+            }
+        }
+        assertTrue(sum > 100.0, "not silent, sum = " + sum);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.unitgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.Spectrum;
+import com.softsynth.math.FourierMath;
+import org.junit.jupiter.api.Test;
+
+public class TestSpectralFFT extends NonRealTimeTestCase {
+
+    private static double signal(int i) {
+        return (0.5 * Math.sin(i * 0.1)) + (0.3 * Math.cos(i * 0.37)) + ((i % 7) * 0.01);
+    }
+
+    private void checkPassThrough(boolean amortizeFFT, boolean amortizeIFFT) {
+        int sizeLog2 = 8;
+        int size = 1 << sizeLog2;
+        SpectralFFT fft = new SpectralFFT(sizeLog2);
+        // Cover both the lazy and the preallocated IFFT buffers.
+        SpectralIFFT ifft = amortizeIFFT ? new SpectralIFFT(sizeLog2) : new SpectralIFFT();
+        fft.setAmortized(amortizeFFT);
+        ifft.setAmortized(amortizeIFFT);
+        synthesisEngine.add(fft);
+        synthesisEngine.add(ifft);
+        fft.output.connect(ifft.input);
+
+        int blockSize = Synthesizer.FRAMES_PER_BLOCK;
+        // The IFFT starts in the block where the first FFT completes.
+        int latency = (size - blockSize) + fft.getAddedLatencyFrames();
+        int numBlocks = (5 * size) / blockSize;
+        int frame = 0;
+        for (int b = 0; b < numBlocks; b++) {
+            double[] inputs = fft.input.getValues();
+            for (int i = 0; i < blockSize; i++) {
+                inputs[i] = signal(frame + i);
+            }
+            fft.generate(0, blockSize);
+            ifft.generate(0, blockSize);
+            double[] outputs = ifft.output.getValues();
+            for (int i = 0; i < blockSize; i++) {
+                int index = frame + i - latency - ifft.getAddedLatencyFrames();
+                double expected = (index >= 0) ? signal(index) : 0.0;
+                assertEquals(expected, outputs[i], 1.0e-9, "frame " + (frame + i));
+            }
+            frame += blockSize;
+        }
+        assertEquals(amortizeIFFT ? size : 0, ifft.getAddedLatencyFrames(), "IFFT latency");
+    }
+
+    @Test
+    public void testPassThrough() {
+        checkPassThrough(false, false);
+    }
+
+    @Test
+    public void testAmortizedPassThrough() {
+        checkPassThrough(true, false);
+        checkPassThrough(false, true);
+        checkPassThrough(true, true);
+    }
+
+    @Test
+    public void testSpectrumIsSymmetric() {
+        int sizeLog2 = 6;
+        int size = 1 << sizeLog2;
+        SpectralFFT fft = new SpectralFFT(sizeLog2);
+        synthesisEngine.add(fft);
+        int blockSize = Synthesizer.FRAMES_PER_BLOCK;
+        for (int frame = 0; frame < size; frame += blockSize) {
+            double[] inputs = fft.input.getValues();
+            for (int i = 0; i < blockSize; i++) {
+                inputs[i] = signal(frame + i);
+            }
+            fft.generate(0, blockSize);
+        }
+
+        double[] ar = new double[size];
+        double[] ai = new double[size];
+        for (int i = 0; i < size; i++) {
+            ar[i] = signal(i);
+        }
+        FourierMath.fft(size, ar, ai);
+        Spectrum spectrum = fft.output.getSpectrum();
+        for (int k = 0; k < size; k++) {
+            assertEquals(ar[k], spectrum.getReal()[k], 1.0e-12, "real " + k);
+            assertEquals(ai[k], spectrum.getImaginary()[k], 1.0e-12, "imag " + k);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.unitgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.SpectralWindowFactory;
+import com.jsyn.data.Spectrum;
+import org.junit.jupiter.api.Test;
+
+public class TestSpectralOverlapAdd extends NonRealTimeTestCase {
+
+    private static double signal(int i) {
+        return (0.5 * Math.sin(i * 0.1)) + (0.3 * Math.cos(i * 0.37)) + ((i % 7) * 0.01);
+    }
+
+    private void checkOutput(SpectralOverlapAdd stft, double gain) {
+        synthesisEngine.add(stft);
+        int blockSize = Synthesizer.FRAMES_PER_BLOCK;
+        int latency = stft.getLatencyFrames();
+        int numFrames = 5 * stft.getSize();
+        for (int frame = 0; frame < numFrames; frame += blockSize) {
+            double[] inputs = stft.input.getValues();
+            for (int i = 0; i < blockSize; i++) {
+                inputs[i] = signal(frame + i);
+            }
+            stft.generate(0, blockSize);
+            double[] outputs = stft.output.getValues();
+            for (int i = 0; i < blockSize; i++) {
+                int index = frame + i - latency;
+                double expected = (index >= 0) ? (gain * signal(index)) : 0.0;
+                assertEquals(expected, outputs[i], 1.0e-9, "hop " + stft.getHopSize()
+                        + ", frame " + (frame + i));
+            }
+        }
+    }
+
+    @Test
+    public void testPassThrough() {
+        int sizeLog2 = 8;
+        int size = 1 << sizeLog2;
+        for (int hopSize = size / 2; hopSize >= 8; hopSize /= 2) {
+            checkOutput(new SpectralOverlapAdd(sizeLog2, hopSize), 1.0);
+        }
+    }
+
+    @Test
+    public void testOtherWindows() {
+        int sizeLog2 = 7;
+        SpectralOverlapAdd stft = new SpectralOverlapAdd(sizeLog2, 1 << sizeLog2);
+        stft.setAnalysisWindow(RectangularWindow.getInstance());
+        stft.setSynthesisWindow(RectangularWindow.getInstance());
+        checkOutput(stft, 1.0);
+
+        stft = new SpectralOverlapAdd(sizeLog2, 32);
+        stft.setAnalysisWindow(SpectralWindowFactory.getHammingWindow(sizeLog2));
+        stft.setSynthesisWindow(RectangularWindow.getInstance());
+        checkOutput(stft, 1.0);
+    }
+
+    @Test
+    public void testPolarProcessor() {
+        SpectralOverlapAdd stft = new SpectralOverlapAdd(8, 64);
+        stft.addProcessor(new PolarSpectralProcessor() {
+            @Override
+            public void processPolar(double[] magnitudes, double[] phases, int numBins) {
+                for (int k = 0; k < numBins; k++) {
+                    magnitudes[k] *= 0.5;
+                }
+            }
+        });
+        checkOutput(stft, 0.5);
+    }
+
+    @Test
+    public void testProcessorChain() {
+        SpectralOverlapAdd stft = new SpectralOverlapAdd(8, 64);
+        SpectralProcessor negate = new SpectralProcessor() {
+            @Override
+            public void processSpectrum(Spectrum inputSpectrum, Spectrum outputSpectrum) {
+                for (int k = 0; k < inputSpectrum.size(); k++) {
+                    outputSpectrum.getReal()[k] = -inputSpectrum.getReal()[k];
+                    outputSpectrum.getImaginary()[k] = -inputSpectrum.getImaginary()[k];
+                }
+            }
+        };
+        SpectralProcessor twice = new PolarSpectralProcessor() {
+            @Override
+            public void processPolar(double[] magnitudes, double[] phases, int numBins) {
+                for (int k = 0; k < numBins; k++) {
+                    magnitudes[k] *= 2.0;
+                }
+            }
+        };
+        stft.addProcessor(negate);
+        stft.addProcessor(twice);
+        stft.addProcessor(negate);
+        stft.removeProcessor(negate);
+        checkOutput(stft, -2.0);
+    }
+
+    @Test
+    public void testBadHopSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SpectralOverlapAdd(8, 48));
+        assertThrows(IllegalArgumentException.class, () -> new SpectralOverlapAdd(8, 512));
+    }
+}
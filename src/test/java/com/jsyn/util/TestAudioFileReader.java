@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.jsyn.Synthesizer;
+import com.jsyn.data.FloatSample;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.io.AudioRingBuffer;
+import com.jsyn.unitgen.StreamReader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestAudioFileReader {
+    // Not a multiple of the chunk size so the last chunk is partial.
+    private static final int NUM_FRAMES = 10007;
+
+    private static File writeTestFile(int bitsPerSample) throws IOException {
+        File temp = File.createTempFile("test_file_reader", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        writer.setFrameRate(44100);
+        writer.setSamplesPerFrame(2);
+        writer.setBitsPerSample(bitsPerSample);
+        for (int i = 0; i < NUM_FRAMES; i++) {
+            writer.write(expectedLeft(i));
+            writer.write(expectedRight(i));
+        }
+        writer.close();
+        return temp;
+    }
+
+    private static double expectedLeft(int frame) {
+        return ((frame % 200) - 100) / 128.0;
+    }
+
+    private static double expectedRight(int frame) {
+        return -expectedLeft(frame) * 0.5;
+    }
+
+    private void checkReadAll(AudioFileReader reader) {
+        double[] buffer = new double[2 * 1000]; // not a multiple of the chunk size
+        int frame = 0;
+        int numRead;
+        do {
+            numRead = reader.read(buffer);
+            for (int i = 0; i < numRead; i += 2) {
+                assertEquals(expectedLeft(frame), buffer[i], 0.0001, "left at " + frame);
+                assertEquals(expectedRight(frame), buffer[i + 1], 0.0001, "right at " + frame);
+                frame++;
+            }
+        } while (numRead == buffer.length);
+        assertEquals(NUM_FRAMES, frame, "frames read");
+        assertEquals(NUM_FRAMES, reader.getFramePosition(), "frame position");
+        assertEquals(0, reader.available(), "nothing left");
+        assertEquals(0, reader.read(buffer), "read at end of file");
+    }
+
+    @Test
+    public void testReadDirect() throws IOException {
+        File file = writeTestFile(16);
+        AudioFileReader reader = new AudioFileReader(file);
+        assertEquals(2, reader.getChannelsPerFrame(), "channels");
+        assertEquals(44100.0, reader.getFrameRate(), "frame rate");
+        assertEquals(NUM_FRAMES, reader.getNumFrames(), "num frames");
+        assertEquals(NUM_FRAMES * 2, reader.available(), "available before reading");
+        checkReadAll(reader);
+        reader.close();
+    }
+
+    @Test
+    public void testReadAhead() throws IOException {
+        File file = writeTestFile(24);
+        AudioFileReader reader = new AudioFileReader(file);
+        reader.startReadAhead(1000); // smaller than the file so the decoder has to wait
+        checkReadAll(reader);
+        reader.close();
+    }
+
+    @Test
+    public void testStreamToFile() throws IOException {
+        File file = writeTestFile(32);
+        File copy = File.createTempFile("test_file_reader_copy", ".wav");
+        copy.deleteOnExit();
+
+        AudioFileReader reader = new AudioFileReader(file);
+        reader.startReadAhead(4096);
+        WaveFileWriter writer = new WaveFileWriter(copy);
+        writer.setFrameRate((int) reader.getFrameRate());
+        writer.setSamplesPerFrame(reader.getChannelsPerFrame());
+        StreamingThread thread = new StreamingThread(reader, writer);
+        thread.setSamplesPerFrame(reader.getChannelsPerFrame());
+        thread.run();
+        reader.close();
+        writer.close();
+
+        FloatSample sample = SampleLoader.loadFloatSample(copy);
+        assertEquals(NUM_FRAMES, sample.getNumFrames(), "frames copied");
+        for (int i = 0; i < NUM_FRAMES; i++) {
+            assertEquals(expectedLeft(i), sample.readDouble(i * 2), 0.0001, "left at " + i);
+        }
+    }
+
+    @Test
+    public void testStreamReaderNonRealTime() throws IOException {
+        File file = writeTestFile(16);
+        SynthesisEngine synth = new SynthesisEngine();
+        synth.setRealTime(false);
+        StreamReader player = new StreamReader(2);
+        synth.add(player);
+        AudioFileReader reader = new AudioFileReader(file);
+        player.setInputStream(reader);
+
+        int frame = 0;
+        for (int block = 0; block < 10; block++) {
+            player.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+            double[] lefts = player.output.getValues(0);
+            double[] rights = player.output.getValues(1);
+            for (int i = 0; i < Synthesizer.FRAMES_PER_BLOCK; i++) {
+                assertEquals(expectedLeft(frame), lefts[i], 0.0001, "left at " + frame);
+                assertEquals(expectedRight(frame), rights[i], 0.0001, "right at " + frame);
+                frame++;
+            }
+        }
+        assertEquals(0, player.getUnderflowCount(), "underflows");
+        reader.close();
+    }
+
+    @Test
+    public void testStreamReaderUnderflow() {
+        SynthesisEngine synth = new SynthesisEngine();
+        synth.setRealTime(true);
+        StreamReader player = new StreamReader(1);
+        synth.add(player);
+        AudioRingBuffer ring = new AudioRingBuffer(64);
+        player.setInputStream(ring);
+        ring.write(new double[] { 0.1, 0.2, 0.3 });
+
+        // Should not block even though a whole block is not available.
+        player.generate(0, Synthesizer.FRAMES_PER_BLOCK);
+        double[] outputs = player.output.getValues(0);
+        assertEquals(0.2, outputs[1], 0.0, "data");
+        assertEquals(0.0, outputs[3], 0.0, "silence");
+        assertEquals(Synthesizer.FRAMES_PER_BLOCK - 3, player.getUnderflowCount(), "underflows");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.util.soundfile.SampleFileHeader;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBulkSampleLoader {
+
+    private File createWaveFile(int numChannels, int numFrames, int bitsPerSample, double offset)
+            throws IOException {
+        File temp = File.createTempFile("test_bulk", ".wav");
+        temp.deleteOnExit();
+        WaveFileWriter writer = new WaveFileWriter(temp);
+        writer.setFrameRate(22050);
+        writer.setSamplesPerFrame(numChannels);
+        writer.setBitsPerSample(bitsPerSample);
+        for (int i = 0; i < numFrames * numChannels; i++) {
+            writer.write(offset + Math.sin(i * 0.01) * 0.5);
+        }
+        writer.close();
+        return temp;
+    }
+
+    private List<File> createWaveFiles(int count) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < count; i++) {
+            // Large enough to need several chunks.
+            files.add(createWaveFile(1 + (i & 1), 40000 + (i * 100), (i % 3 == 0) ? 24 : 16,
+                    i * 0.01));
+        }
+        return files;
+    }
+
+    // Load through the original stream based parser.
+    private FloatSample loadFromStream(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return SampleLoader.loadFloatSample(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private void checkSame(FloatSample expected, FloatSample actual) {
+        assertEquals(expected.getNumFrames(), actual.getNumFrames(), "numFrames");
+        assertEquals(expected.getChannelsPerFrame(), actual.getChannelsPerFrame(), "channels");
+        assertEquals(expected.getFrameRate(), actual.getFrameRate(), "frameRate");
+        int numSamples = expected.getNumFrames() * expected.getChannelsPerFrame();
+        for (int i = 0; i < numSamples; i++) {
+            assertEquals(expected.readDouble(i), actual.readDouble(i), "sample data");
+        }
+    }
+
+    @Test
+    public void testParallelLoad() throws IOException, InterruptedException {
+        List<File> files = createWaveFiles(8);
+        BulkSampleLoader loader = new BulkSampleLoader();
+        List<FloatSample> samples = loader.loadAll(files);
+        assertEquals(files.size(), samples.size(), "one sample per file");
+        for (int i = 0; i < files.size(); i++) {
+            checkSame(loadFromStream(files.get(i)), samples.get(i));
+        }
+    }
+
+    @Test
+    public void testLazyLoad() throws IOException, InterruptedException {
+        List<File> files = createWaveFiles(3);
+        BulkSampleLoader loader = new BulkSampleLoader();
+        loader.setLazy(true);
+        List<BulkSampleLoader.PendingSample> pending = loader.load(files);
+
+        // Header is known before the data is decoded.
+        FloatSample placeholder = pending.get(1).getPlaceholder();
+        assertEquals(2, placeholder.getChannelsPerFrame(), "channels from header");
+        assertEquals(22050.0, placeholder.getFrameRate(), "frameRate from header");
+        assertFalse(pending.get(1).isDone(), "lazy sample not decoded yet");
+        assertEquals(0.0, placeholder.readDouble(200), "placeholder is silent");
+
+        FloatSample sample = pending.get(1).get();
+        assertTrue(pending.get(1).isDone(), "decoded on first use");
+        assertSame(placeholder, sample, "placeholder filled in place");
+        checkSame(loadFromStream(files.get(1)), sample);
+    }
+
+    @Test
+    public void testMappedData() throws IOException {
+        File file = createWaveFile(2, 1000, 24, 0.1);
+        SampleFileHeader header = SampleFileHeader.read(file);
+        assertEquals(24, header.getBitsPerSample(), "bitsPerSample");
+        assertEquals(6, header.getBytesPerFrame(), "bytesPerFrame");
+        assertEquals(ByteOrder.LITTLE_ENDIAN, header.getByteOrder(), "byteOrder");
+        assertEquals(ByteOrder.LITTLE_ENDIAN, header.mapData().order(), "mapped byteOrder");
+        float[] floats = new float[header.getNumFrames() * header.getChannelsPerFrame()];
+        header.decode(header.mapData(), header.getNumFrames(), floats, 0);
+        FloatSample sample = new FloatSample(floats, 2);
+        sample.setFrameRate(header.getFrameRate());
+        checkSame(loadFromStream(file), sample);
+    }
+}
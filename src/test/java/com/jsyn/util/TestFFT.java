@@ -17,8 +17,14 @@
 package com.jsyn.util;
 
 import com.softsynth.math.FourierMath;
+import com.softsynth.math.StagedRealFFT;
+import com.softsynth.math.StagedRealIFFT;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
 
 public class TestFFT {
 
@@ -194,4 +200,142 @@ public class TestFFT {
         checkInverseFftFloat(128, 17);
         checkInverseFftFloat(512, 23);
     }
+
+    private static double[] makeNoise(int size, int seed) {
+        PseudoRandom randomNum = new PseudoRandom(seed);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = randomNum.nextRandomDouble();
+        }
+        return values;
+    }
+
+    @Test
+    public void testRealMatchesComplex() {
+        for (int size = 2; size <= 4096; size *= 2) {
+            double[] signal = makeNoise(size, size);
+            double[] ar = signal.clone();
+            double[] ai = new double[size];
+            FourierMath.fft(size, ar, ai);
+
+            double[] br = new double[(size / 2) + 1];
+            double[] bi = new double[(size / 2) + 1];
+            FourierMath.fftReal(size, signal, br, bi);
+            for (int k = 0; k <= (size / 2); k++) {
+                assertEquals(ar[k], br[k], 1.0e-12, "real, size = " + size + ", bin = " + k);
+                assertEquals(ai[k], bi[k], 1.0e-12, "imag, size = " + size + ", bin = " + k);
+            }
+
+            // Inverse in place, back to the original signal.
+            double[] output = new double[size];
+            System.arraycopy(br, 0, output, 0, br.length);
+            FourierMath.ifftReal(size, output, bi, output);
+            for (int i = 0; i < size; i++) {
+                assertEquals(signal[i], output[i], 1.0e-12, "size = " + size + ", i = " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testRealInverseMatchesComplex() {
+        int size = 256;
+        double[] ar = makeNoise(size, 99);
+        double[] ai = makeNoise(size, 100);
+        // Make the spectrum conjugate symmetric.
+        ai[0] = 0.0;
+        ai[size / 2] = 0.0;
+        for (int k = 1; k < (size / 2); k++) {
+            ar[size - k] = ar[k];
+            ai[size - k] = -ai[k];
+        }
+        double[] br = ar.clone();
+        double[] bi = ai.clone();
+        FourierMath.ifft(size, ar, ai);
+
+        double[] output = new double[size];
+        FourierMath.ifftReal(size, br, bi, output);
+        for (int i = 0; i < size; i++) {
+            assertEquals(ar[i], output[i], 1.0e-12, "i = " + i);
+        }
+    }
+
+    @Test
+    public void testLargeSizes() {
+        checkSingleSineDouble(1 << 17, 1001);
+        checkInverseFftDouble(1 << 18, 12345);
+        checkSingleSineFloat(1 << 17, 77);
+        assertThrows(IllegalArgumentException.class, () -> FourierMath.fft(
+                FourierMath.getMaxSize() * 2, new double[1], new double[1]));
+    }
+
+    @Test
+    public void testConcurrentFirstUse() throws InterruptedException {
+        // Threads grow the shared tables to different sizes at the same time.
+        final int numThreads = 4;
+        final Throwable[] failures = new Throwable[numThreads];
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 20; n++) {
+                        int size = 1 << (4 + ((n + index) % 13));
+                        checkSingleSineDouble(size, 3);
+                        checkSingleSineFloat(size, 5);
+                    }
+                } catch (Throwable e) {
+                    failures[index] = e;
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Throwable failure : failures) {
+            if (failure != null) {
+                throw new AssertionError(failure);
+            }
+        }
+    }
+
+    @Test
+    public void testStagedMatchesDirect() {
+        PseudoRandom randomNum = new PseudoRandom(555);
+        for (int size = 2; size <= 2048; size *= 2) {
+            double[] signal = makeNoise(size, size + 1);
+            double[] ar = signal.clone();
+            double[] ai = new double[size];
+            FourierMath.fft(size, ar, ai);
+
+            StagedRealFFT fft = new StagedRealFFT(size);
+            fft.begin(signal);
+            int numSteps = 0;
+            while (!fft.isDone()) {
+                fft.step(1 + randomNum.choose(20));
+                numSteps++;
+            }
+            assertTrue((numSteps > 1) || (size < 64), "steps for size " + size);
+            for (int k = 0; k < size; k++) {
+                assertEquals(ar[k], fft.getReal()[k], 1.0e-12, "real, size = " + size);
+                assertEquals(ai[k], fft.getImaginary()[k], 1.0e-12, "imag, size = " + size);
+            }
+
+            // Inverse of a spectrum that is not conjugate symmetric.
+            double[] br = makeNoise(size, size + 2);
+            double[] bi = makeNoise(size, size + 3);
+            double[] output = new double[size];
+            StagedRealIFFT ifft = new StagedRealIFFT(size);
+            ifft.begin(br, bi, output);
+            while (!ifft.isDone()) {
+                ifft.step(1 + randomNum.choose(20));
+            }
+            FourierMath.ifft(size, br, bi);
+            for (int i = 0; i < size; i++) {
+                assertEquals(br[i], output[i], 1.0e-12, "size = " + size + ", i = " + i);
+            }
+        }
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.jsyn.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TestFFTAutoCorrelator {
+
+    private static double signal(int i, double period) {
+        double phase = 2.0 * Math.PI * i / period;
+        return (0.5 * Math.sin(phase)) + (0.3 * Math.sin((2.0 * phase) + 0.7))
+                + (0.1 * Math.sin(3.0 * phase));
+    }
+
+    private static int feed(SignalCorrelator correlator, double period, int numSamples) {
+        int numUpdates = 0;
+        for (int i = 0; i < numSamples; i++) {
+            if (correlator.addSample(signal(i, period))) {
+                numUpdates++;
+            }
+        }
+        return numUpdates;
+    }
+
+    @Test
+    public void testPeriods() {
+        double[] periods = {
+                12.5, 20.25, 97.3, 480.7, 1100.0
+        };
+        for (double period : periods) {
+            FFTAutoCorrelator correlator = new FFTAutoCorrelator(2400, 300);
+            int numUpdates = feed(correlator, period, 3 * 2400);
+            assertEquals(((3 * 2400) - 2400) / 300 + 1, numUpdates, "updates");
+            assertEquals(period, correlator.getPeriod(), period * 0.001, "period");
+            assertTrue(correlator.getConfidence() > 0.9, "confidence "
+                    + correlator.getConfidence());
+        }
+    }
+
+    @Test
+    public void testSilence() {
+        FFTAutoCorrelator correlator = new FFTAutoCorrelator(512, 64);
+        for (int i = 0; i < 2048; i++) {
+            correlator.addSample(0.0);
+        }
+        assertEquals(0.0, correlator.getConfidence(), 0.0);
+    }
+
+    @Test
+    public void testMatchesDirectCalculation() {
+        int numFrames = 100;
+        FFTAutoCorrelator correlator = new FFTAutoCorrelator(numFrames, 7);
+        PseudoRandom random = new PseudoRandom(555);
+        double[] samples = new double[numFrames + 35];
+        boolean updated = false;
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = signal(i, 17.3) + (0.2 * random.nextRandomDouble());
+            updated = correlator.addSample(samples[i]);
+        }
+        assertTrue(updated, "should analyze on the last sample");
+
+        // Normalized square difference function of the last numFrames samples.
+        int offset = samples.length - numFrames;
+        float[] diffs = correlator.getDiffs();
+        for (int tau = 0; tau <= numFrames / 2; tau++) {
+            double sumProducts = 0.0;
+            double sumSquares = 0.0;
+            for (int j = 0; j < (numFrames - tau); j++) {
+                double x1 = samples[offset + j];
+                double x2 = samples[offset + j + tau];
+                sumProducts += x1 * x2;
+                sumSquares += (x1 * x1) + (x2 * x2);
+            }
+            assertEquals(2.0 * sumProducts / sumSquares, diffs[tau], 1.0e-5, "tau " + tau);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.jsyn.devices.LoopbackAudioDevice;
+import com.jsyn.engine.SynthesisEngine;
+import org.junit.jupiter.api.Test;
+
+public class TestLatencyMeter {
+    private static final int FRAME_RATE = 48000;
+    // The engine writes one buffer of silence before it starts reading input.
+    private static final int ENGINE_FRAMES_PER_BUFFER = 64;
+
+    private static double[] makeRecording(double[] probe, int delay, double gain, double noise) {
+        PseudoRandom randomNum = new PseudoRandom(1234);
+        double[] recording = new double[probe.length + 10000];
+        for (int i = 0; i < recording.length; i++) {
+            int index = i - delay;
+            double value = (index >= 0 && index < probe.length) ? probe[index] : 0.0;
+            recording[i] = (value * gain) + (noise * randomNum.nextRandomDouble());
+        }
+        return recording;
+    }
+
+    @Test
+    public void testDetect() {
+        double[] probe = LatencyMeter.createChirp(2048, 200.0, 12000.0, FRAME_RATE, 0.5);
+        LatencyMeter.Detection detection = LatencyMeter.detect(
+                makeRecording(probe, 1234, 1.0, 0.0), probe);
+        assertEquals(1234.0, detection.getDelay(), 0.01, "delay");
+        assertEquals(1.0, detection.getConfidence(), 0.001, "confidence");
+    }
+
+    @Test
+    public void testDetectInNoise() {
+        double[] probe = LatencyMeter.createChirp(4096, 200.0, 12000.0, FRAME_RATE, 0.5);
+        // The chirp is quieter than the noise.
+        LatencyMeter.Detection detection = LatencyMeter.detect(
+                makeRecording(probe, 7777, 0.2, 0.5), probe);
+        assertEquals(7777.0, detection.getDelay(), 0.5, "delay");
+        assertTrue(detection.getConfidence() > 0.1, "confidence = " + detection.getConfidence());
+    }
+
+    @Test
+    public void testDetectInverted() {
+        double[] probe = LatencyMeter.createChirp(2048, 200.0, 12000.0, FRAME_RATE, 0.5);
+        LatencyMeter.Detection detection = LatencyMeter.detect(
+                makeRecording(probe, 500, -0.5, 0.0), probe);
+        assertEquals(500.0, detection.getDelay(), 0.01, "delay");
+        assertEquals(-1.0, detection.getConfidence(), 0.001, "confidence");
+    }
+
+    @Test
+    public void testDetectFractionalDelay() {
+        // Evaluate the chirp halfway between frames so it starts half a frame early.
+        int numFrames = 2048;
+        double[] probe = LatencyMeter.createChirp(numFrames, 200.0, 8000.0, FRAME_RATE, 0.5);
+        double[] oversampled = LatencyMeter.createChirp(numFrames * 2, 100.0, 4000.0,
+                FRAME_RATE, 0.5);
+        double[] recording = new double[numFrames + 2000];
+        for (int i = 0; i < numFrames - 1; i++) {
+            recording[1000 + i] = oversampled[(2 * i) + 1];
+        }
+        LatencyMeter.Detection detection = LatencyMeter.detect(recording, probe);
+        assertEquals(999.5, detection.getDelay(), 0.1, "delay");
+    }
+
+    private LatencyMeter.Result measureLoopback(LoopbackAudioDevice device, int numTrials)
+            throws InterruptedException {
+        SynthesisEngine synth = new SynthesisEngine(device);
+        synth.start(FRAME_RATE, LoopbackAudioDevice.INPUT_DEVICE_ID, 2,
+                LoopbackAudioDevice.OUTPUT_DEVICE_ID, 2);
+        try {
+            LatencyMeter meter = new LatencyMeter(synth);
+            meter.setMaxLatency(0.1);
+            return meter.measure(numTrials);
+        } finally {
+            synth.stop();
+        }
+    }
+
+    @Test
+    public void testLoopback() throws InterruptedException {
+        LoopbackAudioDevice device = new LoopbackAudioDevice();
+        device.setDelayFrames(300);
+        LatencyMeter.Result result = measureLoopback(device, 5);
+        System.out.println("Loopback: " + result);
+        assertEquals(5, result.getNumDetected(), "detected");
+        assertEquals(300 + ENGINE_FRAMES_PER_BUFFER, result.getMeanFrames(), 0.01, "latency");
+        assertEquals(0.0, result.getJitterFrames(), 0.01, "jitter");
+        assertEquals(result.getMeanFrames() / FRAME_RATE, result.getLatency(), 1.0e-9);
+    }
+
+    @Test
+    public void testLoopbackQuietAndNoisy() throws InterruptedException {
+        LoopbackAudioDevice device = new LoopbackAudioDevice();
+        device.setDelayFrames(1000);
+        device.setGain(0.1);
+        device.setNoiseAmplitude(0.01);
+        LatencyMeter.Result result = measureLoopback(device, 3);
+        assertEquals(3, result.getNumDetected(), "detected");
+        assertEquals(1000 + ENGINE_FRAMES_PER_BUFFER, result.getMeanFrames(), 0.5, "latency");
+    }
+
+    @Test
+    public void testNoLoopback() throws InterruptedException {
+        LoopbackAudioDevice device = new LoopbackAudioDevice();
+        device.setGain(0.0);
+        device.setNoiseAmplitude(0.1);
+        LatencyMeter.Result result = measureLoopback(device, 3);
+        assertEquals(3, result.getNumTrials(), "trials");
+        assertEquals(0, result.getNumDetected(), "detected");
+        assertTrue(Double.isNaN(result.getMeanFrames()));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Phil Burk, Mobileer Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jsyn.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.jsyn.data.FloatSample;
+import com.jsyn.engine.SynthesisEngine;
+import com.jsyn.unitgen.LinearRamp;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestWaveRecorder {
+
+    @Test
+    public void testRecordNonRealTime() throws IOException, InterruptedException {
+        File temp = File.createTempFile("test_recorder", ".wav");
+        temp.deleteOnExit();
+
+        SynthesisEngine synth = new SynthesisEngine();
+        synth.setRealTime(false);
+        LinearRamp ramp = new LinearRamp();
+        synth.add(ramp);
+        ramp.input.set(0.5);
+        ramp.current.set(0.5);
+
+        WaveRecorder recorder = new WaveRecorder(synth, temp, 2);
+        ramp.output.connect(0, recorder.getInput(), 0);
+        ramp.output.connect(0, recorder.getInput(), 1);
+        synth.start();
+        recorder.start();
+        synth.sleepFor(1.0);
+        recorder.stop(); // should flush
+        recorder.close();
+        synth.stop();
+
+        assertEquals(0, recorder.getOverflowCount(), "no overflow when not real-time");
+        FloatSample sample = SampleLoader.loadFloatSample(temp);
+        assertEquals(2, sample.getChannelsPerFrame(), "stereo");
+        assertTrue(sample.getNumFrames() > (synth.getFrameRate() * 0.9),
+                "recorded about one second, got " + sample.getNumFrames());
+        int lastFrame = sample.getNumFrames() - 1;
+        assertEquals(0.5, sample.readDouble(lastFrame * 2), 0.001, "last left");
+        assertEquals(0.5, sample.readDouble((lastFrame * 2) + 1), 0.001, "last right");
+    }
+}